@@ -0,0 +1,130 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.compiler.CompilationException;
+import net.sourceforge.processdash.data.compiler.CompiledScript;
+import net.sourceforge.processdash.data.compiler.Compiler;
+import net.sourceforge.processdash.data.compiler.ExecutionException;
+import net.sourceforge.processdash.data.compiler.ExpressionContext;
+import net.sourceforge.processdash.data.compiler.ListStack;
+
+/**
+ * Measures the compilation of data formulas with {@link Compiler}, and the
+ * execution of the resulting {@link CompiledScript}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CompilerBenchmark {
+
+    private static final int NUM_FORMULAS = 1000;
+
+    private String[] formulas;
+
+    private CompiledScript[] scripts;
+
+    private ExpressionContext context;
+
+    private int pos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<String> f = new SyntheticData().formulas(NUM_FORMULAS, 200);
+        formulas = f.toArray(new String[f.size()]);
+        scripts = new CompiledScript[formulas.length];
+        context = new SyntheticContext();
+        for (int i = 0; i < formulas.length; i++) {
+            scripts[i] = Compiler.compile(formulas[i]);
+            // make certain each script can run in our synthetic context
+            run(scripts[i]);
+        }
+    }
+
+    private int next() {
+        if (++pos >= formulas.length)
+            pos = 0;
+        return pos;
+    }
+
+    /** Parse and compile a formula, bypassing the compiler's cache. */
+    @Benchmark
+    public CompiledScript compile() throws CompilationException {
+        return Compiler.compile(Compiler.compileVal(formulas[next()]));
+    }
+
+    /** Look up a formula in the compiler's cache of compiled scripts. */
+    @Benchmark
+    public CompiledScript compileCached() throws CompilationException {
+        return Compiler.compile(formulas[next()]);
+    }
+
+    @Benchmark
+    public Object run() throws ExecutionException {
+        return run(scripts[next()]);
+    }
+
+    private Object run(CompiledScript script) throws ExecutionException {
+        ListStack stack = new ListStack();
+        script.run(stack, context);
+        return stack.pop();
+    }
+
+
+    /** An expression context that returns a stable, name-dependent value
+     * for every data element. */
+    private static class SyntheticContext implements ExpressionContext {
+
+        public SimpleData get(String dataName) {
+            int hash = Math.abs(dataName.hashCode());
+            return (hash % 5 == 0 ? null : new DoubleData(hash % 100));
+        }
+
+        public String resolveName(String dataName) {
+            return "/Project/" + dataName;
+        }
+    }
+
+}
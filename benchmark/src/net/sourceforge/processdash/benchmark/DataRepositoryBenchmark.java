@@ -0,0 +1,166 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.benchmark;
+
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.repository.CompiledFunction;
+import net.sourceforge.processdash.data.repository.DataEvent;
+import net.sourceforge.processdash.data.repository.DataListener;
+import net.sourceforge.processdash.data.repository.DataRepository;
+
+/**
+ * Measures reads and writes of individual values in a populated
+ * {@link DataRepository}, and the cost of delivering change notifications
+ * when a value has many listeners and dependent formulas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class DataRepositoryBenchmark {
+
+    @Param({ "10", "100" })
+    public int numProjects;
+
+    private DataRepository data;
+
+    private String[] names;
+
+    private int pos;
+
+    private double nextValue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new DataRepository();
+        List<String> paths = new SyntheticData().taskPaths(numProjects, 10);
+        new SyntheticData().populateTaskData(data, paths);
+        names = new String[paths.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = paths.get(i) + "/Estimated Time";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.shutDown();
+    }
+
+    private String nextName() {
+        if (++pos >= names.length)
+            pos = 0;
+        return names[pos];
+    }
+
+    @Benchmark
+    public SimpleData getValue() {
+        return data.getSimpleValue(nextName());
+    }
+
+    @Benchmark
+    public void putValue() {
+        data.putValue(nextName(), new DoubleData(++nextValue, true));
+    }
+
+    /**
+     * Change an element that has many dependent formulas, and wait until
+     * every formula has been recalculated and its listener notified.
+     */
+    @Benchmark
+    public int listenerFanOut(FanOut f) {
+        data.putValue(f.watchedName, new DoubleData(++nextValue, true));
+        data.waitForCalculations();
+        return f.notifications.get();
+    }
+
+
+    /** Attaches a number of formulas and listeners to a single element. */
+    @State(Scope.Benchmark)
+    public static class FanOut {
+
+        @Param({ "10", "100", "1000" })
+        public int fanOut;
+
+        String watchedName;
+
+        AtomicInteger notifications;
+
+        @Setup(Level.Trial)
+        public void setUp(DataRepositoryBenchmark b) throws Exception {
+            String prefix = SyntheticData.projectPath(0);
+            watchedName = prefix + "/Watched Value";
+            b.data.putValue(watchedName, new DoubleData(0, true));
+            notifications = new AtomicInteger();
+            DataListener listener = new CountingListener(notifications);
+            for (int i = 0; i < fanOut; i++) {
+                String formulaName = prefix + "/Derived " + i;
+                b.data.putValue(formulaName, new CompiledFunction(
+                        formulaName, "[Watched Value] * " + (i + 1), b.data,
+                        prefix));
+                b.data.addDataListener(formulaName, listener);
+            }
+            b.data.waitForCalculations();
+        }
+    }
+
+    private static class CountingListener implements DataListener {
+
+        private AtomicInteger count;
+
+        CountingListener(AtomicInteger count) {
+            this.count = count;
+        }
+
+        public void dataValueChanged(DataEvent e) {
+            count.incrementAndGet();
+        }
+
+        public void dataValuesChanged(Vector v) {
+            count.addAndGet(v.size());
+        }
+    }
+
+}
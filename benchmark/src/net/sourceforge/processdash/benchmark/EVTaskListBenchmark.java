@@ -0,0 +1,87 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.ev.EVTaskList;
+import net.sourceforge.processdash.hier.DashHierarchy;
+
+/**
+ * Measures {@link EVTaskList#recalc()} for a task list built from a
+ * generated hierarchy of projects, components, and phases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class EVTaskListBenchmark {
+
+    @Param({ "10", "100" })
+    public int numProjects;
+
+    @Param({ "10" })
+    public int componentsPerProject;
+
+    private DataRepository data;
+
+    private EVTaskList taskList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new DataRepository();
+        taskList = new SyntheticData().evTaskList("Benchmark", data,
+            new DashHierarchy(null), numProjects, componentsPerProject);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.shutDown();
+    }
+
+    @Benchmark
+    public double recalc() {
+        taskList.recalc();
+        return taskList.getSchedule().getMetrics().totalPlan();
+    }
+
+}
@@ -0,0 +1,299 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import teamdash.wbs.WBSModel;
+import teamdash.wbs.WBSNode;
+
+import net.sourceforge.processdash.Settings;
+import net.sourceforge.processdash.data.DateData;
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.ev.EVCalculator;
+import net.sourceforge.processdash.ev.EVSchedule;
+import net.sourceforge.processdash.ev.EVTaskList;
+import net.sourceforge.processdash.ev.EVTaskListData;
+import net.sourceforge.processdash.hier.DashHierarchy;
+import net.sourceforge.processdash.hier.PropertyKey;
+import net.sourceforge.processdash.log.time.DashboardTimeLog;
+import net.sourceforge.processdash.log.time.TimeLog;
+import net.sourceforge.processdash.log.time.TimeLogEntry;
+import net.sourceforge.processdash.log.time.TimeLogEntryVO;
+import net.sourceforge.processdash.log.time.TimeLogIteratorFilter;
+import net.sourceforge.processdash.log.time.TimeLogWriter;
+import net.sourceforge.processdash.util.EnumerIterator;
+
+/**
+ * Generates the synthetic datasets used by the benchmark suites.
+ *
+ * All of the data is derived from a seeded {@link Random}, and from a fixed
+ * start date, so a given seed and set of dimensions will always produce the
+ * same dataset.  This allows results from different releases of the
+ * dashboard to be compared with each other.  For the same reason, the
+ * generators in this class should not be altered once they have been used
+ * to publish results; add a new generator instead.
+ */
+public class SyntheticData {
+
+    public static final long DEFAULT_SEED = 4357;
+
+    /** Monday, January 6, 2025, 08:00 UTC */
+    public static final long START_TIME = 1736150400000L;
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private static final String[] PHASES = { "Planning", "Design",
+            "Design Review", "Code", "Code Review", "Compile", "Test",
+            "Postmortem" };
+
+    private static final String[] FORMULA_TEMPLATES = {
+            "[A] + [B] * 2",
+            "([A] - [B]) / [C]",
+            "iff([A] > [B], [A], [B])",
+            "sumFor(\"A\", [C])",
+            "[A] / ([A] + [B] + [C]) * 100",
+            "nvl([A], [B]) + 1",
+            "max([A], [B], [C]) - min([A], [B], [C])",
+            "iff(![Completed], [A] * 1.5, [A])",
+            "nvlz([A], 0) / 60",
+            "[A] && ![B] || [C]" };
+
+    private Random random;
+
+    public SyntheticData() {
+        this(DEFAULT_SEED);
+    }
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+
+    /**
+     * @return the hierarchy paths of the leaf tasks in a set of projects,
+     *     each containing components that are broken down into phases.
+     */
+    public List<String> taskPaths(int numProjects, int componentsPerProject) {
+        List<String> result = new ArrayList<String>();
+        for (int p = 0; p < numProjects; p++)
+            for (int c = 0; c < componentsPerProject; c++)
+                for (String phase : PHASES)
+                    result.add(projectPath(p) + "/" + componentName(c) + "/"
+                            + phase);
+        return result;
+    }
+
+    public static String projectPath(int p) {
+        return "/Project/Project " + p;
+    }
+
+    private static String componentName(int c) {
+        return "Component " + c;
+    }
+
+
+    /**
+     * Generate a time log whose entries are spread across the given tasks,
+     * in chronological order, a few entries per working day.
+     */
+    public List<TimeLogEntry> timeLogEntries(List<String> paths, int count) {
+        List<TimeLogEntry> result = new ArrayList<TimeLogEntry>(count);
+        long time = START_TIME;
+        for (int i = 0; i < count; i++) {
+            String path = paths.get(random.nextInt(paths.size()));
+            long elapsed = 5 + random.nextInt(120);
+            long interrupt = (random.nextInt(4) == 0 ? random.nextInt(15) : 0);
+            String comment = (random.nextInt(5) == 0 ? "Comment " + i : null);
+            result.add(new TimeLogEntryVO(i + 1, path, new Date(time),
+                    elapsed, interrupt, comment));
+            time += (elapsed + interrupt) * MINUTE
+                    + random.nextInt(60) * MINUTE;
+        }
+        return result;
+    }
+
+    /** @return a time log containing the given entries */
+    public static TimeLog timeLog(final List<TimeLogEntry> entries) {
+        return new TimeLog() {
+            public EnumerIterator filter(String path, Date from, Date to) {
+                return new TimeLogIteratorFilter(entries.iterator(), path,
+                        from, to);
+            }
+        };
+    }
+
+    /** @return the given entries, in the XML format of a time log file */
+    public static byte[] timeLogXml(List<TimeLogEntry> entries)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimeLogWriter.write(out, entries.iterator());
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Generate a list of formulas, drawn from a set of templates that
+     * exercise arithmetic, logic, and function calls, with randomly chosen
+     * data names substituted into each.
+     */
+    public List<String> formulas(int count, int numDataNames) {
+        List<String> result = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            String f = FORMULA_TEMPLATES[random
+                    .nextInt(FORMULA_TEMPLATES.length)];
+            f = f.replace("[A]", "[" + dataName(numDataNames) + "]");
+            f = f.replace("[B]", "[" + dataName(numDataNames) + "]");
+            f = f.replace("[C]", "[" + dataName(numDataNames) + "]");
+            result.add(f);
+        }
+        return result;
+    }
+
+    private String dataName(int numDataNames) {
+        return "Value " + random.nextInt(numDataNames);
+    }
+
+
+    /**
+     * Store numeric values for each of the given tasks in a repository,
+     * using the data names the dashboard records for each phase.
+     */
+    public void populateTaskData(DataRepository data, List<String> paths) {
+        data.startInconsistency();
+        try {
+            for (String path : paths) {
+                int estimate = 10 + random.nextInt(600);
+                data.putValue(path + "/Estimated Time", new DoubleData(
+                        estimate, true));
+                if (random.nextInt(3) > 0) {
+                    data.putValue(path + "/Time", new DoubleData(estimate
+                            * (0.5 + random.nextDouble()), false));
+                    data.putValue(path + "/Defects Injected",
+                        new DoubleData(random.nextInt(5), false));
+                }
+            }
+        } finally {
+            data.finishInconsistency();
+        }
+    }
+
+
+    /**
+     * Build a hierarchy of projects, components, and phases, record plan
+     * and actual time for each phase, and create a task list containing
+     * every project.  A generated time log for the phases is installed as
+     * the {@link DashboardTimeLog#getDefault() default time log}.
+     *
+     * @param data an empty data repository to populate
+     * @param hierarchy an empty hierarchy to populate
+     * @return the task list
+     */
+    public EVTaskListData evTaskList(String taskListName, DataRepository data,
+            DashHierarchy hierarchy, int numProjects, int componentsPerProject) {
+        PropertyKey parent = PropertyKey.ROOT;
+        hierarchy.addChildKey(parent, "Project", 0);
+        parent = hierarchy.getChildKey(parent, 0);
+
+        List<String> paths = new ArrayList<String>();
+        data.startInconsistency();
+        for (int p = 0; p < numProjects; p++) {
+            hierarchy.addChildKey(parent, "Project " + p, p);
+            PropertyKey project = hierarchy.getChildKey(parent, p);
+            for (int c = 0; c < componentsPerProject; c++) {
+                hierarchy.addChildKey(project, componentName(c), c);
+                PropertyKey component = hierarchy.getChildKey(project, c);
+                for (int i = 0; i < PHASES.length; i++) {
+                    hierarchy.addChildKey(component, PHASES[i], i);
+                    String path = component.path() + "/" + PHASES[i];
+                    paths.add(path);
+                    double plan = 10 + random.nextInt(600);
+                    data.putValue(path + "/Estimated Time",
+                        new DoubleData(plan, true));
+                    if (random.nextInt(2) == 0) {
+                        data.putValue(path + "/Time", new DoubleData(plan
+                                * (0.5 + random.nextDouble()), false));
+                        data.putValue(path + "/Completed", new DateData(
+                                new Date(START_TIME + random.nextInt(300)
+                                        * DAY), true));
+                    }
+                }
+            }
+            data.putValue(projectPath(p) + "/"
+                    + EVTaskListData.TASK_ORDINAL_PREFIX + taskListName,
+                new DoubleData(p, false));
+        }
+
+        EVSchedule schedule = new EVSchedule(new Date(START_TIME), new Date(
+                START_TIME + 7 * DAY), 20 * 60);
+        data.putValue(EVTaskList.MAIN_DATA_PREFIX + taskListName + "/"
+                + EVTaskListData.EST_HOURS_DATA_NAME, schedule.getSaveList());
+        data.finishInconsistency();
+
+        // the EV calculator reads actual times from the dashboard time log
+        DashboardTimeLog.setDefault(timeLog(timeLogEntries(paths,
+            paths.size() * 2)));
+
+        // calculate forecasts as of a fixed date, rather than today
+        System.setProperty(Settings.SYS_PROP_PREFIX
+                + EVCalculator.FIXED_EFFECTIVE_DATE_SETTING,
+            Long.toString(START_TIME + 365 * DAY));
+
+        return new EVTaskListData(taskListName, data, hierarchy, false);
+    }
+
+
+    /**
+     * Build a team WBS containing a set of components, each broken down
+     * into a number of tasks, with time estimates on each task.
+     */
+    public WBSModel wbsModel(int numComponents, int tasksPerComponent) {
+        WBSModel model = new WBSModel("Benchmark Project", false);
+        model.getRoot().setUniqueID(1);
+        List<WBSNode> nodes = new ArrayList<WBSNode>();
+        for (int c = 0; c < numComponents; c++) {
+            nodes.add(new WBSNode(model, componentName(c), "Component", 1,
+                    true));
+            for (int t = 0; t < tasksPerComponent; t++) {
+                WBSNode task = new WBSNode(model, "Task " + t,
+                        "PSP Task", 2, true);
+                task.setNumericAttribute("Time (Top Down)",
+                    1 + random.nextInt(40));
+                nodes.add(task);
+            }
+        }
+        model.insertNodes(nodes, model.getRowCount());
+        return model;
+    }
+
+}
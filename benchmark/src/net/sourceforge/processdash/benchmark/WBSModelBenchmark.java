@@ -0,0 +1,158 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import teamdash.wbs.WBSFilter;
+import teamdash.wbs.WBSModel;
+import teamdash.wbs.WBSNode;
+
+/**
+ * Measures common structural edits to a team {@link WBSModel}.
+ *
+ * Each benchmark performs an edit and then reverses it, so the model has
+ * the same shape at the start of every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class WBSModelBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int numNodes;
+
+    @Param({ "24" })
+    public int tasksPerComponent;
+
+    private WBSModel model;
+
+    private int numComponents;
+
+    private WBSNode middleComponent;
+
+    private List<WBSNode> newNodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        numComponents = Math.max(2, numNodes / (tasksPerComponent + 1));
+        model = new SyntheticData().wbsModel(numComponents, tasksPerComponent);
+        middleComponent = model.getChildren(model.getRoot())[numComponents / 2];
+        newNodes = new ArrayList<WBSNode>();
+        for (int i = 0; i < 10; i++)
+            newNodes.add(new WBSNode(model, "New Task " + i, "PSP Task", 2,
+                    false));
+    }
+
+    /** Insert a block of tasks in the middle of the WBS, then delete them. */
+    @Benchmark
+    public int insertAndDeleteNodes() {
+        int row = model.getRowForNode(middleComponent) + 1;
+        model.insertNodes(newNodes, row);
+        model.deleteNodes(newNodes);
+        return model.size();
+    }
+
+    /** Indent a component (and its tasks) under its sibling, then restore. */
+    @Benchmark
+    public int indentAndOutdentNodes() {
+        int[] rows = new int[] { model.getRowForNode(middleComponent) };
+        rows = model.indentNodes(rows, 1);
+        model.indentNodes(rows, -1);
+        return rows.length;
+    }
+
+    /** Move a component above its sibling, then move it back down. */
+    @Benchmark
+    public int moveNodeUpAndDown() {
+        model.moveNodeUp(middleComponent);
+        int[] rows = model.moveNodeDown(middleComponent);
+        return rows.length;
+    }
+
+    /** Append a task to the end of the WBS.  The appended tasks are
+     * removed after each iteration. */
+    @Benchmark
+    public int add(AppendState state) {
+        WBSNode node = new WBSNode(model, "Appended Task", "PSP Task", 2,
+                true);
+        model.add(node);
+        state.appendedNodes.add(node);
+        return model.size();
+    }
+
+    @State(Scope.Thread)
+    public static class AppendState {
+
+        List<WBSNode> appendedNodes = new ArrayList<WBSNode>();
+
+        @TearDown(Level.Iteration)
+        public void removeAppendedNodes(WBSModelBenchmark b) {
+            b.model.deleteNodes(appendedNodes);
+            appendedNodes.clear();
+        }
+    }
+
+    /** Filter the WBS to show a single task name, then clear the filter. */
+    @Benchmark
+    public int filterRows() {
+        model.filterRows(false, true, null, TASK_FILTER);
+        int rowCount = model.getRowCount();
+        model.filterRows(false, true, null);
+        return rowCount;
+    }
+
+    private static final WBSFilter TASK_FILTER = new WBSFilter() {
+        public boolean match(WBSNode node) {
+            return "Task 3".equals(node.getName());
+        }
+    };
+
+    @Benchmark
+    public int getDescendants() {
+        return model.getDescendants(model.getRoot()).length
+                + model.getDescendants(middleComponent).length;
+    }
+
+}
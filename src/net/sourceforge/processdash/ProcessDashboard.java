@@ -523,7 +523,14 @@ public class ProcessDashboard extends JFrame implements WindowListener,
 
         // possibly reload cached data definitions.
         File serializedDefinitions = new File(property_directory, "defns.ser");
-        if (serializedDefinitions.exists() &&
+        File definitionsSnapshot = new File(property_directory,
+                DataRepository.DEFINITIONS_SNAPSHOT_FILENAME);
+        boolean useDefinitionsSnapshot = Settings.getBool(
+            "definitionsSnapshot.enabled", false);
+        if (useDefinitionsSnapshot) {
+            if (data.loadDefinitionsSnapshot(definitionsSnapshot))
+                pt.click("Loaded definitions snapshot");
+        } else if (serializedDefinitions.exists() &&
             (serializedDefinitions.lastModified() >
              TemplateLoader.getTemplateTimestamp()))
             try {
@@ -586,7 +593,10 @@ public class ProcessDashboard extends JFrame implements WindowListener,
         ExportManager.init(data, this);
         pt.click("Initialized export manager");
         try {
-            data.maybeSaveDefinitions(serializedDefinitions);
+            if (useDefinitionsSnapshot)
+                data.maybeSaveDefinitionsSnapshot(definitionsSnapshot);
+            else
+                data.maybeSaveDefinitions(serializedDefinitions);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,90 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.data.compiler;
+
+import java.util.NoSuchElementException;
+
+/** A {@link Stack} backed by arrays, which avoids the per-entry allocation
+ * of {@link ListStack}.
+ */
+public class ArrayStack implements Stack {
+    private Object[] values;
+    private Object[] descriptors;
+    private int size;
+
+    public ArrayStack() {
+        this(8);
+    }
+
+    public ArrayStack(int initialCapacity) {
+        values = new Object[Math.max(1, initialCapacity)];
+        descriptors = new Object[values.length];
+        size = 0;
+    }
+
+    public Object pop() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        size--;
+        Object result = values[size];
+        values[size] = descriptors[size] = null;
+        return result;
+    }
+    public Object push(Object o) {
+        return push(o, null);
+    }
+    public Object push(Object o, Object d) {
+        if (size == values.length)
+            grow();
+        values[size] = o;
+        descriptors[size] = d;
+        size++;
+        return o;
+    }
+    private void grow() {
+        int newCapacity = values.length * 2;
+        Object[] newValues = new Object[newCapacity];
+        Object[] newDescriptors = new Object[newCapacity];
+        System.arraycopy(values, 0, newValues, 0, size);
+        System.arraycopy(descriptors, 0, newDescriptors, 0, size);
+        values = newValues;
+        descriptors = newDescriptors;
+    }
+    public void clear() {
+        while (size > 0) {
+            size--;
+            values[size] = descriptors[size] = null;
+        }
+    }
+    public boolean empty()         { return size == 0;              }
+    public Object peek()           { return values[top()];          }
+    public Object peekDescriptor() { return descriptors[top()];     }
+
+    private int top() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return size - 1;
+    }
+}
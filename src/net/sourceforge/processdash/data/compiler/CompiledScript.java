@@ -38,6 +38,7 @@ public class CompiledScript implements Serializable {
     private String saveString = null;
     private List instructions = new ArrayList();
     private boolean committed = false;
+    private transient volatile Object evaluatorTree = null;
 
     CompiledScript() {}
 
@@ -61,6 +62,16 @@ public class CompiledScript implements Serializable {
     {
         if (!committed) throw new IllegalStateException();
 
+        if (EvaluatorTree.isEnabled() && runEvaluatorTree(stack, context))
+            return;
+
+        interpret(stack, context);
+    }
+
+    /** Run this script by interpreting its list of instructions. */
+    void interpret(Stack stack, ExpressionContext context)
+        throws ExecutionException
+    {
         synchronized (stack) {
             synchronized (context) {
                 Iterator iter = instructions.iterator();
@@ -73,6 +84,31 @@ public class CompiledScript implements Serializable {
         }
     }
 
+    /** Run this script using an {@link EvaluatorTree}.
+     * 
+     * @return false if this script could not be converted into an evaluator
+     *    tree, and must be interpreted instead.
+     */
+    boolean runEvaluatorTree(Stack stack, ExpressionContext context)
+        throws ExecutionException
+    {
+        Object tree = evaluatorTree;
+        if (tree == null) {
+            tree = EvaluatorTree.build(instructions);
+            if (tree == null)
+                tree = NO_EVALUATOR_TREE;
+            evaluatorTree = tree;
+        }
+        if (tree == NO_EVALUATOR_TREE)
+            return false;
+
+        synchronized (context) {
+            ((EvaluatorTree.Node) tree).push(stack, context);
+        }
+        return true;
+    }
+    private static final Object NO_EVALUATOR_TREE = new Object();
+
     public SimpleData getConstant() throws IllegalStateException {
         if (!committed) throw new IllegalStateException();
 
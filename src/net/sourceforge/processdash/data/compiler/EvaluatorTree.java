@@ -0,0 +1,359 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.data.compiler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sourceforge.processdash.Settings;
+import net.sourceforge.processdash.data.ImmutableDoubleData;
+import net.sourceforge.processdash.data.NumberData;
+import net.sourceforge.processdash.data.SimpleData;
+
+
+/** An alternative execution backend for {@link CompiledScript}s.
+ * 
+ * Rather than interpreting the postfix instruction list against a stack,
+ * this class converts the instructions into a tree of evaluator nodes.
+ * Subexpressions involving only constants are folded when the tree is
+ * built, and chains of arithmetic operators pass primitive doubles to
+ * each other instead of allocating intermediate data objects.
+ * 
+ * The evaluator tree produces exactly the same values (and descriptors) as
+ * the instruction interpreter.  It is enabled with the
+ * "dataCompiler.evaluatorTree" setting, so the two can be compared.
+ */
+class EvaluatorTree {
+
+    static final String SETTING = "dataCompiler.evaluatorTree";
+
+    private static final boolean ENABLED = Settings.getBool(SETTING, false);
+
+    private EvaluatorTree() {}
+
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+
+    /** Build an evaluator tree for a list of instructions.
+     * 
+     * @return the root of the tree, or null if the instructions do not
+     *    describe a single well-formed expression.
+     */
+    static Node build(List instructions) {
+        List<Node> stack = new ArrayList<Node>();
+        for (Iterator i = instructions.iterator(); i.hasNext();) {
+            Instruction instr = (Instruction) i.next();
+            Node node;
+
+            if (instr instanceof PushConstant) {
+                node = new ConstantNode(((PushConstant) instr).getConstant());
+
+            } else if (instr instanceof PushVariable) {
+                node = new VariableNode(((PushVariable) instr).getDataName());
+
+            } else if (instr instanceof PushObject) {
+                node = new ConstantNode(((PushObject) instr).getObject());
+
+            } else if (instr == FunctionCall.PUSH_STACK_MARKER) {
+                node = STACK_MARKER;
+
+            } else if (instr instanceof FunctionCall) {
+                List<Node> args = new ArrayList<Node>();
+                while (true) {
+                    if (stack.isEmpty())
+                        return null;
+                    Node arg = stack.remove(stack.size() - 1);
+                    if (arg == STACK_MARKER)
+                        break;
+                    args.add(0, arg);
+                }
+                node = new FunctionNode((FunctionCall) instr, args);
+
+            } else if (instr instanceof BinaryOperator) {
+                Node right = pop(stack);
+                Node left = pop(stack);
+                if (left == null || right == null)
+                    return null;
+                if (instr instanceof BinaryMathOperator)
+                    node = new MathNode((BinaryMathOperator) instr, left,
+                            right);
+                else
+                    node = new BinaryNode((BinaryOperator) instr, left, right);
+                if (isFoldable(instr))
+                    node = fold(node, left, right);
+
+            } else if (instr instanceof UnaryOperator) {
+                Node operand = pop(stack);
+                if (operand == null)
+                    return null;
+                node = new UnaryNode((UnaryOperator) instr, operand);
+                if (instr == LogicOperators.NOT)
+                    node = fold(node, operand, operand);
+
+            } else {
+                // an instruction we don't know how to translate.
+                return null;
+            }
+
+            stack.add(node);
+        }
+
+        if (stack.size() != 1 || stack.get(0) == STACK_MARKER)
+            return null;
+        else
+            return stack.get(0);
+    }
+
+    private static Node pop(List<Node> stack) {
+        if (stack.isEmpty())
+            return null;
+        Node result = stack.remove(stack.size() - 1);
+        return (result == STACK_MARKER ? null : result);
+    }
+
+    /** Operators whose results depend only on their operands, and which
+     * return values that can safely be shared. */
+    private static boolean isFoldable(Instruction instr) {
+        return instr instanceof BinaryMathOperator
+                || instr instanceof BinaryLogicOperator
+                || instr instanceof BinaryRelationalOperator;
+    }
+
+    private static Node fold(Node node, Node left, Node right) {
+        if (left instanceof ConstantNode && right instanceof ConstantNode) {
+            try {
+                return new ConstantNode(node.eval(null));
+            } catch (Exception e) {
+                // if the expression can't be evaluated, leave it alone so
+                // the error will be reported when the script is run.
+            }
+        }
+        return node;
+    }
+
+
+    private static final Node STACK_MARKER = new ConstantNode(null);
+
+
+    /** A node in an evaluator tree. */
+    static abstract class Node {
+
+        /** Evaluate this node and return its value. */
+        abstract Object eval(ExpressionContext context)
+                throws ExecutionException;
+
+        /** Evaluate this node as an operand of an arithmetic operator.
+         * 
+         * @return the numeric value of this node, or NaN if it does not
+         *    have a numeric value
+         */
+        double evalDouble(ExpressionContext context)
+                throws ExecutionException {
+            Object value = eval(context);
+            if (value instanceof NumberData)
+                return ((NumberData) value).getDouble();
+            else if (value == null || value instanceof SimpleData)
+                return Double.NaN;
+            else
+                throw new ExecutionException("ClassCastException");
+        }
+
+        /** Evaluate this node, and push its value and descriptor onto the
+         * stack.  This is only used for the root of the tree. */
+        void push(Stack stack, ExpressionContext context)
+                throws ExecutionException {
+            stack.push(eval(context));
+        }
+    }
+
+
+    private static class ConstantNode extends Node {
+        private Object value;
+        private double doubleValue;
+
+        ConstantNode(Object value) {
+            this.value = value;
+            if (value instanceof NumberData)
+                doubleValue = ((NumberData) value).getDouble();
+            else
+                doubleValue = Double.NaN;
+        }
+
+        Object eval(ExpressionContext context) {
+            return value;
+        }
+
+        double evalDouble(ExpressionContext context)
+                throws ExecutionException {
+            if (value == null || value instanceof SimpleData)
+                return doubleValue;
+            else
+                throw new ExecutionException("ClassCastException");
+        }
+    }
+
+
+    private static class VariableNode extends Node {
+        private String dataName;
+
+        VariableNode(String dataName) {
+            this.dataName = dataName;
+        }
+
+        Object eval(ExpressionContext context) {
+            return context.get(dataName);
+        }
+
+        void push(Stack stack, ExpressionContext context) {
+            stack.push(context.get(dataName), context.resolveName(dataName));
+        }
+    }
+
+
+    private static class FunctionNode extends Node {
+        private FunctionCall call;
+        private Function function;
+        private Node[] args;
+
+        FunctionNode(FunctionCall call, List<Node> args) {
+            this.call = call;
+            this.function = call.getFunction();
+            this.args = args.toArray(new Node[args.size()]);
+        }
+
+        private Object call(ExpressionContext context)
+                throws ExecutionException {
+            if (function == null)
+                throw new ExecutionException("No definition for function "
+                        + call);
+            List arguments = new ArrayList(args.length);
+            for (int i = 0; i < args.length; i++)
+                arguments.add(args[i].eval(context));
+            return function.call(arguments, context);
+        }
+
+        Object eval(ExpressionContext context) throws ExecutionException {
+            Object result = call(context);
+            if (result instanceof Function.DescribedValue)
+                return ((Function.DescribedValue) result).getValue();
+            else
+                return result;
+        }
+
+        void push(Stack stack, ExpressionContext context)
+                throws ExecutionException {
+            Object result = call(context);
+            if (result instanceof Function.DescribedValue)
+                stack.push(((Function.DescribedValue) result).getValue(),
+                           ((Function.DescribedValue) result).getDescriptor());
+            else
+                stack.push(result);
+        }
+    }
+
+
+    private static class BinaryNode extends Node {
+        private BinaryOperator op;
+        private Node left, right;
+
+        BinaryNode(BinaryOperator op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        Object eval(ExpressionContext context) throws ExecutionException {
+            Object l = left.eval(context);
+            Object r = right.eval(context);
+            try {
+                return op.operate((SimpleData) l, (SimpleData) r);
+            } catch (ClassCastException cce) {
+                throw new ExecutionException("ClassCastException");
+            }
+        }
+    }
+
+
+    /** A node for arithmetic operators.  This follows the same rules as
+     * {@link BinaryMathOperator}, but works with primitive doubles:
+     * NaN represents a bad value, and infinity represents a divide by
+     * zero error.
+     */
+    private static class MathNode extends Node {
+        private BinaryMathOperator op;
+        private Node left, right;
+
+        MathNode(BinaryMathOperator op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        double evalDouble(ExpressionContext context)
+                throws ExecutionException {
+            double l = left.evalDouble(context);
+            double r = right.evalDouble(context);
+            if (Double.isNaN(l) || Double.isNaN(r))
+                return Double.NaN;
+            if (Double.isInfinite(l) || Double.isInfinite(r))
+                return Double.POSITIVE_INFINITY;
+            return op.calc(l, r);
+        }
+
+        Object eval(ExpressionContext context) throws ExecutionException {
+            double result = evalDouble(context);
+            if (Double.isNaN(result))
+                return ImmutableDoubleData.BAD_VALUE;
+            else if (result == Double.POSITIVE_INFINITY)
+                return ImmutableDoubleData.DIVIDE_BY_ZERO;
+            else
+                return new ImmutableDoubleData(result, false, true);
+        }
+    }
+
+
+    private static class UnaryNode extends Node {
+        private UnaryOperator op;
+        private Node operand;
+
+        UnaryNode(UnaryOperator op, Node operand) {
+            this.op = op;
+            this.operand = operand;
+        }
+
+        Object eval(ExpressionContext context) throws ExecutionException {
+            Object value = operand.eval(context);
+            try {
+                return op.operate((SimpleData) value);
+            } catch (ClassCastException cce) {
+                throw new ExecutionException("ClassCastException");
+            }
+        }
+    }
+
+}
@@ -129,5 +129,7 @@ class FunctionCall implements Instruction {
             stack.push(result);
     }
 
+    Function getFunction() { return f; }
+
     public String toString() { return functionName; }
 }
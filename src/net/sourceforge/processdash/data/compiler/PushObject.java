@@ -35,6 +35,10 @@ class PushObject implements Instruction {
         stack.push(value);
     }
 
+    Object getObject() {
+        return value;
+    }
+
     public String toString() {
         return "push " + (value == null ? "null" : value.toString());
     }
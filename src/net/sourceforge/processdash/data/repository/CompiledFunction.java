@@ -33,10 +33,10 @@ import net.sourceforge.processdash.data.ImmutableStringData;
 import net.sourceforge.processdash.data.MalformedValueException;
 import net.sourceforge.processdash.data.SaveableData;
 import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.compiler.ArrayStack;
 import net.sourceforge.processdash.data.compiler.CompiledScript;
 import net.sourceforge.processdash.data.compiler.Compiler;
 import net.sourceforge.processdash.data.compiler.ExecutionException;
-import net.sourceforge.processdash.data.compiler.ListStack;
 import net.sourceforge.processdash.util.LightweightSet;
 import net.sourceforge.processdash.util.LightweightSynchronizedSet;
 
@@ -125,7 +125,7 @@ public class CompiledFunction implements SaveableData, AliasedData,
         while (retryCount-- > 0 && extChanges.isDirty()) {
             context = new SubscribingExpressionContext(data, prefix, this,
                     name, currentSubscriptions);
-            ListStack stack = new ListStack();
+            ArrayStack stack = new ArrayStack();
             int changeCount = -1;
 
             try {
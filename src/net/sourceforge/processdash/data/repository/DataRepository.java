@@ -72,10 +72,16 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
 import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.zip.CRC32;
 
 import net.sourceforge.processdash.InternalSettings;
 import net.sourceforge.processdash.Settings;
@@ -90,12 +96,12 @@ import net.sourceforge.processdash.data.SimpleData;
 import net.sourceforge.processdash.data.StringData;
 import net.sourceforge.processdash.data.TagData;
 import net.sourceforge.processdash.data.ValueFactory;
+import net.sourceforge.processdash.data.compiler.ArrayStack;
 import net.sourceforge.processdash.data.compiler.CompilationException;
 import net.sourceforge.processdash.data.compiler.CompiledScript;
 import net.sourceforge.processdash.data.compiler.Compiler;
 import net.sourceforge.processdash.data.compiler.ExecutionException;
 import net.sourceforge.processdash.data.compiler.ExpressionContext;
-import net.sourceforge.processdash.data.compiler.ListStack;
 import net.sourceforge.processdash.data.compiler.analysis.DepthFirstAdapter;
 import net.sourceforge.processdash.data.compiler.lexer.Lexer;
 import net.sourceforge.processdash.data.compiler.lexer.LexerException;
@@ -132,9 +138,13 @@ public class DataRepository implements Repository, DataContext,
 
     public static final String anonymousPrefix = "///Anonymous";
 
-    /** a mapping of data names (Strings) to data values (DataElements) */
-    Hashtable<String, DataElement> data = new Hashtable(8000);
-//    HashTree data = new HashTree(8000);
+    /** a mapping of data names (Strings) to data values (DataElements).
+     * 
+     * Lookups in this map do not block, and iteration over its keys is
+     * weakly consistent; so clients that walk the keys must be prepared
+     * for elements to appear or disappear while they are iterating. */
+    ConcurrentMap<String, DataElement> data =
+        new ConcurrentHashMap<String, DataElement>(8000);
 
     /** a backwards mapping of the above hashtable for data values that happen
      *  to be DataListeners.  key is a DataListener, value is a String. */
@@ -200,6 +210,15 @@ public class DataRepository implements Repository, DataContext,
         boolean isImported = false;
         volatile int dirtyCount;
 
+        /** The data elements that will be saved to this datafile.
+         * 
+         * This index is maintained by {@link DataElement#setDatafile}, so
+         * saving or closing a datafile only needs to visit the elements it
+         * owns, rather than scanning every element in the repository.
+         */
+        private Set<DataElement> elements = Collections
+                .synchronizedSet(new HashSet<DataElement>());
+
         public DataFile(String prefix, File file) {
             this.prefix = prefix;
             this.file = file;
@@ -217,6 +236,13 @@ public class DataRepository implements Repository, DataContext,
             DataFile that = (DataFile) o;
             return that.prefix.length() - this.prefix.length();
         }
+
+        /** Return a snapshot of the elements currently owned by this file. */
+        List<DataElement> getElements() {
+            synchronized (elements) {
+                return new ArrayList<DataElement>(elements);
+            }
+        }
     }
 
 
@@ -289,6 +315,30 @@ public class DataRepository implements Repository, DataContext,
             return isDefaultName;
         }
 
+        /** Change the datafile that owns this element, updating the element
+         * indexes maintained by the old and new datafiles.
+         */
+        void setDatafile(DataFile f) {
+            DataFile old = datafile;
+            if (old != f) {
+                if (old != null)
+                    old.elements.remove(this);
+                datafile = f;
+                if (f != null)
+                    f.elements.add(this);
+            }
+        }
+
+        /** Remove this element from the index of its datafile, without
+         * changing the datafile it is associated with.  This is used when
+         * the element is being discarded from the repository.
+         */
+        void discardFromDatafileIndex() {
+            DataFile f = datafile;
+            if (f != null)
+                f.elements.remove(this);
+        }
+
         public synchronized SaveableData getValue() {
             return value;
         }
@@ -421,19 +471,62 @@ public class DataRepository implements Repository, DataContext,
         /** a list of misbehaved data which appears to be circularly defined. */
         Set circularData;
 
-        private volatile boolean suspended = false;
+        /** A queue of the listeners that have pending notifications, in the
+         * order they became pending.  A listener is added to this queue when
+         * a new entry is created for it in the <code>notifications</code>
+         * table; further changes are coalesced into that entry until the
+         * listener has been notified.  Entries in this queue can be stale
+         * (if a listener was notified as a dependency of some other
+         * listener), in which case they are simply skipped. */
+        BlockingQueue<DataListener> readyListeners;
+
+        /** Additional threads which help this thread deliver events to
+         * independent listeners. */
+        List<Thread> helpers;
+
+        /** The listeners that are currently receiving events, mapped to
+         * the thread that is delivering them. */
+        Map<DataListener, Thread> deliveringListeners;
+
+        /** Listeners whose pending events are waiting for another thread to
+         * finish handling some listener, keyed by that listener.  Guarded by
+         * the lock on deliveringListeners. */
+        Map<DataListener, List<DataListener>> deferredListeners;
+
+        /** An object used to signal threads waiting in flush() */
+        private final Object consistencyLock = new Object();
 
         private volatile boolean running = true;
 
+        // statistics about the notifications we have delivered.
+        private long inconsistentSince = -1;
+        private long lastTimeToConsistency = 0;
+        private long eventCount = 0;
+        private long elementCount = 0;
+        private int maxBatchSize = 0;
+
         public DataNotifier() {
             super("DataNotifier");
             notifications = new Hashtable();
             activeListeners = new Hashtable();
             patternedListeners = new ArrayList();
             circularData = Collections.synchronizedSet(new HashSet());
+            readyListeners = new LinkedBlockingQueue<DataListener>();
+            helpers = new ArrayList<Thread>();
+            deliveringListeners = new HashMap<DataListener, Thread>();
+            deferredListeners = new HashMap<DataListener, List<DataListener>>();
             setPriority(MIN_PRIORITY);
             setDaemon(true);
             start();
+
+            int numThreads = Settings.getInt(NUM_THREADS_SETTING, 2);
+            for (int i = 1; i < numThreads; i++) {
+                Thread t = new Thread(this, "DataNotifier-" + i);
+                t.setPriority(MIN_PRIORITY);
+                t.setDaemon(true);
+                helpers.add(t);
+                t.start();
+            }
         }
 
         void addPatternedListener(PatternList p, DataListener dl) {
@@ -503,7 +596,7 @@ public class DataRepository implements Repository, DataContext,
                 boolean notifyActiveListener = (listenerName != null
                         && activeListeners.put(listenerName, dl) == null);
 
-                getElementsForDataListener(dl).put(name, d);
+                addNotification(dl, name, d);
                 if (notifyActiveListener)
                     dataChanged(listenerName, null);
             } catch (IndexOutOfBoundsException ie) {
@@ -513,18 +606,29 @@ public class DataRepository implements Repository, DataContext,
                 // that is harmless.
             }
 
-            if (suspended) synchronized (this) { notify(); }
         }
 
-        private Hashtable getElementsForDataListener(DataListener dl) {
-            Hashtable elements = null;
+        /** Record the fact that a listener needs to be notified about a
+         * change to a particular element.
+         *
+         * The element is added to the listener's pending list while we hold
+         * the lock on the notifications table.  Since fireEvent() removes
+         * that list from the table under the same lock before delivering it,
+         * a change can never be added to a list that another thread has
+         * already started delivering.
+         */
+        private void addNotification(DataListener dl, String name,
+                DataElement d) {
             synchronized (notifications) {
-                elements = ((Hashtable) notifications.get(dl));
+                Hashtable elements = ((Hashtable) notifications.get(dl));
                 if (elements == null) {
+                    if (inconsistentSince == -1)
+                        inconsistentSince = System.currentTimeMillis();
                     notifications.put(dl, elements = new Hashtable(2));
+                    readyListeners.offer(dl);
                 }
+                elements.put(name, d);
             }
-            return elements;
         }
 
         public void addEvent(String name, DataElement d, DataListener dl) {
@@ -534,7 +638,7 @@ public class DataRepository implements Repository, DataContext,
             if (listenerName != null)
                 activeListeners.put(listenerName, dl);
 
-            getElementsForDataListener(dl).put(name, d);
+            addNotification(dl, name, d);
 
             fireEvent(dl);
         }
@@ -550,6 +654,49 @@ public class DataRepository implements Repository, DataContext,
             String listenerName = (String) activeData.get(dl);
             if (listenerName != null)
                 activeListeners.remove(listenerName);
+            checkConsistency();
+        }
+
+        /** @return true if no notifications are pending or in progress */
+        private boolean isConsistent() {
+            synchronized (deliveringListeners) {
+                if (!deliveringListeners.isEmpty())
+                    return false;
+            }
+            return notifications.isEmpty();
+        }
+
+        /** If no notifications are pending, record statistics and wake up
+         * any threads that are waiting in flush(). */
+        private void checkConsistency() {
+            synchronized (notifications) {
+                if (inconsistentSince == -1 || !isConsistent())
+                    return;
+                lastTimeToConsistency = System.currentTimeMillis()
+                        - inconsistentSince;
+                inconsistentSince = -1;
+            }
+            synchronized (consistencyLock) {
+                consistencyLock.notifyAll();
+            }
+            if (logger.isLoggable(Level.FINE))
+                logger.fine("Data notifications consistent after "
+                        + lastTimeToConsistency + " ms; " + getMetrics());
+        }
+
+        private synchronized void recordBatch(int batchSize) {
+            eventCount++;
+            elementCount += batchSize;
+            maxBatchSize = Math.max(maxBatchSize, batchSize);
+        }
+
+        public synchronized String getMetrics() {
+            return "queueDepth=" + notifications.size() //
+                    + ", events=" + eventCount //
+                    + ", avgBatchSize="
+                    + (eventCount == 0 ? 0 : elementCount / eventCount)
+                    + ", maxBatchSize=" + maxBatchSize //
+                    + ", lastTimeToConsistency=" + lastTimeToConsistency;
         }
 
         /** Send one data listener a data changed event, indicating all of
@@ -566,38 +713,44 @@ public class DataRepository implements Repository, DataContext,
             String listenerName = (String) activeData.get(dl);
             if (listenerName != null && circularData.contains(listenerName)) {
                 notifications.remove(dl);
+                checkConsistency();
                 return;
             }
 
-            synchronized (elements) {
-                if (notifications.get(dl) == null) return;
+            // lock the notifications table (rather than the element list) so
+            // we acquire locks in the same order as addNotification().
+            Thread t;
+            synchronized (notifications) {
+                if (notifications.get(dl) != elements) return;
 
-                Thread t = (Thread) elements.get(CIRCULARITY_TOKEN);
-
-                if (t != null) {
-                    if (t != Thread.currentThread()) {
-                        //System.out.println("waiting for other thread...");
-                        try { elements.wait(1000); } catch (InterruptedException ie) {}
-                        //System.out.println("waiting done.");
-                        return;
-                    } else {
-                        // circular dependencies between active data listeners
-                        // exist. Break the circular dependency and abort.
-                        if (listenerName != null) {
-                            logger.log(Level.WARNING, "Infinite recursion "
-                                      + "encountered while recalculating {0} "
-                                      + "- ABORTING", listenerName);
-                            circularData.add(listenerName);
-                        }
-                        return;
-                    }
-                }
+                t = (Thread) elements.get(CIRCULARITY_TOKEN);
 
                 // record the fact that we are the thread currently handling this
                 // element notification list
-                elements.put(CIRCULARITY_TOKEN, Thread.currentThread());
+                if (t == null)
+                    elements.put(CIRCULARITY_TOKEN, Thread.currentThread());
             }
 
+            if (t != null) {
+                if (t != Thread.currentThread()) {
+                    // another thread is handling this listener, and will
+                    // deliver these events.
+                    return;
+                } else {
+                    // circular dependencies between active data listeners
+                    // exist. Break the circular dependency and abort.
+                    if (listenerName != null) {
+                        logger.log(Level.WARNING, "Infinite recursion "
+                                  + "encountered while recalculating {0} "
+                                  + "- ABORTING", listenerName);
+                        circularData.add(listenerName);
+                    }
+                    return;
+                }
+            }
+
+            DataListener blocker = null;
+            int delivery = DELIVERY_BUSY;
             try {                 // run through the elements to see if any are
                                   // also expected to change, and do those first.
                 for (Iterator i = elements.keySet().iterator(); i.hasNext();) {
@@ -605,8 +758,15 @@ public class DataRepository implements Repository, DataContext,
                     if (name == CIRCULARITY_TOKEN) continue;
                     DataListener activeListener =
                         (DataListener) activeListeners.get(name);
-                    if (activeListener != null)
+                    if (activeListener != null) {
                         fireEvent(activeListener);
+                        // if another thread is still recalculating that
+                        // value, we must not deliver our events yet.
+                        if (isBlocked(activeListener)) {
+                            blocker = activeListener;
+                            break;
+                        }
+                    }
                 }
             } catch (ConcurrentModificationException cme) {
                 // The loop above is designed to optimize the event delivery
@@ -618,28 +778,49 @@ public class DataRepository implements Repository, DataContext,
                 logger.log(Level.FINEST, "Caught cme while optimizing event "
                           + "delivery for {0}", listenerName);
             } finally {
-                Hashtable currentElements;
+                // make certain no other thread is still delivering an earlier
+                // batch of events to this listener, so events arrive in order.
+                if (blocker == null) {
+                    delivery = beginDelivery(dl);
+                    if (delivery == DELIVERY_BUSY)
+                        blocker = dl;
+                }
+            }
+
+            if (blocker != null) {
+                // leave these events pending, and let the thread that is
+                // handling the blocker requeue this listener when it is done.
                 synchronized (notifications) {
-                    currentElements = (Hashtable) notifications.remove(dl);
-                    if (currentElements != elements && currentElements != null) {
-                        // Eeek!  While we've been doing the work above, someone
-                        // changed the notifications map behind our back, and
-                        // replaced the element list with a different one. (I'm
-                        // not sure if this can ever happen, but it doesn't hurt
-                        // to be paranoid.)  Undo the damage.
-                        notifications.put(dl, currentElements);
-                    }
+                    elements.remove(CIRCULARITY_TOKEN);
                 }
-                elements.remove(CIRCULARITY_TOKEN);
-                if (listenerName != null)
-                    activeListeners.remove(listenerName);
-                if (currentElements == null) {
-                    // this is an indication that the data listener in question
-                    // has apparently been deleted in the time since we started
-                    // this method.  We can skip the task of delivering events.
-                    return;
+                deferUntilHandled(dl, blocker);
+                return;
+            }
+
+            boolean delivering = (delivery == DELIVERY_CLAIMED);
+            Hashtable currentElements;
+            synchronized (notifications) {
+                currentElements = (Hashtable) notifications.remove(dl);
+                if (currentElements != elements && currentElements != null) {
+                    // Eeek!  While we've been doing the work above, someone
+                    // changed the notifications map behind our back, and
+                    // replaced the element list with a different one. (I'm
+                    // not sure if this can ever happen, but it doesn't hurt
+                    // to be paranoid.)  Undo the damage.
+                    notifications.put(dl, currentElements);
                 }
             }
+            elements.remove(CIRCULARITY_TOKEN);
+            if (listenerName != null)
+                activeListeners.remove(listenerName);
+            checkConsistency();
+            if (currentElements == null) {
+                // this is an indication that the data listener in question
+                // has apparently been deleted in the time since we started
+                // this method.  We can skip the task of delivering events.
+                endDelivery(dl, delivering);
+                return;
+            }
 
             try {
                 // Now, send the data changed event to this data listener.
@@ -650,6 +831,7 @@ public class DataRepository implements Repository, DataContext,
                     Map.Entry e = (Map.Entry) elements.entrySet().iterator().next();
                     String name = (String) e.getKey();
                     DataElement d = (DataElement) e.getValue();
+                    recordBatch(1);
                     dl.dataValueChanged(d.getDataChangedEvent(name));
                 } else if (elements.size() > 1) {
                     // Build a list of data events to send
@@ -659,8 +841,9 @@ public class DataRepository implements Repository, DataContext,
                         String name = (String) e.getKey();
                         DataElement d = (DataElement) e.getValue();
                         dataEvents.addElement(d.getDataChangedEvent(name));
-                        dl.dataValuesChanged(dataEvents);
                     }
+                    recordBatch(dataEvents.size());
+                    dl.dataValuesChanged(dataEvents);
                 }
             } catch (RemoteException rem) {
                 logger.log(Level.WARNING,
@@ -672,54 +855,218 @@ public class DataRepository implements Repository, DataContext,
                 // due to multithreading, but no harm is done as long as the
                 // exception is caught here.
             } finally {
-                // notify other threads that might have seen our CIRCULARITY
-                // TOKEN and are waiting for us to finish.
-                synchronized (elements) { elements.notifyAll(); }
+                endDelivery(dl, delivering);
+            }
+        }
+
+        /** Try to claim a listener for delivery by the current thread.
+         *
+         * This never waits for another thread.  A delivering thread can
+         * call back into the repository and end up delivering events to a
+         * listener we hold, so waiting here could deadlock.
+         *
+         * @return DELIVERY_CLAIMED if the listener was claimed, and must be
+         *     released by a call to endDelivery; DELIVERY_REENTRANT if this
+         *     thread is already delivering to the listener; or
+         *     DELIVERY_BUSY if another thread is delivering to it.
+         */
+        private int beginDelivery(DataListener dl) {
+            synchronized (deliveringListeners) {
+                Thread t = deliveringListeners.get(dl);
+                if (t == null) {
+                    deliveringListeners.put(dl, Thread.currentThread());
+                    return DELIVERY_CLAIMED;
+                } else if (t == Thread.currentThread()) {
+                    return DELIVERY_REENTRANT;
+                } else {
+                    return DELIVERY_BUSY;
+                }
+            }
+        }
+
+        private void endDelivery(DataListener dl, boolean claimed) {
+            if (claimed) {
+                List<DataListener> waiters;
+                synchronized (deliveringListeners) {
+                    deliveringListeners.remove(dl);
+                    waiters = deferredListeners.remove(dl);
+                }
+                // events that arrived during our delivery were left pending
+                // for us; put the affected listeners back in the queue.
+                // (Stale entries in the queue are harmless.)
+                if (notifications.containsKey(dl))
+                    readyListeners.offer(dl);
+                if (waiters != null)
+                    readyListeners.addAll(waiters);
+                checkConsistency();
+            }
+        }
+
+        /** @return true if a thread other than the current one is handling
+         *     events for the given listener. */
+        private boolean isHandledElsewhere(DataListener dl) {
+            // check the circularity token before the delivery claim, since a
+            // thread claims a listener before it removes its token.
+            Object t = null;
+            Hashtable elements = (Hashtable) notifications.get(dl);
+            if (elements != null)
+                t = elements.get(CIRCULARITY_TOKEN);
+            if (t == null) {
+                synchronized (deliveringListeners) {
+                    t = deliveringListeners.get(dl);
+                }
+            }
+            return (t != null && t != Thread.currentThread());
+        }
+
+        /** @return true if another thread is handling events for the given
+         *     listener, or if its pending events are waiting for another
+         *     thread to finish. */
+        private boolean isBlocked(DataListener dl) {
+            if (isHandledElsewhere(dl))
+                return true;
+            synchronized (deliveringListeners) {
+                for (List<DataListener> l : deferredListeners.values())
+                    if (l.contains(dl))
+                        return true;
+            }
+            return false;
+        }
+
+        /** Arrange for a listener with pending events to be requeued when
+         * another thread finishes handling the given blocker. */
+        private void deferUntilHandled(DataListener dl, DataListener blocker) {
+            List<DataListener> waiters = null;
+            boolean circular = false;
+            synchronized (deliveringListeners) {
+                if (blocker != dl && isWaitingFor(blocker, dl)) {
+                    // the blocker is already waiting for this listener, so
+                    // neither of them would ever be requeued.
+                    circular = true;
+                    waiters = deferredListeners.remove(dl);
+                } else {
+                    List<DataListener> l = deferredListeners.get(blocker);
+                    if (l == null)
+                        deferredListeners.put(blocker,
+                            l = new ArrayList<DataListener>());
+                    l.add(dl);
+                }
+            }
+
+            if (circular) {
+                // circular dependencies between active data listeners exist,
+                // and different threads started from different ends of the
+                // loop.  Break the circular dependency and abort.
+                String listenerName = (String) activeData.get(dl);
+                if (listenerName != null) {
+                    logger.log(Level.WARNING, "Infinite recursion "
+                              + "encountered while recalculating {0} "
+                              + "- ABORTING", listenerName);
+                    circularData.add(listenerName);
+                }
+                notifications.remove(dl);
+                if (waiters != null)
+                    readyListeners.addAll(waiters);
+                checkConsistency();
+                return;
+            }
+
+            // if the other thread finished before we registered, it will not
+            // requeue us, so do it ourselves.
+            if (!isBlocked(blocker)) {
+                synchronized (deliveringListeners) {
+                    List<DataListener> l = deferredListeners.get(blocker);
+                    if (l != null)
+                        l.remove(dl);
+                }
+                readyListeners.offer(dl);
             }
         }
 
+        /** @return true if the pending events for a listener are waiting,
+         *     directly or through a chain of other deferred listeners, for
+         *     the given target to be handled.  The caller must hold the lock
+         *     on deliveringListeners. */
+        private boolean isWaitingFor(DataListener dl, DataListener target) {
+            Set<DataListener> seen = new HashSet<DataListener>();
+            List<DataListener> toCheck = new ArrayList<DataListener>();
+            toCheck.add(dl);
+            while (!toCheck.isEmpty()) {
+                DataListener waiter = toCheck.remove(toCheck.size() - 1);
+                if (!seen.add(waiter))
+                    continue;
+                for (Map.Entry<DataListener, List<DataListener>> e
+                        : deferredListeners.entrySet()) {
+                    DataListener blocker = e.getKey();
+                    if (blocker != waiter && e.getValue().contains(waiter)) {
+                        if (blocker == target)
+                            return true;
+                        toCheck.add(blocker);
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** Deliver events to one pending listener that is not currently being
+         * handled by another thread.
+         *
+         * @return true if a listener was found, false if no such listener
+         *     is pending
+         */
         private boolean fireEvent() {
-            if (!notifications.isEmpty()) {
-                try {
-                    fireEvent((DataListener) notifications.keys().nextElement());
+            List pending;
+            synchronized (notifications) {
+                pending = new ArrayList(notifications.keySet());
+            }
+            for (Iterator i = pending.iterator(); i.hasNext();) {
+                DataListener dl = (DataListener) i.next();
+                if (notifications.containsKey(dl) && !isBlocked(dl)) {
+                    fireEvent(dl);
                     return true;
-                } catch (java.util.NoSuchElementException e) {
                 }
             }
             return false;
         }
 
+        /** Deliver events to listeners as they become pending.  This method
+         * is run by the notifier thread and by each of its helpers.  The
+         * dependency handling in fireEvent(DataListener) ensures that
+         * listeners are notified after any active listeners they depend on,
+         * even when those are being handled by a different thread.
+         */
         public void run() {
             while (running) try {
-                if (fireEvent() == false)
-                    doWait();
+                DataListener dl = readyListeners.poll(1, TimeUnit.SECONDS);
+                if (dl != null)
+                    fireEvent(dl);
+                else
+                    // make certain no notifications were left behind by
+                    // stale entries in the ready queue.
+                    fireEvent();
             } catch (Exception e) {}
         }
 
-        private synchronized void doWait() {
-            suspended = true;
-            try { wait(); } catch (InterruptedException i) {}
-            suspended = false;
-        }
-
         public boolean flush() {
-            if (notifications.isEmpty())
+            if (isConsistent())
                 return false;
 
-            boolean done = false;
-            do {
-                if (!done) {
-                    synchronized (this) {
-                        this.notifyAll();
-                    }
+            if (Thread.currentThread() == this
+                    || helpers.contains(Thread.currentThread())) {
+                // a listener is waiting for calculations from within an
+                // event handler.  Deliver the remaining events ourselves.
+                while (fireEvent())
+                    ;
+                return true;
+            }
+
+            synchronized (consistencyLock) {
+                while (!isConsistent()) {
                     try {
-                        Thread.sleep(20);
+                        consistencyLock.wait(100);
                     } catch (InterruptedException ie) {}
                 }
-
-                done = notifications.isEmpty();
-
-            } while (!done);
+            }
 
             return true;
         }
@@ -727,10 +1074,18 @@ public class DataRepository implements Repository, DataContext,
         public void quit() {
             running = false;
             interrupt();
+            for (Thread t : helpers)
+                t.interrupt();
         }
     }
     private static final String CIRCULARITY_TOKEN = "CIRCULARITY_TOKEN";
 
+    private static final int DELIVERY_CLAIMED = 0;
+    private static final int DELIVERY_REENTRANT = 1;
+    private static final int DELIVERY_BUSY = 2;
+
+    private static final String NUM_THREADS_SETTING = "dataNotifier.numThreads";
+
     DataNotifier dataNotifier;
 
 
@@ -1516,6 +1871,7 @@ public class DataRepository implements Repository, DataContext,
             synchronized (e) {
                 if (e.disposalLockCount == 0) {
                     data.remove(e.name);
+                    e.discardFromDatafileIndex();
                     e.disposeValue();
                 }
             }
@@ -1686,29 +2042,26 @@ public class DataRepository implements Repository, DataContext,
         } else {
             datafile = guessDataFile(oldPrefix+"/foo", REQUIRE_WRITABLE);
             if (datafile != null && datafile.prefix.length() == 0)
-                remapDataNames(oldPrefix, newPrefix);
+                remapDataNames(datafile, oldPrefix, newPrefix);
         }
     }
 
     /** this renames data values in the global datafile. */
-    private void remapDataNames(String oldPrefix, String newPrefix) {
+    private void remapDataNames(DataFile globalDatafile, String oldPrefix,
+            String newPrefix) {
 
         String name, newName;
-        DataElement element;
         SaveableData value;
 
         oldPrefix = oldPrefix + "/";
         newPrefix = newPrefix + "/";
         int oldPrefixLen = oldPrefix.length();
-        Iterator k = getInternalKeys();
-        while (k.hasNext()) {
-            name = (String) k.next();
+        for (DataElement element : getElementsForDatafile(globalDatafile)) {
+            name = element.name;
             if (!name.startsWith(oldPrefix))
                 continue;
 
-            element = (DataElement) data.get(name);
-            if (element == null ||
-                element.isDefaultName() ||
+            if (element.isDefaultName() ||
                 element.datafile == null ||
                 element.datafile.prefix == null ||
                 element.datafile.prefix.length() > 0)
@@ -1782,7 +2135,7 @@ public class DataRepository implements Repository, DataContext,
         }
 
         // make the change.
-        d.datafile = f;
+        d.setDatafile(f);
         d.isDefaultName = isDefaultName;
         logger.log(Level.INFO, "Reparented data element {0}", dataName);
 
@@ -1800,6 +2153,9 @@ public class DataRepository implements Repository, DataContext,
     }
     public void saveDefinitions(OutputStream out) throws IOException {
         if (disableSerialization) return;
+        writeSerializedDefinitions(out);
+    }
+    void writeSerializedDefinitions(OutputStream out) throws IOException {
         ObjectOutputStream o = new ObjectOutputStream(out);
         o.writeObject(includedFileCache);
         o.writeObject(defineDeclarations);
@@ -1811,6 +2167,9 @@ public class DataRepository implements Repository, DataContext,
     }
     public void loadDefinitions(InputStream in) {
         if (disableSerialization) return;
+        readSerializedDefinitions(in);
+    }
+    void readSerializedDefinitions(InputStream in) {
         try {
             ObjectInputStream i = new ObjectInputStream(in);
             Hashtable a, b, c, d, e;
@@ -1831,6 +2190,103 @@ public class DataRepository implements Repository, DataContext,
     }
 
 
+    /** The name of the file that holds a snapshot of parsed definitions */
+    public static final String DEFINITIONS_SNAPSHOT_FILENAME = "defns.snapshot";
+
+    /** true if datafiles have been parsed since the definitions snapshot
+     * was last loaded or saved */
+    private boolean snapshotDirty = false;
+
+    /** Save a snapshot of the definitions parsed from included datafiles,
+     * if any new files have been parsed since the last snapshot was loaded.
+     */
+    public void maybeSaveDefinitionsSnapshot(File out) throws IOException {
+        if (snapshotDirty)
+            saveDefinitionsSnapshot(out);
+    }
+
+    /** Save a snapshot of the definitions parsed from included datafiles.
+     * 
+     * Definitions that are generated by a {@link DefinitionFactory}, or that
+     * incorporate rollup definitions, are not included in the snapshot,
+     * since they can depend on the state of the dashboard.
+     */
+    public void saveDefinitionsSnapshot(File out) throws IOException {
+        Map<String, Map> defns = new HashMap<String, Map>();
+        synchronized (includedFileCache) {
+            for (Iterator i = includedFileCache.entrySet().iterator(); i.hasNext();) {
+                Map.Entry e = (Map.Entry) i.next();
+                String datafile = (String) e.getKey();
+                Object value = e.getValue();
+                if (value instanceof Map && value != globalDataDefinitions
+                        && !isImaginaryDatafileName(datafile)
+                        && !defaultDefinitions.containsKey(datafile)
+                        && !((Map) value).containsKey("Use_Rollup"))
+                    defns.put(datafile, (Map) value);
+            }
+        }
+        DefinitionsSnapshot.write(out, defns, getDefinitionsKey());
+        snapshotDirty = false;
+        logger.log(Level.FINE, "Saved {0} definitions to snapshot",
+            defns.size());
+    }
+
+    /** Load a snapshot that was written by
+     * {@link #saveDefinitionsSnapshot(File)}.
+     * 
+     * The snapshot is only used if the templates, define declarations, and
+     * default definitions that are currently registered are the same as the
+     * ones that were present when the snapshot was saved.  Otherwise, the
+     * snapshot is ignored and datafiles will be parsed as usual.
+     * 
+     * @return true if the snapshot was loaded
+     */
+    public boolean loadDefinitionsSnapshot(File in) {
+        try {
+            Map<String, Map> defns = DefinitionsSnapshot.read(in,
+                getDefinitionsKey());
+            if (defns == null) {
+                logger.fine("Definitions snapshot was missing or out of date");
+                return false;
+            }
+            synchronized (includedFileCache) {
+                for (Map.Entry<String, Map> e : defns.entrySet())
+                    if (!includedFileCache.containsKey(e.getKey()))
+                        includedFileCache.put(e.getKey(), e.getValue());
+            }
+            snapshotDirty = false;
+            logger.log(Level.FINE, "Loaded {0} definitions from snapshot",
+                defns.size());
+            return true;
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Unable to read definitions snapshot", e);
+            return false;
+        }
+    }
+
+    /** Compute a value that describes the environment definitions are
+     * parsed in.  If any input to the parsing process changes, this
+     * value will change too.
+     */
+    private long getDefinitionsKey() throws IOException {
+        StringBuilder buf = new StringBuilder();
+        buf.append(TemplateLoader.getTemplateTimestamp()).append('\n');
+        if (templateURLs != null)
+            for (URL u : templateURLs)
+                buf.append(u).append('\n');
+        buf.append(globalDefineDeclarations).append('\n');
+        for (Object datafile : new TreeSet(defineDeclarations.keySet()))
+            buf.append(datafile).append('=')
+                    .append(defineDeclarations.get(datafile)).append('\n');
+        for (Object datafile : new TreeSet(defaultDefinitions.keySet()))
+            buf.append(datafile).append('\n');
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.toString().getBytes("UTF-8"));
+        return crc.getValue();
+    }
+
+
     /** Dump data in the legacy text format, that was originally used for
      * import/export operations. */
     public static final int DUMP_STYLE_TEXT = 0;
@@ -1956,7 +2412,7 @@ public class DataRepository implements Repository, DataContext,
                                       // elements' values.
                 for (DataElement element : elementsToRemove) {
                     element.disposeValue();
-                    element.datafile = null;
+                    element.setDatafile(null);
                 }
                                       // remove the data elements.
                 for (DataElement element : elementsToRemove) {
@@ -2037,17 +2493,17 @@ public class DataRepository implements Repository, DataContext,
                                 // Add the element to the table
         DataElement d = new DataElement(datafile, name, isDefaultName);
         d.setValue(value, isDefaultValue);
-        synchronized (data) {
-            DataElement displaced = (DataElement) data.put(name, d);
-            if (displaced != null) {
-                // restore the displaced data element. Then throw an exception
-                // to our caller indicating that they cannot add the element,
-                // because it already exists.
-                data.put(name, displaced);
-                throw new DataElementAlreadyExistsException(displaced);
-            }
+        DataElement existing = data.putIfAbsent(name, d);
+        if (existing != null) {
+            // throw an exception to our caller indicating that they cannot
+            // add the element, because it already exists.
+            throw new DataElementAlreadyExistsException(existing);
         }
 
+                                // register the element with its datafile
+        if (datafile != null)
+            datafile.elements.add(d);
+
         if (notify && !isDefaultName && !name.startsWith(anonymousPrefix))
             repositoryListenerList.dispatchAdded(name);
 
@@ -2081,7 +2537,7 @@ public class DataRepository implements Repository, DataContext,
                 datafileModified(removedElement.datafile);
 
                                       // disown the element from its datafile,
-            removedElement.datafile = null;
+            removedElement.setDatafile(null);
             removedElement.disposeValue();
             removedElement.setValue(null, false);  // erase its previous value,
             maybeDelete(name, removedElement, true); // and discard if appropriate.
@@ -2206,6 +2662,9 @@ public class DataRepository implements Repository, DataContext,
     }
 
     private DataElement getOrCreateDefaultDataElement(String dataName) {
+        // If two threads lazily create the same element at once, add() lets
+        // exactly one of them win; the other receives the winning element
+        // through a DataElementAlreadyExistsException.
         DataElement d = (DataElement)data.get(dataName);
         if (d == null) {
             try {
@@ -2382,7 +2841,7 @@ public class DataRepository implements Repository, DataContext,
 
                     if (PHANTOM_DATAFILES.contains(d.datafile)) {
                         // move the item OUT of the phantom datafile so it will be saved.
-                        d.datafile = guessDataFile(name, REQUIRE_WRITABLE);
+                        d.setDatafile(guessDataFile(name, REQUIRE_WRITABLE));
                         d.isDefaultName = false;
                     }
 
@@ -2481,6 +2940,14 @@ public class DataRepository implements Repository, DataContext,
         }
     }
 
+    /** Return a summary of the work performed by the data notifier: the
+     * number of listeners with pending notifications, the number and size
+     * of the event batches delivered, and the time it took for the most
+     * recent burst of changes to reach a consistent state. */
+    public String getNotificationMetrics() {
+        return dataNotifier.getMetrics();
+    }
+
     public String getAliasedName(String name) {
         DataElement d = getOrCreateDefaultDataElement(name);
         String aliasName = null;
@@ -2538,7 +3005,7 @@ public class DataRepository implements Repository, DataContext,
     public SimpleData evaluate(CompiledScript script, String prefix)
         throws ExecutionException
     {
-        ListStack stack = new ListStack();
+        ArrayStack stack = new ArrayStack();
         ExpressionContext context = new SimpleExpressionContext(prefix);
         script.run(stack, context);
         SimpleData value = (SimpleData) stack.pop();
@@ -2619,9 +3086,11 @@ public class DataRepository implements Repository, DataContext,
             if (defaultDefns != null)
                 result.putAll(defaultDefns.getDefinitions(DataRepository.this));
 
-            if (!isImaginaryDatafileName(datafile))
+            if (!isImaginaryDatafileName(datafile)) {
                 loadDatafile(datafile, findDatafile(datafile), result,
                         DO_FOLLOW_INCLUDES, DO_CLOSE, "UTF-8");
+                snapshotDirty = true;
+            }
 
             // Although we aren't technically done creating this datafile,
             // we need to store it in the cache before calling
@@ -3239,7 +3708,7 @@ public class DataRepository implements Repository, DataContext,
                                 NOT_MODIFYING_DATAFILE);
                         d = (DataElement)data.get(dataName);
                         if (d != null) {
-                            d.datafile = dataFile;
+                            d.setDatafile(dataFile);
                             d.isDefaultName = defaultData.containsKey(localName);
                         }
                     }
@@ -3293,7 +3762,7 @@ public class DataRepository implements Repository, DataContext,
 
                     if (d != null) {
                         // a matching data element exists.
-                        d.datafile = dataFile;
+                        d.setDatafile(dataFile);
                         d.isDefaultName = true;
                         dataName = d.name;
 
@@ -3427,7 +3896,7 @@ public class DataRepository implements Repository, DataContext,
             // reassociate the null element with the new data file (instead
             // of the old one)
             DataElement e = getImportedFileNullElement(dataFile);
-            e.datafile = dataFile;
+            e.setDatafile(dataFile);
 
             // discard elements that were present in the old data file, that
             // no longer exist
@@ -3480,22 +3949,19 @@ public class DataRepository implements Repository, DataContext,
     }
 
     private List<DataElement> getElementsForDatafile(DataFile datafile) {
-        List result = new ArrayList();
-        synchronized (data) {
-            for (DataElement elem : data.values()) {
-                if (elem != null && elem.datafile == datafile)
-                    result.add(elem);
-            }
+        List<DataElement> result = datafile.getElements();
+        for (Iterator<DataElement> i = result.iterator(); i.hasNext();) {
+            // discard any elements that are no longer present in the
+            // repository, or that have been moved to a different datafile.
+            DataElement elem = i.next();
+            if (elem.datafile != datafile || data.get(elem.name) != elem)
+                i.remove();
         }
         return result;
     }
 
     private Iterator getInternalKeys() {
-        List l = new ArrayList();
-        synchronized (data) {
-            l.addAll(data.keySet());
-        }
-        return l.iterator();
+        return Collections.unmodifiableSet(data.keySet()).iterator();
     }
 
     public Iterator getKeys() {
@@ -3515,9 +3981,7 @@ public class DataRepository implements Repository, DataContext,
         private Iterator workingExplicitNames;
 
         public AllDataNamesIterator(Object prefix, Object hints) {
-            synchronized (data) {
-                explicitDataNames = new HashSet(data.keySet());
-            }
+            explicitDataNames = new HashSet(data.keySet());
             if (hints instanceof DataNameFilter.ExplicitOnly) {
                 files = Collections.EMPTY_LIST;
             } else {
@@ -3710,17 +4174,12 @@ public class DataRepository implements Repository, DataContext,
 
             int prefixLength = datafile.prefix.length() + 1;
 
-            for (Iterator i = getInternalKeys(); i.hasNext();) {
-                String name = (String) i.next();
-                DataElement element = (DataElement)data.get(name);
-
-                if (element == null
-                        || element.datafile != datafile
-                        || element.isDefaultValue())
-                    // if there is no such element, if it doesn't belong to this
-                    // DataFile, or if it has a default value, skip it.
+            for (DataElement element : getElementsForDatafile(datafile)) {
+                if (element.isDefaultValue())
+                    // if the element has a default value, skip it.
                     continue;
 
+                String name = element.name;
                 SaveableData value = element.getValue();
                 String valStr = null;
                 boolean editable = true;
@@ -3919,8 +4378,10 @@ public class DataRepository implements Repository, DataContext,
             return;
 
         if (d.dataListeners == null) {    // if no one cares about this element
-            if (d.getValue() == null)         // and it has no value,
+            if (d.getValue() == null) {       // and it has no value,
                 data.remove(name);            // throw it away.
+                d.discardFromDatafileIndex();
+            }
 
         } else if (d.dataListeners.isEmpty()) {
                            // if no one cares about this element any longer,
@@ -0,0 +1,380 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.util.RobustFileOutputStream;
+
+/**
+ * Reads and writes a compact binary snapshot of the definitions that were
+ * parsed from included datafiles.
+ *
+ * The snapshot begins with a header containing a format version, a key
+ * describing the environment the definitions were parsed in, and a
+ * checksum of the payload.  The payload contains:
+ * <ul>
+ * <li>a table of all the distinct strings used as file names, data names,
+ *     and string values, so each is stored and instantiated only once;</li>
+ * <li>a single serialized block holding the compiled scripts and other
+ *     complex values, so shared objects are written only once and do not
+ *     need to be recompiled when they are read;</li>
+ * <li>the definitions for each file, expressed as references into the
+ *     two tables above (with a fast path for numbers).</li>
+ * </ul>
+ *
+ * The snapshot is read into a heap buffer in a single call.  (The whole
+ * file is decoded immediately, so mapping it would gain nothing, and a
+ * mapped file stays locked on Windows until the mapping is garbage
+ * collected.)  If anything about the snapshot fails validation,
+ * {@link #read(File, long)} returns null and the caller should parse the
+ * datafiles as usual.
+ */
+class DefinitionsSnapshot {
+
+    private static final int MAGIC = 0x50444446; // "PDDF"
+
+    static final int FORMAT_VERSION = 1;
+
+    private static final byte STRING_VALUE = 1;
+
+    private static final byte DOUBLE_VALUE = 2;
+
+    private static final byte OBJECT_VALUE = 3;
+
+
+    /**
+     * Write a snapshot of the given definitions to a file.
+     *
+     * @param dest the file to write
+     * @param definitions a map whose keys are datafile names, and whose
+     *     values are the definitions parsed from those files.  Values that
+     *     cannot be serialized are silently omitted.
+     * @param key a value describing the environment that produced these
+     *     definitions
+     */
+    static void write(File dest, Map<String, Map> definitions, long key)
+            throws IOException {
+        byte[] payload = new Writer().write(definitions);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        RobustFileOutputStream out = new RobustFileOutputStream(dest);
+        try {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(FORMAT_VERSION);
+            data.writeLong(key);
+            data.writeInt(payload.length);
+            data.writeLong(crc.getValue());
+            data.write(payload);
+            data.flush();
+        } catch (IOException ioe) {
+            out.abort();
+            throw ioe;
+        }
+        out.close();
+    }
+
+
+    /**
+     * Read the definitions from a snapshot file.
+     *
+     * @param src the file to read
+     * @param key the value describing the current environment.  If this
+     *     does not match the key the snapshot was written with, the snapshot
+     *     is considered stale and will not be used.
+     * @return the definitions in the snapshot, or null if the snapshot does
+     *     not exist or cannot be used.
+     */
+    static Map<String, Map> read(File src, long key) throws IOException {
+        if (!src.isFile())
+            return null;
+
+        byte[] contents = new byte[(int) src.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(src));
+        try {
+            in.readFully(contents);
+        } finally {
+            in.close();
+        }
+        ByteBuffer buf = ByteBuffer.wrap(contents);
+
+        if (buf.remaining() < 28 //
+                || buf.getInt() != MAGIC //
+                || buf.getInt() != FORMAT_VERSION //
+                || buf.getLong() != key)
+            return null;
+        int payloadLength = buf.getInt();
+        long checksum = buf.getLong();
+        if (payloadLength != buf.remaining()
+                || checksum(buf.slice()) != checksum)
+            return null;
+
+        try {
+            return new Reader(buf.slice()).read();
+        } catch (ClassNotFoundException cnfe) {
+            return null;
+        } catch (RuntimeException re) {
+            return null;
+        }
+    }
+
+    private static long checksum(ByteBuffer buf) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        while (buf.hasRemaining()) {
+            int len = Math.min(chunk.length, buf.remaining());
+            buf.get(chunk, 0, len);
+            crc.update(chunk, 0, len);
+        }
+        return crc.getValue();
+    }
+
+
+
+    private static class Writer {
+
+        private Map<String, Integer> strings = new LinkedHashMap();
+
+        private Map<Object, Integer> objects = new IdentityHashMap();
+
+        private List<Object> objectList = new ArrayList<Object>();
+
+        private ByteArrayOutputStream defnBytes = new ByteArrayOutputStream();
+
+        private DataOutputStream defns = new DataOutputStream(defnBytes);
+
+        byte[] write(Map<String, Map> definitions) throws IOException {
+            List<Map.Entry<String, Map>> files = new ArrayList();
+            for (Map.Entry<String, Map> e : definitions.entrySet())
+                if (isSerializable(e.getValue()))
+                    files.add(e);
+
+            defns.writeInt(files.size());
+            for (Map.Entry<String, Map> e : files)
+                writeDefinitions(e.getKey(), e.getValue());
+            defns.flush();
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(result);
+
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes("UTF-8");
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            ByteArrayOutputStream objBytes = new ByteArrayOutputStream();
+            ObjectOutputStream objOut = new ObjectOutputStream(objBytes);
+            objOut.writeObject(objectList.toArray());
+            objOut.close();
+            out.writeInt(objBytes.size());
+            objBytes.writeTo(out);
+
+            defnBytes.writeTo(out);
+            out.flush();
+            return result.toByteArray();
+        }
+
+        /** Only write files whose definitions are made entirely of values
+         * we know how to restore. */
+        private boolean isSerializable(Map defns) {
+            for (Iterator i = defns.entrySet().iterator(); i.hasNext();) {
+                Map.Entry e = (Map.Entry) i.next();
+                if (!(e.getKey() instanceof String))
+                    return false;
+                if (!(e.getValue() instanceof Serializable))
+                    return false;
+            }
+            return true;
+        }
+
+        private void writeDefinitions(String filename, Map values)
+                throws IOException {
+            defns.writeInt(stringIndex(filename));
+            defns.writeInt(values.size());
+            for (Iterator i = values.entrySet().iterator(); i.hasNext();) {
+                Map.Entry e = (Map.Entry) i.next();
+                defns.writeInt(stringIndex((String) e.getKey()));
+                writeValue(e.getValue());
+            }
+        }
+
+        private void writeValue(Object val) throws IOException {
+            if (val instanceof String) {
+                defns.writeByte(STRING_VALUE);
+                defns.writeInt(stringIndex((String) val));
+
+            } else if (val != null && val.getClass() == DoubleData.class) {
+                DoubleData d = (DoubleData) val;
+                defns.writeByte(DOUBLE_VALUE);
+                defns.writeDouble(d.getDouble());
+                defns.writeBoolean(d.isEditable());
+                defns.writeBoolean(d.isDefined());
+
+            } else {
+                defns.writeByte(OBJECT_VALUE);
+                defns.writeInt(objectIndex(val));
+            }
+        }
+
+        private int stringIndex(String s) {
+            Integer result = strings.get(s);
+            if (result == null) {
+                result = strings.size();
+                strings.put(s, result);
+            }
+            return result;
+        }
+
+        private int objectIndex(Object o) {
+            Integer result = objects.get(o);
+            if (result == null) {
+                result = objectList.size();
+                objects.put(o, result);
+                objectList.add(o);
+            }
+            return result;
+        }
+    }
+
+
+
+    private static class Reader {
+
+        private ByteBuffer buf;
+
+        private String[] strings;
+
+        private Object[] objects;
+
+        Reader(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        Map<String, Map> read() throws IOException, ClassNotFoundException {
+            strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                strings[i] = new String(bytes, "UTF-8");
+            }
+
+            int objLen = buf.getInt();
+            ByteBuffer objBuf = buf.slice();
+            objBuf.limit(objLen);
+            ObjectInputStream objIn = new ObjectInputStream(
+                    new ByteBufferInputStream(objBuf));
+            objects = (Object[]) objIn.readObject();
+            buf.position(buf.position() + objLen);
+
+            int numFiles = buf.getInt();
+            Map<String, Map> result = new HashMap<String, Map>(numFiles * 2);
+            for (int i = numFiles; i-- > 0;) {
+                String filename = strings[buf.getInt()];
+                int numValues = buf.getInt();
+                Map values = new HashMap(numValues * 2);
+                for (int j = numValues; j-- > 0;) {
+                    String name = strings[buf.getInt()];
+                    values.put(name, readValue());
+                }
+                result.put(filename, Collections.unmodifiableMap(values));
+            }
+            return result;
+        }
+
+        private Object readValue() throws IOException {
+            byte type = buf.get();
+            switch (type) {
+            case STRING_VALUE:
+                return strings[buf.getInt()];
+
+            case DOUBLE_VALUE:
+                DoubleData d = new DoubleData(buf.getDouble(), buf.get() != 0);
+                d.setDefined(buf.get() != 0);
+                return d;
+
+            case OBJECT_VALUE:
+                return objects[buf.getInt()];
+
+            default:
+                throw new IOException("Unrecognized value type " + type);
+            }
+        }
+    }
+
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private ByteBuffer buf;
+
+        ByteBufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return (buf.hasRemaining() ? buf.get() & 0xff : -1);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buf.hasRemaining())
+                return -1;
+            len = Math.min(len, buf.remaining());
+            buf.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
+
+}
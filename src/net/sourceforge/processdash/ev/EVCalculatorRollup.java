@@ -33,6 +33,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.processdash.Settings;
 
 import net.sourceforge.processdash.ev.ci.ConfidenceInterval;
 import net.sourceforge.processdash.ev.ci.ConfidenceIntervalProvider;
@@ -63,27 +71,32 @@ public class EVCalculatorRollup extends EVCalculator {
         rollupTaskList.fireTreeStructureWillChange();
         evLeaves = null;
 
-        // Recalculate all the subschedules.
-        for (int i = evTaskLists.size();   i-- > 0; ) {
-            EVTaskList taskList = (EVTaskList) evTaskLists.get(i);
-
-            // install rollup-level confidence interval providers, then ask
-            // the task list to recalculate.
-            tweakConfidenceIntervalProviders(taskList);
-            taskList.recalc();
-
-            // On rare occasions, some task lists might create a new calculator
-            // as a result of a recalc operation. If this has occurred,
-            // reinstall our interval providers and recalc again.
-            if (tweakConfidenceIntervalProviders(taskList))
-                taskList.recalc();
-
-            // Some types of task lists perform a recalc by completely
-            // replacing their root task and schedule. Give them the
-            // benefit of the doubt and make certain that we are using
-            // the correct root and schedule
-            taskRoot.replace(i, (EVTask) taskList.getRoot());
-            schedule.replaceSchedule(i, taskList);
+        // Recalculate all the subschedules.  Plain subschedules are
+        // independent of each other, so they may be recalculated by a pool
+        // of worker threads; but their results are always installed in
+        // order, on this thread.
+        FutureTask[] workers = startConcurrentRecalcs();
+        try {
+            for (int i = evTaskLists.size();   i-- > 0; ) {
+                EVTaskList taskList = (EVTaskList) evTaskLists.get(i);
+                if (workers[i] != null)
+                    finishConcurrentRecalc(workers[i]);
+                else
+                    recalcSubschedule(taskList);
+
+                // Some types of task lists perform a recalc by completely
+                // replacing their root task and schedule. Give them the
+                // benefit of the doubt and make certain that we are using
+                // the correct root and schedule
+                taskRoot.replace(i, (EVTask) taskList.getRoot());
+                schedule.replaceSchedule(i, taskList);
+            }
+        } finally {
+            // if we encountered an error, wait for the workers to finish
+            // before returning, since they are modifying our subschedules.
+            for (FutureTask w : workers)
+                if (w != null)
+                    waitForRecalc(w);
         }
 
         // Calculate confidence intervals, if possible.
@@ -109,6 +122,118 @@ public class EVCalculatorRollup extends EVCalculator {
         writeOverspentFallbackDates();
     }
 
+    private void recalcSubschedule(EVTaskList taskList) {
+        // install rollup-level confidence interval providers, then ask
+        // the task list to recalculate.
+        tweakConfidenceIntervalProviders(taskList);
+        taskList.recalc();
+
+        // On rare occasions, some task lists might create a new calculator
+        // as a result of a recalc operation. If this has occurred,
+        // reinstall our interval providers and recalc again.
+        if (tweakConfidenceIntervalProviders(taskList))
+            taskList.recalc();
+    }
+
+    /**
+     * Begin recalculating the plain subschedules on the worker pool.
+     * 
+     * Nested rollups are left for the calling thread, since they fire tree
+     * events for their own children and may use the pool themselves.
+     * 
+     * @return an array parallel to our list of task lists, holding the task
+     *     that is recalculating each subschedule, or null for subschedules
+     *     that should be recalculated on the calling thread.
+     */
+    private FutureTask[] startConcurrentRecalcs() {
+        FutureTask[] result = new FutureTask[evTaskLists.size()];
+        if (!parallelRecalc)
+            return result;
+
+        int numIndependent = 0;
+        for (EVTaskList tl : evTaskLists)
+            if (canRecalcConcurrently(tl))
+                numIndependent++;
+        if (numIndependent < 2)
+            return result;
+
+        for (int i = 0;  i < result.length;  i++) {
+            final EVTaskList tl = evTaskLists.get(i);
+            if (canRecalcConcurrently(tl)) {
+                prepareBaselineSnapshot(tl);
+                result[i] = new FutureTask<Object>(new Runnable() {
+                    public void run() {
+                        IN_CONCURRENT_RECALC.set(Boolean.TRUE);
+                        try {
+                            recalcSubschedule(tl);
+                        } finally {
+                            IN_CONCURRENT_RECALC.remove();
+                        }
+                    }}, null);
+                RECALC_POOL.execute(result[i]);
+            }
+        }
+        return result;
+    }
+
+    private boolean canRecalcConcurrently(EVTaskList tl) {
+        return tl != null && !(tl instanceof EVTaskListRollup);
+    }
+
+    /** Baseline snapshots are shared between subschedules, and recalculate
+     * themselves lazily.  Make certain that happens on this thread. */
+    private void prepareBaselineSnapshot(EVTaskList tl) {
+        if (tl.calculator != null) {
+            EVSnapshot baseline = tl.calculator.getBaselineDataSource();
+            if (baseline != null)
+                baseline.getTaskList();
+        }
+    }
+
+    private void finishConcurrentRecalc(FutureTask w) {
+        // if no worker has picked up this task yet, run it on this thread.
+        // (If it is already running or done, this call does nothing.)
+        w.run();
+
+        try {
+            getUninterruptibly(w);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else if (cause instanceof Error)
+                throw (Error) cause;
+            else
+                throw new RuntimeException(cause);
+        }
+    }
+
+    private void waitForRecalc(FutureTask w) {
+        try {
+            getUninterruptibly(w);
+        } catch (ExecutionException ee) {
+            // errors are reported by finishConcurrentRecalc
+        }
+    }
+
+    private static void getUninterruptibly(FutureTask f)
+            throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    f.get();
+                    return;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public void setBaselineDataSource(EVSnapshot baselineDataSource) {
         super.setBaselineDataSource(baselineDataSource);
@@ -531,4 +656,47 @@ public class EVCalculatorRollup extends EVCalculator {
     }
     private static final Comparator EV_LEAF_DATE_COMPARATOR =
         new EVLeafDateComparator();
+
+
+    private static boolean parallelRecalc = Settings.getBool(
+        "ev.parallelRollupRecalc", true);
+
+    /** Turn concurrent subschedule recalculation on or off, for testing and
+     * benchmarking */
+    static void setParallelRecalc(boolean parallel) {
+        parallelRecalc = parallel;
+    }
+
+    private static final ThreadLocal<Boolean> IN_CONCURRENT_RECALC =
+        new ThreadLocal<Boolean>();
+
+    /**
+     * @return true if the current thread is recalculating one of several
+     *     subschedules that are being recalculated concurrently.  Work done
+     *     on such a thread should not start threads of its own, since the
+     *     recalc pool is already keeping the processors busy.
+     */
+    public static boolean isConcurrentRecalc() {
+        return IN_CONCURRENT_RECALC.get() != null;
+    }
+
+    private static final ThreadPoolExecutor RECALC_POOL = makeRecalcPool();
+
+    private static ThreadPoolExecutor makeRecalcPool() {
+        int numThreads = Math.max(2, Settings.getInt(
+            "ev.rollupRecalcThreads", Runtime.getRuntime()
+                    .availableProcessors()));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(numThreads,
+                numThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "EV Rollup Recalc");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
 }
@@ -28,12 +28,19 @@ import net.sourceforge.processdash.ev.ci.EVScheduleConfidenceIntervals;
 import cern.jet.random.engine.RandomEngine;
 
 public class EVScheduleRandom extends EVScheduleSplit
-    implements EVScheduleConfidenceIntervals.Randomizable
+    implements EVScheduleConfidenceIntervals.Replicable
 {
 
+    private EVSchedule original;
+
     public EVScheduleRandom(EVSchedule s) {
         super(s);
         this.metrics = new EVMetricsRandom(s.getMetrics());
+        this.original = s;
+    }
+
+    public EVScheduleConfidenceIntervals.Randomizable replicate() {
+        return new EVScheduleRandom(original);
     }
 
     public void randomize(RandomEngine random) {
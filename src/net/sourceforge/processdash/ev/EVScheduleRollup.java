@@ -25,19 +25,22 @@ package net.sourceforge.processdash.ev;
 
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
 
 import org.jfree.data.xy.XYDataset;
 
+import net.sourceforge.processdash.ev.ci.EVScheduleConfidenceIntervals;
 import net.sourceforge.processdash.ev.ui.chart.ChartEventAdapter;
 
 /** This class represents a schedule that has been rolled up from
  *  several subschedules.  The subschedules can be plain schedules OR
  *  other rollup schedules.
  */
-public class EVScheduleRollup extends EVSchedule {
+public class EVScheduleRollup extends EVSchedule
+        implements EVScheduleConfidenceIntervals.ReplicableSchedule {
 
     Vector subSchedules = new Vector();
     double totalPlanTime;
@@ -83,6 +86,25 @@ public class EVScheduleRollup extends EVSchedule {
     }
 
 
+    /** Create a copy of a rollup of random schedules, which uses a
+     * different set of random schedules.
+     */
+    public EVSchedule replicate(List originals, List replicas) {
+        if (!(metrics instanceof EVMetricsRollupRandom)
+                || !subSchedules.equals(originals))
+            return null;
+
+        EVScheduleRandom[] list = new EVScheduleRandom[replicas.size()];
+        for (int i = 0;   i < list.length;   i++) {
+            Object o = replicas.get(i);
+            if (!(o instanceof EVScheduleRandom))
+                return null;
+            list[i] = (EVScheduleRandom) o;
+        }
+        return new EVScheduleRollup(list);
+    }
+
+
     /** Add an additional subschedule to this EVScheduleRollup.
      */
     public synchronized void addSchedule(EVTaskList taskList) {
@@ -107,6 +107,40 @@ public class DoubleList {
     }
 
 
+    /** Sort this list, when the values at the front of the list are
+     * already in sorted order.
+     *
+     * The values that follow the sorted prefix are sorted on their own, then
+     * merged into the prefix.  The result is identical to calling
+     * {@link #sort()}, but when the unsorted portion is small this takes
+     * linear rather than n log n time.
+     *
+     * @param sortedLength the number of values at the beginning of this
+     *     list which are known to be in sorted order
+     */
+    public synchronized void sortAppended(int sortedLength) {
+        if (sortedLength <= 0 || sortedLength >= length) {
+            if (sortedLength < length)
+                sort();
+            return;
+        }
+
+        double[] tail = new double[length - sortedLength];
+        System.arraycopy(contents, sortedLength, tail, 0, tail.length);
+        Arrays.sort(tail);
+
+        // merge from the end of the list backward, so values in the sorted
+        // prefix that are smaller than every new value never move.
+        int a = sortedLength - 1, b = tail.length - 1, dest = length - 1;
+        while (b >= 0) {
+            if (a >= 0 && Double.compare(contents[a], tail[b]) > 0)
+                contents[dest--] = contents[a--];
+            else
+                contents[dest--] = tail[b--];
+        }
+    }
+
+
     /** Return true if this list contains the given <code>double</code> value.
      */
     public boolean contains(double num) {
@@ -23,11 +23,14 @@
 
 package net.sourceforge.processdash.ev.ci;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sourceforge.processdash.Settings;
+import net.sourceforge.processdash.ev.EVCalculatorRollup;
 import net.sourceforge.processdash.ev.EVMetrics;
 import net.sourceforge.processdash.ev.EVMetricsRollup;
 import net.sourceforge.processdash.ev.EVSchedule;
@@ -41,13 +44,47 @@ public class EVScheduleConfidenceIntervals
         public void randomize(RandomEngine u);
     }
 
+    /** A Randomizable object that can create independent copies of itself,
+     * so a simulation can be run on several threads at once. */
+    public interface Replicable extends Randomizable {
+
+        /** Create a copy of this object that can be randomized without
+         * affecting the original. */
+        public Randomizable replicate();
+    }
+
+    /** A schedule whose metrics are calculated from a list of Randomizable
+     * objects, and which can be recreated on top of replicas of those
+     * objects. */
+    public interface ReplicableSchedule {
+
+        /** Create a copy of this schedule that uses a different set of
+         * randomizable objects.
+         *
+         * @param originals the randomizable objects used by this schedule
+         * @param replicas copies of those objects, in the same order
+         * @return the new schedule, or null if this schedule cannot be
+         *     replicated
+         */
+        public EVSchedule replicate(List originals, List replicas);
+    }
+
     private static final int BOOTSTRAP_SIZE = 1000;
 
+    /** The number of consecutive samples drawn from one random stream.
+     * Each block of samples uses its own seed, so the samples produced do
+     * not depend on how the blocks are distributed among threads. */
+    private static final int BLOCK_SIZE = 25;
+
+    private static final int DEFAULT_SEED = 4357;
+
     EVSchedule schedule;
     List randomObjects;
     EVMetrics metrics;
     MonteCarloConfidenceInterval cost, date, optimizedDate;
     MonteCarloConfidenceInterval[] indivDates;
+    private int numThreads, threadsUsed;
+    private long seed;
 
     public EVScheduleConfidenceIntervals(EVSchedule sched, List randomObjects) {
         this(sched, randomObjects, false);
@@ -55,9 +92,32 @@ public class EVScheduleConfidenceIntervals
 
     public EVScheduleConfidenceIntervals(EVSchedule sched,
             List randomObjects, boolean keepIndivDates) {
+        this(sched, randomObjects, keepIndivDates, getDefaultNumThreads(),
+            Settings.getInt("ev.simulationSeed", DEFAULT_SEED));
+    }
+
+    private static int getDefaultNumThreads() {
+        // when a rollup is recalculating subschedules in parallel, each of
+        // them runs its simulation on its own thread.
+        if (EVCalculatorRollup.isConcurrentRecalc())
+            return 1;
+        return Settings.getInt("ev.simulationThreads",
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Run a simulation with a specific degree of parallelism and a specific
+     * random seed.  For a given seed, the resulting intervals are identical
+     * regardless of the number of threads used.
+     */
+    public EVScheduleConfidenceIntervals(EVSchedule sched,
+            List randomObjects, boolean keepIndivDates, int numThreads,
+            long seed) {
         this.schedule = sched;
         this.randomObjects = randomObjects;
         this.metrics = sched.getMetrics();
+        this.numThreads = Math.max(1, numThreads);
+        this.seed = seed;
         cost = new MonteCarloConfidenceInterval();
         date = new MonteCarloConfidenceInterval();
         if (metrics instanceof EVMetricsRollup)
@@ -88,10 +148,15 @@ public class EVScheduleConfidenceIntervals
         return (indivDates == null ? null : indivDates[i]);
     }
 
+    /** @return the number of threads that generated samples for this
+     * simulation */
+    public int getThreadsUsed() {
+        return threadsUsed;
+    }
+
     private static final boolean USE_RATIO = true;
     private void runSimulation() {
         long start = System.currentTimeMillis();
-        RandomEngine random = new MersenneTwister();
 
         int sampleCount = Settings.getInt("ev.simulationSize", BOOTSTRAP_SIZE);
         if (USE_RATIO && indivDates == null) {
@@ -99,16 +164,42 @@ public class EVScheduleConfidenceIntervals
             sampleCount = (int) (sampleCount / factor);
             if (sampleCount < 100) sampleCount = 100;
         }
-        for (int i = 0;   i < sampleCount;   i++)
-            runOneTest(random);
 
-        cost.samplesDone();
-        date.samplesDone();
-        if (optimizedDate != null)
-            optimizedDate.samplesDone();
-        if (indivDates != null)
-            for (int i = 0; i < indivDates.length; i++)
-                indivDates[i].samplesDone();
+        int numBlocks = (sampleCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        double[][][] blockSamples = new double[numBlocks][][];
+        SimulationState state = new SimulationState(schedule, randomObjects);
+
+        // run the first block on this thread, using the original objects.
+        // Among other things, this gives any lazily calculated intervals a
+        // chance to initialize before other threads start reading them.
+        blockSamples[0] = state.runBlock(0, sampleCount);
+        threadsUsed = 1;
+
+        AtomicInteger nextBlock = new AtomicInteger(1);
+        List<SimulationWorker> workers = createWorkers(numBlocks - 1,
+            nextBlock, sampleCount, blockSamples);
+        for (SimulationWorker w : workers)
+            w.start();
+        threadsUsed += workers.size();
+        workers.add(new SimulationWorker(state, nextBlock, sampleCount,
+                blockSamples));
+        workers.get(workers.size() - 1).run();
+        for (SimulationWorker w : workers)
+            w.finish();
+
+        // merge the samples from each block, in a consistent order.  (Only
+        // sub-schedules produce individual date samples; other randomizable
+        // objects leave NaN placeholders in their series.)
+        List<MonteCarloConfidenceInterval> series = getSeries();
+        int firstIndivSeries = series.size()
+                - (indivDates == null ? 0 : indivDates.length);
+        for (double[][] block : blockSamples)
+            for (int s = 0; s < block.length; s++)
+                for (int i = 0; i < block[s].length; i++)
+                    if (s < firstIndivSeries || !Double.isNaN(block[s][i]))
+                        series.get(s).addSample(block[s][i]);
+        for (MonteCarloConfidenceInterval ci : series)
+            ci.samplesDone();
 
         long finish = System.currentTimeMillis();
         long elapsed = finish - start;
@@ -116,39 +207,174 @@ public class EVScheduleConfidenceIntervals
         if (optimizedDate != null) date.debug = true;
     }
 
-    private void runOneTest(RandomEngine random) {
-        randomizeAll(random);
+    private List<SimulationWorker> createWorkers(int remainingBlocks,
+            AtomicInteger nextBlock, int sampleCount, double[][][] dest) {
+        List<SimulationWorker> result = new ArrayList<SimulationWorker>();
+        int numWorkers = Math.min(numThreads, remainingBlocks + 1) - 1;
+        for (int i = 0; i < numWorkers; i++) {
+            SimulationState s = replicateState();
+            if (s == null)
+                break;
+            result.add(new SimulationWorker(s, nextBlock, sampleCount, dest));
+        }
+        return result;
+    }
 
-        if (indivDates != null)
-            addIndivDateSamples();
-
-        double forecastCost = metrics.independentForecastCost();
-        cost.addSample(forecastCost-metrics.actual());
-        date.addSample(getTime(metrics.independentForecastDate()));
-        if (optimizedDate != null) {
-            Date optDate = schedule.getHypotheticalDate(forecastCost, true);
-            optimizedDate.addSample(getTime(optDate));
+    private SimulationState replicateState() {
+        List replicas = new ArrayList(randomObjects.size());
+        for (Iterator i = randomObjects.iterator(); i.hasNext();) {
+            Object o = i.next();
+            if (!(o instanceof Replicable))
+                return null;
+            replicas.add(((Replicable) o).replicate());
         }
+
+        EVSchedule sched = null;
+        int pos = randomObjects.indexOf(schedule);
+        if (pos != -1)
+            sched = (EVSchedule) replicas.get(pos);
+        else if (schedule instanceof ReplicableSchedule)
+            sched = ((ReplicableSchedule) schedule).replicate(randomObjects,
+                replicas);
+
+        return (sched == null ? null : new SimulationState(sched, replicas));
+    }
+
+    private List<MonteCarloConfidenceInterval> getSeries() {
+        List<MonteCarloConfidenceInterval> result =
+                new ArrayList<MonteCarloConfidenceInterval>();
+        result.add(cost);
+        result.add(date);
+        if (optimizedDate != null)
+            result.add(optimizedDate);
+        if (indivDates != null)
+            for (int i = 0; i < indivDates.length; i++)
+                result.add(indivDates[i]);
+        return result;
     }
 
-    private void randomizeAll(RandomEngine random) {
-        Iterator i = randomObjects.iterator();
-        while (i.hasNext())
-            ((Randomizable) i.next()).randomize(random);
+    /** Compute a well-mixed seed for a particular block of samples. */
+    private long getBlockSeed(int block) {
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
-    private void addIndivDateSamples() {
-        for (int i = 0;  i < randomObjects.size(); i++) {
-            Object o = randomObjects.get(i);
-            if (o instanceof EVSchedule) {
-                EVSchedule s = (EVSchedule) o;
-                Date forecast = s.getMetrics().independentForecastDate();
-                indivDates[i].addSample(getTime(forecast));
+
+
+    /** The schedule and randomizable objects used by one thread. */
+    private class SimulationState {
+
+        private EVSchedule schedule;
+
+        private EVMetrics metrics;
+
+        private List randomObjects;
+
+        SimulationState(EVSchedule schedule, List randomObjects) {
+            this.schedule = schedule;
+            this.metrics = schedule.getMetrics();
+            this.randomObjects = randomObjects;
+        }
+
+        double[][] runBlock(int block, int sampleCount) {
+            int len = Math.min(BLOCK_SIZE, sampleCount - block * BLOCK_SIZE);
+            double[][] result = new double[getNumSeries()][len];
+            RandomEngine random = new MersenneTwister((int) getBlockSeed(block));
+            for (int i = 0; i < len; i++)
+                runOneTest(random, result, i);
+            return result;
+        }
+
+        private int getNumSeries() {
+            return 2 + (optimizedDate == null ? 0 : 1)
+                    + (indivDates == null ? 0 : indivDates.length);
+        }
+
+        private void runOneTest(RandomEngine random, double[][] dest, int i) {
+            randomizeAll(random);
+
+            double forecastCost = metrics.independentForecastCost();
+            int s = 0;
+            dest[s++][i] = forecastCost - metrics.actual();
+            dest[s++][i] = getTime(metrics.independentForecastDate());
+            if (optimizedDate != null) {
+                Date optDate = schedule.getHypotheticalDate(forecastCost, true);
+                dest[s++][i] = getTime(optDate);
+            }
+            if (indivDates != null)
+                addIndivDateSamples(dest, s, i);
+        }
+
+        private void randomizeAll(RandomEngine random) {
+            Iterator i = randomObjects.iterator();
+            while (i.hasNext())
+                ((Randomizable) i.next()).randomize(random);
+        }
+
+        private void addIndivDateSamples(double[][] dest, int s, int pos) {
+            for (int i = 0;  i < randomObjects.size(); i++) {
+                Object o = randomObjects.get(i);
+                if (o instanceof EVSchedule) {
+                    EVSchedule sched = (EVSchedule) o;
+                    Date forecast = sched.getMetrics().independentForecastDate();
+                    dest[s + i][pos] = getTime(forecast);
+                } else {
+                    dest[s + i][pos] = Double.NaN;
+                }
+            }
+        }
+    }
+
+
+    /** Generates blocks of samples until none remain. */
+    private class SimulationWorker extends Thread {
+
+        private SimulationState state;
+
+        private AtomicInteger nextBlock;
+
+        private int sampleCount;
+
+        private double[][][] dest;
+
+        private RuntimeException error;
+
+        SimulationWorker(SimulationState state, AtomicInteger nextBlock,
+                int sampleCount, double[][][] dest) {
+            super("EVScheduleSimulation");
+            setDaemon(true);
+            this.state = state;
+            this.nextBlock = nextBlock;
+            this.sampleCount = sampleCount;
+            this.dest = dest;
+        }
+
+        public void run() {
+            try {
+                int block;
+                while ((block = nextBlock.getAndIncrement()) < dest.length)
+                    dest[block] = state.runBlock(block, sampleCount);
+            } catch (RuntimeException re) {
+                error = re;
+                // make sure other workers stop promptly
+                nextBlock.set(dest.length);
+            }
+        }
+
+        void finish() {
+            try {
+                join();
+            } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
             }
+            if (error != null)
+                throw error;
         }
     }
 
-    private double getTime(Date d) {
+    private static double getTime(Date d) {
         return (d == null ? EVSchedule.NEVER.getTime() : d.getTime());
     }
 
@@ -63,6 +63,7 @@ public class MonteCarloConfidenceInterval
         double result;
         double lastResult = Double.NaN;
         double lastError = acceptableError * 2;
+        int sortedCount = 0;
         while (true) {
             // grow the samples array
             samples.ensureCapacity(numSamples);
@@ -71,8 +72,10 @@ public class MonteCarloConfidenceInterval
             for (int i = numSamples - samples.size();  i-- > 0; )
                 samples.add(getSample());
 
-            // get the current 70% LPI
-            samples.sort();
+            // get the current 70% LPI.  The samples from earlier rounds are
+            // already sorted, so we only need to merge in the new ones.
+            samples.sortAppended(sortedCount);
+            sortedCount = samples.size();
             result = getQuantile(0.15);
 
             // if we're within an acceptable error, or we've reached the
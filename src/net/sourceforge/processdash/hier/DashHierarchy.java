@@ -44,12 +44,15 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.EventObject;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JOptionPane;
 import javax.swing.event.EventListenerList;
@@ -78,6 +81,36 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
     protected int nextDefectLogNumber = 0;
     public    String dataPath = null;
 
+    /** node ID -> key, built on demand */
+    private transient Map<String, PropertyKey> keysByNodeID;
+    /** node IDs that appear on more than one node */
+    private transient Set<String> duplicateNodeIDs;
+    /** template ID -> keys, built on demand */
+    private transient Map<String, Set<PropertyKey>> keysByTemplateID;
+    /** template ID -> the key returned by getByID */
+    private transient Map<String, PropertyKey> bestKeyByTemplateID;
+    /** counts ID changes made in place to the Props stored here */
+    private transient AtomicInteger idChangeCounter;
+    /** the value of idChangeCounter when the indexes were built */
+    private transient int indexedIDChangeCount;
+    /** the value of Prop.getSharedIDChangeCount() when the indexes were
+     * built */
+    private transient int indexedSharedIDChangeCount;
+
+    /** When false, lookups scan the hierarchy instead of using the node ID,
+     * template ID, and child name indexes */
+    private static boolean useIndexes = Settings.getBool(
+        "hierarchy.useIndexes", true);
+
+    /** Turn the lookup indexes on or off, for testing and benchmarking */
+    static void setUseIndexes(boolean use) {
+        useIndexes = use;
+    }
+
+    static boolean isUsingIndexes() {
+        return useIndexes;
+    }
+
 
     public DashHierarchy (String baseDataPath) {
         super();
@@ -143,7 +176,7 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
     }
 
     public Prop premove (PropertyKey key) {
-        Prop val = (Prop) super.remove (key);
+        Prop val = removeEntry (key);
         if (val == null)
             val = new Prop ();
         //else
@@ -235,7 +268,7 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
             path = path.substring(1);
         PropertyKey result = PropertyKey.ROOT;
 
-        SEGMENTS: while (path.length() > 0) {
+        while (path.length() > 0) {
             Prop p = (Prop) get(result);
             if (p == null || p.getNumChildren() == 0)
                 return exactMatch ? null : result;
@@ -250,28 +283,178 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
                 path = path.substring(slashPos+1);
             }
 
-            for (int i = p.getNumChildren();  i-- > 0; ) {
-                PropertyKey child = p.getChild(i);
-                if (nextSegment.equals(child.name())) {
-                    result = child;
-                    continue SEGMENTS;
+            PropertyKey child = p.getChildByName(nextSegment);
+            if (child == null)
+                return exactMatch ? null : result;
+            result = child;
+        }
+
+        return result;
+    }
+
+    public PropertyKey findKeyByNodeID(String nodeID) {
+        if (!StringUtils.hasValue(nodeID))
+            return null;
+
+        if (useIndexes) {
+            synchronized (this) {
+                ensureIndexes();
+                PropertyKey result = keysByNodeID.get(nodeID);
+                if (result != null && !hasNodeID(result, nodeID)) {
+                    // the node was changed without our knowledge
+                    rebuildIndexes();
+                    result = keysByNodeID.get(nodeID);
                 }
+                if (!duplicateNodeIDs.contains(nodeID))
+                    return result;
             }
+        }
 
-            return exactMatch ? null : result;
+        // several nodes have this ID; return the first we find, as before
+
+        for (Map.Entry<PropertyKey, Prop> e : entrySet()) {
+            if (nodeID.equals(e.getValue().getNodeID()))
+                return e.getKey();
         }
+        return null;
+    }
+
+    private boolean hasNodeID(PropertyKey key, String nodeID) {
+        Prop p = get(key);
+        return (p != null && nodeID.equals(p.getNodeID()));
+    }
+
+    private boolean hasTemplateID(PropertyKey key, String id) {
+        Prop p = get(key);
+        return (p != null && id.equals(p.getID()));
+    }
+
+
+    @Override
+    public synchronized Prop put(PropertyKey key, Prop value) {
+        Prop old = super.put(key, value);
+        value.setIDChangeCounter(getIDChangeCounter());
+        if (indexesAreCurrent()) {
+            unindex(key, old);
+            index(key, value);
+        }
+        return old;
+    }
 
+    @Override
+    public synchronized Prop remove(Object key) {
+        return removeEntry(key);
+    }
+
+    private synchronized Prop removeEntry(Object key) {
+        Prop old = super.remove(key);
+        if (old != null && indexesAreCurrent())
+            unindex((PropertyKey) key, old);
+        return old;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        discardIndexes();
+    }
+
+    @Override
+    public synchronized Object clone() {
+        // the clone shares our Props, so it shares our ID change counter too
+        getIDChangeCounter();
+        DashHierarchy result = (DashHierarchy) super.clone();
+        result.discardIndexes();
         return result;
     }
 
-    public PropertyKey findKeyByNodeID(String nodeID) {
+    private void discardIndexes() {
+        keysByNodeID = null;
+        duplicateNodeIDs = null;
+        keysByTemplateID = null;
+        bestKeyByTemplateID = null;
+    }
+
+    private synchronized AtomicInteger getIDChangeCounter() {
+        if (idChangeCounter == null)
+            idChangeCounter = new AtomicInteger();
+        return idChangeCounter;
+    }
+
+    /**
+     * The indexes are kept up to date as entries are added and removed.  But
+     * the ID and node ID of a Prop can also be changed in place, after it
+     * has been stored.  Each Prop counts those changes on the counter of the
+     * hierarchy that holds it (or on a shared counter, if it has been stored
+     * in several), and the indexes are rebuilt when either count moves.
+     */
+    boolean indexesAreCurrent() {
+        return keysByNodeID != null
+                && indexedIDChangeCount == getIDChangeCounter().get()
+                && indexedSharedIDChangeCount == Prop
+                        .getSharedIDChangeCount();
+    }
+
+    private void ensureIndexes() {
+        if (!indexesAreCurrent())
+            rebuildIndexes();
+    }
+
+    private void rebuildIndexes() {
+        AtomicInteger counter = getIDChangeCounter();
+        indexedIDChangeCount = counter.get();
+        indexedSharedIDChangeCount = Prop.getSharedIDChangeCount();
+        keysByNodeID = new HashMap<String, PropertyKey>(size() * 2);
+        duplicateNodeIDs = new HashSet<String>();
+        keysByTemplateID = new HashMap<String, Set<PropertyKey>>();
+        bestKeyByTemplateID = new HashMap<String, PropertyKey>();
+        for (Map.Entry<PropertyKey, Prop> e : entrySet()) {
+            // Props can be stored without put(), e.g. by deserialization
+            e.getValue().setIDChangeCounter(counter);
+            index(e.getKey(), e.getValue());
+        }
+    }
+
+    private void index(PropertyKey key, Prop val) {
+        if (val == null)
+            return;
+
+        String nodeID = val.getNodeID();
         if (StringUtils.hasValue(nodeID)) {
-            for (Map.Entry<PropertyKey, Prop> e : entrySet()) {
-                if (nodeID.equals(e.getValue().getNodeID()))
-                    return e.getKey();
+            PropertyKey other = keysByNodeID.put(nodeID, key);
+            if (other != null && !other.equals(key)
+                    && hasNodeID(other, nodeID))
+                duplicateNodeIDs.add(nodeID);
+        }
+
+        String id = val.getID();
+        if (id != null) {
+            Set<PropertyKey> keys = keysByTemplateID.get(id);
+            if (keys == null) {
+                keys = new LinkedHashSet<PropertyKey>();
+                keysByTemplateID.put(id, keys);
             }
+            keys.add(key);
+            bestKeyByTemplateID.remove(id);
+        }
+    }
+
+    private void unindex(PropertyKey key, Prop val) {
+        if (val == null)
+            return;
+
+        String nodeID = val.getNodeID();
+        if (nodeID != null && key.equals(keysByNodeID.get(nodeID)))
+            keysByNodeID.remove(nodeID);
+
+        String id = val.getID();
+        Set<PropertyKey> keys = (id == null ? null : keysByTemplateID.get(id));
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty())
+                keysByTemplateID.remove(id);
+            bestKeyByTemplateID.remove(id);
         }
-        return null;
     }
 
     /* returns true IIF the property has a datafile. */
@@ -321,7 +504,7 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
             if (explicit || responsibleForData(fromKey))
                 fireDataFileChange(new PendingDataChange(toKey.path(),
                                                          fromKey.path()));
-            super.remove(fromKey);
+            removeEntry(fromKey);
             put (toKey, aProp);
         }
         //fireHierarchyChanged();
@@ -337,7 +520,7 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
                 remove (val.getChild (idx));
             }
 
-            super.remove(key);
+            removeEntry(key);
         }
 
         //fireHierarchyChanged();
@@ -387,6 +570,9 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
     }
 
     public PropertyKey getByID(String id) {
+        if (useIndexes)
+            return getByIDFromIndex(id);
+
         Iterator i = entrySet().iterator();
         Map.Entry e;
         Prop val;
@@ -396,25 +582,62 @@ public class DashHierarchy extends Hashtable<PropertyKey, Prop> implements
             val = (Prop) e.getValue();
             if (id.equals(val.getID())) {
                 oneKey = (PropertyKey) e.getKey();
+                if (isBetterMatchForID(id, oneKey, result))
+                    result = oneKey;
+            }
+        }
+        return result;
+    }
 
-                if (// If this is the first match we've found,
-                    result == null ||
+    private synchronized PropertyKey getByIDFromIndex(String id) {
+        ensureIndexes();
+        PropertyKey result = bestKeyByTemplateID.get(id);
+        if (result != null && hasTemplateID(result, id))
+            return result;
 
-                    // or if this node's name also matches the id (while our
-                    // previous result's name did not),
-                    id.equals(oneKey.name()) && !id.equals(result.name()) ||
+        Set<PropertyKey> keys = keysByTemplateID.get(id);
+        if (keys == null)
+            return null;
 
-                    // or if this node's path is shorter than the previous result's
-                    // path (presumably because it is closer to the ROOT),
-                    result.path().length() > oneKey.path().length())
+        result = null;
+        boolean stale = false;
+        for (PropertyKey oneKey : keys) {
+            if (!hasTemplateID(oneKey, id))
+                stale = true;
+            else if (isBetterMatchForID(id, oneKey, result))
+                result = oneKey;
+        }
 
-                    // then save this key as our best result found so far.
+        if (stale) {
+            // a node was changed without our knowledge
+            rebuildIndexes();
+            keys = keysByTemplateID.get(id);
+            if (keys == null)
+                return null;
+            result = null;
+            for (PropertyKey oneKey : keys)
+                if (isBetterMatchForID(id, oneKey, result))
                     result = oneKey;
-            }
         }
+
+        bestKeyByTemplateID.put(id, result);
         return result;
     }
 
+    private static boolean isBetterMatchForID(String id, PropertyKey oneKey,
+            PropertyKey result) {
+        return (// If this is the first match we've found,
+                result == null ||
+
+                // or if this node's name also matches the id (while our
+                // previous result's name did not),
+                id.equals(oneKey.name()) && !id.equals(result.name()) ||
+
+                // or if this node's path is shorter than the previous result's
+                // path (presumably because it is closer to the ROOT),
+                result.path().length() > oneKey.path().length());
+    }
+
     public PropertyKey getRootChildByName(String id) {
         // This is NOT the correct way to do this, but this is how PropertyFrame
         // is currently doing it.  Fix it later.
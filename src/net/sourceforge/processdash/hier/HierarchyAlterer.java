@@ -136,13 +136,10 @@ public class HierarchyAlterer implements ItemListener {
 
     private static PropertyKey maybeMakeNode(DashHierarchy props,
             PropertyKey parent, String childName) {
-        PropertyKey child;
         Prop val = props.pget(parent);
-        for (int i = val.getNumChildren();   i-- > 0; ) {
-            child = val.getChild(i);
-            if (child.name().equals(childName))
-                return child;
-        }
+        PropertyKey child = val.getChildByName(childName);
+        if (child != null)
+            return child;
 
         props.addChildKey(parent, childName, -1);
         return new PropertyKey (parent, childName);
@@ -28,6 +28,10 @@
 
 package net.sourceforge.processdash.hier;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.sourceforge.processdash.util.*;
 
 public class Prop
@@ -42,10 +46,23 @@ public class Prop
     protected String status     = null;
     protected int selectedChild = 0;
     protected PropertyKey children[] = null;
+    private ChildIndex childIndex = null;
 
     protected static final char ESC_CHAR = '\\';
     public static final String TEMPLATE_QUALIFIER = ":!*!:";
 
+    /** nodes with fewer children than this are searched linearly */
+    private static final int CHILD_INDEX_THRESHOLD = 8;
+
+    /** counts ID and node ID changes to Props that have been stored in
+     * more than one hierarchy */
+    private static final AtomicInteger SHARED_ID_CHANGES = new AtomicInteger();
+
+    /** counts ID and node ID changes to this Prop, on behalf of the
+     * hierarchy that holds it, so that hierarchy's indexes can tell when
+     * they need to be rebuilt */
+    private transient volatile AtomicInteger idChangeCounter = null;
+
     //constructors
     public Prop () {
         super();
@@ -70,8 +87,18 @@ public class Prop
 
     // methods
     public void setDefectLog  (String log) { defectLog     = log; }
-    public void setID         (String id)  { myID          = id;  }
-    public void setNodeID     (String id)  { nodeID        = id;  }
+    public void setID (String id) {
+        if (!eq(myID, id)) {
+            myID = id;
+            idChanged();
+        }
+    }
+    public void setNodeID (String id) {
+        if (!eq(nodeID, id)) {
+            nodeID = id;
+            idChanged();
+        }
+    }
     public void setScriptFile (String log) { scriptFile    = log; }
     public void setDataFile   (String log) { dataFile      = log; }
     public void setExtraData  (String d)   { extraData     = d;   }
@@ -79,9 +106,10 @@ public class Prop
     public void setSelectedChild (int num) { selectedChild = num; }
 
     public void setChild (PropertyKey childKey, int which) {
-        if ((which < children.length) && (which >= 0))
+        if ((which < children.length) && (which >= 0)) {
             children [which] = childKey;
-        else
+            childIndex = null;
+        } else
             addChild (childKey, which);
     }
 
@@ -99,6 +127,7 @@ public class Prop
         for (int ii = where + 1; ii < temp.length; ii++)
             temp [ii] = children [ii - 1];
         children = temp;
+        childIndex = null;
         if (selectedChild >= where)
             selectedChild++;
         if (selectedChild >= temp.length)
@@ -119,6 +148,7 @@ public class Prop
         for (int ii = which; ii < temp.length; ii++)
             temp [ii] = children [ii + 1];
         children = temp;
+        childIndex = null;
         if (selectedChild > which)
             selectedChild--;
         else if (selectedChild == which)
@@ -136,6 +166,7 @@ public class Prop
         PropertyKey childB = children[which];
         children[which-1] = childB;
         children[which]   = childA;
+        childIndex = null;
 
         if (selectedChild == which)
             selectedChild--;
@@ -171,6 +202,69 @@ public class Prop
         return -1;
     }
 
+    /**
+     * Find the child with the given name.  If several children have that
+     * name, the last one is returned.
+     */
+    PropertyKey getChildByName(String name) {
+        PropertyKey[] c = children;
+        if (c == null || name == null)
+            return null;
+
+        if (c.length < CHILD_INDEX_THRESHOLD
+                || !DashHierarchy.isUsingIndexes()) {
+            for (int i = c.length; i-- > 0;)
+                if (name.equals(c[i].name()))
+                    return c[i];
+            return null;
+        }
+
+        ChildIndex index = childIndex;
+        if (index == null || index.source != c) {
+            index = new ChildIndex(c);
+            childIndex = index;
+        }
+        return index.keysByName.get(name);
+    }
+
+    /** A map of child names to keys, for nodes with many children */
+    private static class ChildIndex {
+        final PropertyKey[] source;
+        final Map<String, PropertyKey> keysByName;
+
+        ChildIndex(PropertyKey[] source) {
+            this.source = source;
+            this.keysByName = new HashMap<String, PropertyKey>(
+                    source.length * 2);
+            for (PropertyKey child : source)
+                keysByName.put(child.name(), child);
+        }
+    }
+
+    /** Called by a hierarchy when this Prop is stored in it.  A Prop that
+     * is stored in several hierarchies reports its changes to all of them.
+     */
+    synchronized void setIDChangeCounter(AtomicInteger counter) {
+        if (idChangeCounter == null)
+            idChangeCounter = counter;
+        else if (idChangeCounter != counter)
+            idChangeCounter = SHARED_ID_CHANGES;
+    }
+
+    private void idChanged() {
+        AtomicInteger counter = idChangeCounter;
+        if (counter != null)
+            counter.incrementAndGet();
+    }
+
+    static int getSharedIDChangeCount() {
+        return SHARED_ID_CHANGES.get();
+    }
+
+    private static boolean eq(String a, String b) {
+        return (a == null ? b == null : a.equals(b));
+    }
+
     private String stringRep (String s) {
         return ((s == null) ? "" : EscapeString.applyEscape (s, ESC_CHAR, "]"));
     }
@@ -183,12 +277,7 @@ public class Prop
     }
 
     public boolean isUniqueChildName (String s) {
-        if (children == null)
-            return true;
-        for (int ii = 0; ii < children.length; ii++)
-            if (children [ii].name().equals (s))
-                return false;
-        return true;
+        return getChildByName (s) == null;
     }
 
     public String uniqueChildName (String baseName) {
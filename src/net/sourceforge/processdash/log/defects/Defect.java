@@ -330,6 +330,12 @@ public class Defect implements Cloneable {
     public Object clone() {
         try {
             Defect result = (Defect) super.clone();
+            if (result.date != null)
+                result.date = (Date) result.date.clone();
+            if (result.injected != null)
+                result.injected = new DefectPhase(result.injected);
+            if (result.removed != null)
+                result.removed = new DefectPhase(result.removed);
             if (result.extra_attrs != null)
                 result.extra_attrs = new HashMap(result.extra_attrs);
             return result;
@@ -148,11 +148,14 @@ public class DefectAnalyzer {
         if (defLogName != null && defLogName.length() != 0) {
             DefectLog dl = new DefectLog
                 (dataDirectory + defLogName, path, null);
-            // read all the defects in that log, and
-            Defect[] defects = dl.readDefects();
+            // read all the defects in that log, and pass copies of them to
+            // the analyzer task.  Some tasks (e.g. the workflow phase
+            // updater) edit the defects they are given, and the cached
+            // array is shared with every other reader of this log.
+            Defect[] defects = dl.getCachedDefects();
             for (int d=0;  d < defects.length;  d++)
-                if (defects[d] != null)   // pass them to the analyzer task.
-                    t.analyze(path, defects[d]);
+                if (defects[d] != null)
+                    t.analyze(path, (Defect) defects[d].clone());
         }
 
         // recursively analyze all the children of this node.
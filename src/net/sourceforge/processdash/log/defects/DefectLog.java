@@ -98,12 +98,12 @@ public class DefectLog {
      * @return a matching defect, or null if none was found.
      */
     public synchronized Defect getDefect(String id) {
-        Defect defectsRead[] = readDefects();
+        Defect defectsRead[] = getCachedDefects();
         int pos = findDefect(defectsRead, id);
         if (pos == -1)
             return null;
         else
-            return defectsRead[pos];
+            return (Defect) defectsRead[pos].clone();
     }
 
     /** Save data for the given defect to the defect log.
@@ -111,23 +111,26 @@ public class DefectLog {
      * @param d a new or changed defect.
      */
     public synchronized void writeDefect(Defect d) {
-        Defect defectsRead[] = readDefects();
+        Defect defectsRead[] = getCachedDefects();
 
         // Update data elements in the repository concerning defect counts.
         // This will also assign the defect a number if it needs one.
         updateData(defectsRead, d);
 
+        // the cached array is shared, so build a new one with the change.
+        // store a copy of the defect, so later changes the caller makes
+        // to their object don't leak into the cache before being saved.
         Defect defects[];
         int pos = findDefect(defectsRead, d.number);
         if (pos == -1) {            // new defect
             int count = defectsRead.length + 1;
             defects = new Defect[count];
-            defects[--count] = d;
+            defects[--count] = (Defect) d.clone();
             while (count-- > 0)
                 defects[count] = defectsRead[count];
         } else {
-            defects = defectsRead;
-            defects[pos] = d;
+            defects = defectsRead.clone();
+            defects[pos] = (Defect) d.clone();
         }
 
         save(defects);
@@ -139,12 +142,13 @@ public class DefectLog {
      *
      * @param defectNumber the id number of the defect to delete.
      */
-    public void deleteDefect(String defectNumber) {
-        Defect defects[] = readDefects();
+    public synchronized void deleteDefect(String defectNumber) {
+        Defect defects[] = getCachedDefects();
 
         int pos = findDefect(defects, defectNumber);
         if (pos != -1) {
-            Defect d = defects[pos];
+            Defect d = (Defect) defects[pos].clone();
+            defects = defects.clone();
             defects[pos] = null;
             d.number = "DELETE";
             updateData(defects, d);
@@ -163,58 +167,80 @@ public class DefectLog {
     private void save(Defect [] defects) {
         if (Settings.isReadOnly())
             return;
-        else if (Settings.getBool(USE_XML_SETTING, false))
-            saveAsXML(defects);
-        else {
-            if (saveAsTabDelimited(defects) == false) {
-                enableXmlStorageFormat();
+
+        // discard the cached copy before touching the file.  If the save
+        // fails partway, a same-length file written within the same
+        // timestamp tick would otherwise still match the stale entry.
+        DefectLogCache.remove(defectLogFilename);
+        try {
+            if (Settings.getBool(USE_XML_SETTING, false))
                 saveAsXML(defects);
+            else {
+                if (saveAsTabDelimited(defects) == false) {
+                    enableXmlStorageFormat();
+                    saveAsXML(defects);
+                }
             }
+            DefectLogCache.put(defectLogFilename, compact(defects));
+
+        } catch (IOException e) {
+            System.out.println("IOException: " + e);
         }
     }
 
-    private void saveAsXML(Defect [] defects) {
-        try {
-            RobustFileOutputStream out = new RobustFileOutputStream(
-                      defectLogFilename);
-            if (defects != null && defects.length > 0) {
-                XmlSerializer ser = XMLUtils.getXmlSerializer(true);
-                ser.setOutput(out, XmlConstants.ENCODING);
-                ser.startDocument(XmlConstants.ENCODING, null);
-                ser.startTag(null, "defectLog");
-                for (int i = 0; i < defects.length; i++)
-                    if (defects[i] != null)
-                        defects[i].toXml(ser);
-                ser.endTag(null, "defectLog");
-                ser.endDocument();
-            }
-            out.close();
-
-        } catch (IOException e) { System.out.println("IOException: " + e); };
+    private void saveAsXML(Defect [] defects) throws IOException {
+        RobustFileOutputStream out = new RobustFileOutputStream(
+                  defectLogFilename);
+        if (defects != null && defects.length > 0) {
+            XmlSerializer ser = XMLUtils.getXmlSerializer(true);
+            ser.setOutput(out, XmlConstants.ENCODING);
+            ser.startDocument(XmlConstants.ENCODING, null);
+            ser.startTag(null, "defectLog");
+            for (int i = 0; i < defects.length; i++)
+                if (defects[i] != null)
+                    defects[i].toXml(ser);
+            ser.endTag(null, "defectLog");
+            ser.endDocument();
+        }
+        out.close();
     }
 
-    private boolean saveAsTabDelimited(Defect [] defects) {
+    private boolean saveAsTabDelimited(Defect [] defects) throws IOException {
         boolean savedSuccessfully = true;
-        try {
-            File defectFile = new File(defectLogFilename);
-            Writer out = new BufferedWriter(new RobustFileWriter(defectFile));
-
-            // write the defect info
-            String newLine = System.getProperty("line.separator");
-            if (defects != null)
-                for (int i = 0;   i < defects.length;   i++)
-                    if (defects[i] != null) {
-                        if (defects[i].needsXmlSaveFormat())
-                            savedSuccessfully = false;
-                        out.write(defects[i].toString());
-                        out.write(newLine);
-                    }
-
-            out.close();
-        } catch (IOException e) { System.out.println("IOException: " + e); };
+        File defectFile = new File(defectLogFilename);
+        Writer out = new BufferedWriter(new RobustFileWriter(defectFile));
+
+        // write the defect info
+        String newLine = System.getProperty("line.separator");
+        if (defects != null)
+            for (int i = 0;   i < defects.length;   i++)
+                if (defects[i] != null) {
+                    if (defects[i].needsXmlSaveFormat())
+                        savedSuccessfully = false;
+                    out.write(defects[i].toString());
+                    out.write(newLine);
+                }
+
+        out.close();
         return savedSuccessfully;
     }
 
+    /** @return the non-null elements of the given array */
+    private static Defect[] compact(Defect[] defects) {
+        int count = 0;
+        for (int i = 0; i < defects.length; i++)
+            if (defects[i] != null)
+                count++;
+        if (count == defects.length)
+            return defects;
+
+        Defect[] result = new Defect[count];
+        for (int i = defects.length; i-- > 0;)
+            if (defects[i] != null)
+                result[--count] = defects[i];
+        return result;
+    }
+
     private Defect[] getDefects(BufferedReader in, int count) throws IOException
     {
         String one_defect = in.readLine();
@@ -244,7 +270,37 @@ public class DefectLog {
         return -1;
     }
 
+    /** Read the defects in this log.
+     *
+     * The objects returned belong to the caller, who is free to modify them.
+     * (Changes will not be saved unless they are passed to
+     * {@link #writeDefect(Defect)}.)
+     */
     public Defect[] readDefects() {
+        Defect[] cached = getCachedDefects();
+        Defect[] results = new Defect[cached.length];
+        for (int i = cached.length; i-- > 0;)
+            results[i] = (Defect) cached[i].clone();
+        return results;
+    }
+
+    /** Return the defects in this log, from the in-memory cache if the file
+     * has not changed since it was last read or written.
+     *
+     * The array and the defects it contains are shared, and must be treated
+     * as read-only.
+     */
+    Defect[] getCachedDefects() {
+        Defect[] results = DefectLogCache.get(defectLogFilename);
+        if (results == null) {
+            results = compact(readDefectsFromFile());
+            if (new File(defectLogFilename).isFile())
+                DefectLogCache.put(defectLogFilename, results);
+        }
+        return results;
+    }
+
+    private Defect[] readDefectsFromFile() {
         Defect [] results = null;
         PushbackInputStream pin = null;
         try {
@@ -521,8 +577,14 @@ public class DefectLog {
     public static void convertFileToXml(File f) {
         if (f.length() > 0) {
             DefectLog log = new DefectLog(f.getAbsolutePath(), null, null);
-            Defect[] defects = log.readDefects();
-            log.saveAsXML(defects);
+            Defect[] defects = log.getCachedDefects();
+            DefectLogCache.remove(log.defectLogFilename);
+            try {
+                log.saveAsXML(defects);
+                DefectLogCache.put(log.defectLogFilename, defects);
+            } catch (IOException e) {
+                System.out.println("IOException: " + e);
+            }
         }
     }
     public static void enableXmlStorageFormat() {
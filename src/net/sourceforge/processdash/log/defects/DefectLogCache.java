@@ -0,0 +1,112 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.log.defects;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sourceforge.processdash.Settings;
+
+/**
+ * Keeps the parsed contents of recently used defect log files in memory.
+ *
+ * Each entry records the length and modification time of the file it was
+ * read from.  If the file on disk no longer matches (for example, because
+ * it was replaced by a sync operation), the entry is discarded and the file
+ * will be parsed again.  Those checks cannot see a same-length change made
+ * within one timestamp tick, so {@link DefectLog} also discards the entry
+ * whenever it saves the file, and records a new one once the save is done.
+ *
+ * The arrays held by this cache are shared, and must never be modified.
+ * Callers who need to make changes should clone the defects first.
+ */
+class DefectLogCache {
+
+    static final String MAX_SIZE_SETTING = "defectLog.cacheSize";
+
+    private static final int DEFAULT_MAX_SIZE = 5000;
+
+    private static Map<String, CacheEntry> cache =
+            new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> e) {
+            return size() > getMaxSize();
+        }
+    };
+
+    private static int maxSize = -1;
+
+
+    /**
+     * @return the cached defects for the given file, or null if the file is
+     *     not in the cache or has changed since it was cached.
+     */
+    static synchronized Defect[] get(String filename) {
+        File f = new File(filename);
+        String key = f.getAbsolutePath();
+        CacheEntry e = cache.get(key);
+        if (e == null)
+            return null;
+        if (e.length == f.length() && e.modTime == f.lastModified())
+            return e.defects;
+
+        cache.remove(key);
+        return null;
+    }
+
+    /**
+     * Record the defects that are currently stored in the given file.  This
+     * should be called immediately after reading or writing the file.
+     */
+    static synchronized void put(String filename, Defect[] defects) {
+        File f = new File(filename);
+        CacheEntry e = new CacheEntry();
+        e.length = f.length();
+        e.modTime = f.lastModified();
+        e.defects = defects;
+        cache.put(f.getAbsolutePath(), e);
+    }
+
+    static synchronized void remove(String filename) {
+        cache.remove(new File(filename).getAbsolutePath());
+    }
+
+    static synchronized void clear() {
+        cache.clear();
+    }
+
+    private static int getMaxSize() {
+        if (maxSize < 0)
+            maxSize = Math.max(1, Settings.getInt(MAX_SIZE_SETTING,
+                DEFAULT_MAX_SIZE));
+        return maxSize;
+    }
+
+    private static class CacheEntry {
+        long length;
+        long modTime;
+        Defect[] defects;
+    }
+
+}
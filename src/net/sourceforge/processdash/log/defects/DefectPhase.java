@@ -50,6 +50,13 @@ public class DefectPhase {
         this.legacyPhase = phase.getMcfPhase();
     }
 
+    public DefectPhase(DefectPhase that) {
+        this.processName = that.processName;
+        this.phaseName = that.phaseName;
+        this.phaseID = that.phaseID;
+        this.legacyPhase = that.legacyPhase;
+    }
+
     public boolean updateFrom(WorkflowInfo.Phase phase) {
         boolean madeChange = false;
         if (!phase.getWorkflow().getWorkflowName().equals(processName)) {
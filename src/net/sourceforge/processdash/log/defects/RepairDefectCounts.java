@@ -64,7 +64,7 @@ public class RepairDefectCounts {
             DefectLog dl = new DefectLog(dataDirectory + defLogName, path,
                 ctx.getData());
             // read all the defects in that log, and
-            Defect[] defects = dl.readDefects();
+            Defect[] defects = dl.getCachedDefects();
             // recalculate the associated data.
             dl.recalculateData(defects, ctx);
         }
@@ -33,12 +33,20 @@ public class BaseTimeLog implements TimeLog {
 
     private File timeLogFile;
 
+    private TimeLogIndex index;
+
     public BaseTimeLog(File file) {
         timeLogFile = file;
+        index = new TimeLogIndex(file);
     }
 
     public EnumerIterator filter(String path, Date from, Date to) throws IOException {
-        EnumerIterator result = new TimeLogReader(timeLogFile);
+        // answer the query from the index if possible, to avoid parsing XML
+        EnumerIterator result = index.filter(path, from, to);
+        if (result != null)
+            return result;
+
+        result = new TimeLogReader(timeLogFile);
         if (path != null || from != null || to != null)
             result = new TimeLogIteratorFilter(result, path, from, to);
         return result;
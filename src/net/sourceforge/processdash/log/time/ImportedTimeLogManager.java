@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -59,9 +60,10 @@ public class ImportedTimeLogManager {
      * Remove the time log associated with the given prefix from our cache.
      */
     public void closeTimeLogs(String prefix) {
-        File oldFile = (File) importedLogs.remove(cleanupPrefix(prefix));
-        if (oldFile != null)
-            oldFile.delete();
+        TimeLogIndex oldLog = (TimeLogIndex) importedLogs
+                .remove(cleanupPrefix(prefix));
+        if (oldLog != null)
+            oldLog.getIndexFile().delete();
     }
 
     /**
@@ -69,8 +71,8 @@ public class ImportedTimeLogManager {
      * created.
      */
     public void dispose() {
-        for (Object f : importedLogs.values())
-            ((File) f).delete();
+        for (Object log : importedLogs.values())
+            ((TimeLogIndex) log).getIndexFile().delete();
         importedLogs.clear();
     }
 
@@ -84,7 +86,7 @@ public class ImportedTimeLogManager {
      */
     public void importTimeLog(String prefix, InputStream timeLogData)
             throws IOException {
-        File oldFile;
+        TimeLogIndex oldLog;
         prefix = cleanupPrefix(prefix);
 
         // read the time log entries from the stream
@@ -93,25 +95,26 @@ public class ImportedTimeLogManager {
         if (!timeLogEntries.hasNext()) {
             // if the incoming time log is empty, don't bother saving it. Just
             // delete any time log for the given prefix.
-            oldFile = (File) importedLogs.remove(prefix);
+            oldLog = (TimeLogIndex) importedLogs.remove(prefix);
 
         } else {
             // prepend the prefix to all time log entries
             timeLogEntries = new TimeLogEntryVOPathFilter(timeLogEntries,
                     new PrefixAppender(prefix));
 
-            // create a temporary file, and copy the frobbed entries to it
+            // create a temporary file, and save the frobbed entries to it in
+            // columnar form, so queries can be answered without parsing XML
             File destFile = TempFileFactory.get().createTempFile(
-                "tempImportedTimeLog", ".xml");
-            TimeLogWriter.write(destFile, timeLogEntries);
+                "tempImportedTimeLog", TimeLogIndex.SUFFIX);
+            TimeLogIndex newLog = TimeLogIndex.create(destFile, timeLogEntries);
 
             // save the new file into our map of imported log files.
-            oldFile = (File) importedLogs.put(prefix, destFile);
+            oldLog = (TimeLogIndex) importedLogs.put(prefix, newLog);
         }
 
         // cleanup after the old file, if it was present.
-        if (oldFile != null)
-            oldFile.delete();
+        if (oldLog != null)
+            oldLog.getIndexFile().delete();
     }
 
     /**
@@ -120,6 +123,20 @@ public class ImportedTimeLogManager {
      */
     public EnumerIterator getImportedTimeLogEntries(String prefix)
             throws IOException {
+        return getImportedTimeLogEntries(prefix, null, null);
+    }
+
+    /**
+     * Return an iterator of the time log entries mounted at the given prefix,
+     * whose start times fall within the given range.  If no imported time
+     * logs are mounted at the given prefix, returns null.
+     * 
+     * @param prefix the prefix to retrieve entries for
+     * @param from the earliest start time to include, or null for no limit
+     * @param to the latest start time to include, or null for no limit
+     */
+    public EnumerIterator getImportedTimeLogEntries(String prefix, Date from,
+            Date to) throws IOException {
         prefix = cleanupPrefix(prefix);
         List timeLogIterators = new ArrayList();
 
@@ -130,25 +147,29 @@ public class ImportedTimeLogManager {
         for (Iterator i = snapshot.entrySet().iterator(); i.hasNext();) {
             Map.Entry e = (Map.Entry) i.next();
             String importedPrefix = (String) e.getKey();
-            File file = (File) e.getValue();
+            TimeLogIndex log = (TimeLogIndex) e.getValue();
 
+            Iterator content = null;
             if (Filter.pathMatches(importedPrefix, prefix)) {
                 // this set of imported time log data is either (a) mounted
                 // at the exact prefix requested, or (b) mounted at a prefix
                 // underneath the one requested. In either case, we should
                 // return all imported entries.
-                Iterator content = new TimeLogReader(file);
-                timeLogIterators.add(content);
+                content = log.filter(null, from, to);
             } else if (Filter.pathMatches(prefix, importedPrefix)) {
                 // in this case, the requested prefix identifies a subset of
                 // the imported time log data. We must filter that imported
                 // data to return the requested entries.
-                Iterator content = new TimeLogReader(file);
-                Iterator filteredContent = new TimeLogIteratorFilter(content,
-                        prefix, null, null);
-                if (filteredContent.hasNext())
-                    timeLogIterators.add(filteredContent);
+                content = log.filter(prefix, from, to);
+            } else {
+                continue;
             }
+
+            if (content == null)
+                throw new IOException("Unable to read imported time log "
+                        + log.getIndexFile());
+            if (content.hasNext())
+                timeLogIterators.add(content);
         }
 
         if (timeLogIterators.isEmpty())
@@ -175,7 +196,8 @@ public class ImportedTimeLogManager {
         for (Iterator i = snapshot.entrySet().iterator(); i.hasNext();) {
             Map.Entry e = (Map.Entry) i.next();
             String importedPrefix = (String) e.getKey();
-            File file = (File) e.getValue();
+            TimeLogIndex log = (TimeLogIndex) e.getValue();
+            File file = log.getIndexFile();
             long lastMod = file.lastModified();
             if (lastMod < 1) continue;
 
@@ -189,8 +211,8 @@ public class ImportedTimeLogManager {
             synchronized (importedLogs) {
                 // check to make certain the mapping for this prefix hasn't
                 // been altered since we began this loop
-                if (importedLogs.get(importedPrefix) == file)
-                    importedLogs.put(importedPrefix, newFile);
+                if (importedLogs.get(importedPrefix) == log)
+                    importedLogs.put(importedPrefix, TimeLogIndex.open(newFile));
                 else
                     abortChange = true;
             }
@@ -205,7 +227,7 @@ public class ImportedTimeLogManager {
     private File touchCachedFile(File oldFile) {
         try {
             File newFile = TempFileFactory.get().createTempFile(
-                "tempImportedTimeLog", ".xml");
+                "tempImportedTimeLog", TimeLogIndex.SUFFIX);
 
             FileUtils.copyFile(oldFile, newFile);
             return newFile;
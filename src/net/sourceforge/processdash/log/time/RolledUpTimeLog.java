@@ -150,9 +150,15 @@ public abstract class RolledUpTimeLog implements TimeLog {
         for (int i = 0; i < prefixes.length; i++) {
             String onePrefix = prefixes[i];
 
-            // find any imported entries for the given prefix
+            // find any imported entries for the given prefix.  If paths are
+            // not being remapped, entries outside the requested path can be
+            // pruned by the imported time log itself.
+            String importPath = onePrefix;
+            if (pathRemapper == null && path != null
+                    && Filter.pathMatches(path, onePrefix))
+                importPath = path;
             Iterator importedEntries = ImportedTimeLogManager.getInstance()
-                    .getImportedTimeLogEntries(onePrefix);
+                    .getImportedTimeLogEntries(importPath, from, to);
             maybeAddEntries(entries, importedEntries, pathRemapper);
 
             // find any regular entries for the given prefix
@@ -0,0 +1,526 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.log.time;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import net.sourceforge.processdash.hier.Filter;
+import net.sourceforge.processdash.util.EnumerIterator;
+import net.sourceforge.processdash.util.FileUtils;
+import net.sourceforge.processdash.util.RobustFileOutputStream;
+
+/**
+ * A columnar copy of the entries in a time log XML file, which can answer
+ * filter queries without parsing the XML.
+ *
+ * The index is saved in a sidecar file next to the XML file, so it can be
+ * reused the next time the dashboard starts.  The sidecar records the
+ * length and checksum of the XML file it was built from; if the XML file
+ * changes, the index is rebuilt automatically.
+ *
+ * An index can also stand alone, with no XML file behind it.  In that case
+ * the entries are written straight to the binary file, and the in-memory
+ * copy of the columns may be discarded when memory is low; it will be
+ * reloaded from the file on the next query.
+ */
+class TimeLogIndex {
+
+    static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x544c4958; // "TLIX"
+
+    private static final int VERSION = 1;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /** The coarsest file timestamp resolution we expect to encounter (FAT
+     * filesystems record modification times to the nearest two seconds). */
+    private static final long MOD_TIME_RESOLUTION = 2000;
+
+    private static final Logger logger = Logger.getLogger(TimeLogIndex.class
+            .getName());
+
+    private File xmlFile;
+
+    private File indexFile;
+
+    private volatile Columns columns;
+
+    private volatile SoftReference<Columns> standaloneColumns;
+
+    TimeLogIndex(File xmlFile) {
+        this.xmlFile = xmlFile;
+        this.indexFile = new File(xmlFile.getPath() + SUFFIX);
+    }
+
+    private TimeLogIndex(File indexFile, Columns c) {
+        this.xmlFile = null;
+        this.indexFile = indexFile;
+        this.standaloneColumns = new SoftReference<Columns>(c);
+    }
+
+    /**
+     * Create a standalone index containing the given time log entries.
+     *
+     * @param indexFile the file where the index should be saved
+     * @param entries an iterator returning {@link ChangeFlaggedTimeLogEntry}
+     *     objects
+     */
+    static TimeLogIndex create(File indexFile, Iterator entries)
+            throws IOException {
+        ColumnBuilder builder = new ColumnBuilder();
+        while (entries.hasNext())
+            builder.add((TimeLogEntry) entries.next());
+        Columns c = builder.getColumns();
+
+        RobustFileOutputStream out = new RobustFileOutputStream(indexFile);
+        try {
+            writeColumns(out, c);
+        } catch (IOException ioe) {
+            out.abort();
+            throw ioe;
+        }
+        return new TimeLogIndex(indexFile, c);
+    }
+
+    /**
+     * Open a standalone index that was previously written by
+     * {@link #create(File, Iterator)}.
+     */
+    static TimeLogIndex open(File indexFile) {
+        return new TimeLogIndex(indexFile, null);
+    }
+
+    File getIndexFile() {
+        return indexFile;
+    }
+
+    /** @return the number of entries in this index, or -1 if the index
+     *     could not be read. */
+    int size() {
+        Columns c = getCurrentColumns();
+        return (c == null ? -1 : c.size);
+    }
+
+    /**
+     * Find the entries in the time log that match the given criteria.
+     *
+     * @return an iterator over the matching entries, or null if the index
+     *     could not be built.  (In that case, the caller should read the
+     *     XML file directly, so any problems are reported as usual.)
+     */
+    EnumerIterator filter(String path, Date from, Date to) {
+        Columns c = getCurrentColumns();
+        if (c == null)
+            return null;
+
+        long fromTime = (from == null ? NO_DATE : from.getTime());
+        long toTime = (to == null ? NO_DATE : to.getTime());
+        byte[] pathMatches = (path == null ? null : new byte[c.strings.length]);
+
+        int[] matches = new int[c.size];
+        int numMatches = 0;
+        for (int i = 0; i < c.size; i++) {
+            if (pathMatches != null
+                    && !pathMatches(c, c.paths[i], path, pathMatches))
+                continue;
+
+            long start = c.starts[i];
+            if (start != NO_DATE) {
+                if (toTime != NO_DATE && start > toTime)
+                    continue;
+                if (fromTime != NO_DATE && start < fromTime)
+                    continue;
+            }
+
+            matches[numMatches++] = i;
+        }
+
+        return new ColumnIterator(c, matches, numMatches);
+    }
+
+    /** Check whether a path matches the filter, remembering the answer so
+     * each distinct path is only examined once per query. */
+    private boolean pathMatches(Columns c, int pathIdx, String prefix,
+            byte[] pathMatches) {
+        if (pathIdx < 0)
+            return false;
+        if (pathMatches[pathIdx] == 0)
+            pathMatches[pathIdx] = (Filter.pathMatches(c.strings[pathIdx],
+                prefix, true) ? (byte) 1 : (byte) 2);
+        return pathMatches[pathIdx] == 1;
+    }
+
+
+    private synchronized Columns getCurrentColumns() {
+        if (xmlFile == null)
+            return getStandaloneColumns();
+
+        if (!xmlFile.isFile())
+            return null;
+
+        long length = xmlFile.length();
+        long modTime = xmlFile.lastModified();
+        Columns c = columns;
+        // the length and timestamp only prove the file is unchanged if it
+        // was last modified comfortably before we checksummed it; otherwise
+        // a same-length save within the same timestamp tick would go
+        // unnoticed.
+        if (c != null && c.xmlLength == length && c.xmlModTime == modTime
+                && c.xmlCheckTime - modTime > MOD_TIME_RESOLUTION)
+            return c;
+
+        try {
+            long checkTime = System.currentTimeMillis();
+            long checksum = checksum(xmlFile);
+            if (c == null)
+                c = readIndexFile();
+            if (c == null || c.xmlLength != length
+                    || c.xmlChecksum != checksum) {
+                c = buildColumns(length, checksum);
+                if (c == null)
+                    return null;
+                writeIndexFile(c);
+            }
+            c.xmlModTime = modTime;
+            c.xmlCheckTime = checkTime;
+            columns = c;
+            return c;
+
+        } catch (IOException ioe) {
+            logger.log(Level.FINE, "Unable to index " + xmlFile, ioe);
+            return null;
+        }
+    }
+
+    private Columns getStandaloneColumns() {
+        Columns c = standaloneColumns.get();
+        if (c == null) {
+            c = readIndexFile();
+            if (c != null)
+                standaloneColumns = new SoftReference<Columns>(c);
+        }
+        return c;
+    }
+
+    private Columns buildColumns(long length, long checksum) {
+        ColumnBuilder builder = new ColumnBuilder();
+        try {
+            TimeLogReader reader = new TimeLogReader(xmlFile);
+            while (reader.hasNext())
+                builder.add((TimeLogEntry) reader.next());
+        } catch (IOException ioe) {
+            return null;
+        } catch (IONoSuchElementException ionsee) {
+            return null;
+        }
+
+        Columns result = builder.getColumns();
+        result.xmlLength = length;
+        result.xmlChecksum = checksum;
+        return result;
+    }
+
+    private static long checksum(File f) throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream(f);
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) != -1)
+                crc.update(buf, 0, len);
+        } finally {
+            FileUtils.safelyClose(in);
+        }
+        return crc.getValue();
+    }
+
+
+
+    private Columns readIndexFile() {
+        if (!indexFile.isFile())
+            return null;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(indexFile)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+
+            Columns c = new Columns(0);
+            c.xmlLength = in.readLong();
+            c.xmlChecksum = in.readLong();
+
+            c.strings = new String[in.readInt()];
+            for (int i = 0; i < c.strings.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                c.strings[i] = new String(bytes, "UTF-8");
+            }
+
+            int size = in.readInt();
+            c.allocate(size);
+            for (int i = 0; i < size; i++) {
+                c.ids[i] = in.readLong();
+                c.paths[i] = in.readInt();
+                c.starts[i] = in.readLong();
+                c.elapsed[i] = in.readLong();
+                c.interrupts[i] = in.readLong();
+                c.comments[i] = in.readInt();
+                c.flags[i] = in.readByte();
+            }
+            c.size = size;
+            return c;
+
+        } catch (Exception e) {
+            logger.log(Level.FINE, "Ignoring unreadable index " + indexFile, e);
+            return null;
+        } finally {
+            FileUtils.safelyClose(in);
+        }
+    }
+
+    private void writeIndexFile(Columns c) {
+        RobustFileOutputStream rout = null;
+        try {
+            rout = new RobustFileOutputStream(indexFile);
+            writeColumns(rout, c);
+        } catch (IOException ioe) {
+            // the index is only an optimization; if we can't save it (for
+            // example, in a read-only directory), we'll keep it in memory.
+            logger.log(Level.FINE, "Unable to save index " + indexFile, ioe);
+            if (rout != null)
+                try {
+                    rout.abort();
+                } catch (Exception e) {}
+        }
+    }
+
+    private static void writeColumns(RobustFileOutputStream rout, Columns c)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                rout));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(c.xmlLength);
+        out.writeLong(c.xmlChecksum);
+
+        out.writeInt(c.strings.length);
+        for (String s : c.strings) {
+            byte[] bytes = s.getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(c.size);
+        for (int i = 0; i < c.size; i++) {
+            out.writeLong(c.ids[i]);
+            out.writeInt(c.paths[i]);
+            out.writeLong(c.starts[i]);
+            out.writeLong(c.elapsed[i]);
+            out.writeLong(c.interrupts[i]);
+            out.writeInt(c.comments[i]);
+            out.writeByte(c.flags[i]);
+        }
+        out.close();
+    }
+
+
+
+    /** The entries in a time log, stored as parallel arrays. */
+    private static class Columns {
+
+        long xmlLength, xmlModTime, xmlCheckTime, xmlChecksum;
+
+        String[] strings;
+
+        int size;
+
+        long[] ids;
+
+        int[] paths;
+
+        long[] starts;
+
+        long[] elapsed;
+
+        long[] interrupts;
+
+        int[] comments;
+
+        byte[] flags;
+
+        Columns(int capacity) {
+            allocate(capacity);
+        }
+
+        void allocate(int capacity) {
+            ids = grow(ids, capacity);
+            paths = grow(paths, capacity);
+            starts = grow(starts, capacity);
+            elapsed = grow(elapsed, capacity);
+            interrupts = grow(interrupts, capacity);
+            comments = grow(comments, capacity);
+            flags = grow(flags, capacity);
+        }
+
+        private static long[] grow(long[] a, int capacity) {
+            long[] result = new long[capacity];
+            if (a != null)
+                System.arraycopy(a, 0, result, 0, Math.min(a.length, capacity));
+            return result;
+        }
+
+        private static int[] grow(int[] a, int capacity) {
+            int[] result = new int[capacity];
+            if (a != null)
+                System.arraycopy(a, 0, result, 0, Math.min(a.length, capacity));
+            return result;
+        }
+
+        private static byte[] grow(byte[] a, int capacity) {
+            byte[] result = new byte[capacity];
+            if (a != null)
+                System.arraycopy(a, 0, result, 0, Math.min(a.length, capacity));
+            return result;
+        }
+
+        TimeLogEntryVO getEntry(int i) {
+            return new TimeLogEntryVO(ids[i], getString(paths[i]),
+                    (starts[i] == NO_DATE ? null : new Date(starts[i])),
+                    elapsed[i], interrupts[i], getString(comments[i]),
+                    flags[i]);
+        }
+
+        private String getString(int idx) {
+            return (idx < 0 ? null : strings[idx]);
+        }
+    }
+
+
+    /** Builds a set of columns from a sequence of time log entries. */
+    private static class ColumnBuilder {
+
+        private Columns c = new Columns(1024);
+
+        private Map<String, Integer> stringIndexes = new HashMap();
+
+        private List<String> strings = new ArrayList<String>();
+
+        void add(TimeLogEntry tle) {
+            int i = c.size;
+            if (i == c.ids.length)
+                c.allocate(i * 2);
+
+            Date start = tle.getStartTime();
+            c.ids[i] = tle.getID();
+            c.paths[i] = getStringIndex(tle.getPath());
+            c.starts[i] = (start == null ? NO_DATE : start.getTime());
+            c.elapsed[i] = tle.getElapsedTime();
+            c.interrupts[i] = tle.getInterruptTime();
+            c.comments[i] = getStringIndex(tle.getComment());
+            c.flags[i] = (byte) ((ChangeFlaggedTimeLogEntry) tle)
+                    .getChangeFlag();
+            c.size++;
+        }
+
+        private int getStringIndex(String s) {
+            if (s == null)
+                return -1;
+            Integer result = stringIndexes.get(s);
+            if (result == null) {
+                result = strings.size();
+                stringIndexes.put(s, result);
+                strings.add(s);
+            }
+            return result;
+        }
+
+        Columns getColumns() {
+            c.strings = strings.toArray(new String[strings.size()]);
+            return c;
+        }
+    }
+
+
+    private static class ColumnIterator implements EnumerIterator {
+
+        private Columns c;
+
+        private int[] matches;
+
+        private int numMatches;
+
+        private int pos;
+
+        ColumnIterator(Columns c, int[] matches, int numMatches) {
+            this.c = c;
+            this.matches = matches;
+            this.numMatches = numMatches;
+            this.pos = 0;
+        }
+
+        public boolean hasNext() {
+            return pos < numMatches;
+        }
+
+        public Object next() {
+            if (pos >= numMatches)
+                throw new NoSuchElementException();
+            return c.getEntry(matches[pos++]);
+        }
+
+        public boolean hasMoreElements() {
+            return hasNext();
+        }
+
+        public Object nextElement() {
+            return next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
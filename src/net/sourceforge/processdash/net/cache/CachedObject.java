@@ -54,6 +54,10 @@ public abstract class CachedObject {
 
     protected String errorMessage = null;
 
+    /** the most recent result of getString(), reused while data is
+     * unchanged */
+    private volatile DecodedString decoded = null;
+
 
     /** Create a new cached object of the given type, with the
      *  next available ID. */
@@ -144,12 +148,30 @@ public abstract class CachedObject {
     public String getString()       { return getString(null);  }
     public String getString(String encoding) {
         try {
-            getBytes();
-            if (data == null) return null;
-            if (encoding == null) return new String(data);
-            return new String(data, encoding);
+            byte[] bytes = getBytes();
+            if (bytes == null) return null;
+
+            DecodedString d = decoded;
+            if (d != null && d.bytes == bytes && (encoding == null
+                    ? d.encoding == null : encoding.equals(d.encoding)))
+                return d.text;
+
+            String result = (encoding == null ? new String(bytes)
+                    : new String(bytes, encoding));
+            decoded = new DecodedString(bytes, encoding, result);
+            return result;
         } catch (UnsupportedEncodingException uee) { return null; }
     }
+    private static class DecodedString {
+        byte[] bytes;
+        String encoding;
+        String text;
+        DecodedString(byte[] bytes, String encoding, String text) {
+            this.bytes = bytes;
+            this.encoding = encoding;
+            this.text = text;
+        }
+    }
     public Object getLocalAttr(String name) {
         if (localAttrs == null) return null;
         return localAttrs.get(name);
@@ -29,7 +29,13 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import net.sourceforge.processdash.Settings;
 import net.sourceforge.processdash.util.FileUtils;
 import net.sourceforge.processdash.util.RobustFileOutputStream;
 import net.sourceforge.processdash.util.XMLUtils;
@@ -47,6 +53,24 @@ public class FileObjectCache implements ObjectCache,
     protected String extension;
     protected int nextAvaliableID;
 
+    /** Recently used objects, so they do not need to be parsed again.
+     * Entries are validated against the files they were read from. */
+    private ConcurrentHashMap<Integer, MemoryEntry> memory =
+            new ConcurrentHashMap<Integer, MemoryEntry>();
+
+    /** the maximum number of objects to keep in memory */
+    int memoryCacheSize;
+
+    /** the maximum total file size of the objects kept in memory */
+    long memoryCacheBytes;
+
+    /** the total file size of the objects currently in memory */
+    private long memoryBytesUsed;
+
+    private AtomicLong accessClock = new AtomicLong();
+    private AtomicLong hitCount = new AtomicLong();
+    private AtomicLong missCount = new AtomicLong();
+
     /** Create an cache which stores its objects into a directory as
      * files with the given extension.
      * @param directory the directory where the files should be placed.
@@ -68,6 +92,11 @@ public class FileObjectCache implements ObjectCache,
             extension = "." + extension;
         this.extension = extension;
 
+        memoryCacheSize = Math.max(0, Settings.getInt(
+            "objectCache.memoryCacheSize", 100));
+        memoryCacheBytes = 1024L * Math.max(0, Settings.getInt(
+            "objectCache.memoryCacheKB", 16384));
+
         // figure out the next available ID.
         nextAvaliableID = 0;
         int[] idList = getObjectIDs();
@@ -85,22 +114,54 @@ public class FileObjectCache implements ObjectCache,
         return result;
     }
 
-    /** Retrieve a cached object by its ID. */
-    public synchronized CachedObject getCachedObject(int id, double maxAge) {
+    /** Retrieve a cached object by its ID.
+     *
+     * Objects are kept in memory after they are read, so repeated requests
+     * for the same ID will return the same object, until the files backing
+     * that object are changed or the object is evicted from memory.
+     */
+    public CachedObject getCachedObject(int id, double maxAge) {
         if (id < 0) return null;
 
+        CachedObject result = getFromMemory(id);
+        if (result != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            result = readCachedObject(id);
+            if (result == null) return null;
+        }
+
+        if (result.olderThanAge(maxAge)) {
+            synchronized (this) {
+                result.refresh(maxAge);
+            }
+        }
+        return result;
+    }
+
+    /** Read a cached object from disk, and remember it in memory. */
+    private synchronized CachedObject readCachedObject(int id) {
+        // another thread may have read this object while we were waiting
+        CachedObject result = getFromMemory(id);
+        if (result != null) return result;
+
         FileInputStream fis = null;
         try {
             File f = makeFile(id);
             if (!f.isFile()) return null;
 
+            // record the file stamps before reading, so a concurrent change
+            // to the files will cause the entry to be discarded later
+            MemoryEntry entry = new MemoryEntry(f, makeDataFile(id));
+
             fis = new FileInputStream(f);
             Document d = XMLUtils.parse(fis);
             Element docRoot = d.getDocumentElement();
 
-            CachedObject result =
-                CachedObject.openXML(this, id, docRoot, this);
-            result.refresh(maxAge);
+            result = CachedObject.openXML(this, id, docRoot, this);
+            if (result != null)
+                putInMemory(id, result, entry);
             return result;
 
         } catch (Exception e) {
@@ -115,6 +176,7 @@ public class FileObjectCache implements ObjectCache,
 
     /** Delete an object from the cache. */
     public synchronized void deleteCachedObject(int id) {
+        removeFromMemory(id);
         File f = makeFile(id);
         f.delete();
         f = makeDataFile(id);
@@ -156,7 +218,10 @@ public class FileObjectCache implements ObjectCache,
                 }
             }
 
+            putInMemory(id, obj, new MemoryEntry(f, makeDataFile(id)));
+
         } catch (IOException ioe) {
+            removeFromMemory(id);
             if (fos != null) try { fos.close(); } catch (Exception e) {}
 
             if (backup.isFile()) {
@@ -245,6 +310,114 @@ public class FileObjectCache implements ObjectCache,
     }
 
 
+    /** @return the number of objects that were served from memory */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** @return the number of objects that had to be read from disk */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+
+    /** Look up an object in memory.
+     * @return the object, or null if it is not in memory, or if the files
+     *     on disk have changed since it was read or written.
+     */
+    private CachedObject getFromMemory(int id) {
+        MemoryEntry entry = memory.get(id);
+        if (entry == null)
+            return null;
+
+        CachedObject result = entry.object.get();
+        if (result != null && entry.matches(makeFile(id), makeDataFile(id))) {
+            entry.lastAccess = accessClock.incrementAndGet();
+            return result;
+        }
+
+        synchronized (memory) {
+            if (memory.remove(id, entry))
+                memoryBytesUsed -= entry.size;
+        }
+        return null;
+    }
+
+    private void putInMemory(int id, CachedObject obj, MemoryEntry entry) {
+        if (entry.size > memoryCacheBytes || memoryCacheSize == 0) {
+            removeFromMemory(id);
+            return;
+        }
+
+        entry.object = new SoftReference<CachedObject>(obj);
+        entry.lastAccess = accessClock.incrementAndGet();
+        synchronized (memory) {
+            MemoryEntry old = memory.put(id, entry);
+            if (old != null)
+                memoryBytesUsed -= old.size;
+            memoryBytesUsed += entry.size;
+
+            while (memory.size() > memoryCacheSize
+                    || (memoryBytesUsed > memoryCacheBytes
+                            && !memory.isEmpty()))
+                evictLeastRecentlyUsed();
+        }
+    }
+
+    private void removeFromMemory(int id) {
+        synchronized (memory) {
+            MemoryEntry old = memory.remove(id);
+            if (old != null)
+                memoryBytesUsed -= old.size;
+        }
+    }
+
+    /** Discard the entry that has gone the longest without being used.
+     * Entries whose objects were reclaimed by the garbage collector are
+     * discarded first.  Caller must hold the lock on the memory map. */
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<Integer, MemoryEntry> eldest = null;
+        for (Iterator<Map.Entry<Integer, MemoryEntry>> i = memory.entrySet()
+                .iterator(); i.hasNext();) {
+            Map.Entry<Integer, MemoryEntry> e = i.next();
+            if (e.getValue().object.get() == null) {
+                eldest = e;
+                break;
+            } else if (eldest == null
+                    || e.getValue().lastAccess < eldest.getValue().lastAccess)
+                eldest = e;
+        }
+        if (eldest != null) {
+            memory.remove(eldest.getKey());
+            memoryBytesUsed -= eldest.getValue().size;
+        }
+    }
+
+    /** Records an object held in memory, along with the length and
+     * modification time of the files it was read from or written to.
+     * The object is softly referenced, so it can be reclaimed if memory
+     * runs short. */
+    private static class MemoryEntry {
+        SoftReference<CachedObject> object;
+        long modTime, length, dataModTime, dataLength, size;
+        volatile long lastAccess;
+
+        MemoryEntry(File f, File df) {
+            modTime = f.lastModified();
+            length = f.length();
+            dataModTime = df.lastModified();
+            dataLength = df.length();
+            size = length + dataLength;
+        }
+
+        boolean matches(File f, File df) {
+            return f.lastModified() == modTime && f.length() == length
+                    && df.lastModified() == dataModTime
+                    && df.length() == dataLength;
+        }
+    }
+
+
     /** Encapsulate the file naming logic in one place. */
     protected File makeFile(int id) {
         return new File(directory, id + extension);
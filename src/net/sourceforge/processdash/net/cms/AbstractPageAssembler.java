@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import net.sourceforge.processdash.Settings;
 import net.sourceforge.processdash.data.DataContext;
 import net.sourceforge.processdash.i18n.Resources;
 import net.sourceforge.processdash.tool.perm.PermissionsManager;
@@ -124,10 +125,18 @@ public abstract class AbstractPageAssembler implements PageAssembler,
 
         maybeAddHeaderSnippet(page, invoker);
 
+        // when viewing a page, the snippets can be generated concurrently.
+        boolean concurrent = CONCURRENT_SNIPPETS && isViewMode();
         int num = 0;
         for (Iterator i = page.getSnippets().iterator(); i.hasNext();) {
             SnippetInstanceTO snip = (SnippetInstanceTO) i.next();
             setSnippetNamespace(snip, "snip" + (num++) + "_");
+            if (concurrent && shouldInvokeSnippet(snip))
+                invoker.start(snip);
+        }
+
+        for (Iterator i = page.getSnippets().iterator(); i.hasNext();) {
+            SnippetInstanceTO snip = (SnippetInstanceTO) i.next();
 
             if (shouldInvokeSnippet(snip)) {
                 try {
@@ -157,6 +166,15 @@ public abstract class AbstractPageAssembler implements PageAssembler,
         writePage(out, headerItems, page);
     }
 
+    private boolean isViewMode() {
+        String mode = (String) parameters.get("mode");
+        return (mode == null || "view".equals(mode));
+    }
+
+    private static final boolean CONCURRENT_SNIPPETS = Settings.getBool(
+        "cms.concurrentSnippets",
+        Runtime.getRuntime().availableProcessors() > 1);
+
     protected void maybeAddHeaderSnippet(PageContentTO page,
             SnippetInvoker invoker) {
         if (!containsHeaderSnippet(page, invoker)) {
@@ -26,8 +26,11 @@ package net.sourceforge.processdash.net.cms;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import net.sourceforge.processdash.data.DataContext;
 import net.sourceforge.processdash.net.http.HTMLPreprocessor;
@@ -98,6 +101,9 @@ public class SnippetInvoker implements CMSSnippetEnvironment {
 
     private String queryString;
 
+    private Map<SnippetInstanceTO, Invocation> started =
+            new IdentityHashMap<SnippetInstanceTO, Invocation>();
+
 
     /** Construct a snippet invoker to use in support of a parent request */
     public SnippetInvoker(Map parentEnv, Map parentParameters, String prefix,
@@ -123,6 +129,41 @@ public class SnippetInvoker implements CMSSnippetEnvironment {
      * @throws IOException if an error was encountered
      */
     public String invoke(SnippetInstanceTO snippet) throws IOException {
+        Invocation invocation = started.remove(snippet);
+        if (invocation == null)
+            invocation = prepare(snippet);
+        if (invocation == null)
+            return null;
+
+        try {
+            String results = invocation.getResults();
+            snippet.setStatus(SnippetInvoker.STATUS_OK);
+            snippet.setUri(invocation.uri);
+            return results;
+        } catch (IOException ioe) {
+            snippet.setStatus(SnippetInvoker.STATUS_INTERNAL_ERROR);
+            snippet.setInvocationException(ioe);
+            throw ioe;
+        }
+    }
+
+    /** Begin running a snippet on a background thread.
+     *
+     * A later call to {@link #invoke(SnippetInstanceTO)} for the same snippet
+     * will return the content it generated.  This allows several snippets on
+     * a page to run concurrently.
+     *
+     * @param snippet the snippet to run
+     */
+    public void start(SnippetInstanceTO snippet) {
+        Invocation invocation = prepare(snippet);
+        if (invocation != null) {
+            invocation.start();
+            started.put(snippet, invocation);
+        }
+    }
+
+    private Invocation prepare(SnippetInstanceTO snippet) {
         if (!test(snippet))
             return null;
 
@@ -162,21 +203,53 @@ public class SnippetInvoker implements CMSSnippetEnvironment {
         fullUri.append(WebServer.urlEncodePath(prefix)).append("/").append(uri);
         HTMLUtils.appendQuery(fullUri, queryString.toString());
 
-        WebServer webServer = (WebServer) parentEnv
-                .get(TinyCGI.TINY_WEB_SERVER);
-        try {
-            String results = webServer.getRequestAsString(fullUri.toString(),
+        return new Invocation(fullUri.toString(), extraEnvironment);
+    }
+
+    /** A snippet request that is ready to run */
+    private class Invocation {
+
+        private String uri;
+
+        private Map extraEnvironment;
+
+        private Future<String> results;
+
+        Invocation(String uri, Map extraEnvironment) {
+            this.uri = uri;
+            this.extraEnvironment = extraEnvironment;
+        }
+
+        void start() {
+            results = getWebServer().startRequestAsString(uri,
+                extraEnvironment);
+        }
+
+        String getResults() throws IOException {
+            if (results == null)
+                return getWebServer().getRequestAsString(uri,
                     extraEnvironment);
-            snippet.setStatus(SnippetInvoker.STATUS_OK);
-            snippet.setUri(fullUri.toString());
-            return results;
-        } catch (IOException ioe) {
-            snippet.setStatus(SnippetInvoker.STATUS_INTERNAL_ERROR);
-            snippet.setInvocationException(ioe);
-            throw ioe;
+
+            try {
+                return results.get();
+            } catch (InterruptedException ie) {
+                throw new IOException(ie);
+            } catch (ExecutionException ee) {
+                Throwable t = ee.getCause();
+                if (t instanceof IOException)
+                    throw (IOException) t;
+                else if (t instanceof RuntimeException)
+                    throw (RuntimeException) t;
+                else
+                    throw new IOException(t);
+            }
         }
     }
 
+    private WebServer getWebServer() {
+        return (WebServer) parentEnv.get(TinyCGI.TINY_WEB_SERVER);
+    }
+
     /** Check to see if the given snippet is valid for the current context and
      * the current user.
      * 
@@ -26,15 +26,22 @@ package net.sourceforge.processdash.net.http;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,7 +49,9 @@ import net.sourceforge.processdash.Settings;
 import net.sourceforge.processdash.data.DataContext;
 import net.sourceforge.processdash.data.ListData;
 import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.SaveableData;
 import net.sourceforge.processdash.data.StringData;
+import net.sourceforge.processdash.data.repository.DataRepository;
 import net.sourceforge.processdash.hier.PropertyKey;
 import net.sourceforge.processdash.hier.PropertyKeyHierarchy;
 import net.sourceforge.processdash.i18n.Resources;
@@ -75,6 +84,11 @@ public class HTMLPreprocessor {
     boolean foreachParams = true;
     String defaultEchoEncoding = null;
     LinkedList resources;
+    IncludeFragmentCache.Recorder recorder;
+    Map<String, LinkedList<IncludeRequest>> prefetchedIncludes;
+    String templateLocation;
+    long templateTimestamp;
+    int nestingLevel = 0;
 
 
     public HTMLPreprocessor(ContentSource web, DataContext data, Map env) {
@@ -99,23 +113,72 @@ public class HTMLPreprocessor {
             resources = new LinkedList();
             resources.add(env.get(RESOURCES_PARAM));
         }
+
+        this.recorder = (IncludeFragmentCache.Recorder) env
+                .get(IncludeFragmentCache.RECORDER_ENV_KEY);
+        this.prefetchedIncludes =
+                new HashMap<String, LinkedList<IncludeRequest>>();
     }
 
 
     /** preprocess the given content, and return the result. */
     public String preprocess(String content) throws IOException {
+        StringBuilder result = new StringBuilder(content.length());
+        preprocess(content, result);
+        return result.toString();
+    }
+
+    /** preprocess the given content, writing the result to a Writer.
+     * 
+     * Output is written as soon as each part of the page is complete, so
+     * large pages do not need to be assembled in memory before they can be
+     * sent. */
+    public void preprocess(String content, Writer out) throws IOException {
+        preprocess(content, (Appendable) out);
+    }
+
+    private void preprocess(String content, Appendable out)
+            throws IOException {
+        boolean topLevel = (nestingLevel++ == 0);
+        try {
+            preprocess(content, out, topLevel);
+        } finally {
+            if (--nestingLevel == 0)
+                cancelPrefetchedIncludes();
+        }
+    }
+
+    private void preprocess(String content, Appendable out, boolean topLevel)
+            throws IOException {
+        // the template location describes the content of the top-level call
+        // only, and only the first one.
+        String location = (topLevel ? templateLocation : null);
+        if (topLevel)
+            templateLocation = null;
+
         StringBuffer text = new StringBuffer(content);
         cachedTestExpressions.clear();
-        maybePerformEagerReplacements(text);
-
-        numberBlocks(text, "foreach", "endfor", null, null);
-        numberBlocks(text, "fortree", "endtree", null, null);
-        numberBlocks(text, "if", "endif", "else", "elif");
-        numberBlocks(text, "replace", "endreplace", null, null);
+        if (maybePerformEagerReplacements(text))
+            location = null;
+        text = getNumberedTemplate(text, location);
+        // nested calls process text from the top-level page, whose includes
+        // have already been prefetched.
+        if (topLevel)
+            prefetchIncludes(text);
 
         DirectiveMatch dir;
         int pos = 0;
         while ((dir = new DirectiveMatch(text, "", pos, true)).matches()) {
+            // the text before this directive is complete.  Write it out, so
+            // that splicing text into the buffer below doesn't have to shift
+            // it along.
+            if (dir.begin > FLUSH_SIZE) {
+                out.append(text, 0, dir.begin);
+                text.delete(0, dir.begin);
+                dir.end -= dir.begin;
+                dir.begin = 0;
+            }
+
             if ("echo".equals(dir.directive))
                 processEchoDirective(dir);
             else if ("include".equals(dir.directive))
@@ -140,11 +203,90 @@ public class HTMLPreprocessor {
                 dir.replace("");
             pos = dir.end;
         }
-        return text.toString();
+        out.append(text);
+    }
+
+    private static final int FLUSH_SIZE = 4096;
+
+
+    /** Identify the template whose contents will be passed to the next
+     * call to preprocess.  The block numbering of recently used templates
+     * is cached, and reused until their modification time changes.
+     *
+     * @param location the URL of the template file
+     * @param lastModified the modification time of the template file.  If
+     *     this is not known, the numbering will not be cached.
+     */
+    public void setTemplateLocation(String location, long lastModified) {
+        this.templateLocation = (lastModified > 0 ? location : null);
+        this.templateTimestamp = lastModified;
     }
 
+    /** Number the blocks in a page, using the cached numbering of the
+     * template at the given location if it is still current. */
+    private StringBuffer getNumberedTemplate(StringBuffer text,
+            String location) {
+        if (location != null) {
+            NumberedTemplate cached;
+            synchronized (NUMBERED_TEMPLATES) {
+                cached = NUMBERED_TEMPLATES.get(location);
+            }
+            if (cached != null && cached.timestamp == templateTimestamp
+                    && cached.sourceLength == text.length())
+                return new StringBuffer(cached.text);
+        }
+
+        int sourceLength = text.length();
+        numberBlocks(text, "foreach", "endfor", null, null);
+        numberBlocks(text, "fortree", "endtree", null, null);
+        numberBlocks(text, "if", "endif", "else", "elif");
+        numberBlocks(text, "replace", "endreplace", null, null);
 
-    private void maybePerformEagerReplacements(StringBuffer text) {
+        if (location != null && text.length() <= NUMBERED_TEMPLATE_CACHE_CHARS)
+            cacheNumberedTemplate(location, new NumberedTemplate(
+                    templateTimestamp, sourceLength, text.toString()));
+        return text;
+    }
+
+    private static void cacheNumberedTemplate(String location,
+            NumberedTemplate t) {
+        synchronized (NUMBERED_TEMPLATES) {
+            NumberedTemplate old = NUMBERED_TEMPLATES.put(location, t);
+            if (old != null)
+                numberedTemplateChars -= old.text.length();
+            numberedTemplateChars += t.text.length();
+
+            // discard the least recently used templates until we fit
+            Iterator<NumberedTemplate> i = NUMBERED_TEMPLATES.values()
+                    .iterator();
+            while (numberedTemplateChars > NUMBERED_TEMPLATE_CACHE_CHARS) {
+                numberedTemplateChars -= i.next().text.length();
+                i.remove();
+            }
+        }
+    }
+
+    private static class NumberedTemplate {
+        long timestamp;
+        int sourceLength;
+        String text;
+        NumberedTemplate(long timestamp, int sourceLength, String text) {
+            this.timestamp = timestamp;
+            this.sourceLength = sourceLength;
+            this.text = text;
+        }
+    }
+
+    private static final int NUMBERED_TEMPLATE_CACHE_CHARS = Settings.getInt(
+        "preprocessor.templateCacheChars", 2 * 1024 * 1024);
+
+    private static final Map<String, NumberedTemplate> NUMBERED_TEMPLATES =
+            new LinkedHashMap<String, NumberedTemplate>(16, 0.75f, true);
+
+    private static int numberedTemplateChars = 0;
+
+
+    private boolean maybePerformEagerReplacements(StringBuffer text) {
         if (env.get(REPLACEMENTS_PARAM) instanceof Map) {
             Map replacements = (Map) env.get(REPLACEMENTS_PARAM);
             for (Iterator i = replacements.entrySet().iterator(); i.hasNext();) {
@@ -153,7 +295,9 @@ public class HTMLPreprocessor {
                 String replace = (String) e.getValue();
                 StringUtils.findAndReplace(text, find, replace);
             }
+            return true;
         }
+        return false;
     }
 
     /** process an include directive within the buffer */
@@ -169,9 +313,8 @@ public class HTMLPreprocessor {
 
             // fetch the requested url (relative to the current url) and
             // replace the include directive with its contents.
-            String context = (String) env.get("REQUEST_URI");
             String incText = new String
-                (web.getContent(context, url, false), "UTF-8");
+                (getIncludeRequest(url).getContent(), "UTF-8");
 
             // If the page author wants us to extract only a certain piece of
             // the file, discard the rest.
@@ -190,6 +333,194 @@ public class HTMLPreprocessor {
         }
     }
 
+    /** Start generating the includes at the top level of the page in the
+     * background, so they can be produced concurrently.  Includes inside
+     * blocks are left alone, since they might never be processed.
+     */
+    private void prefetchIncludes(StringBuffer text) {
+        if (!CONCURRENT_INCLUDES || !(web instanceof WebServer))
+            return;
+
+        DirectiveMatch dir;
+        int pos = 0, depth = 0;
+        while ((dir = new DirectiveMatch(text, "", pos, true)).matches()) {
+            pos = dir.end;
+            if (dir.directive.startsWith("0")) {
+                // a numbered block directive
+                if (isBlockEnd(dir.directive))
+                    depth--;
+                else if (isBlockStart(dir.directive))
+                    depth++;
+
+            } else if (depth > 0) {
+                continue;
+
+            } else if ("break".equals(dir.directive)) {
+                // a break discards the text that follows it
+                return;
+
+            } else if ("include".equals(dir.directive)
+                    && !hasTrailingParam(dir)) {
+                String url = dir.getAttribute("file");
+                if (!isNull(url)) try {
+                    IncludeRequest inc = new IncludeRequest(url);
+                    inc.start();
+                    LinkedList<IncludeRequest> l = prefetchedIncludes.get(url);
+                    if (l == null)
+                        prefetchedIncludes.put(url,
+                            l = new LinkedList<IncludeRequest>());
+                    l.add(inc);
+                } catch (IOException ioe) {
+                    // the error will be reported when the include is
+                    // processed
+                }
+            }
+        }
+    }
+
+    private boolean isBlockStart(String directive) {
+        for (String name : BLOCK_STARTS)
+            if (blockMatch(name, directive))
+                return true;
+        return false;
+    }
+
+    private boolean isBlockEnd(String directive) {
+        for (String name : BLOCK_ENDS)
+            if (blockMatch(name, directive))
+                return true;
+        return false;
+    }
+
+    private static final String[] BLOCK_STARTS = { "foreach", "fortree",
+            "if", "replace" };
+
+    private static final String[] BLOCK_ENDS = { "endfor", "endtree",
+            "endif", "endreplace" };
+
+    private static final boolean CONCURRENT_INCLUDES = Settings.getBool(
+        "preprocessor.concurrentIncludes",
+        Runtime.getRuntime().availableProcessors() > 1);
+
+
+    /** Discard any prefetched includes that the page didn't use */
+    private void cancelPrefetchedIncludes() {
+        for (LinkedList<IncludeRequest> l : prefetchedIncludes.values())
+            for (IncludeRequest inc : l)
+                inc.cancel();
+        prefetchedIncludes.clear();
+    }
+
+    /** Find or create the request for an included url */
+    private IncludeRequest getIncludeRequest(String url) throws IOException {
+        LinkedList<IncludeRequest> l = prefetchedIncludes.get(url);
+        if (l != null && !l.isEmpty())
+            return l.removeFirst();
+        else
+            return new IncludeRequest(url);
+    }
+
+    /** The content of an included url.
+     *
+     * When the content comes from the dashboard's web server, recently
+     * included fragments are looked up in an {@link IncludeFragmentCache};
+     * otherwise, the data elements read while generating the fragment are
+     * recorded so it can be cached.
+     */
+    private class IncludeRequest {
+
+        private String url;
+
+        private String uri;
+
+        private String cacheKey;
+
+        private IncludeFragmentCache fragmentCache;
+
+        private IncludeFragmentCache.Recorder includeRecorder;
+
+        private Map extraEnv;
+
+        private Future<byte[]> pending;
+
+        private byte[] content;
+
+        IncludeRequest(String url) throws IOException {
+            this.url = url;
+            if (!(web instanceof WebServer))
+                return;
+
+            uri = ((WebServer) web).resolveUriInContext(
+                (String) env.get("REQUEST_URI"), url);
+            fragmentCache = IncludeFragmentCache.getInstance((DataRepository)
+                env.get(TinyCGI.DATA_REPOSITORY));
+            if (fragmentCache != null) {
+                cacheKey = uri + " " + env.get("REMOTE_ADDR");
+                content = fragmentCache.get(cacheKey, recorder);
+            }
+            if (content == null) {
+                includeRecorder = new IncludeFragmentCache.Recorder();
+                extraEnv = Collections.singletonMap(
+                    IncludeFragmentCache.RECORDER_ENV_KEY, includeRecorder);
+            }
+        }
+
+        /** Begin generating the content in the background */
+        void start() {
+            if (content == null && uri != null)
+                pending = ((WebServer) web).startRequest(uri, true, extraEnv);
+        }
+
+        /** Abandon a request whose content will not be needed */
+        void cancel() {
+            if (pending != null)
+                pending.cancel(false);
+        }
+
+        byte[] getContent() throws IOException {
+            if (content != null)
+                return content;
+
+            if (uri == null) {
+                // content from some other source; we can't tell what it
+                // depends upon.
+                content = web.getContent(
+                    (String) env.get("REQUEST_URI"), url, false);
+                if (recorder != null)
+                    recorder.markUncacheable();
+                return content;
+            }
+
+            if (pending == null)
+                content = ((WebServer) web).getRequest(uri, true, extraEnv);
+            else
+                content = waitFor(pending);
+
+            if (fragmentCache != null)
+                fragmentCache.put(cacheKey, content, includeRecorder);
+            if (recorder != null)
+                recorder.addAll(includeRecorder);
+            return content;
+        }
+
+        private byte[] waitFor(Future<byte[]> f) throws IOException {
+            try {
+                return f.get();
+            } catch (InterruptedException ie) {
+                throw new IOException(ie);
+            } catch (ExecutionException ee) {
+                Throwable t = ee.getCause();
+                if (t instanceof IOException)
+                    throw (IOException) t;
+                else if (t instanceof RuntimeException)
+                    throw (RuntimeException) t;
+                else
+                    throw new IOException(t);
+            }
+        }
+    }
+
+
     private String appendFileParameters(String url, DirectiveMatch include) {
         while (hasTrailingParam(include)) {
             DirectiveMatch param = new DirectiveMatch(include.buf, "parameter",
@@ -465,6 +796,9 @@ public class HTMLPreprocessor {
 
     /** process a fortree directive within the buffer */
     private void processForTreeDirective(DirectiveMatch fortree) {
+        // the output depends on the hierarchy, which the fragment cache
+        // can't watch for changes.
+        if (recorder != null) recorder.markUncacheable();
         StringBuffer text = fortree.buf;
         String blockNum = blockNum("fortree", fortree.directive);
         // find the matching endtree.
@@ -646,12 +980,10 @@ public class HTMLPreprocessor {
 
         // See if there was an elif or an else.
         DirectiveMatch elsedir = new DirectiveMatch
-            (text, blockNum + "elif", ifdir.end, true);
-        if (!elsedir.matches() || elsedir.begin > endif.begin)
+            (text, blockNum + "elif", ifdir.end, endif.begin);
+        if (!elsedir.matches())
             elsedir = new DirectiveMatch
-                (text, blockNum + "else", ifdir.end, true);
-        if (elsedir.matches() && elsedir.begin > endif.begin)
-            elsedir.begin = -1;
+                (text, blockNum + "else", ifdir.end, endif.begin);
 
                                 // if this is an else clause
         if (blockMatch("else", ifdir.directive) ||
@@ -1159,6 +1491,7 @@ public class HTMLPreprocessor {
                                 // try for an environment variable first.
             Object envVal = env.get(listName);
             if (envVal instanceof String) {
+                recordEnvRead(listName);
                 result.add((String) envVal);
                 return result;
             }
@@ -1214,11 +1547,15 @@ public class HTMLPreprocessor {
             Object result = params.get(name);
             return (result == null ? "" : result.toString());
         } else if ("_UNIQUE_".equals(name)) {
+            if (recorder != null) recorder.markUncacheable();
             return Long.toString(uniqueNumber++);
         } else {
                                 // try for an environment variable first.
             Object result = env.get(name);
-            if (result instanceof String) return (String) result;
+            if (result instanceof String) {
+                recordEnvRead(name);
+                return (String) result;
+            }
 
                                 // look for a parameter value.
             if (allowBareParams || volatileVariables.contains(name)) {
@@ -1233,7 +1570,10 @@ public class HTMLPreprocessor {
 
                                 // look for a user setting
             result = Settings.getVal(name);
-            if (result != null) return result.toString();
+            if (result != null) {
+                if (recorder != null) recorder.markUncacheable();
+                return result.toString();
+            }
 
             return "";
         }
@@ -1257,9 +1597,33 @@ public class HTMLPreprocessor {
     /** lookup a named value in the data repository. */
     private SimpleData getSimpleValue(String name) {
         if (data == null) return null;
-        return data.getSimpleValue(name);
+        SimpleData result = data.getSimpleValue(name);
+        recordDataRead(name, result);
+        return result;
+    }
+
+    /** If the output of this page might be cached, note that it depends on
+     * the value of a data element. */
+    private void recordDataRead(String name, SimpleData value) {
+        if (recorder != null)
+            recorder.dataRead(DataRepository.createDataName(prefix, name),
+                value);
+    }
+
+    /** If the output of this page might be cached, note that it depends on
+     * the value of an environment variable. */
+    private void recordEnvRead(String name) {
+        if (recorder != null && !URL_ENV_VARIABLES.contains(name)
+                && !name.startsWith(WebServer.PACKAGE_ENV_PREFIX))
+            recorder.markUncacheable();
     }
 
+    /** Environment variables whose values are determined by the URL of the
+     * request */
+    private static final Set URL_ENV_VARIABLES = new HashSet(Arrays.asList(
+        "REQUEST_METHOD", "SERVER_PROTOCOL", "SCRIPT_NAME", "SCRIPT_PATH",
+        "PATH_INFO", "PATH_TRANSLATED", "REQUEST_URI", "QUERY_STRING"));
+
     /** trim the first and last character from a string */
     private String trimDelim(String str) {
         return str.substring(1, str.length() - 1);
@@ -1274,7 +1638,10 @@ public class HTMLPreprocessor {
             // listName names a data element
             name = trimDelim(name);
             if (checkDefined) {
-                return (data != null && data.getValue(name) != null);
+                if (data == null) return false;
+                SaveableData d = data.getValue(name);
+                recordDataRead(name, d == null ? null : d.getSimpleValue());
+                return d != null;
             } else {
                 SimpleData d = getSimpleValue(name);
                 return (d == null ? false : d.test());
@@ -1306,8 +1673,33 @@ public class HTMLPreprocessor {
             else
                 begin = StringUtils.lastIndexOf(buf, dirStart, pos);
 
-            if (begin == -1) return;
+            if (begin != -1)
+                parse(dirStart);
+        }
+
+        /** Find a directive in buf which begins between pos and limit.
+         * Only the directives in that range are examined, so the search
+         * does not have to scan the rest of the page. */
+        public DirectiveMatch(StringBuffer buf, String directive,
+                              int pos, int limit) {
+            this.buf = buf;
+            this.directive = directive;
+            String dirStart = DIRECTIVE_START + directive;
+            begin = pos;
+            while (true) {
+                begin = StringUtils.indexOf(buf, DIRECTIVE_START, begin);
+                if (begin == -1 || begin >= limit) {
+                    begin = -1;
+                    return;
+                }
+                if (StringUtils.startsWith(buf, dirStart, begin))
+                    break;
+                begin += DIRECTIVE_START.length();
+            }
+            parse(dirStart);
+        }
 
+        private void parse(String dirStart) {
             end = StringUtils.indexOf(buf, DIRECTIVE_END, begin);
             if (end == -1) {
                 begin = -1;
@@ -0,0 +1,326 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.net.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+import net.sourceforge.processdash.Settings;
+import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.repository.DataEvent;
+import net.sourceforge.processdash.data.repository.DataListener;
+import net.sourceforge.processdash.data.repository.DataRepository;
+
+/**
+ * Remembers the content of recently included page fragments, so a fragment
+ * that appears on many pages doesn't need to be regenerated for each one.
+ *
+ * A fragment is only cached if it was produced by the text preprocessor, and
+ * if nothing but the values of data elements could cause its content to
+ * vary.  The preprocessor reports the data elements it reads to a
+ * {@link Recorder}; this cache listens to those elements, and discards the
+ * fragment when any of them change.
+ */
+class IncludeFragmentCache implements DataListener {
+
+    /** The key used to pass a {@link Recorder} to an included request via
+     * its extra environment */
+    static final String RECORDER_ENV_KEY = IncludeFragmentCache.class
+            .getName() + ".recorder";
+
+    private static final int MAX_SIZE = Settings.getInt(
+        "preprocessor.fragmentCacheSize", 200);
+
+    private static IncludeFragmentCache INSTANCE = null;
+
+    /**
+     * @return the fragment cache for the given repository, or null if
+     *     fragment caching is disabled
+     */
+    static synchronized IncludeFragmentCache getInstance(DataRepository data) {
+        if (data == null || MAX_SIZE <= 0)
+            return null;
+        if (INSTANCE == null || INSTANCE.data != data)
+            INSTANCE = new IncludeFragmentCache(data);
+        return INSTANCE;
+    }
+
+
+    private DataRepository data;
+
+    private Map<String, Fragment> fragments;
+
+    private Map<String, Set<String>> keysByDataName;
+
+    /** The number of threads that are currently removing data listeners */
+    private int listenerRemovals = 0;
+
+    /** The number of times data listeners have been removed */
+    private long listenerGeneration = 0;
+
+    IncludeFragmentCache(DataRepository data) {
+        this.data = data;
+        this.fragments = new LinkedHashMap<String, Fragment>(16, 0.75f, true);
+        this.keysByDataName = new HashMap<String, Set<String>>();
+    }
+
+    /**
+     * Look up a cached fragment.
+     * 
+     * @param key the key identifying the fragment
+     * @param recorder if the content is being included into another fragment
+     *     that might be cached, the recorder for that fragment.  The data
+     *     elements read by the cached fragment will be added to it.
+     * @return the cached content, or null if it is not in the cache
+     */
+    synchronized byte[] get(String key, Recorder recorder) {
+        Fragment f = fragments.get(key);
+        if (f == null)
+            return null;
+        if (recorder != null)
+            recorder.addAll(f.dataValues);
+        return f.content;
+    }
+
+    /**
+     * Store the content of a fragment, if the recorder indicates that it is
+     * safe to do so.
+     */
+    void put(String key, byte[] content, Recorder recorder) {
+        Map<String, SimpleData> dataValues = recorder.getCacheableDataValues();
+        if (dataValues == null)
+            return;
+
+        // listen for changes to the data this fragment depends upon.  The
+        // repository is never called while holding our own lock, to avoid
+        // deadlocks with threads that are delivering data notifications.
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = listenerGeneration;
+        }
+        Fragment f = new Fragment(content, dataValues);
+        for (String name : dataValues.keySet())
+            f.listenNames.add(data.addDataListener(name, this, false));
+
+        List<String> unused;
+        synchronized (this) {
+            // if another thread might have removed one of the listeners we
+            // just added, don't cache this fragment.
+            if (listenerRemovals > 0 || listenerGeneration != startGeneration)
+                return;
+
+            unused = discard(key);
+            fragments.put(key, f);
+            for (String listenName : f.listenNames) {
+                Set<String> keys = keysByDataName.get(listenName);
+                if (keys == null) {
+                    keys = new HashSet<String>();
+                    keysByDataName.put(listenName, keys);
+                }
+                keys.add(key);
+            }
+            unused.removeAll(f.listenNames);
+            while (fragments.size() > MAX_SIZE) {
+                String eldest = fragments.keySet().iterator().next();
+                unused.addAll(discard(eldest));
+            }
+            startRemovingListeners(unused);
+        }
+        removeListeners(unused);
+
+        // if the data changed while the fragment was being generated, the
+        // listeners above won't hear about it.  Check the values now.
+        for (Map.Entry<String, SimpleData> e : dataValues.entrySet()) {
+            if (!eq(e.getValue(), data.getSimpleValue(e.getKey()))) {
+                invalidate(key);
+                return;
+            }
+        }
+    }
+
+    void invalidate(String key) {
+        List<String> unused;
+        synchronized (this) {
+            unused = discard(key);
+            startRemovingListeners(unused);
+        }
+        removeListeners(unused);
+    }
+
+    synchronized int size() {
+        return fragments.size();
+    }
+
+    /** Remove a fragment from the cache, and return the names of data
+     * elements that no longer need to be watched.  The caller must hold our
+     * lock, and must pass the result to {@link #startRemovingListeners(List)}
+     * before releasing it and to {@link #removeListeners(List)} after. */
+    private List<String> discard(String key) {
+        List<String> unused = new ArrayList<String>();
+        Fragment f = fragments.remove(key);
+        if (f != null) {
+            for (String listenName : f.listenNames) {
+                Set<String> keys = keysByDataName.get(listenName);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        keysByDataName.remove(listenName);
+                        unused.add(listenName);
+                    }
+                }
+            }
+        }
+        return unused;
+    }
+
+    private void startRemovingListeners(List<String> listenNames) {
+        if (!listenNames.isEmpty())
+            listenerRemovals++;
+    }
+
+    private void removeListeners(List<String> listenNames) {
+        if (listenNames.isEmpty())
+            return;
+        for (String listenName : listenNames)
+            data.removeDataListener(listenName, this);
+        synchronized (this) {
+            listenerRemovals--;
+            listenerGeneration++;
+        }
+    }
+
+    private void dataChanged(String name) {
+        List<String> unused = new ArrayList<String>();
+        synchronized (this) {
+            Set<String> keys = keysByDataName.get(name);
+            if (keys != null)
+                for (String key : new ArrayList<String>(keys))
+                    unused.addAll(discard(key));
+            startRemovingListeners(unused);
+        }
+        removeListeners(unused);
+    }
+
+    public void dataValueChanged(DataEvent e) {
+        dataChanged(e.getName());
+    }
+
+    public void dataValuesChanged(Vector v) {
+        for (Iterator i = v.iterator(); i.hasNext();)
+            dataValueChanged((DataEvent) i.next());
+    }
+
+    private static boolean eq(SimpleData a, SimpleData b) {
+        if (a == b)
+            return true;
+        else if (a == null || b == null)
+            return false;
+        else
+            return a.equals(b);
+    }
+
+
+    private static class Fragment {
+
+        byte[] content;
+
+        Map<String, SimpleData> dataValues;
+
+        List<String> listenNames;
+
+        Fragment(byte[] content, Map<String, SimpleData> dataValues) {
+            this.content = content;
+            this.dataValues = dataValues;
+            this.listenNames = new ArrayList<String>(dataValues.size());
+        }
+
+    }
+
+
+    /**
+     * Collects information about the things a fragment depended on while it
+     * was being generated.
+     */
+    static class Recorder {
+
+        private Map<String, SimpleData> dataValues =
+                new HashMap<String, SimpleData>();
+
+        private boolean served = false;
+
+        private boolean uncacheable = false;
+
+        /** Record the value of a data element that was read */
+        synchronized void dataRead(String dataName, SimpleData value) {
+            if (!dataValues.containsKey(dataName))
+                dataValues.put(dataName, value);
+        }
+
+        synchronized void addAll(Map<String, SimpleData> values) {
+            for (Map.Entry<String, SimpleData> e : values.entrySet())
+                dataRead(e.getKey(), e.getValue());
+        }
+
+        /** Add the dependencies of an included fragment to this one */
+        synchronized void addAll(Recorder included) {
+            Map<String, SimpleData> values = included
+                    .getCacheableDataValues();
+            if (values == null)
+                uncacheable = true;
+            else
+                addAll(values);
+        }
+
+        /** Note that the fragment was successfully generated */
+        synchronized void markServed() {
+            served = true;
+        }
+
+        /** Note that the fragment depended on something other than data */
+        synchronized void markUncacheable() {
+            uncacheable = true;
+        }
+
+        /**
+         * @return the data elements the fragment read, or null if the
+         *     fragment cannot be cached
+         */
+        synchronized Map<String, SimpleData> getCacheableDataValues() {
+            if (served && !uncacheable)
+                return new HashMap<String, SimpleData>(dataValues);
+            else
+                return null;
+        }
+
+    }
+
+}
@@ -66,13 +66,26 @@ public class LocalConnector extends AbstractConnector {
 
     public ByteArrayBuffer getResponse(String uri, int port, Map extraEnv)
             throws Exception {
+        return getResponse(uri, port, extraEnv, getCurrentRequest());
+    }
+
+    /**
+     * @return the request that is currently being handled by this thread, or
+     *     null if this thread is not handling a request
+     */
+    static Request getCurrentRequest() {
         // get the current, previously active connection if one exists
         AbstractHttpConnection conn = AbstractHttpConnection
                 .getCurrentConnection();
+        return (conn == null ? null : conn.getRequest());
+    }
 
-        // Identify the effective server name for this request
-        Request parentRequest = (conn == null ? null : conn.getRequest());
-
+    /**
+     * Execute a request on behalf of a particular parent request.  This can
+     * be called from a thread other than the one handling the parent request.
+     */
+    ByteArrayBuffer getResponse(String uri, int port, Map extraEnv,
+            Request parentRequest) throws Exception {
         // construct an HTTP request for this data
         StringBuilder requestHeader = new StringBuilder();
         requestHeader.append("GET ").append(uri).append(" HTTP/1.0\r\n");
@@ -142,6 +155,8 @@ public class LocalConnector extends AbstractConnector {
         }
 
         public Object run() {
+            AbstractHttpConnection previousConnection = AbstractHttpConnection
+                    .getCurrentConnection();
             LocalEndPoint endPoint = new LocalEndPoint(_requestsBuffer,
                     _parentRequest);
 
@@ -175,9 +190,7 @@ public class LocalConnector extends AbstractConnector {
             } finally {
                 if (!leaveOpen)
                     connectionClosed(connection);
-                if (_parentRequest != null)
-                    connection.resetCurrentConnection(_parentRequest
-                            .getConnection());
+                connection.resetCurrentConnection(previousConnection);
                 _responsesBuffer = endPoint.getOut();
             }
 
@@ -26,6 +26,8 @@ package net.sourceforge.processdash.net.http;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Map;
@@ -114,6 +116,7 @@ public class TextPreprocessingHandlerServlet extends HttpServlet {
             resp.getOutputStream().write(buffer, 0, numBytes);
             FileUtils.copyFile(in, resp.getOutputStream());
             FileUtils.safelyClose(in);
+            markServed(req);
             return;
         }
 
@@ -140,13 +143,37 @@ public class TextPreprocessingHandlerServlet extends HttpServlet {
             p.setDefaultEchoEncoding("html");
         else
             p.setEchoBareParams(false);
-        content = p.preprocess(content);
-        byte[] resultBytes = content.getBytes("utf-8");
+        p.setTemplateLocation(url.toString(), conn.getLastModified());
+
+        // generate the page.  The result is buffered until the preprocessor
+        // is done, so an error partway through the page can still be
+        // reported to the client with an error status.
+        ByteArrayOutputStream resultBytes = new ByteArrayOutputStream(
+                content.length() + content.length() / 2);
+        Writer out = new OutputStreamWriter(resultBytes, "utf-8");
+        p.preprocess(content, out);
+        out.flush();
+        content = null;
 
         if (contentType != null)
             resp.setContentType(HTTPUtils.setCharset(contentType, "utf-8"));
-        resp.setContentLength(resultBytes.length);
-        resp.getOutputStream().write(resultBytes);
+        resp.setContentLength(resultBytes.size());
+        resultBytes.writeTo(resp.getOutputStream());
+        markServed(req);
+    }
+
+    /** If this request is including a fragment into another page, let the
+     * fragment cache know that the content was generated successfully */
+    private void markServed(HttpServletRequest req) {
+        Map extraEnv = (Map) req
+                .getAttribute(LocalConnector.EXTRA_ENVIRONMENT_KEY);
+        if (extraEnv != null) {
+            IncludeFragmentCache.Recorder recorder =
+                    (IncludeFragmentCache.Recorder) extraEnv
+                            .get(IncludeFragmentCache.RECORDER_ENV_KEY);
+            if (recorder != null)
+                recorder.markServed();
+        }
     }
 
     private boolean containsServerParsedOverride(byte[] buf, int numBytes)
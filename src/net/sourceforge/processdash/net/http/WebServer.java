@@ -36,11 +36,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.HandlerWrapper;
@@ -191,14 +202,20 @@ public class WebServer implements ContentSource {
      */
     public byte[] getRequest(final String uri, boolean skipHeaders,
             Map extraEnvironment) throws IOException {
+        return getRequest(uri, skipHeaders, extraEnvironment,
+            LocalConnector.getCurrentRequest());
+    }
+
+    private byte[] getRequest(String uri, boolean skipHeaders,
+            Map extraEnvironment, Request parentRequest) throws IOException {
         if (internalRequestNesting > 50)
             throw new IOException("Infinite recursion - aborting.");
 
         synchronized(this) { internalRequestNesting++; }
         byte [] result = null;
         try {
-            result = localConnector.getResponse(uri, port, extraEnvironment)
-                    .asArray();
+            result = localConnector.getResponse(uri, port, extraEnvironment,
+                parentRequest).asArray();
         } catch (IOException ioe) {
             throw ioe;
         } catch (Exception e) {
@@ -224,7 +241,126 @@ public class WebServer implements ContentSource {
     }
 
 
-    private String resolveUriInContext(String context, String uri) throws IOException {
+    /** Begin an internal http request on a background thread.
+     *
+     * The request is made on behalf of the request this thread is currently
+     * handling, just as {@link #getRequest(String, boolean, Map)} would.  If
+     * no background thread has started the request by the time
+     * <code>get()</code> is called on the result, the caller will perform
+     * the request itself.  So it is safe to wait for the result from a
+     * background thread, even when the pool of background threads is busy.
+     *
+     * A request whose result is not needed must be cancelled before the
+     * current request finishes.  Cancelling a request that has not started
+     * prevents it from running; cancelling one that is already running
+     * waits for it to finish, since it shares state with the current
+     * request.
+     */
+    public Future<byte[]> startRequest(final String uri,
+            final boolean skipHeaders, final Map extraEnvironment) {
+        final Request parentRequest = LocalConnector.getCurrentRequest();
+        return startInternalRequest(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return getRequest(uri, skipHeaders, extraEnvironment,
+                    parentRequest);
+            }});
+    }
+
+    /** Begin an internal http request on a background thread, and return
+     * the result as a string.
+     *
+     * @see #startRequest(String, boolean, Map)
+     * @see #getRequestAsString(String, Map)
+     */
+    public Future<String> startRequestAsString(final String uri,
+            final Map extraEnv) {
+        final Request parentRequest = LocalConnector.getCurrentRequest();
+        return startInternalRequest(new Callable<String>() {
+            public String call() throws IOException {
+                return decodeResponse(getRequest(uri, false, extraEnv,
+                    parentRequest));
+            }});
+    }
+
+    private <T> Future<T> startInternalRequest(Callable<T> request) {
+        InternalRequest<T> result = new InternalRequest<T>(request);
+        try {
+            INTERNAL_REQUEST_POOL.execute(result);
+        } catch (RejectedExecutionException ree) {
+            // the request will be run when the caller asks for the result
+        }
+        return result;
+    }
+
+    private static class InternalRequest<T> extends FutureTask<T> {
+
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        InternalRequest(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            if (started.compareAndSet(false, true))
+                super.run();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            // if the request hasn't started yet, run it on this thread.  (If
+            // it is already running or done, this call does nothing.)
+            run();
+            return super.get();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (started.compareAndSet(false, true))
+                return super.cancel(false);
+
+            // the request is using its parent request, and must not outlive
+            // it.  Wait for it to finish, and discard the result.
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    super.get();
+                    break;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                } catch (ExecutionException ee) {
+                    break;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            return false;
+        }
+
+    }
+
+    private static final ThreadPoolExecutor INTERNAL_REQUEST_POOL =
+            makeInternalRequestPool();
+
+    private static ThreadPoolExecutor makeInternalRequestPool() {
+        int numThreads = Math.max(1, Settings.getInt(
+            "http.internalRequestThreads", Runtime.getRuntime()
+                    .availableProcessors()));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(numThreads,
+                numThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "Internal HTTP Request");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+
+    String resolveUriInContext(String context, String uri) throws IOException {
         if (!uri.startsWith("/")) {
             URL contextURL = new URL("http://unimportant" + context);
             URL uriURL = new URL(contextURL, uri);
@@ -247,7 +383,10 @@ public class WebServer implements ContentSource {
     }
 
     public String getRequestAsString(String uri, Map extraEnv) throws IOException {
-        byte[] response = getRequest(uri, false, extraEnv);
+        return decodeResponse(getRequest(uri, false, extraEnv));
+    }
+
+    private String decodeResponse(byte[] response) throws IOException {
         int headerLen = HTTPUtils.getHeaderLength(response);
         String header = new String(response, 0, headerLen, HEADER_CHARSET);
 
@@ -95,6 +95,7 @@ import net.sourceforge.processdash.process.WorkflowInfo;
 import net.sourceforge.processdash.team.TeamDataConstants;
 import net.sourceforge.processdash.team.sync.SyncWorker.DataSyncResult;
 import net.sourceforge.processdash.templates.DashPackage;
+import net.sourceforge.processdash.util.CompactDocumentBuilder;
 import net.sourceforge.processdash.util.DateUtils;
 import net.sourceforge.processdash.util.FileUtils;
 import net.sourceforge.processdash.util.StringUtils;
@@ -168,6 +169,12 @@ public class HierarchySynchronizer {
     /** Do we need to switch from background priority to regular? */
     private volatile boolean cancelBackgroundMode = false;
 
+    /** Should we sync every node, even if its subtree appears unchanged? */
+    private boolean forceFullSync = false;
+
+    /** Digests recorded by the previous sync, and by this sync */
+    private SyncSubtreeDigests previousDigests, subtreeDigests;
+
     /** A list that holds optional debugging data */
     private List<String> debugLogInfo = null;
 
@@ -282,6 +289,14 @@ public class HierarchySynchronizer {
             this.whatIfMode = true;
     }
 
+    public boolean isForceFullSync() {
+        return forceFullSync;
+    }
+
+    public void setForceFullSync(boolean forceFullSync) {
+        this.forceFullSync = forceFullSync;
+    }
+
     public boolean isBackgroundMode() {
         return backgroundMode;
     }
@@ -426,7 +441,9 @@ public class HierarchySynchronizer {
         try {
             conn = wbsLocation.openConnection();
             in = new BufferedInputStream(conn.getInputStream());
-            Document doc = XMLUtils.parse(in);
+            // the WBS dump can be very large, so build a compact DOM that
+            // omits the formatting whitespace between nodes.
+            Document doc = CompactDocumentBuilder.parse(in);
             projectXML = doc.getDocumentElement();
             prunedChildren = new HashMap<Element, List<Element>>();
 
@@ -1020,6 +1037,7 @@ public class HierarchySynchronizer {
             syncWorker = SyncWorkerLogger.wrapWorker(syncWorker, debugLogInfo);
 
         this.data = syncWorker;
+        initSubtreeDigests();
 
         forceData(projectPath, LABEL_LIST_DATA_NAME, labelData);
         forceData(projectPath, MILESTONE_LIST_DATA_NAME, milestoneData);
@@ -1050,7 +1068,11 @@ public class HierarchySynchronizer {
         if (!whatIfMode || changes.isEmpty()) {
             String timestampDataName = DataRepository.createDataName(
                 projectPath, TeamDataConstants.LAST_SYNC_TIMESTAMP);
-            dataRepository.putValue(timestampDataName, new DateData());
+            DateData timestamp = new DateData();
+            dataRepository.putValue(timestampDataName, timestamp);
+            if (subtreeDigests != null)
+                SyncSubtreeDigests.record(projectPath, subtreeDigests,
+                    timestamp.getValue());
         }
 
         // if a team project has switched to a data-based filter for the first
@@ -1069,6 +1091,39 @@ public class HierarchySynchronizer {
         }
     }
 
+    /**
+     * For team and master projects, the sync for an unchanged WBS subtree
+     * has no effect.  Set up the digests that allow us to skip such subtrees.
+     * 
+     * Individual syncs are not eligible, because they compare the WBS
+     * against local estimates, notes, and completion dates that are not
+     * tracked by the digests.
+     */
+    private void initSubtreeDigests() {
+        previousDigests = subtreeDigests = null;
+        if (!isTeam())
+            return;
+
+        String configKey = processID + "|" + initials + "|" + fullCopyMode
+                + "|" + workflowURLsSupported + "|" + dumpFileVersion + "|"
+                + readOnlyNodeID;
+        SimpleData lastSync = dataRepository.getSimpleValue(DataRepository
+                .createDataName(projectPath,
+                    TeamDataConstants.LAST_SYNC_TIMESTAMP));
+        Date lastSyncDate = (lastSync instanceof DateData
+                ? ((DateData) lastSync).getValue() : null);
+        SyncSubtreeDigests recorded = SyncSubtreeDigests.getRecorded(
+            projectPath, configKey, lastSyncDate);
+
+        previousDigests = (forceFullSync ? null : recorded);
+        subtreeDigests = new SyncSubtreeDigests(configKey, hierarchy, data,
+                new String[] { TeamDataConstants.WBS_ID_DATA_NAME,
+                        TASK_IDS_DATA_NAME,
+                        TeamDataConstants.WORKFLOW_ID_DATA_NAME,
+                        TeamDataConstants.RELAUNCH_SOURCE_WBS_ID },
+                new String[] { ACT_TIME_DATA_NAME });
+    }
+
     private Map<String, String> syncMilestoneData(Element projectXML) {
         Element milestonesXML;
         StringBuilder milestonesMetadata;
@@ -1948,11 +2003,21 @@ public class HierarchySynchronizer {
             return null;
         String type = node.getTagName();
         SyncNode s = (SyncNode) syncActions.get(type);
-        if (s != null) {
-            s.syncNode(worker, pathPrefix, node);
-            return s.getName(node);
-        } else
+        if (s == null)
             return null;
+
+        if (subtreeDigests != null && s instanceof SyncSimpleNode) {
+            String nodeID = node.getAttribute(ID_ATTR);
+            String path = s.getPath(pathPrefix, node);
+            if (subtreeDigests.isUnchanged(previousDigests, nodeID, path,
+                node))
+                return s.getName(node);
+            s.syncNode(worker, pathPrefix, node);
+            subtreeDigests.recordSyncedNode(nodeID, path, node);
+        } else {
+            s.syncNode(worker, pathPrefix, node);
+        }
+        return s.getName(node);
     }
 
     private static final String NAME_ATTR = "name";
@@ -2004,6 +2069,7 @@ public class HierarchySynchronizer {
     private static final String PROCESS_ID_DATA_NAME = "Process_ID";
     private static final String EST_TIME_DATA_NAME = "Estimated Time";
     private static final String ACT_TIME_DATA_NAME = "Time";
+    private static final String TASK_IDS_DATA_NAME = "EV_Task_IDs";
     private static final String LABEL_LIST_DATA_NAME =
         "Synchronized_Task_Labels";
     private static final String NODE_ORDER_DATA_NAME =
@@ -0,0 +1,308 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.team.sync;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import net.sourceforge.processdash.data.DataContext;
+import net.sourceforge.processdash.data.SaveableData;
+import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.hier.DashHierarchy;
+import net.sourceforge.processdash.hier.PropertyKey;
+
+/**
+ * Records a digest for each WBS subtree that was synchronized, so a later
+ * sync can skip subtrees that have not changed.
+ *
+ * The digest for a subtree covers the path of its root node, the full
+ * contents of its projDump.xml element (including all descendants), and the
+ * state of the corresponding branch of the local hierarchy: the names,
+ * template IDs, and order of its nodes, and the data elements that the
+ * synchronizer writes for them.  If none of those have changed since the
+ * subtree was last synchronized, synchronizing it again would not make any
+ * changes.
+ *
+ * Digests are held in memory, along with the value of the project's
+ * {@link net.sourceforge.processdash.team.TeamDataConstants#LAST_SYNC_TIMESTAMP
+ * last sync timestamp}.  If that timestamp has been changed by anything other
+ * than the sync that recorded the digests, the digests are ignored.
+ */
+class SyncSubtreeDigests {
+
+    private static final Map<String, SyncSubtreeDigests> RECORDED = Collections
+            .synchronizedMap(new HashMap<String, SyncSubtreeDigests>());
+
+    /**
+     * Retrieve the digests recorded by the most recent sync of a project.
+     * 
+     * @param projectPath
+     *            the path to the project
+     * @param configKey
+     *            a string describing the sync settings; digests recorded
+     *            with different settings are ignored
+     * @param lastSyncTimestamp
+     *            the current value of the project's last sync timestamp
+     * @return the digests recorded by the last sync, or null if they are
+     *         not available or no longer valid
+     */
+    static SyncSubtreeDigests getRecorded(String projectPath,
+            String configKey, Date lastSyncTimestamp) {
+        SyncSubtreeDigests result = RECORDED.get(projectPath);
+        if (result != null && lastSyncTimestamp != null
+                && lastSyncTimestamp.equals(result.syncTimestamp)
+                && configKey.equals(result.configKey))
+            return result;
+        else
+            return null;
+    }
+
+    /** Save the digests calculated by a successful sync. */
+    static void record(String projectPath, SyncSubtreeDigests digests,
+            Date syncTimestamp) {
+        digests.syncTimestamp = syncTimestamp;
+        digests.xmlDigests = null;
+        digests.localDigests = null;
+        digests.hierarchy = null;
+        digests.data = null;
+        RECORDED.put(projectPath, digests);
+    }
+
+
+
+    private String configKey;
+
+    private Date syncTimestamp;
+
+    private Map<String, byte[]> digests;
+
+    private DashHierarchy hierarchy;
+
+    private DataContext data;
+
+    private String[] dataNames;
+
+    private String[] dataTypeNames;
+
+    private Map<Element, byte[]> xmlDigests;
+
+    private Map<String, byte[]> localDigests;
+
+    private MessageDigest md;
+
+    /**
+     * @param configKey
+     *            a string describing the sync settings
+     * @param hierarchy
+     *            the hierarchy being synchronized
+     * @param data
+     *            the data context used by the sync
+     * @param dataNames
+     *            data elements whose values should be included in the digest
+     *            of each local hierarchy node
+     * @param dataTypeNames
+     *            data elements whose types (but not values) should be
+     *            included in the digest of each local hierarchy node
+     */
+    SyncSubtreeDigests(String configKey, DashHierarchy hierarchy,
+            DataContext data, String[] dataNames, String[] dataTypeNames) {
+        this.configKey = configKey;
+        this.digests = new HashMap<String, byte[]>();
+        this.hierarchy = hierarchy;
+        this.data = data;
+        this.dataNames = dataNames;
+        this.dataTypeNames = dataTypeNames;
+        this.xmlDigests = new IdentityHashMap<Element, byte[]>();
+        this.localDigests = new HashMap<String, byte[]>();
+        try {
+            this.md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException nsae) {
+            // MD5 is required on all Java platforms
+            throw new RuntimeException(nsae);
+        }
+    }
+
+    /**
+     * Determine whether a subtree is unchanged since the previous sync. If
+     * so, carry the previous digests for the subtree forward into this
+     * object.
+     */
+    boolean isUnchanged(SyncSubtreeDigests previous, String nodeID,
+            String path, Element node) {
+        if (previous == null || nodeID == null || nodeID.length() == 0)
+            return false;
+
+        byte[] previousDigest = previous.digests.get(nodeID);
+        if (previousDigest == null)
+            return false;
+
+        Map<String, byte[]> subtreeDigests = new HashMap<String, byte[]>();
+        if (!Arrays.equals(previousDigest,
+            getDigest(path, node, subtreeDigests)))
+            return false;
+
+        // the local digests we just calculated are still accurate, since the
+        // subtree will not be touched. Keep them for use by our ancestors.
+        localDigests.putAll(subtreeDigests);
+        copyDigests(previous, node);
+        return true;
+    }
+
+    /** Record the digest of a subtree that has just been synchronized. */
+    void recordSyncedNode(String nodeID, String path, Element node) {
+        if (nodeID != null && nodeID.length() > 0)
+            digests.put(nodeID, getDigest(path, node, localDigests));
+    }
+
+    private void copyDigests(SyncSubtreeDigests previous, Element node) {
+        String nodeID = node.getAttribute("id");
+        byte[] digest = previous.digests.get(nodeID);
+        if (digest != null)
+            digests.put(nodeID, digest);
+        for (Node child = node.getFirstChild(); child != null; child = child
+                .getNextSibling())
+            if (child instanceof Element)
+                copyDigests(previous, (Element) child);
+    }
+
+    private byte[] getDigest(String path, Element node,
+            Map<String, byte[]> localMemo) {
+        byte[] xmlDigest = getXmlDigest(node);
+        PropertyKey key = hierarchy.findExistingKey(path);
+        byte[] localDigest = (key == null ? null
+                : getLocalDigest(key, localMemo));
+        md.reset();
+        update(path);
+        md.update(xmlDigest);
+        if (localDigest != null)
+            md.update(localDigest);
+        return md.digest();
+    }
+
+    /**
+     * Calculate a digest for a node in the local hierarchy and all of its
+     * descendants.
+     * 
+     * Digests are saved in the given map, keyed by path. This is only safe
+     * when the subtree in question will not change again during this sync;
+     * the synchronizer guarantees this for a subtree once its root has been
+     * synchronized.
+     */
+    private byte[] getLocalDigest(PropertyKey key, Map<String, byte[]> memo) {
+        String path = key.path();
+        byte[] result = memo.get(path);
+        if (result != null)
+            return result;
+
+        int numChildren = hierarchy.getNumChildren(key);
+        byte[][] childDigests = new byte[numChildren][];
+        for (int i = 0; i < numChildren; i++)
+            childDigests[i] = getLocalDigest(hierarchy.getChildKey(key, i),
+                memo);
+
+        md.reset();
+        update(path);
+        update(hierarchy.getID(key));
+        for (String name : dataNames) {
+            SimpleData value = data.getSimpleValue(DataRepository
+                    .createDataName(path, name));
+            update(value == null ? null : value.format());
+        }
+        for (String name : dataTypeNames) {
+            SaveableData value = data.getValue(DataRepository.createDataName(
+                path, name));
+            update(value == null ? null : value.getClass().getName());
+        }
+        for (byte[] childDigest : childDigests)
+            md.update(childDigest);
+
+        result = md.digest();
+        memo.put(path, result);
+        return result;
+    }
+
+    /** Calculate a digest for an XML element and all of its descendants. */
+    private byte[] getXmlDigest(Element e) {
+        byte[] result = xmlDigests.get(e);
+        if (result != null)
+            return result;
+
+        // calculate the digests of the children first, since they will
+        // use the MessageDigest object too
+        StringBuilder text = new StringBuilder();
+        for (Node child = e.getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            if (child instanceof Element)
+                getXmlDigest((Element) child);
+            else if (child.getNodeValue() != null)
+                text.append(child.getNodeValue());
+        }
+
+        md.reset();
+        update(e.getTagName());
+        NamedNodeMap attrs = e.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Node attr = attrs.item(i);
+            update(attr.getNodeName());
+            update(attr.getNodeValue());
+        }
+        update(text.toString());
+        for (Node child = e.getFirstChild(); child != null; child = child
+                .getNextSibling())
+            if (child instanceof Element)
+                md.update(xmlDigests.get(child));
+
+        result = md.digest();
+        xmlDigests.put(e, result);
+        return result;
+    }
+
+    private void update(String s) {
+        if (s == null) {
+            md.update((byte) 0);
+        } else {
+            try {
+                md.update((byte) 1);
+                md.update(s.getBytes("UTF-8"));
+                md.update((byte) 0);
+            } catch (UnsupportedEncodingException uee) {
+                // UTF-8 is always supported
+            }
+        }
+    }
+
+}
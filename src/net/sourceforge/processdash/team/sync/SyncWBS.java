@@ -605,6 +605,7 @@ public class SyncWBS extends TinyCGIBase {
 
         synch.setWhatIfMode(false);
         synch.setBackgroundMode(parameters.containsKey(BACKGROUND_PARAM));
+        synch.setForceFullSync(parameters.containsKey(FULL_SYNC_PARAM));
         synch.sync();
         syncTemplates(synch);
 
@@ -1106,6 +1107,7 @@ public class SyncWBS extends TinyCGIBase {
 
     private static final String BACKGROUND_PARAM = "bg";
     private static final String BRIEF_PARAM = "brief";
+    private static final String FULL_SYNC_PARAM = "fullSync";
     private static final String RUN_PARAM = "run";
     private static final String SAVE_PERMS = "savePerms";
     private static final String CHANGE_INITIALS = "changeInitials";
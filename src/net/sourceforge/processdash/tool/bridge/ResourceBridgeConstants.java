@@ -35,6 +35,18 @@ public interface ResourceBridgeConstants {
      */
     String VERSION_HEADER = "X-Process-Dashboard-Bridge-Protocol-Version";
 
+    /**
+     * name of response header listing the optional protocol features a
+     * server supports, as a comma-separated list
+     */
+    String CAPABILITIES_HEADER = "X-Process-Dashboard-Bridge-Capabilities";
+
+    /**
+     * value in the capabilities header indicating that the server supports
+     * the signature and block delta actions
+     */
+    String DELTA_TRANSFER_CAPABILITY = "blockDeltas";
+
     /**
      * name of request parameter indicating a unique identifier for the
      * computer or system where the request originated
@@ -130,6 +142,36 @@ public interface ResourceBridgeConstants {
      */
     String UPLOAD_TIMESTAMP_PARAM_PREFIX = "timestamp|";
 
+    /**
+     * value of action parameter requesting the block signatures of
+     * collection data, in the format written by
+     * {@link net.sourceforge.processdash.tool.bridge.report.ResourceSignatureStream}
+     */
+    String SIGNATURES_ACTION = "getSignatures";
+
+    /**
+     * value of action parameter requesting the download of collection data,
+     * as block deltas against versions of the resources the client has
+     */
+    String DELTA_DOWNLOAD_ACTION = "deltaDownload";
+
+    /**
+     * for a delta download, a parameter name for the block signatures of the
+     * resources the client has
+     */
+    String DELTA_SIGNATURES_PARAM = "signatures";
+
+    /**
+     * value of action parameter asking to store data to the collection, using
+     * block deltas against the versions of the resources the server has
+     */
+    String DELTA_UPLOAD_ACTION = "deltaUpload";
+
+    /**
+     * for a delta upload, a parameter name for the stream of block deltas
+     */
+    String DELTA_UPLOAD_PARAM = "deltas";
+
     /**
      * value of action parameter requesting the deletion of data from the
      * collection
@@ -29,6 +29,7 @@ import static net.sourceforge.processdash.tool.bridge.ResourceFilterFactory.INCL
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -43,9 +44,11 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -62,9 +65,12 @@ import net.sourceforge.processdash.tool.bridge.ResourceCollectionType;
 import net.sourceforge.processdash.tool.bridge.ResourceFilterFactory;
 import net.sourceforge.processdash.tool.bridge.ResourceListing;
 import net.sourceforge.processdash.tool.bridge.impl.HttpAuthenticator;
+import net.sourceforge.processdash.tool.bridge.report.BlockSignature;
 import net.sourceforge.processdash.tool.bridge.report.ListingHashcodeCalculator;
 import net.sourceforge.processdash.tool.bridge.report.ResourceCollectionDiff;
 import net.sourceforge.processdash.tool.bridge.report.ResourceContentStream;
+import net.sourceforge.processdash.tool.bridge.report.ResourceDeltaStream;
+import net.sourceforge.processdash.tool.bridge.report.ResourceSignatureStream;
 import net.sourceforge.processdash.tool.bridge.report.XmlCollectionListing;
 import net.sourceforge.processdash.util.ClientHttpRequest;
 import net.sourceforge.processdash.util.FileUtils;
@@ -91,6 +97,8 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
 
     String serverVersion;
 
+    String serverCapabilities;
+
     String userName;
 
     String userId;
@@ -158,11 +166,15 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         pt.click("checked hashes - mismatch");
 
         // as an optimization, download any files from the server that were
-        // created/modified after our most recently changed file.
-        long mostRecentLocalModTime = getMostRecentLocalModTime();
-        downloadFiles(makeGetRequest(DOWNLOAD_ACTION,
-            ResourceFilterFactory.LAST_MOD_PARAM, mostRecentLocalModTime));
-        pt.click("downloaded recent changes");
+        // created/modified after our most recently changed file.  (If the
+        // server supports delta transfers, skip this step; modified files
+        // will be transferred more efficiently as deltas below.)
+        if (!isDeltaTransferSupported()) {
+            long mostRecentLocalModTime = getMostRecentLocalModTime();
+            downloadFiles(makeGetRequest(DOWNLOAD_ACTION,
+                ResourceFilterFactory.LAST_MOD_PARAM, mostRecentLocalModTime));
+            pt.click("downloaded recent changes");
+        }
 
         // now make a complete comparison of local-vs-remote changes.
         ResourceCollectionDiff diff = getDiff();
@@ -182,7 +194,7 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         // well as any files that have changed
         List filesToDownload = new ArrayList();
         filesToDownload.addAll(diff.getOnlyInB());
-        filesToDownload.addAll(diff.getDiffering());
+        filesToDownload.addAll(downloadDeltas(diff.getDiffering()));
         downloadFilesNamed(filesToDownload);
 
         pt.click("Copied down changes");
@@ -246,6 +258,17 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         // upload files that need to be created or updated in the remote
         // collection
         if (!diff.getOnlyInA().isEmpty() || !diff.getDiffering().isEmpty()) {
+            List<String> modifiedFiles = new ArrayList<String>();
+            for (String resourceName : diff.getDiffering()) {
+                if (!isSyncDownOnly(resourceName))
+                    modifiedFiles.add(resourceName);
+            }
+            List<String> deltasUploaded = uploadDeltas(modifiedFiles);
+            if (!deltasUploaded.isEmpty()) {
+                pt.click("Uploaded deltas for modified resources");
+                madeChange = true;
+            }
+
             List params = new ArrayList();
             for (String resourceName : diff.getOnlyInA()) {
                 if (isSyncDownOnly(resourceName)) {
@@ -261,6 +284,8 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
             for (String resourceName : diff.getDiffering()) {
                 if (isSyncDownOnly(resourceName)) {
                     filesToDownload.add(resourceName);
+                } else if (deltasUploaded.contains(resourceName)) {
+                    logger.fine("uploaded delta for resource " + resourceName);
                 } else {
                     logger.fine("uploading modified resource " + resourceName);
                     addFileUploadParamsWithBatching(params, resourceName);
@@ -276,8 +301,11 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         }
 
         if (!filesToDownload.isEmpty()) {
-            List params = addMultiple(null, INCLUDE_PARAM, filesToDownload);
-            downloadFiles(makeGetRequest(DOWNLOAD_ACTION, params));
+            filesToDownload = downloadDeltas(filesToDownload);
+            if (!filesToDownload.isEmpty()) {
+                List params = addMultiple(null, INCLUDE_PARAM, filesToDownload);
+                downloadFiles(makeGetRequest(DOWNLOAD_ACTION, params));
+            }
             madeChange = true;
         }
 
@@ -537,6 +565,7 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         // finally, retrieve the value from the server and compare the two.
         HttpException.checkValid(conn);
         serverVersion = conn.getHeaderField(VERSION_HEADER);
+        serverCapabilities = conn.getHeaderField(CAPABILITIES_HEADER);
         String hashResult = HTTPUtils.getResponseAsString(conn);
         long remoteHash = Long.valueOf(hashResult);
         return (localHash == remoteHash);
@@ -562,6 +591,7 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
                 ResourceFilterFactory.DEFAULT_FILTER);
         // finally, retrieve the list from the server and compare the two.
         serverVersion = conn.getHeaderField(VERSION_HEADER);
+        serverCapabilities = conn.getHeaderField(CAPABILITIES_HEADER);
         ResourceCollectionInfo remoteList = XmlCollectionListing
                 .parseListing(new BufferedInputStream(conn.getInputStream()));
         return new ResourceCollectionDiff(localList, remoteList);
@@ -639,6 +669,115 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         return info;
     }
 
+    /**
+     * Download block deltas for resources that are present in both the local
+     * and the remote collections, but with different contents.
+     * 
+     * @param resourceNames
+     *            the resources to download
+     * @return the resources that could not be updated with a delta, and
+     *         which should be downloaded in their entirety instead
+     */
+    private List<String> downloadDeltas(List<String> resourceNames)
+            throws IOException {
+        if (resourceNames.isEmpty() || !isDeltaTransferSupported())
+            return resourceNames;
+
+        // send the signatures of our local copies to the server, and receive
+        // deltas describing the server's copies.
+        ByteArrayOutputStream signatures = new ByteArrayOutputStream();
+        ResourceSignatureStream.INSTANCE.writeSignatures(localCollection,
+            resourceNames, signatures);
+        List<String> applied;
+        try {
+            InputStream response = doReadPostRequest(DELTA_DOWNLOAD_ACTION,
+                DELTA_SIGNATURES_PARAM,
+                new ByteArrayInputStream(signatures.toByteArray()));
+            applied = ResourceDeltaStream.apply(localCollection, response);
+            response.close();
+        } catch (IOException ioe) {
+            logger.log(Level.FINE, "Unable to download deltas from "
+                    + remoteUrl + "; downloading whole files instead", ioe);
+            return resourceNames;
+        }
+
+        List<String> result = new ArrayList<String>(resourceNames);
+        result.removeAll(applied);
+        return result;
+    }
+
+    /**
+     * Upload block deltas for resources that are present in both the local
+     * and the remote collections, but with different contents.
+     * 
+     * @param resourceNames
+     *            the resources to upload
+     * @return the resources whose deltas were successfully saved by the
+     *         server. Other resources should be uploaded in their entirety.
+     */
+    private List<String> uploadDeltas(List<String> resourceNames)
+            throws LockFailureException {
+        if (resourceNames.isEmpty() || !isDeltaTransferSupported())
+            return Collections.EMPTY_LIST;
+
+        try {
+            // retrieve the signatures of the server's copies
+            List params = addMultiple(null, INCLUDE_PARAM, resourceNames);
+            HttpURLConnection conn = makeGetRequest(SIGNATURES_ACTION, params);
+            InputStream in = conn.getInputStream();
+            Map<String, BlockSignature> signatures = ResourceSignatureStream
+                    .parseSignatures(in);
+            in.close();
+            if (signatures.isEmpty())
+                return Collections.EMPTY_LIST;
+
+            // send deltas for our local copies
+            ByteArrayOutputStream deltas = new ByteArrayOutputStream();
+            ResourceDeltaStream.write(localCollection, signatures, deltas);
+            byte[] response = doPostRequest(DELTA_UPLOAD_ACTION,
+                DELTA_UPLOAD_PARAM,
+                new ByteArrayInputStream(deltas.toByteArray()));
+
+            // the server replies with a listing of the resources it saved.
+            // Make certain they match our local copies.
+            ResourceCollectionInfo remoteList = XmlCollectionListing
+                    .parseListing(new ByteArrayInputStream(response));
+            List<String> result = new ArrayList<String>();
+            for (String resourceName : remoteList.listResourceNames()) {
+                Long remoteSum = remoteList.getChecksum(resourceName);
+                if (remoteSum != null && remoteSum.equals(
+                        localCollection.getChecksum(resourceName)))
+                    result.add(resourceName);
+            }
+            return result;
+
+        } catch (IOException ioe) {
+            logger.log(Level.FINE, "Unable to upload deltas to " + remoteUrl
+                    + "; uploading whole files instead", ioe);
+            return Collections.EMPTY_LIST;
+        }
+    }
+
+    private boolean isDeltaTransferSupported() {
+        if (deltaTransferSupported == null && serverVersion != null) {
+            deltaTransferSupported = hasServerCapability(
+                DELTA_TRANSFER_CAPABILITY)
+                    && !Boolean.getBoolean(DISABLE_DELTA_PROPERTY);
+        }
+        return Boolean.TRUE.equals(deltaTransferSupported);
+    }
+
+    private boolean hasServerCapability(String capability) {
+        if (serverCapabilities == null)
+            return false;
+        for (String oneCapability : serverCapabilities.split(","))
+            if (oneCapability.trim().equals(capability))
+                return true;
+        return false;
+    }
+
+    private Boolean deltaTransferSupported;
+
     private void addFileUploadParamsWithBatching(List params, String resourceName)
             throws IOException, LockFailureException {
         if (params.size() >= 100) {
@@ -746,9 +885,9 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         return (HttpURLConnection) conn;
     }
 
-    private void doPostRequest(String action, Object... params)
+    private byte[] doPostRequest(String action, Object... params)
         throws IOException, LockFailureException {
-        doPostRequest(action, null, params);
+        return doPostRequest(action, null, params);
     }
 
     private void doLockPostRequest(String action, Object... params)
@@ -756,11 +895,11 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         doPostRequest(action, offlineLockStatusResponseAnalyzer, params);
     }
 
-    private void doPostRequest(String action,
+    private byte[] doPostRequest(String action,
             HttpResponseAnalyzer responseAnalyzer, Object... params)
             throws IOException, LockFailureException {
         try {
-            doPostRequest(new URL(remoteUrl), userName, userId,
+            return doPostRequest(new URL(remoteUrl), userName, userId,
                 sourceIdentifier, extraLockData, responseAnalyzer, action,
                 params);
         } catch (LockFailureException lfe) {
@@ -770,6 +909,21 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
         }
     }
 
+    /**
+     * Make a POST request for an action which does not modify the remote
+     * collection. (This is used when the request parameters are too large
+     * or too complex for {@link #makeGetRequest(String, Object...)}.)
+     */
+    private InputStream doReadPostRequest(String action, Object... params)
+            throws IOException {
+        ClientHttpRequest request = new ClientHttpRequest(new URL(remoteUrl));
+        setRequestToken(request.getConnection());
+        request.setParameter(VERSION_PARAM, CLIENT_VERSION);
+        maybeSetParameter(request, EFFECTIVE_DATE_PARAM, effectiveDate);
+        request.setParameter(ACTION_PARAM, action);
+        return new BufferedInputStream(request.post(params));
+    }
+
     private static byte[] doAnonymousPostRequest(URL remoteUrl, String action,
             Object... params) throws IOException, LockFailureException {
         return doPostRequest(remoteUrl, null, null, null, null, null, action,
@@ -930,6 +1084,12 @@ public class ResourceBridgeClient implements ResourceBridgeConstants {
      */
     private static final String ZIP_UPLOAD_MIN_SERVER_VERSION = "3.6.9";
 
+    /**
+     * A system property that can be set to "true" to disable delta transfers
+     */
+    private static final String DISABLE_DELTA_PROPERTY = ResourceBridgeClient.class
+            .getName() + ".disableDeltas";
+
     private class ZipUploadStream extends PipedInputStream implements Runnable {
 
         private PipedOutputStream out;
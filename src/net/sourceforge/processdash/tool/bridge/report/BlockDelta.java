@@ -0,0 +1,284 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.report;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Describes a new version of a resource as a sequence of instructions, which
+ * either copy blocks from an old version of the resource or insert literal
+ * data.
+ * 
+ * The sender of a delta needs the {@link BlockSignature} of the old version
+ * (not the old version itself), and uses the rolling checksum algorithm
+ * from rsync to find the blocks that can be reused.  The receiver needs the
+ * old version of the resource to apply the delta.
+ */
+public class BlockDelta {
+
+    private static final byte END = 0;
+
+    private static final byte COPY = 1;
+
+    private static final byte LITERAL = 2;
+
+
+    /**
+     * Write a delta that will transform the resource described by a
+     * signature into new data.
+     * 
+     * @param base
+     *            the signature of the old version of the resource
+     * @param data
+     *            the contents of the new version of the resource
+     * @param length
+     *            the number of bytes in the data array to use
+     * @param out
+     *            the stream to write the delta to
+     * @return the number of literal bytes written to the delta
+     */
+    public static int write(BlockSignature base, byte[] data, int length,
+            DataOutputStream out) throws IOException {
+        return new Writer(base, data, length, out).run();
+    }
+
+    /**
+     * Read a delta and use it to reconstruct the new version of a resource.
+     * 
+     * @param base
+     *            the contents of the old version of the resource
+     * @param baseLength
+     *            the number of bytes in the base array to use
+     * @param blockSize
+     *            the block size of the signature the delta was built from
+     * @param in
+     *            the stream to read the delta from
+     * @param out
+     *            the stream to write the new version of the resource to
+     * @return true if the delta was applied, false if it referred to blocks
+     *         that are not present in the old version. (In that case, the
+     *         delta is still read completely, but the data written to the
+     *         output stream is not valid.)
+     * @throws IOException
+     *             if the delta is malformed, or if any other error occurs
+     */
+    public static boolean apply(byte[] base, int baseLength, int blockSize,
+            DataInputStream in, OutputStream out) throws IOException {
+        boolean valid = true;
+        byte[] buf = null;
+        while (true) {
+            byte op = in.readByte();
+            if (op == END) {
+                return valid;
+
+            } else if (op == COPY) {
+                long start = (long) in.readInt() * blockSize;
+                long end = start + (long) in.readInt() * blockSize;
+                // only the final block of the base can be short
+                if (start < 0 || end <= start || end - blockSize >= baseLength)
+                    valid = false;
+                else
+                    out.write(base, (int) start,
+                        (int) (Math.min(end, baseLength) - start));
+
+            } else if (op == LITERAL) {
+                int len = in.readInt();
+                if (len < 0)
+                    throw new IOException("Invalid literal length in delta");
+                if (buf == null || buf.length < len)
+                    buf = new byte[Math.max(len, 8192)];
+                in.readFully(buf, 0, len);
+                out.write(buf, 0, len);
+
+            } else {
+                throw new IOException("Unrecognized delta instruction " + op);
+            }
+        }
+    }
+
+
+    private static class Writer {
+
+        private BlockSignature base;
+
+        private byte[] data;
+
+        private int length;
+
+        private DataOutputStream out;
+
+        private MessageDigest md;
+
+        /** maps weak checksums to the full-sized blocks with that checksum */
+        private Map<Integer, int[]> blocksByWeakSum;
+
+        /** the start of the data that has not yet been written or copied */
+        private int literalStart;
+
+        private int literalBytes;
+
+        /** a pending run of copied blocks, which precedes literalStart */
+        private int copyStart, copyCount;
+
+        Writer(BlockSignature base, byte[] data, int length,
+                DataOutputStream out) {
+            this.base = base;
+            this.data = data;
+            this.length = length;
+            this.out = out;
+            this.md = BlockSignature.getStrongDigest();
+            this.copyStart = -1;
+        }
+
+        int run() throws IOException {
+            int blockSize = base.getBlockSize();
+            int fullBlocks = base.getLength() / blockSize;
+            indexBlocks(fullBlocks);
+
+            int pos = 0;
+            int sum = 0;
+            boolean sumValid = false;
+            while (fullBlocks > 0 && pos + blockSize <= length) {
+                if (!sumValid) {
+                    sum = BlockSignature.weakSum(data, pos, blockSize);
+                    sumValid = true;
+                }
+                int block = findBlock(sum, pos);
+                if (block != -1) {
+                    emitCopy(pos, block);
+                    pos += blockSize;
+                    sumValid = false;
+                } else {
+                    if (pos + blockSize < length)
+                        sum = BlockSignature.rollWeakSum(sum, blockSize,
+                            data[pos], data[pos + blockSize]);
+                    pos++;
+                }
+            }
+
+            // see if the data ends with the short final block of the base
+            if (base.getNumBlocks() > fullBlocks) {
+                int tailLen = base.getBlockLength(fullBlocks);
+                int tailPos = length - tailLen;
+                if (tailPos >= literalStart
+                        && base.getWeakSum(fullBlocks) == BlockSignature
+                                .weakSum(data, tailPos, tailLen)
+                        && strongMatch(fullBlocks, tailPos, tailLen))
+                    emitCopy(tailPos, fullBlocks);
+            }
+
+            flushCopy();
+            flushLiteral(length);
+            out.writeByte(END);
+            return literalBytes;
+        }
+
+        private void indexBlocks(int fullBlocks) {
+            blocksByWeakSum = new HashMap<Integer, int[]>();
+            for (int b = 0; b < fullBlocks; b++) {
+                Integer sum = base.getWeakSum(b);
+                int[] blocks = blocksByWeakSum.get(sum);
+                if (blocks == null) {
+                    blocks = new int[] { b };
+                } else {
+                    int[] more = new int[blocks.length + 1];
+                    System.arraycopy(blocks, 0, more, 0, blocks.length);
+                    more[blocks.length] = b;
+                    blocks = more;
+                }
+                blocksByWeakSum.put(sum, blocks);
+            }
+        }
+
+        private int findBlock(int sum, int pos) {
+            int[] blocks = blocksByWeakSum.get(sum);
+            if (blocks == null)
+                return -1;
+
+            int len = base.getBlockSize();
+
+            // the block we would prefer is the one immediately after the
+            // previous copy, since it will extend that copy instruction
+            int next = copyStart + copyCount;
+            if (copyStart != -1 && pos == literalStart
+                    && next * len + len <= base.getLength()
+                    && base.getWeakSum(next) == sum
+                    && strongMatch(next, pos, len))
+                return next;
+
+            for (int b : blocks)
+                if (strongMatch(b, pos, len))
+                    return b;
+            return -1;
+        }
+
+        private boolean strongMatch(int block, int pos, int len) {
+            return base.getStrongSum(block) == BlockSignature.strongSum(md,
+                data, pos, len);
+        }
+
+        private void emitCopy(int pos, int block) throws IOException {
+            if (copyStart != -1 && block == copyStart + copyCount
+                    && pos == literalStart) {
+                copyCount++;
+            } else {
+                flushCopy();
+                flushLiteral(pos);
+                copyStart = block;
+                copyCount = 1;
+            }
+            literalStart = pos + base.getBlockLength(block);
+        }
+
+        private void flushCopy() throws IOException {
+            if (copyStart != -1) {
+                out.writeByte(COPY);
+                out.writeInt(copyStart);
+                out.writeInt(copyCount);
+                copyStart = -1;
+                copyCount = 0;
+            }
+        }
+
+        private void flushLiteral(int end) throws IOException {
+            int len = end - literalStart;
+            if (len > 0) {
+                out.writeByte(LITERAL);
+                out.writeInt(len);
+                out.write(data, literalStart, len);
+                literalBytes += len;
+                literalStart = end;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.report;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * The block-by-block checksums of a resource, which allow a remote party to
+ * describe a new version of that resource in terms of the blocks that are
+ * already present.
+ * 
+ * Each block is described by a weak rolling checksum (which can be updated
+ * cheaply as a window slides over a file) and a strong checksum (used to
+ * confirm matches of the weak checksum).  The final block of a resource may
+ * be shorter than the others.
+ * 
+ * @see BlockDelta
+ */
+public class BlockSignature {
+
+    static final int MIN_BLOCK_SIZE = 512;
+
+    static final int MAX_BLOCK_SIZE = 16384;
+
+    private int blockSize;
+
+    private int length;
+
+    private int[] weakSums;
+
+    private long[] strongSums;
+
+
+    private BlockSignature(int blockSize, int length) {
+        this.blockSize = blockSize;
+        this.length = length;
+        int numBlocks = (length + blockSize - 1) / blockSize;
+        this.weakSums = new int[numBlocks];
+        this.strongSums = new long[numBlocks];
+    }
+
+    /** @return the size of each block in the resource */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /** @return the length of the resource, in bytes */
+    public int getLength() {
+        return length;
+    }
+
+    /** @return the number of blocks in the resource */
+    public int getNumBlocks() {
+        return weakSums.length;
+    }
+
+    int getWeakSum(int block) {
+        return weakSums[block];
+    }
+
+    long getStrongSum(int block) {
+        return strongSums[block];
+    }
+
+    int getBlockLength(int block) {
+        return Math.min(blockSize, length - block * blockSize);
+    }
+
+
+    /**
+     * Compute the signature for a resource.
+     * 
+     * @param data
+     *            the contents of the resource
+     * @param length
+     *            the number of bytes in the data array to use
+     */
+    public static BlockSignature compute(byte[] data, int length) {
+        BlockSignature result = new BlockSignature(chooseBlockSize(length),
+                length);
+        MessageDigest md = getStrongDigest();
+        for (int b = 0; b < result.weakSums.length; b++) {
+            int start = b * result.blockSize;
+            int len = result.getBlockLength(b);
+            result.weakSums[b] = weakSum(data, start, len);
+            result.strongSums[b] = strongSum(md, data, start, len);
+        }
+        return result;
+    }
+
+    /**
+     * Choose a block size roughly proportional to the square root of the
+     * resource length, which balances the size of the signature against the
+     * granularity of the matches.
+     */
+    static int chooseBlockSize(int length) {
+        int root = (int) Math.sqrt(length);
+        int result = MIN_BLOCK_SIZE;
+        while (result < root && result < MAX_BLOCK_SIZE)
+            result <<= 1;
+        return result;
+    }
+
+
+    /** Write this signature to a data stream. */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(blockSize);
+        out.writeInt(length);
+        for (int b = 0; b < weakSums.length; b++) {
+            out.writeInt(weakSums[b]);
+            out.writeLong(strongSums[b]);
+        }
+    }
+
+    /** Read a signature that was written by {@link #write(DataOutputStream)} */
+    public static BlockSignature read(DataInputStream in) throws IOException {
+        int blockSize = in.readInt();
+        int length = in.readInt();
+        if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE
+                || length < 0)
+            throw new IOException("Invalid block signature");
+
+        BlockSignature result = new BlockSignature(blockSize, length);
+        for (int b = 0; b < result.weakSums.length; b++) {
+            result.weakSums[b] = in.readInt();
+            result.strongSums[b] = in.readLong();
+        }
+        return result;
+    }
+
+
+    /**
+     * Compute the weak checksum for a range of bytes.  This is the checksum
+     * used by rsync, made up of two 16-bit sums.
+     */
+    static int weakSum(byte[] data, int start, int len) {
+        int a = 0, b = 0;
+        for (int i = 0; i < len; i++) {
+            int v = data[start + i] & 0xff;
+            a += v;
+            b += (len - i) * v;
+        }
+        return (a & 0xffff) | (b << 16);
+    }
+
+    /**
+     * Update a weak checksum as the window of <tt>len</tt> bytes slides
+     * forward by one byte.
+     */
+    static int rollWeakSum(int sum, int len, byte out, byte in) {
+        int a = sum & 0xffff;
+        int b = sum >>> 16;
+        a = (a - (out & 0xff) + (in & 0xff)) & 0xffff;
+        b = (b - len * (out & 0xff) + a) & 0xffff;
+        return a | (b << 16);
+    }
+
+    static long strongSum(MessageDigest md, byte[] data, int start, int len) {
+        md.reset();
+        md.update(data, start, len);
+        byte[] digest = md.digest();
+        long result = 0;
+        for (int i = 0; i < 8; i++)
+            result = (result << 8) | (digest[i] & 0xff);
+        return result;
+    }
+
+    static MessageDigest getStrongDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException nsae) {
+            // MD5 is required on all Java platforms
+            throw new RuntimeException(nsae);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import net.sourceforge.processdash.tool.bridge.ReadableResourceCollection;
+import net.sourceforge.processdash.tool.bridge.ResourceCollection;
+
+
+/**
+ * Transfers modified resources by sending {@link BlockDelta block deltas}
+ * against versions of those resources that the recipient already has.
+ */
+public class ResourceDeltaStream {
+
+    static final int MAGIC = 0x50444454; // "PDDT"
+
+    static final int VERSION = 1;
+
+    private static final Logger logger = Logger
+            .getLogger(ResourceDeltaStream.class.getName());
+
+
+    /**
+     * Write deltas that describe the current contents of resources in a
+     * collection.
+     * 
+     * @param c
+     *            the collection holding the new versions of the resources
+     * @param baseSignatures
+     *            the signatures of the versions the recipient already has,
+     *            keyed by resource name. Resources which are not present in
+     *            the collection (or which are too large for delta transfer)
+     *            will be omitted from the stream.
+     * @param out
+     *            the stream to write the deltas to
+     */
+    public static void write(ReadableResourceCollection c,
+            Map<String, BlockSignature> baseSignatures, OutputStream out)
+            throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(
+                new BufferedOutputStream(out));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+
+        for (Map.Entry<String, BlockSignature> e : baseSignatures.entrySet()) {
+            String resourceName = e.getKey();
+            long modTime = c.getLastModified(resourceName);
+            if (modTime < 1)
+                continue;
+            byte[] data = ResourceSignatureStream.readResource(c,
+                resourceName);
+            if (data == null)
+                continue;
+
+            dataOut.writeBoolean(true);
+            dataOut.writeUTF(resourceName);
+            dataOut.writeLong(modTime);
+            dataOut.writeLong(ResourceSignatureStream.checksum(data));
+            dataOut.writeInt(e.getValue().getBlockSize());
+            BlockDelta.write(e.getValue(), data, data.length, dataOut);
+        }
+
+        dataOut.writeBoolean(false);
+        dataOut.flush();
+    }
+
+
+    /**
+     * Read a stream written by
+     * {@link #write(ReadableResourceCollection, Map, OutputStream)}, and
+     * apply the deltas it contains to the resources in a collection.
+     * 
+     * A delta is only saved if the reconstructed resource matches the
+     * checksum recorded by the sender.  A mismatch could occur if the local
+     * copy of a resource changed after its signature was computed; in that
+     * case, the resource is left untouched, and the caller should fall back
+     * to a whole-file transfer.
+     * 
+     * @param c
+     *            the collection to update
+     * @param in
+     *            the stream to read deltas from
+     * @return the names of the resources that were successfully updated
+     * @throws IOException
+     *             if the stream could not be read
+     */
+    public static List<String> apply(ResourceCollection c, InputStream in)
+            throws IOException {
+        DataInputStream dataIn = new DataInputStream(new BufferedInputStream(
+                in));
+        if (dataIn.readInt() != MAGIC || dataIn.readInt() != VERSION)
+            throw new IOException("Unrecognized delta stream");
+
+        List<String> result = new ArrayList<String>();
+        while (dataIn.readBoolean()) {
+            String resourceName = dataIn.readUTF();
+            long modTime = dataIn.readLong();
+            long checksum = dataIn.readLong();
+            int blockSize = dataIn.readInt();
+
+            byte[] base = ResourceSignatureStream.readResource(c,
+                resourceName);
+            if (base == null)
+                base = new byte[0];
+            ByteArrayOutputStream newData = new ByteArrayOutputStream();
+            boolean valid = BlockDelta.apply(base, base.length, blockSize,
+                dataIn, newData);
+
+            byte[] data = newData.toByteArray();
+            if (!valid || ResourceSignatureStream.checksum(data) != checksum) {
+                logger.fine("checksum mismatch for delta of resource "
+                        + resourceName + "; discarding");
+                continue;
+            }
+
+            OutputStream out = c.getOutputStream(resourceName, modTime);
+            if (out == null)
+                continue;
+            out.write(data);
+            out.close();
+            result.add(resourceName);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,204 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.Adler32;
+
+import net.sourceforge.processdash.tool.bridge.ReadableResourceCollection;
+import net.sourceforge.processdash.tool.bridge.ResourceCollection;
+import net.sourceforge.processdash.util.FileUtils;
+
+
+/**
+ * A report which generates the {@link BlockSignature block signatures} of
+ * the resources in a collection.
+ * 
+ * Signatures are cached for each resource, and are reused as long as the
+ * checksum of the resource is unchanged.
+ */
+public class ResourceSignatureStream implements CollectionReport {
+
+    public static final ResourceSignatureStream INSTANCE = new ResourceSignatureStream();
+
+    /**
+     * Resources larger than this are not eligible for delta transfer, and
+     * will always be sent in their entirety.
+     */
+    public static final int MAX_RESOURCE_SIZE = 32 * 1024 * 1024;
+
+    static final int MAGIC = 0x50445349; // "PDSI"
+
+    static final int VERSION = 1;
+
+    private Map<ReadableResourceCollection, Map<String, CachedSignature>> cache;
+
+
+    public ResourceSignatureStream() {
+        cache = new WeakHashMap<ReadableResourceCollection, Map<String, CachedSignature>>();
+    }
+
+    public String getContentType() {
+        return "application/octet-stream";
+    }
+
+    public void runReport(ResourceCollection c, List<String> resources,
+            OutputStream out) throws IOException {
+        writeSignatures(c, resources, out);
+    }
+
+    /**
+     * Write the signatures for a list of resources.  Resources that do not
+     * exist, or that are too large for delta transfer, are omitted.
+     */
+    public void writeSignatures(ReadableResourceCollection c,
+            List<String> resources, OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(
+                new BufferedOutputStream(out));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        for (String resourceName : resources) {
+            BlockSignature sig = getSignature(c, resourceName);
+            if (sig != null) {
+                dataOut.writeBoolean(true);
+                dataOut.writeUTF(resourceName);
+                sig.write(dataOut);
+            }
+        }
+        dataOut.writeBoolean(false);
+        dataOut.flush();
+    }
+
+    /**
+     * Get the signature of a resource in a collection.
+     * 
+     * @return the signature of the resource, or null if it does not exist or
+     *         is too large for delta transfer
+     */
+    public BlockSignature getSignature(ReadableResourceCollection c,
+            String resourceName) throws IOException {
+        Long checksum = c.getChecksum(resourceName);
+        if (checksum == null)
+            return null;
+
+        Map<String, CachedSignature> sigs = getCache(c);
+        CachedSignature cached;
+        synchronized (sigs) {
+            cached = sigs.get(resourceName);
+        }
+        if (cached != null && cached.checksum == checksum.longValue())
+            return cached.signature;
+
+        byte[] data = readResource(c, resourceName);
+        if (data == null)
+            return null;
+        BlockSignature result = BlockSignature.compute(data, data.length);
+
+        // only cache the signature if the data we read matches the checksum
+        // (that is, if the resource wasn't modified while we were reading)
+        cached = new CachedSignature();
+        cached.checksum = checksum(data);
+        cached.signature = result;
+        if (cached.checksum == checksum.longValue()) {
+            synchronized (sigs) {
+                sigs.put(resourceName, cached);
+            }
+        }
+        return result;
+    }
+
+    private synchronized Map<String, CachedSignature> getCache(
+            ReadableResourceCollection c) {
+        Map<String, CachedSignature> result = cache.get(c);
+        if (result == null) {
+            result = new HashMap<String, CachedSignature>();
+            cache.put(c, result);
+        }
+        return result;
+    }
+
+
+    /**
+     * Read a stream written by
+     * {@link #writeSignatures(ReadableResourceCollection, List, OutputStream)}
+     * 
+     * @return a map whose keys are resource names, and whose values are the
+     *         signatures of those resources
+     */
+    public static Map<String, BlockSignature> parseSignatures(InputStream in)
+            throws IOException {
+        DataInputStream dataIn = new DataInputStream(new BufferedInputStream(
+                in));
+        if (dataIn.readInt() != MAGIC || dataIn.readInt() != VERSION)
+            throw new IOException("Unrecognized signature stream");
+
+        Map<String, BlockSignature> result = new LinkedHashMap<String, BlockSignature>();
+        while (dataIn.readBoolean()) {
+            String resourceName = dataIn.readUTF();
+            result.put(resourceName, BlockSignature.read(dataIn));
+        }
+        return result;
+    }
+
+
+    /**
+     * Read the contents of a resource into memory.
+     * 
+     * @return the contents of the resource, or null if it does not exist or
+     *         is too large for delta transfer
+     */
+    static byte[] readResource(ReadableResourceCollection c,
+            String resourceName) throws IOException {
+        InputStream in = c.getInputStream(resourceName);
+        if (in == null)
+            return null;
+
+        byte[] result = FileUtils.slurpContents(in, true);
+        return (result.length > MAX_RESOURCE_SIZE ? null : result);
+    }
+
+    static long checksum(byte[] data) {
+        Adler32 sum = new Adler32();
+        sum.update(data, 0, data.length);
+        return sum.getValue();
+    }
+
+    private static class CachedSignature {
+        long checksum;
+        BlockSignature signature;
+    }
+
+}
@@ -39,7 +39,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,8 +72,16 @@ import net.sourceforge.processdash.util.XMLUtils;
 
 
 
-/* This class imports data files into the repository */
-public class DataImporter extends Thread {
+/* This class imports data files into the repository.
+ *
+ * Rather than dedicating a thread to each import directory, importers
+ * share a single scheduler thread.  When a directory is due to be checked,
+ * the check is handed to a small, bounded pool of worker threads.  The
+ * polling interval adapts to the activity in each directory:  it shortens
+ * after changes are seen, and backs off gradually while a directory is
+ * idle.
+ */
+public class DataImporter {
 
     public static final String EXPORT_FILE_OLD_SUFFIX = ".txt";
     public static final String EXPORT_FILE_SUFFIX = ".pdash";
@@ -75,6 +90,7 @@ public class DataImporter extends Thread {
     public static final String EXPORT_DATANAME = "EXPORT_FILE";
 
     private static final long TIME_DELAY = 10 * 60 * 1000; // 10 minutes
+    private static final long MIN_TIME_DELAY = TIME_DELAY / 5;
     private static Hashtable<String, DataImporter> importers = new Hashtable();
     private static List initializingImporters = Collections
             .synchronizedList(new ArrayList());
@@ -94,6 +110,8 @@ public class DataImporter extends Thread {
     private Element instructionSpec;
     private ActionListener listener;
     private volatile boolean isRunning = true;
+    private volatile ScheduledFuture nextCheck;
+    private long pollDelay = TIME_DELAY;
     private Map<String, Long> modTimes = new HashMap<String, Long>();
     private Map<String, String> prefixes = new HashMap<String, String>();
 
@@ -140,9 +158,20 @@ public class DataImporter extends Thread {
             imp.quit();
         }
         importers.clear();
+        logger.fine("DataImporter metrics: " + getMetrics());
         ImportedTimeLogManager.getInstance().dispose();
     }
 
+    /** Return a summary of the work performed by the import pool:  the
+     * number of directory checks waiting for a worker thread, the number
+     * of checks and file imports performed, and the time spent waiting in
+     * the queue and importing files. */
+    public static String getMetrics() {
+        return "queueDepth=" + IMPORT_POOL.getQueue().size() //
+                + ", activeChecks=" + IMPORT_POOL.getActiveCount() //
+                + ", " + METRICS;
+    }
+
     private static String getKey(String prefix, String dir) {
         return prefix+"=>"+dir.replace(File.separatorChar, '/');
     }
@@ -203,14 +232,13 @@ public class DataImporter extends Thread {
         if (specProvider != null)
             loadInstructionSpec(specProvider);
 
-        if (PARALLEL_INIT && DYNAMIC_IMPORT)
+        if (PARALLEL_INIT && DYNAMIC_IMPORT) {
             initializingImporters.add(this);
-        else
+            IMPORT_POOL.execute(new InitialCheck());
+        } else {
             checkFiles(null);
-
-        this.setDaemon(true);
-        if (DYNAMIC_IMPORT)
-            this.start();
+            scheduleCheck(getInitialDelay());
+        }
     }
 
     public void refreshIfCached() {
@@ -221,24 +249,71 @@ public class DataImporter extends Thread {
 
     public void quit() {
         isRunning = false;
-        this.interrupt();
+        ScheduledFuture f = nextCheck;
+        if (f != null)
+            f.cancel(false);
     }
 
 
-    public void run() {
-        if (PARALLEL_INIT) {
-            checkFiles(null);
-            synchronized (initializingImporters) {
-                initializingImporters.remove(this);
-                if (initializingImporters.isEmpty())
-                    initializingImporters.notifyAll();
+    /** Performs the initial import of a directory on the worker pool, when
+     * parallel initialization is enabled. */
+    private class InitialCheck implements Runnable {
+        public void run() {
+            try {
+                checkFiles(null);
+            } finally {
+                synchronized (initializingImporters) {
+                    initializingImporters.remove(DataImporter.this);
+                    if (initializingImporters.isEmpty())
+                        initializingImporters.notifyAll();
+                }
+                scheduleCheck(getInitialDelay());
             }
         }
-        while (isRunning) try {
-            sleep(TIME_DELAY);
-            if (isRunning)
-                checkFiles(null);
-        } catch (InterruptedException e) {}
+    }
+
+    /** Arrange for the directory to be checked after the given delay.  When
+     * the delay elapses, the check will be queued for the worker pool; the
+     * scheduler thread itself never touches the filesystem. */
+    private void scheduleCheck(long delay) {
+        if (isRunning && DYNAMIC_IMPORT)
+            nextCheck = SCHEDULER.schedule(new Runnable() {
+                public void run() {
+                    queueCheck();
+                }}, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void queueCheck() {
+        final long queueTime = System.currentTimeMillis();
+        IMPORT_POOL.execute(new Runnable() {
+            public void run() {
+                METRICS.recordQueueWait(System.currentTimeMillis() - queueTime);
+                if (!isRunning)
+                    return;
+                boolean changed = false;
+                try {
+                    changed = checkFiles(null);
+                } finally {
+                    pollDelay = getNextDelay(pollDelay, changed);
+                    scheduleCheck(pollDelay);
+                }
+            }});
+    }
+
+    /** Spread the first periodic checks out over time, so hundreds of
+     * directories registered at startup are not all scanned at once. */
+    private static long getInitialDelay() {
+        return (long) (TIME_DELAY * (0.75 + Math.random() / 2));
+    }
+
+    /** After a check that found changes, look again soon (since changes
+     * tend to arrive in bursts); otherwise, double the delay until it
+     * reaches the normal polling interval. */
+    static long getNextDelay(long delay, boolean changed) {
+        if (changed)
+            return MIN_TIME_DELAY;
+        else
+            return Math.min(delay * 2, TIME_DELAY);
     }
 
     private void loadInstructionSpec(ImportInstructionSpecProvider provider) {
@@ -272,7 +347,9 @@ public class DataImporter extends Thread {
             return null;
     }
 
-    private synchronized void checkFiles(List<String> feedback) {
+    /** @return true if any files were imported or closed */
+    private synchronized boolean checkFiles(List<String> feedback) {
+        boolean changed = false;
         try {
             FILE_IO_LOCK.acquireUninterruptibly();
             Set<String> currentFilenames = new HashSet<String>(modTimes
@@ -286,9 +363,11 @@ public class DataImporter extends Thread {
             for (int i = files.length;  i-- > 0;  ) {
                 String filename = files[i].getName();
                 try {
-                    if (checkFile(files[i]))
+                    if (checkFile(files[i])) {
+                        changed = true;
                         if (feedback != null)
                             feedback.add(getDescription(files[i]));
+                    }
                     currentFilenames.remove(filename);
                 } catch (Throwable t) {
                     // if an error is encountered when trying to import one
@@ -302,13 +381,15 @@ public class DataImporter extends Thread {
             // if any previously imported files no longer exist, close
             // the corresponding datafiles.
             for (String filename : currentFilenames)
-                closeFile(filename);
+                changed = closeFile(filename) || changed;
 
         } catch (IOException ioe) {
             logger.log(Level.FINE, "IOException in DataImporter", ioe);
         } finally {
             FILE_IO_LOCK.release();
+            METRICS.recordCheck();
         }
+        return changed;
     }
 
     private File[] getFilesToImport() {
@@ -428,7 +509,7 @@ public class DataImporter extends Thread {
     }
 
     public synchronized void dispose() {
-        isRunning = false;
+        quit();
         for (String filename : new ArrayList<String>(modTimes.keySet())) {
             closeFile(filename);
         }
@@ -443,20 +524,23 @@ public class DataImporter extends Thread {
         // If this file is new (we've never seen it before), or if has
         // been modified since we imported it last,
         if (prevModTime == null || prevModTime.longValue() < modTime) {
+            long start = System.currentTimeMillis();
             importData(f, data);                   // import it, and
             modTimes.put(filename, modTime);       // save its mod time
+            METRICS.recordImport(System.currentTimeMillis() - start);
             return true;
         }
 
         return false;
     }
 
-    private void closeFile(String filename) {
+    private boolean closeFile(String filename) {
         String prefix = prefixes.get(filename);
-        if (prefix == null) return;
+        if (prefix == null) return false;
         logger.info("closing import " + getDescription(filename));
         closeImportedFile(data, prefix);
         modTimes.remove(filename);
+        return true;
     }
 
     public static void closeImportedFile(DataRepository data, String prefix) {
@@ -508,11 +592,68 @@ public class DataImporter extends Thread {
         return Integer.toString(Math.abs(f.getCanonicalFile().hashCode()));
     }
 
-    private static final Semaphore FILE_IO_LOCK = makeFileIOLock();
-    private static Semaphore makeFileIOLock() {
-        int maxOperations = Settings.getInt("slowNetwork.numParallelReads", 10);
-        return new Semaphore(maxOperations);
-    }
+    private static final int MAX_PARALLEL_READS = Math.max(1,
+        Settings.getInt("slowNetwork.numParallelReads", 10));
+    private static final Semaphore FILE_IO_LOCK = new Semaphore(
+            MAX_PARALLEL_READS);
     private static final boolean PARALLEL_INIT = Settings.getBool(
         "dataImporter.parallelInit", false);
+
+    private static final ScheduledExecutorService SCHEDULER =
+            new ScheduledThreadPoolExecutor(1,
+                    new DaemonThreadFactory("DataImporter Scheduler"));
+    private static final ThreadPoolExecutor IMPORT_POOL = makeImportPool();
+    private static ThreadPoolExecutor makeImportPool() {
+        // there is no point in having more workers than concurrent reads
+        int numThreads = Math.min(MAX_PARALLEL_READS,
+            Math.max(1, Settings.getInt("dataImporter.numThreads", 4)));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(numThreads,
+                numThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new DaemonThreadFactory("DataImporter Worker"));
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+    private static final ImportMetrics METRICS = new ImportMetrics();
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private String name;
+        DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+        public Thread newThread(Runnable r) {
+            Thread result = new Thread(r, name);
+            result.setDaemon(true);
+            return result;
+        }
+    }
+
+    private static class ImportMetrics {
+        private int checkCount, importCount, queuedCount;
+        private long importTime, maxImportTime, queueWait, maxQueueWait;
+
+        synchronized void recordCheck() {
+            checkCount++;
+        }
+        synchronized void recordImport(long elapsed) {
+            importCount++;
+            importTime += elapsed;
+            maxImportTime = Math.max(maxImportTime, elapsed);
+        }
+        synchronized void recordQueueWait(long elapsed) {
+            queuedCount++;
+            queueWait += elapsed;
+            maxQueueWait = Math.max(maxQueueWait, elapsed);
+        }
+        public synchronized String toString() {
+            return "checks=" + checkCount //
+                    + ", imports=" + importCount //
+                    + ", avgImportTime="
+                    + (importCount == 0 ? 0 : importTime / importCount)
+                    + ", maxImportTime=" + maxImportTime //
+                    + ", avgQueueWait="
+                    + (queuedCount == 0 ? 0 : queueWait / queuedCount)
+                    + ", maxQueueWait=" + maxQueueWait;
+        }
+    }
 }
@@ -27,13 +27,24 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -42,6 +53,7 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 
+import net.sourceforge.processdash.Settings;
 import net.sourceforge.processdash.data.DateData;
 import net.sourceforge.processdash.data.ImmutableDoubleData;
 import net.sourceforge.processdash.data.ListData;
@@ -195,11 +207,20 @@ public class ArchiveMetricsFileImporter implements Runnable,
         return prefix;
     }
 
+    /**
+     * Return the import instructions for a particular type of file.
+     * 
+     * Files in an archive can be read by several threads at once, and DOM
+     * objects are not thread-safe; callers should synchronize on the
+     * owner document of the returned element while they examine it.
+     */
     public Element getImportSpec(String type) {
         if (importSpec != null) {
-            for (Element xml : XMLUtils.getChildElements(importSpec))
-                if (xml.getTagName().equals(type))
-                    return xml;
+            synchronized (importSpec.getOwnerDocument()) {
+                for (Element xml : XMLUtils.getChildElements(importSpec))
+                    if (xml.getTagName().equals(type))
+                        return xml;
+            }
         }
         return null;
     }
@@ -231,6 +252,7 @@ public class ArchiveMetricsFileImporter implements Runnable,
         ImportedEVManager.getInstance().closeTaskLists(prefix);
         defns = new HashMap();
         Map<String, String> packageIDs = new HashMap<String, String>();
+        List<String[]> files = new ArrayList<String[]>();
 
         while (parser.next() != XmlPullParser.END_DOCUMENT) {
             if (parser.getEventType() == XmlPullParser.START_TAG) {
@@ -244,11 +266,14 @@ public class ArchiveMetricsFileImporter implements Runnable,
                     String name = parser.getAttributeValue(null, FILE_NAME_ATTR);
                     String type = parser.getAttributeValue(null, TYPE_ATTR);
                     String version = parser.getAttributeValue(null, VERSION_ATTR);
-                    readFile(zipFile, name, type, version);
+                    files.add(new String[] { name, type, version });
                 }
             }
         }
 
+        // read the files listed in the manifest
+        readFiles(zipFile, files);
+
         // make a note of the individual who exported this data
         recordKnownPerson();
 
@@ -264,6 +289,88 @@ public class ArchiveMetricsFileImporter implements Runnable,
         }
     }
 
+    /**
+     * Read the files in the archive.  Defects, time logs, and earned value
+     * schedules are published to their own managers and do not interact
+     * with each other, so they are parsed by a pool of worker threads while
+     * the metrics data (usually the largest entry) is parsed on this thread.
+     * All of the files have been read when this method returns.
+     */
+    private void readFiles(ZipFile zipFile, List<String[]> files)
+            throws IOException {
+        List<Future> sections = new ArrayList<Future>();
+        try {
+            for (String[] f : files) {
+                if (parallelSections && files.size() > 1
+                        && INDEPENDENT_FILE_TYPES.contains(f[1]))
+                    sections.add(SECTION_POOL.submit(new SectionReader(
+                            zipFile, f[0], f[1], f[2])));
+            }
+            for (String[] f : files) {
+                if (sections.isEmpty()
+                        || !INDEPENDENT_FILE_TYPES.contains(f[1]))
+                    readFile(zipFile, f[0], f[1], f[2]);
+            }
+        } finally {
+            // wait for all the workers to finish, even if we encountered an
+            // error, since they use the fields of this object.
+            IOException firstError = null;
+            for (Future section : sections) {
+                try {
+                    getUninterruptibly(section);
+                } catch (ExecutionException ee) {
+                    if (firstError == null) {
+                        Throwable cause = ee.getCause();
+                        if (cause instanceof IOException) {
+                            firstError = (IOException) cause;
+                        } else {
+                            firstError = new IOException();
+                            firstError.initCause(cause);
+                        }
+                    }
+                }
+            }
+            if (firstError != null)
+                throw firstError;
+        }
+    }
+
+    private static void getUninterruptibly(Future f)
+            throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    f.get();
+                    return;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private class SectionReader implements Callable {
+        private ZipFile zipFile;
+        private String name, type, version;
+
+        SectionReader(ZipFile zipFile, String name, String type,
+                String version) {
+            this.zipFile = zipFile;
+            this.name = name;
+            this.type = type;
+            this.version = version;
+        }
+
+        public Object call() throws IOException {
+            readFile(zipFile, name, type, version);
+            return null;
+        }
+    }
+
     private void readFile(ZipFile zipFile, String name, String type,
             String version) throws IOException {
         Handler h = getHandler(type, version);
@@ -358,4 +465,36 @@ public class ArchiveMetricsFileImporter implements Runnable,
         shouldDeleteArchiveFileOnCompletion = true;
     }
 
+
+    private static final Set<String> INDEPENDENT_FILE_TYPES = new HashSet(
+            Arrays.asList(FILE_TYPE_DEFECTS, FILE_TYPE_TIME_LOG,
+                FILE_TYPE_EARNED_VALUE));
+
+    private static boolean parallelSections = Settings.getBool(
+        "pdashImport.parallelSections", true);
+
+    /** Turn parallel section parsing on or off, for benchmarking */
+    static void setParallelSections(boolean parallel) {
+        parallelSections = parallel;
+    }
+
+    private static final ThreadPoolExecutor SECTION_POOL = makeSectionPool();
+
+    private static ThreadPoolExecutor makeSectionPool() {
+        int numThreads = Math.max(2, Settings.getInt(
+            "pdashImport.numThreads", Runtime.getRuntime()
+                    .availableProcessors()));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(numThreads,
+                numThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "PDASH Section Reader");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
 }
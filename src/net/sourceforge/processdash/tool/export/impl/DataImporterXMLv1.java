@@ -73,9 +73,12 @@ public class DataImporterXMLv1 implements ArchiveMetricsFileImporter.Handler,
 
     private boolean shouldImportRootValuesOnly(ArchiveMetricsFileImporter caller) {
         Element spec = caller.getImportSpec(FILE_TYPE_METRICS);
-        return spec != null
-                && spec.getElementsByTagName(ROOT_VALUES_ONLY_TAG).getLength() > 0;
-
+        if (spec == null)
+            return false;
+        synchronized (spec.getOwnerDocument()) {
+            return spec.getElementsByTagName(ROOT_VALUES_ONLY_TAG)
+                    .getLength() > 0;
+        }
     }
 
     private static void importData(XmlPullParser parser, Map defns,
@@ -57,8 +57,11 @@ public class DefectImporterXMLv1 implements ArchiveMetricsFileImporter.Handler,
 
     private boolean isDefectImportDisabled(ArchiveMetricsFileImporter caller) {
         Element spec = caller.getImportSpec(FILE_TYPE_DEFECTS);
-        return spec != null
-                && spec.getElementsByTagName("importDisabled").getLength() > 0;
+        if (spec == null)
+            return false;
+        synchronized (spec.getOwnerDocument()) {
+            return spec.getElementsByTagName("importDisabled").getLength() > 0;
+        }
     }
 
     public void importDefectsFromStream(Reader reader, String prefix) {
@@ -0,0 +1,175 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Builds a DOM document from a stream of SAX events, producing a smaller
+ * tree than {@link XMLUtils#parse(InputStream)}.
+ *
+ * The default DOM builder retains every whitespace text node between
+ * elements, keeps a separate copy of every attribute value, and (for some
+ * parsers) holds a deferred copy of the document alongside the expanded
+ * nodes.  For large, machine-generated documents like the WBS data dump,
+ * those overheads dominate the heap.  This builder:
+ * <ul>
+ * <li>streams the document through a SAX parser, creating each node once;</li>
+ * <li>discards whitespace-only text that separates elements (text inside
+ *     elements with no child elements is preserved);</li>
+ * <li>shares a single instance of each distinct tag name, attribute name,
+ *     and short attribute value.</li>
+ * </ul>
+ *
+ * Comments and processing instructions are not retained.  Otherwise, the
+ * resulting document can be navigated and modified like any other DOM.
+ */
+public class CompactDocumentBuilder {
+
+    /** Attribute values longer than this are not shared. */
+    private static final int MAX_SHARED_VALUE_LENGTH = 64;
+
+    private static DocumentBuilderFactory factory = null;
+
+    public static Document parse(InputStream in) throws SAXException,
+            IOException {
+        Handler handler = new Handler(newDocument());
+        XMLUtils.parse(in, handler);
+        Document result = handler.doc;
+        // pooled SAX parsers hold a reference to the last handler they used.
+        // Clear its fields so the document can be collected when the caller
+        // is finished with it.
+        handler.doc = null;
+        handler.current = null;
+        handler.strings = null;
+        return result;
+    }
+
+    private static Document newDocument() throws SAXException {
+        try {
+            synchronized (CompactDocumentBuilder.class) {
+                if (factory == null)
+                    factory = DocumentBuilderFactory.newInstance();
+                Document result = factory.newDocumentBuilder().newDocument();
+                result.setStrictErrorChecking(false);
+                return result;
+            }
+        } catch (ParserConfigurationException pce) {
+            throw new SAXException(pce);
+        }
+    }
+
+
+    private static class Handler extends DefaultHandler {
+
+        private Document doc;
+
+        private Node current;
+
+        private StringBuilder text;
+
+        private Map<String, String> strings;
+
+        Handler(Document doc) {
+            this.doc = doc;
+            this.current = doc;
+            this.text = new StringBuilder();
+            this.strings = new HashMap<String, String>();
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            flushText(true);
+
+            Element e = doc.createElement(share(qName));
+            for (int i = 0; i < attributes.getLength(); i++)
+                e.setAttribute(share(attributes.getQName(i)),
+                    share(attributes.getValue(i)));
+            current.appendChild(e);
+            current = e;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushText(false);
+            current = current.getParentNode();
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) {}
+
+        private void flushText(boolean beforeElement) {
+            if (text.length() == 0)
+                return;
+
+            // whitespace that separates elements is only formatting, and can
+            // be discarded.  Whitespace that makes up the entire content of
+            // an element is retained.
+            if (!isWhitespace(text) || !(beforeElement || current == doc
+                    || current.getLastChild() instanceof Element))
+                current.appendChild(doc.createTextNode(text.toString()));
+
+            text.setLength(0);
+        }
+
+        private boolean isWhitespace(CharSequence s) {
+            for (int i = s.length(); i-- > 0;)
+                if (!Character.isWhitespace(s.charAt(i)))
+                    return false;
+            return true;
+        }
+
+        private String share(String s) {
+            if (s == null || s.length() > MAX_SHARED_VALUE_LENGTH)
+                return s;
+            String result = strings.get(s);
+            if (result == null) {
+                strings.put(s, s);
+                result = s;
+            }
+            return result;
+        }
+    }
+
+}
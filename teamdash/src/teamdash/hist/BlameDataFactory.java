@@ -68,7 +68,13 @@ public class BlameDataFactory extends ProjectDiff {
 
     public BlameDataFactory(ProjectHistory hist, Object versionA,
             Object versionB, ProjectDiff other) throws IOException {
-        super(hist, versionA, versionB, other);
+        this(hist, versionA, versionB, other, null);
+    }
+
+    BlameDataFactory(ProjectHistory hist, Object versionA, Object versionB,
+            ProjectDiff other, ProjectVersionPrefetcher prefetcher)
+            throws IOException {
+        super(hist, versionA, versionB, other, prefetcher);
         prepareTeamMemberTimeColumnIDs();
 
         WBSBlameCalc wbsBlameCalc = new WBSBlameCalc();
@@ -128,7 +134,7 @@ public class BlameDataFactory extends ProjectDiff {
     private void recordNodeAdded(BlameModelData blameModelData,
             TreeNodeChange<Integer, WBSNodeContent> tnc, WBSModel wbs) {
         Integer nodeID = tnc.getNodeID();
-        WBSNode node = wbs.getNodeMap().get(nodeID);
+        WBSNode node = wbs.getNodeForID(nodeID);
         String effAuthor = getAuthorOfNodeChange(node, Type.Add, author);
         BlamePoint effBlame = (effAuthor.equals(author) ? blamePoint
                 : new BlamePoint(timestamp, effAuthor));
@@ -160,7 +166,7 @@ public class BlameDataFactory extends ProjectDiff {
             return;
 
         // Record an entry on the parent that this child was deleted.
-        WBSNode deletedNode = modelA.getNodeMap().get(nodeID);
+        WBSNode deletedNode = modelA.getNodeForID(nodeID);
         BlameNodeData parentNodeData = blameModelData.getNodeData(parentID);
         parentNodeData.addDeletedChild(deletedNode, blamePoint);
     }
@@ -176,7 +182,7 @@ public class BlameDataFactory extends ProjectDiff {
     }
 
     private String getParentName(WBSModel model, Integer nodeID) {
-        WBSNode node = model.getNodeMap().get(nodeID);
+        WBSNode node = model.getNodeForID(nodeID);
         WBSNode parent = model.getParent(node);
         String parentName = model.getFullName(parent);
         return parentName;
@@ -471,6 +477,20 @@ public class BlameDataFactory extends ProjectDiff {
             ((ProjectHistoryBridged) hist).cacheFileRevisions(onOrAfterDate,
                 null);
 
+        ProjectVersionPrefetcher prefetcher = new ProjectVersionPrefetcher(
+                hist);
+        try {
+            return getBlameData(hist, onOrAfterDate, dataTableModel, f,
+                prefetcher);
+        } finally {
+            // don't keep loading versions that we will not be comparing
+            prefetcher.cancel();
+        }
+    }
+
+    private static BlameData getBlameData(ProjectHistory hist,
+            Date onOrAfterDate, DataTableModel dataTableModel, Future f,
+            ProjectVersionPrefetcher prefetcher) throws IOException {
         BlameData result = new BlameData();
         List versions = hist.getVersions();
         ProjectDiff prevDiff = null;
@@ -483,10 +503,15 @@ public class BlameDataFactory extends ProjectDiff {
             if (onOrAfterDate != null && versionDate.before(onOrAfterDate))
                 continue;
 
+            // load upcoming versions in the background while we calculate
+            // the diff for this pair.
+            for (int j = i; j < Math.min(i + 3, versions.size()); j++)
+                prefetcher.prefetch(versions.get(j));
+
             try {
                 Object prevVersion = versions.get(i - 1);
                 BlameDataFactory diff = new BlameDataFactory(hist, prevVersion,
-                        oneVersion, prevDiff);
+                        oneVersion, prevDiff, prefetcher);
                 diff.addChanges(result, dataTableModel);
                 prevDiff = diff;
             } catch (FileNotFoundException fnfe) {
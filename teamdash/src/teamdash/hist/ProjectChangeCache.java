@@ -0,0 +1,423 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package teamdash.hist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.processdash.tool.bridge.client.DirectoryPreferences;
+import net.sourceforge.processdash.util.FileUtils;
+import net.sourceforge.processdash.util.RobustFileOutputStream;
+
+import teamdash.wbs.ChangeHistory;
+
+/**
+ * Remembers the changes that were found between two versions of a project.
+ *
+ * Historical versions of a project never change, so the list of changes
+ * between a given pair of versions can be reused indefinitely.  Entries are
+ * keyed by the unique IDs of the two versions, and are held in memory as
+ * well as in a cache directory on the local computer.  This allows the
+ * change history report to skip the expensive diff for any version pair it
+ * has already seen, even after the application is restarted.
+ *
+ * The changes are stored in a flattened form that records only the data
+ * needed to display them; in particular, cached changes do not hold
+ * references to the historical WBS models they were computed from.
+ */
+class ProjectChangeCache {
+
+    private static final int MAGIC = 0x50434843; // "PCHC"
+
+    /**
+     * The version of the cache file format.  Increment this whenever the
+     * file layout changes, or when {@link ProjectDiff} and its subclasses
+     * change the way changes are found or described.  (Files are also tagged
+     * with the version of the team tools that wrote them, so entries from
+     * other releases are ignored automatically.)
+     */
+    private static final int VERSION = 2;
+
+    private static final int MAX_MEMORY_ENTRIES = 2000;
+
+    private static final Logger logger = Logger
+            .getLogger(ProjectChangeCache.class.getName());
+
+    private static Map<String, List<ProjectChange>> memoryCache =
+            new LinkedHashMap<String, List<ProjectChange>>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(
+                Map.Entry<String, List<ProjectChange>> e) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    private static File cacheDir;
+
+    /** The maximum total size of the files in the cache directory */
+    private static long maxCacheBytes = Long.getLong(
+        "teamdash.hist.changeCacheBytes", 20L * 1024 * 1024);
+
+    /** The estimated size of the cache directory, or -1 if unknown */
+    private static long cacheBytes = -1;
+
+
+    /**
+     * @return the changes that were previously recorded for the given pair of
+     *     versions, or null if no changes have been recorded.
+     */
+    static List<ProjectChange> get(Object versionA, Object versionB) {
+        String key = getKey(versionA, versionB);
+        if (key == null)
+            return null;
+
+        synchronized (ProjectChangeCache.class) {
+            List<ProjectChange> result = memoryCache.get(key);
+            if (result != null)
+                return result;
+        }
+
+        List<ProjectChange> result = readFile(key);
+        if (result != null) {
+            synchronized (ProjectChangeCache.class) {
+                memoryCache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record the changes that were found between a pair of versions.
+     *
+     * @return a list containing the flattened form of the changes, which the
+     *     caller can use in place of the original list.
+     */
+    static List<ProjectChange> put(Object versionA, Object versionB,
+            List<ProjectChange> changes) {
+        List<ProjectChange> result = new ArrayList<ProjectChange>(
+                changes.size());
+        for (ProjectChange change : changes)
+            result.add(new CachedChange(change));
+
+        String key = getKey(versionA, versionB);
+        if (key != null) {
+            synchronized (ProjectChangeCache.class) {
+                memoryCache.put(key, result);
+            }
+            writeFile(key, result);
+        }
+        return result;
+    }
+
+    private static String getKey(Object versionA, Object versionB) {
+        if (versionA instanceof ChangeHistory.Entry
+                && versionB instanceof ChangeHistory.Entry) {
+            String uidA = ((ChangeHistory.Entry) versionA).getUid();
+            String uidB = ((ChangeHistory.Entry) versionB).getUid();
+            if (uidA != null && uidB != null)
+                return FileUtils.makeSafe(uidA + "_" + uidB);
+        }
+        return null;
+    }
+
+
+
+    private static List<ProjectChange> readFile(String key) {
+        File f = getCacheFile(key);
+        if (f == null || !f.isFile())
+            return null;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(f)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !getToolsVersion().equals(in.readUTF())
+                    || !getLocaleID().equals(in.readUTF()))
+                return null;
+
+            int numChanges = in.readInt();
+            List<ProjectChange> result = new ArrayList<ProjectChange>(
+                    numChanges);
+            for (int i = 0; i < numChanges; i++)
+                result.add(new CachedChange(in));
+
+            // record the use of this file, so pruning will keep it
+            f.setLastModified(System.currentTimeMillis());
+            return result;
+
+        } catch (Exception e) {
+            logger.log(Level.FINE, "Ignoring unreadable change cache " + f, e);
+            return null;
+        } finally {
+            FileUtils.safelyClose(in);
+        }
+    }
+
+    private static void writeFile(String key, List<ProjectChange> changes) {
+        File f = getCacheFile(key);
+        if (f == null)
+            return;
+
+        RobustFileOutputStream rout = null;
+        try {
+            rout = new RobustFileOutputStream(f);
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(rout));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(getToolsVersion());
+            out.writeUTF(getLocaleID());
+            out.writeInt(changes.size());
+            for (ProjectChange change : changes)
+                ((CachedChange) change).write(out);
+            out.close();
+            pruneCache(f.length());
+
+        } catch (IOException ioe) {
+            // the cache is only an optimization; if we can't save it, the
+            // changes will be recalculated the next time they are needed.
+            logger.log(Level.FINE, "Unable to save change cache " + f, ioe);
+            if (rout != null)
+                try {
+                    rout.abort();
+                } catch (Exception e) {}
+        }
+    }
+
+    private static synchronized File getCacheFile(String key) {
+        if (cacheDir == null) {
+            try {
+                File appDir = DirectoryPreferences.getApplicationDirectory();
+                cacheDir = new File(appDir, "wbsChangeCache");
+            } catch (Throwable t) {
+                cacheDir = new File(System.getProperty("java.io.tmpdir"),
+                        "wbsChangeCache");
+            }
+        }
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs())
+            return null;
+        return new File(cacheDir, key + ".dat");
+    }
+
+    /**
+     * Delete the least recently used cache files, if the cache directory has
+     * grown larger than its limit.
+     *
+     * @param bytesWritten the size of a file that was just written
+     */
+    private static synchronized void pruneCache(long bytesWritten) {
+        if (cacheBytes >= 0) {
+            cacheBytes += bytesWritten;
+            if (cacheBytes <= maxCacheBytes)
+                return;
+        }
+
+        File[] files = cacheDir.listFiles();
+        if (files == null)
+            return;
+        final Map<File, Long> lastModified = new HashMap<File, Long>();
+        long totalBytes = 0;
+        for (File f : files) {
+            lastModified.put(f, f.lastModified());
+            totalBytes += f.length();
+        }
+
+        // when the limit is exceeded, delete enough files to leave some
+        // room, so the directory isn't scanned again on every write.
+        if (totalBytes > maxCacheBytes) {
+            Arrays.sort(files, new Comparator<File>() {
+                public int compare(File a, File b) {
+                    long delta = lastModified.get(a) - lastModified.get(b);
+                    return (delta < 0 ? -1 : (delta > 0 ? 1 : 0));
+                }
+            });
+            long targetBytes = maxCacheBytes * 3 / 4;
+            for (int i = 0; i < files.length && totalBytes > targetBytes; i++) {
+                long len = files[i].length();
+                if (files[i].delete())
+                    totalBytes -= len;
+            }
+        }
+        cacheBytes = totalBytes;
+    }
+
+    /**
+     * Use a different cache directory and size limit, and discard the
+     * entries held in memory.  This is intended for testing.
+     */
+    static synchronized void setCacheDirectory(File dir, long maxBytes) {
+        cacheDir = dir;
+        maxCacheBytes = maxBytes;
+        cacheBytes = -1;
+        memoryCache.clear();
+    }
+
+    private static String getToolsVersion() {
+        // the logic that finds and describes changes can differ from one
+        // release to the next, so each release uses its own entries.
+        String result = null;
+        try {
+            result = ProjectDiff.class.getPackage()
+                    .getImplementationVersion();
+        } catch (Exception e) {}
+        return (result == null ? "dev" : result);
+    }
+
+    private static String getLocaleID() {
+        // change descriptions are localized, so a cache written in one
+        // locale cannot be used in another.
+        return Locale.getDefault().toString();
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0)
+            return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+
+
+    /** A project change that replays previously rendered report rows. */
+    private static class CachedChange extends ProjectChange {
+
+        private String description;
+
+        private List<Row> rows;
+
+        CachedChange(ProjectChange change) {
+            super(change.getAuthor(), change.getTimestamp());
+            this.description = change.getDescription();
+            List<ProjectChangeReportRow> reportRows = change.buildReportRows();
+            this.rows = new ArrayList<Row>(reportRows.size());
+            for (ProjectChangeReportRow row : reportRows)
+                rows.add(new Row(row));
+        }
+
+        CachedChange(DataInputStream in) throws IOException {
+            super(readString(in), new Date(in.readLong()));
+            this.description = readString(in);
+            int numRows = in.readInt();
+            this.rows = new ArrayList<Row>(numRows);
+            for (int i = 0; i < numRows; i++)
+                rows.add(new Row(in));
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, getAuthor());
+            out.writeLong(getTimestamp().getTime());
+            writeString(out, description);
+            out.writeInt(rows.size());
+            for (Row row : rows)
+                row.write(out);
+        }
+
+        @Override
+        public List<ProjectChangeReportRow> buildReportRows() {
+            List<ProjectChangeReportRow> result = new ArrayList(rows.size());
+            for (Row row : rows)
+                result.add(row.getReportRow());
+            return result;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static class Row {
+
+        int indent;
+
+        boolean expanded;
+
+        String icon, iconTooltip, html, itemHref;
+
+        Row(ProjectChangeReportRow row) {
+            indent = row.getIndent();
+            expanded = row.isExpanded();
+            icon = row.getIcon();
+            iconTooltip = row.getIconTooltip();
+            html = row.getHtml();
+            itemHref = row.getItemHref();
+        }
+
+        Row(DataInputStream in) throws IOException {
+            indent = in.readInt();
+            expanded = in.readBoolean();
+            icon = readString(in);
+            iconTooltip = readString(in);
+            html = readString(in);
+            itemHref = readString(in);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(indent);
+            out.writeBoolean(expanded);
+            writeString(out, icon);
+            writeString(out, iconTooltip);
+            writeString(out, html);
+            writeString(out, itemHref);
+        }
+
+        ProjectChangeReportRow getReportRow() {
+            // build a new row object each time, because the expansion state
+            // is assigned by the caller.
+            return new ProjectChangeReportRow(indent, expanded, icon,
+                    iconTooltip, html, false, itemHref);
+        }
+    }
+
+}
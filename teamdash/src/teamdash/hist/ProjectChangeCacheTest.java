@@ -0,0 +1,340 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+
+package teamdash.hist;
+
+import static teamdash.wbs.WBSFilenameConstants.WBS_FILENAME;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.util.FileUtils;
+
+import teamdash.wbs.ChangeHistory;
+import teamdash.wbs.WBSModel;
+import teamdash.wbs.WBSNode;
+import teamdash.wbs.columns.TeamMemberTimeColumn;
+
+public class ProjectChangeCacheTest extends TestCase {
+
+    private static final String PREFETCH_THREAD = "WBS History Prefetch";
+
+    private File tempDir;
+
+    private TestHistory hist;
+
+    protected void setUp() throws Exception {
+        tempDir = File.createTempFile("changeCache", ".tmp");
+        tempDir.delete();
+        tempDir.mkdirs();
+        ProjectChangeCache.setCacheDirectory(tempDir, Long.MAX_VALUE);
+        hist = new TestHistory(12);
+    }
+
+    protected void tearDown() throws Exception {
+        ProjectChangeCache.setCacheDirectory(null, Long.MAX_VALUE);
+        if (tempDir != null)
+            FileUtils.deleteDirectory(tempDir, true);
+    }
+
+    public void testDiskCacheMatchesDiff() throws Exception {
+        List<String> expected = getFreshChanges();
+
+        // the first request calculates the changes and caches them
+        assertEquals(expected, describe(getChanges(0)));
+        assertEquals(hist.versions.size() - 1, tempDir.list().length);
+
+        // once the in-memory entries are gone, the changes should be read
+        // from disk, without loading any versions of the project.
+        ProjectChangeCache.setCacheDirectory(tempDir, Long.MAX_VALUE);
+        hist.loads.clear();
+        assertEquals(expected, describe(getChanges(0)));
+        assertTrue(hist.loads.isEmpty());
+    }
+
+    public void testOldFormatIsIgnored() throws Exception {
+        getChanges(0);
+
+        // rewrite the format version in each file to an older value
+        for (File f : tempDir.listFiles()) {
+            RandomAccessFile raf = new RandomAccessFile(f, "rw");
+            raf.seek(4);
+            raf.writeInt(1);
+            raf.close();
+        }
+
+        ProjectChangeCache.setCacheDirectory(tempDir, Long.MAX_VALUE);
+        hist.loads.clear();
+        assertEquals(getFreshChanges(), describe(getChanges(0)));
+        assertFalse(hist.loads.isEmpty());
+    }
+
+    public void testCacheDirectoryIsPruned() throws Exception {
+        getChanges(0);
+        long fullSize = getDirSize();
+
+        // the changes are calculated from the newest pair to the oldest, so
+        // the oldest pair is the most recently written file.
+        File newDir = new File(tempDir, "pruned");
+        long maxBytes = fullSize / 3;
+        ProjectChangeCache.setCacheDirectory(newDir, maxBytes);
+        List<String> changes = describe(getChanges(0));
+        assertEquals(getFreshChanges(), changes);
+
+        assertTrue(getDirSize(newDir) <= maxBytes);
+        assertTrue(newDir.list().length > 0);
+        assertTrue(new File(newDir, hist.getKey(0, 1) + ".dat").isFile());
+    }
+
+    public void testPrefetchAbandonedOnEarlyReturn() throws Exception {
+        int n = hist.versions.size();
+        // the first pair examined is (n-2, n-1), and the prefetcher is then
+        // asked for n-2, n-3 and n-4.  Stall the prefetch thread on n-3.
+        hist.blockedVersion = hist.versions.get(n - 3);
+        hist.gate = new CountDownLatch(1);
+
+        // ask for a single change, so the loop returns after the first pair
+        ProjectChangeList changes = ProjectChangeListFactory.getChanges(hist,
+            null, 1, false, false);
+        assertFalse(changes.isEmpty());
+        hist.gate.countDown();
+
+        // wait for the prefetch thread to finish any remaining work.  The
+        // executor runs tasks in order, so this version is loaded last.
+        ProjectVersionPrefetcher p = new ProjectVersionPrefetcher(hist);
+        p.prefetch(hist.versions.get(0));
+        assertNotNull(p.getWbsModel(hist.versions.get(0)));
+
+        List<Object> prefetched = hist.getPrefetchedVersions();
+        assertTrue(prefetched.contains(hist.versions.get(n - 2)));
+        assertFalse(prefetched.contains(hist.versions.get(n - 4)));
+    }
+
+    private ProjectChangeList getChanges(int minNumChanges)
+            throws IOException {
+        return ProjectChangeListFactory.getChanges(hist, null, minNumChanges,
+            false, false);
+    }
+
+    /** Compare each pair of versions directly, newest first */
+    private List<String> getFreshChanges() throws IOException {
+        List<ProjectChange> result = new ArrayList<ProjectChange>();
+        for (int i = hist.versions.size(); i-- > 1;) {
+            ProjectChangeListFactory diff = new ProjectChangeListFactory(
+                    hist, hist.versions.get(i - 1), hist.versions.get(i),
+                    null);
+            result.addAll(diff.getChanges());
+        }
+        assertFalse(result.isEmpty());
+        return describe(result);
+    }
+
+    private static List<String> describe(List<ProjectChange> changes) {
+        List<String> result = new ArrayList<String>();
+        for (ProjectChange c : changes) {
+            StringBuilder buf = new StringBuilder();
+            buf.append(c.getAuthor()).append('|')
+                    .append(c.getTimestamp().getTime()).append('|')
+                    .append(c.getDescription());
+            for (ProjectChangeReportRow row : c.buildReportRows())
+                buf.append("\n  ").append(row.getIndent()).append('|')
+                        .append(row.isExpanded()).append('|')
+                        .append(row.getIcon()).append('|')
+                        .append(row.getIconTooltip()).append('|')
+                        .append(row.getHtml()).append('|')
+                        .append(row.getItemHref());
+            result.add(buf.toString());
+        }
+        return result;
+    }
+
+    private long getDirSize() {
+        return getDirSize(tempDir);
+    }
+
+    private static long getDirSize(File dir) {
+        long result = 0;
+        for (File f : dir.listFiles())
+            if (f.isFile())
+                result += f.length();
+        return result;
+    }
+
+
+    private static class Version implements ChangeHistory.Entry {
+
+        private String uid, user;
+
+        private Date timestamp;
+
+        Version(String uid, String user, Date timestamp) {
+            this.uid = uid;
+            this.user = user;
+            this.timestamp = timestamp;
+        }
+
+        public String getUid() { return uid; }
+
+        public String getUser() { return user; }
+
+        public Date getTimestamp() { return timestamp; }
+
+        public String toString() { return uid; }
+
+    }
+
+    /** A project history whose versions are generated in memory */
+    private static class TestHistory implements
+            ProjectHistory<ChangeHistory.Entry> {
+
+        private static final String[] INITIALS = { "aa", "bb" };
+
+        List<ChangeHistory.Entry> versions;
+
+        Map<ChangeHistory.Entry, String> wbsXml;
+
+        String teamXml;
+
+        List<String> loads;
+
+        ChangeHistory.Entry blockedVersion;
+
+        CountDownLatch gate;
+
+        TestHistory(int numVersions) throws IOException {
+            versions = new ArrayList<ChangeHistory.Entry>();
+            wbsXml = new HashMap<ChangeHistory.Entry, String>();
+            loads = Collections.synchronizedList(new ArrayList<String>());
+
+            teamXml = "<teamList>";
+            for (int i = 0; i < INITIALS.length; i++)
+                teamXml += "<teamMember tmid='" + (i + 1) + "' name='Member "
+                        + i + "' initials='" + INITIALS[i] + "' />";
+            teamXml += "</teamList>";
+
+            // build a series of versions, each with a small change
+            Random r = new Random(3);
+            WBSModel wbs = new WBSModel("Project", false);
+            long time = 1500000000000L;
+            for (int i = 0; i < numVersions; i++) {
+                if (i > 0)
+                    changeWbs(wbs, r, i);
+                Version v = new Version("v" + i, INITIALS[i % 2], new Date(
+                        time + i * 3600000L));
+                StringWriter xml = new StringWriter();
+                wbs.getAsXML(xml);
+                versions.add(v);
+                wbsXml.put(v, xml.toString());
+            }
+        }
+
+        private void changeWbs(WBSModel wbs, Random r, int i) {
+            WBSNode[] nodes = wbs.getDescendants(wbs.getRoot());
+            int action = (nodes.length < 4 ? 0 : r.nextInt(4));
+            if (action == 0) {
+                int indent = (nodes.length == 0 ? 1 : 1 + r.nextInt(2));
+                wbs.add(new WBSNode(wbs, "Node " + i, "Code Task", indent,
+                        true));
+            } else {
+                WBSNode node = nodes[r.nextInt(nodes.length)];
+                if (action == 1)
+                    node.setName(node.getName() + " " + i);
+                else if (action == 2)
+                    wbs.deleteNodes(Collections.singletonList(node));
+                else
+                    node.setNumericAttribute(INITIALS[r.nextInt(2)]
+                            + TeamMemberTimeColumn.TEAM_MEMBER_TIME_SUFFIX,
+                        1 + r.nextInt(20));
+            }
+        }
+
+        String getKey(int a, int b) {
+            return versions.get(a).getUid() + "_" + versions.get(b).getUid();
+        }
+
+        List<Object> getPrefetchedVersions() {
+            List<Object> result = new ArrayList<Object>();
+            synchronized (loads) {
+                for (String load : loads)
+                    if (load.startsWith(PREFETCH_THREAD + ":"))
+                        for (ChangeHistory.Entry v : versions)
+                            if (load.endsWith(":" + v.getUid()))
+                                result.add(v);
+            }
+            return result;
+        }
+
+        public void refresh() {}
+
+        public List<ChangeHistory.Entry> getVersions() {
+            return versions;
+        }
+
+        public Date getVersionDate(ChangeHistory.Entry version) {
+            return version.getTimestamp();
+        }
+
+        public String getVersionAuthor(ChangeHistory.Entry version) {
+            return version.getUser();
+        }
+
+        public InputStream getVersionFile(ChangeHistory.Entry version,
+                String filename) throws IOException {
+            String thread = Thread.currentThread().getName();
+            loads.add(thread + ":" + version.getUid());
+            if (version == blockedVersion && PREFETCH_THREAD.equals(thread)) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {}
+            }
+
+            String xml = (WBS_FILENAME.equals(filename) ? wbsXml.get(version)
+                    : teamXml);
+            return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+        }
+
+        public ProjectHistoryException wrapException(Throwable e) {
+            return new ProjectHistoryException(e, "Dir.Cannot_Read_HTML_FMT",
+                    "memory");
+        }
+
+    }
+
+}
@@ -49,7 +49,13 @@ public class ProjectChangeListFactory extends ProjectDiff {
 
     public ProjectChangeListFactory(ProjectHistory hist, Object versionA,
             Object versionB, ProjectDiff other) throws IOException {
-        super(hist, versionA, versionB, other);
+        this(hist, versionA, versionB, other, null);
+    }
+
+    ProjectChangeListFactory(ProjectHistory hist, Object versionA,
+            Object versionB, ProjectDiff other,
+            ProjectVersionPrefetcher prefetcher) throws IOException {
+        super(hist, versionA, versionB, other, prefetcher);
 
         WBSDiffCalc wbsDiffCalc = new WBSDiffCalc();
         diff = wbsDiffCalc.getMainDiff();
@@ -110,7 +116,7 @@ public class ProjectChangeListFactory extends ProjectDiff {
     private void addNodeMove(TreeNodeChange<Integer, WBSNodeContent> tnc,
             Map<Integer, ProjectWbsNodeChange> nodeChanges) {
         Integer nodeID = tnc.getNodeID();
-        WBSNode node = wbsA.getNodeMap().get(nodeID);
+        WBSNode node = wbsA.getNodeForID(nodeID);
         WBSNode oldParent = wbsA.getParent(node);
         Object changeType = new ProjectWbsNodeChange.Moved(oldParent);
         addNodeChange(tnc, nodeChanges, wbsB, changeType);
@@ -145,7 +151,7 @@ public class ProjectChangeListFactory extends ProjectDiff {
         }
 
         if (sawTimeChange) {
-            WBSNode node = wbsB.getNodeMap().get(nodeID);
+            WBSNode node = wbsB.getNodeForID(nodeID);
             timeChanges.put(nodeID, new ProjectWbsTimeChange(node, base, mod,
                     indivTimeAttrs, teamMemberNames, author, timestamp));
         }
@@ -156,8 +162,8 @@ public class ProjectChangeListFactory extends ProjectDiff {
             Object changeType) {
         Integer parentID = tnc.getParentID();
         Integer nodeID = tnc.getNodeID();
-        WBSNode parent = wbs.getNodeMap().get(parentID);
-        WBSNode node = wbs.getNodeMap().get(nodeID);
+        WBSNode parent = wbs.getNodeForID(parentID);
+        WBSNode node = wbs.getNodeForID(nodeID);
         if (node == null || parent == null)
             return; // shouldn't happen
 
@@ -267,6 +273,22 @@ public class ProjectChangeListFactory extends ProjectDiff {
     public static ProjectChangeList getChanges(ProjectHistory hist,
             Date onOrBeforeDate, int minNumChanges, boolean forceFullDays,
             boolean mergeConsecutiveChangesFromSameAuthor) throws IOException {
+        ProjectVersionPrefetcher prefetcher = new ProjectVersionPrefetcher(
+                hist);
+        try {
+            return getChanges(hist, onOrBeforeDate, minNumChanges,
+                forceFullDays, mergeConsecutiveChangesFromSameAuthor,
+                prefetcher);
+        } finally {
+            // don't keep loading versions that we will not be comparing
+            prefetcher.cancel();
+        }
+    }
+
+    private static ProjectChangeList getChanges(ProjectHistory hist,
+            Date onOrBeforeDate, int minNumChanges, boolean forceFullDays,
+            boolean mergeConsecutiveChangesFromSameAuthor,
+            ProjectVersionPrefetcher prefetcher) throws IOException {
         ProjectChangeList result = new ProjectChangeList();
         List versions = hist.getVersions();
         String lastDateStr = null;
@@ -295,10 +317,27 @@ public class ProjectChangeListFactory extends ProjectDiff {
                 }
             }
 
+            // if we have already compared these two versions, reuse the
+            // changes we found last time.
+            List<ProjectChange> cached = ProjectChangeCache.get(prevVersion,
+                oneVersion);
+            if (cached != null) {
+                result.addAll(cached);
+                lastDateStr = thisDateStr;
+                continue;
+            }
+
+            // load the older version of this pair in the background, along
+            // with the versions we will probably need next.
+            prefetcher.prefetch(prevVersion);
+            for (int j = i - 1; j-- > Math.max(0, i - 3);)
+                prefetcher.prefetch(versions.get(j));
+
             try {
                 ProjectChangeListFactory diff = new ProjectChangeListFactory(
-                        hist, prevVersion, oneVersion, lastDiff);
-                result.addAll(diff.getChanges());
+                        hist, prevVersion, oneVersion, lastDiff, prefetcher);
+                result.addAll(ProjectChangeCache.put(prevVersion, oneVersion,
+                    diff.getChanges()));
                 lastDiff = diff;
             } catch (FileNotFoundException fnfe) {
                 // the change history file can sometimes contain more history
@@ -86,9 +86,18 @@ public class ProjectDiff {
 
     protected TreeDiff<Integer, WBSNodeContent> diff;
 
+    protected ProjectVersionPrefetcher prefetcher;
+
     public ProjectDiff(ProjectHistory hist, Object versionA, Object versionB,
             ProjectDiff other) throws IOException {
+        this(hist, versionA, versionB, other, null);
+    }
+
+    ProjectDiff(ProjectHistory hist, Object versionA, Object versionB,
+            ProjectDiff other, ProjectVersionPrefetcher prefetcher)
+            throws IOException {
         this.hist = hist;
+        this.prefetcher = prefetcher;
         this.versionA = versionA;
         this.versionB = versionB;
         this.author = hist.getVersionAuthor(versionB);
@@ -105,7 +114,7 @@ public class ProjectDiff {
         deletedIndivAttrs = new HashSet();
         memberZeroAttrs = new HashMap();
         teamMemberNames = new HashMap();
-        Element teamB = parseXML(versionB, TEAM_LIST_FILENAME);
+        Element teamB = getTeamList(versionB);
         NodeList indivNodes = teamB.getElementsByTagName(TeamMember.TAG_NAME);
         for (int i = 0; i < indivNodes.getLength(); i++) {
             Element indiv = (Element) indivNodes.item(i);
@@ -127,7 +136,7 @@ public class ProjectDiff {
 
         Element teamA = null;
         try {
-            teamA = parseXML(versionA, TEAM_LIST_FILENAME);
+            teamA = getTeamList(versionA);
         } catch (IOException ioe) {
             return;
         }
@@ -161,7 +170,13 @@ public class ProjectDiff {
             return other.wbsB;
         else {
             try {
-                return new WBSModel(parseXML(version, WBS_FILENAME));
+                WBSModel result = null;
+                if (prefetcher != null)
+                    result = prefetcher.getWbsModel(version);
+                if (result == null)
+                    result = new WBSModel(parseXML(hist, version,
+                        WBS_FILENAME));
+                return result;
             } catch (FileNotFoundException fnfe) {
                 if (version == hist.getVersions().get(0))
                     return new WBSModel("WBS", false);
@@ -171,8 +186,17 @@ public class ProjectDiff {
         }
     }
 
-    private Element parseXML(Object version, String filename)
-            throws IOException {
+    private Element getTeamList(Object version) throws IOException {
+        Element result = null;
+        if (prefetcher != null)
+            result = prefetcher.getTeamList(version);
+        if (result == null)
+            result = parseXML(hist, version, TEAM_LIST_FILENAME);
+        return result;
+    }
+
+    static Element parseXML(ProjectHistory hist, Object version,
+            String filename) throws IOException {
         try {
             InputStream xml = hist.getVersionFile(version, filename);
             if (xml == null)
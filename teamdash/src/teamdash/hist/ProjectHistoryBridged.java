@@ -110,7 +110,8 @@ public class ProjectHistoryBridged extends ProjectHistoryBridgedAbstract {
         cacheFileRevisions(new Date(newStart), new Date(newEnd));
     }
 
-    void cacheFileRevisions(Date startDate, Date endDate) throws IOException {
+    synchronized void cacheFileRevisions(Date startDate, Date endDate)
+            throws IOException {
         // download a ZIP file containing historical file versions
         // for the given resource collection
         URL dataHistUrl = new URL(baseUrl,
@@ -202,8 +202,8 @@ public abstract class ProjectHistoryBridgedAbstract implements
         return (e == null ? null : e.getStream());
     }
 
-    private ManifestEntry getCachedManifestEntry(String filename, long ts)
-            throws IOException {
+    private synchronized ManifestEntry getCachedManifestEntry(String filename,
+            long ts) throws IOException {
         maybeCacheTimePeriod(ts);
 
         if (revisions != null) {
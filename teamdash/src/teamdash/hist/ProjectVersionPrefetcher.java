@@ -0,0 +1,191 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package teamdash.hist;
+
+import static teamdash.wbs.WBSFilenameConstants.TEAM_LIST_FILENAME;
+import static teamdash.wbs.WBSFilenameConstants.WBS_FILENAME;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.w3c.dom.Element;
+
+import teamdash.wbs.WBSModel;
+
+/**
+ * Loads historical versions of a project on a background thread.
+ *
+ * When a series of versions is being compared, the XML files for the next
+ * few versions can be read and parsed while the diff of the current pair is
+ * calculated.  A {@link ProjectDiff} will use the prefetched data when it is
+ * available, and will load the files itself otherwise.
+ */
+class ProjectVersionPrefetcher {
+
+    private static final int MAX_VERSIONS = 4;
+
+    private static final ExecutorService prefetchExecutor = Executors
+            .newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "WBS History Prefetch");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private ProjectHistory hist;
+
+    private Map<Object, Future<VersionData>> versions;
+
+    ProjectVersionPrefetcher(ProjectHistory hist) {
+        this.hist = hist;
+        this.versions = new LinkedHashMap<Object, Future<VersionData>>() {
+            protected boolean removeEldestEntry(
+                    Map.Entry<Object, Future<VersionData>> e) {
+                if (size() <= MAX_VERSIONS)
+                    return false;
+                e.getValue().cancel(false);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Begin loading the given version in the background, if it has not been
+     * requested already.
+     */
+    synchronized void prefetch(Object version) {
+        if (version != null && !versions.containsKey(version))
+            versions.put(version, prefetchExecutor.submit(new VersionLoader(
+                    version)));
+    }
+
+    /**
+     * Abandon any versions that have not started loading yet.
+     *
+     * Callers should invoke this when they are finished comparing versions,
+     * so the background thread does not go on to load versions that will
+     * never be used.
+     */
+    synchronized void cancel() {
+        for (Future<VersionData> f : versions.values())
+            f.cancel(false);
+        versions.clear();
+    }
+
+    /**
+     * @return the WBS for the given version, or null if that version was
+     *     not prefetched.
+     * @throws IOException if the WBS could not be loaded
+     */
+    WBSModel getWbsModel(Object version) throws IOException {
+        VersionData data = getVersionData(version);
+        if (data == null)
+            return null;
+        if (data.wbsError != null)
+            throw data.wbsError;
+        return data.wbs;
+    }
+
+    /**
+     * @return the team list for the given version, or null if that version
+     *     was not prefetched.
+     * @throws IOException if the team list could not be loaded
+     */
+    Element getTeamList(Object version) throws IOException {
+        VersionData data = getVersionData(version);
+        if (data == null)
+            return null;
+        if (data.teamError != null)
+            throw data.teamError;
+        return data.team;
+    }
+
+    private VersionData getVersionData(Object version) {
+        Future<VersionData> f;
+        synchronized (this) {
+            f = versions.get(version);
+        }
+        if (f == null)
+            return null;
+
+        try {
+            return f.get();
+        } catch (InterruptedException ie) {
+            return null;
+        } catch (ExecutionException ee) {
+            // unexpected errors are not cached; the caller will retry the
+            // load and report the problem itself.
+            return null;
+        }
+    }
+
+
+    private static class VersionData {
+
+        WBSModel wbs;
+
+        IOException wbsError;
+
+        Element team;
+
+        IOException teamError;
+
+    }
+
+    private class VersionLoader implements Callable<VersionData> {
+
+        private Object version;
+
+        VersionLoader(Object version) {
+            this.version = version;
+        }
+
+        public VersionData call() {
+            VersionData result = new VersionData();
+            try {
+                result.team = ProjectDiff.parseXML(hist, version,
+                    TEAM_LIST_FILENAME);
+            } catch (IOException ioe) {
+                result.teamError = ioe;
+            }
+            try {
+                result.wbs = new WBSModel(ProjectDiff.parseXML(hist, version,
+                    WBS_FILENAME));
+            } catch (IOException ioe) {
+                result.wbsError = ioe;
+            }
+            return result;
+        }
+    }
+
+}
@@ -330,7 +330,7 @@ public class BlameHistoryDialog extends JDialog implements
         if (nodeData == null)
             return false;
 
-        WBSNode node = wbsDataModel.getWBSModel().getNodeMap().get(nodeID);
+        WBSNode node = wbsDataModel.getWBSModel().getNodeForID(nodeID);
         String nodePath = (node == null ? null : node.getFullName());
 
         String columnID = caretPos.getSingleColumn();
@@ -140,7 +140,7 @@ public class DataProblemsTextArea extends JTextArea implements FocusListener {
         if (nodeID == null)
             return null;
         else
-            return wbsDataModel.getWBSModel().getNodeMap().get(nodeID);
+            return wbsDataModel.getWBSModel().getNodeForID(nodeID);
     }
 
     private String nvl(String a) {
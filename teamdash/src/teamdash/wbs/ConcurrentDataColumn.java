@@ -0,0 +1,53 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package teamdash.wbs;
+
+
+/** A calculated column whose {@link #recalculate()} method can safely run
+ * on a background thread, at the same time as other concurrent columns.
+ *
+ * The {@link DataTableModel} groups dirty columns into layers, so that no
+ * column in a layer depends upon another column in the same layer.  The
+ * concurrent columns in each layer may then be recalculated in parallel,
+ * while the thread that requested the recalculation waits for them to
+ * finish.  When all of them are done, the data model fires the resulting
+ * table events from the original thread.
+ *
+ * To make this safe, the <code>recalculate()</code> method of a concurrent
+ * column must observe the following rules:
+ * <ul>
+ * <li>It may read the structure of the WBS, but must not change it.</li>
+ * <li>It may read node attributes, but should only read the values of
+ *     other columns if it has declared a dependency upon them.</li>
+ * <li>It may only write node attributes that belong to this column.  Node
+ *     attributes should be accessed through the get/set/remove methods in
+ *     {@link WBSNode}, which are synchronized.</li>
+ * <li>It must not fire events, touch Swing components, or call the
+ *     <code>columnChanged</code> methods of the data model.</li>
+ * </ul>
+ */
+public interface ConcurrentDataColumn extends CalculatedDataColumn {
+
+}
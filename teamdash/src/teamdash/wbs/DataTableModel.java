@@ -27,12 +27,23 @@ package teamdash.wbs;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.JTable;
 import javax.swing.Timer;
@@ -79,11 +90,21 @@ public class DataTableModel extends AbstractTableModel {
     private ArrayList columns;
     /** A list of the calculated columns in the model */
     private Set calculatedColumns;
-    /** A square matrix of dependencies. The value <tt>true</tt> in cell
-     * [x][y] means that column x depends upon column y. */
-    private boolean[][] dependencies;
+    /** For each column, the positions of the columns it depends upon */
+    private int[][] dependencies;
+    /** For each column, the positions of the columns that depend upon it */
+    private int[][] dependents;
+    /** For each column, the length of the longest chain of dependencies
+     * leading to it.  Columns in the same layer never depend upon each other,
+     * so they can be recalculated concurrently. */
+    private int[] columnLayers;
     /** A set of columns that need recalculating */
     private Set dirtyColumns;
+    /** The nodes that have changed for dirty, incrementally calculated
+     * columns.  A dirty column with no entry here needs a full recalc. */
+    private Map<DataColumn, Set<WBSNode>> dirtyNodes;
+    /** Statistics about the time spent recalculating each column */
+    private Map<String, RecalcTiming> recalcTimings;
     /** A list of the columns which are sources of label data */
     private Set<Integer> labelSources;
     /** A list of the columns which are sources of attribute data */
@@ -112,6 +133,8 @@ public class DataTableModel extends AbstractTableModel {
 
         columns = new ArrayList();
         dirtyColumns = new HashSet();
+        dirtyNodes = new HashMap<DataColumn, Set<WBSNode>>();
+        recalcTimings = new LinkedHashMap<String, RecalcTiming>();
         labelSources = new HashSet<Integer>();
         attrSources = new HashSet<Integer>();
 
@@ -133,12 +156,11 @@ public class DataTableModel extends AbstractTableModel {
     }
 
     private void initializeColumnDependencies() {
-        // create the dependency matrix and populate it with "false" values.
+        // create a dependency matrix and populate it with "false" values.
+        // The value <tt>true</tt> in cell [x][y] means that column x depends
+        // upon column y.
         int numColumns = columns.size();
-        dependencies = new boolean[numColumns][numColumns];
-        for (int x = 0;   x < numColumns;   x++)
-            for (int y = 0;   y < numColumns;   y++)
-                dependencies[x][y] = false;
+        boolean[][] dependencies = new boolean[numColumns][numColumns];
 
         // find all the calculated columns in the model.
         calculatedColumns = new HashSet();
@@ -191,12 +213,52 @@ public class DataTableModel extends AbstractTableModel {
                 }
             }
         }
+        // save the dependencies as lists, so we don't have to scan the
+        // entire matrix every time a column changes.
+        this.dependencies = new int[numColumns][];
+        this.dependents = new int[numColumns][];
+        for (int x = 0;   x < numColumns;   x++) {
+            IntList dependsOn = new IntList(), affects = new IntList();
+            for (int y = numColumns;   y-- > 0; ) {
+                if (dependencies[x][y]) dependsOn.add(y);
+                if (dependencies[y][x]) affects.add(y);
+            }
+            this.dependencies[x] = dependsOn.getAsArray();
+            this.dependents[x] = affects.getAsArray();
+        }
+        this.columnLayers = new int[numColumns];
+        int[] visitState = new int[numColumns];
+        for (int x = 0;   x < numColumns;   x++)
+            computeColumnLayer(x, visitState);
         //dumpColumnDependencies();
 
         // recalculate all calculated columns.
+        markAllColumnsDirty();
+    }
+
+    /** Calculate the layer for a column, by following its dependencies
+     * depth first.  Circular dependencies are ignored. */
+    private int computeColumnLayer(int x, int[] visitState) {
+        if (visitState[x] == 0) {
+            visitState[x] = 1;
+            int layer = 0;
+            for (int y : dependencies[x])
+                if (visitState[y] != 1)
+                    layer = Math.max(layer,
+                        computeColumnLayer(y, visitState) + 1);
+            columnLayers[x] = layer;
+            visitState[x] = 2;
+        }
+        return columnLayers[x];
+    }
+
+    private void markAllColumnsDirty() {
         try {
             beginChange();
-            dirtyColumns.addAll(calculatedColumns);
+            synchronized (dirtyColumns) {
+                dirtyColumns.addAll(calculatedColumns);
+                dirtyNodes.clear();
+            }
         } finally {
             endChange();
         }
@@ -216,18 +278,15 @@ public class DataTableModel extends AbstractTableModel {
             System.out.println("<br>"+indent+"Class: {@link " + c.getClass().getName() + "}");
             System.out.println("<br>"+indent+"Depends on:");
             int id = findIndexOfColumn(c);
-            for (int j=0;   j < columns.size();   j++)
-                if (dependencies[id][j]) {
-                    String id2 = getColumn(j).getColumnID();
-                    System.out.println("<br>"+indent+indent+"<a href='#"+id2+"'>"+id2+"</a>");
-                }
+            for (int j : dependencies[id]) {
+                String id2 = getColumn(j).getColumnID();
+                System.out.println("<br>"+indent+indent+"<a href='#"+id2+"'>"+id2+"</a>");
+            }
             System.out.println("    Affects:");
-            id = findIndexOfColumn(c);
-            for (int j=0;   j < columns.size();   j++)
-                if (dependencies[j][id]) {
-                    String id2 = getColumn(j).getColumnID();
-                    System.out.println("<br>"+indent+indent+"<a href='#"+id2+"'>"+id2+"</a>");
-                }
+            for (int j : dependents[id]) {
+                String id2 = getColumn(j).getColumnID();
+                System.out.println("<br>"+indent+indent+"<a href='#"+id2+"'>"+id2+"</a>");
+            }
             System.out.println();
         }
         System.out.println("</body></html>");
@@ -294,7 +353,8 @@ public class DataTableModel extends AbstractTableModel {
         try {
             beginChange();
             boolean needToReinitialize = (dependencies != null);
-            dependencies = null;
+            dependencies = dependents = null;
+            columnLayers = null;
 
             Iterator i;
             if (columnsToRemove != null) {
@@ -402,12 +462,7 @@ public class DataTableModel extends AbstractTableModel {
                 // all calculated columns implicitly depend upon the structure
                 // of the WBS model, so we'll mark all of our calculated columns
                 // as dirty (this will schedule a deferred recalculation operation)
-                try {
-                    beginChange();
-                    dirtyColumns.addAll(calculatedColumns);
-                } finally {
-                    endChange();
-                }
+                markAllColumnsDirty();
             }
         }
     }
@@ -468,7 +523,7 @@ public class DataTableModel extends AbstractTableModel {
 
         try {
             beginChange();
-            columnChanged(column, columnIndex);
+            columnChanged(column, columnIndex, Collections.singleton(node));
             column.setValueAt(aValue, node);
 
             if (!(column instanceof CalculatedDataColumn)) {
@@ -530,18 +585,54 @@ public class DataTableModel extends AbstractTableModel {
         }
     }
     protected void columnChanged(DataColumn column, int columnPos) {
-        synchronized (dirtyColumns) {
-            if (columnPos == -1 || dirtyColumns.contains(column)) return;
+        columnChanged(column, columnPos, null);
+    }
+
+    /** Let the model know that data in a particular column has been changed
+     * for a single node.
+     *
+     * This is similar to {@link #columnChanged(DataColumn)}, but allows
+     * columns that support incremental calculation to recalculate the values
+     * for the affected portion of the WBS only. */
+    public void columnChanged(DataColumn column, WBSNode node) {
+        if (column != null) {
+            try {
+                beginChange();
+                columnChanged(column, findIndexOfColumn(column),
+                    Collections.singleton(node));
+            } finally {
+                endChange();
+            }
+        }
+    }
 
-            // if the column is calculated, add it to the dirty list.
-            if (column instanceof CalculatedDataColumn)
+    private void columnChanged(DataColumn column, int columnPos,
+            Collection<WBSNode> nodes) {
+        synchronized (dirtyColumns) {
+            if (columnPos == -1) return;
+
+            if (dirtyColumns.contains(column)) {
+                // if the column is already dirty, see if this change
+                // enlarges the set of nodes needing recalculation.
+                Set<WBSNode> knownNodes = dirtyNodes.get(column);
+                if (knownNodes == null)
+                    return;
+                else if (nodes == null)
+                    dirtyNodes.remove(column);
+                else if (!knownNodes.addAll(nodes))
+                    return;
+
+            } else if (column instanceof CalculatedDataColumn) {
+                // if the column is calculated, add it to the dirty list.
                 dirtyColumns.add(column);
+                if (nodes != null && column instanceof IncrementalDataColumn)
+                    dirtyNodes.put(column, new HashSet<WBSNode>(nodes));
+            }
 
             // find any columns that depend upon this column, and add them
             // to the dirty list as well.
-            for (int j = columns.size();   j-- > 0; )
-                if (dependencies[j][columnPos])
-                    columnChanged(getColumn(j), j);
+            for (int j : dependents[columnPos])
+                columnChanged(getColumn(j), j, nodes);
         }
     }
 
@@ -604,6 +695,14 @@ public class DataTableModel extends AbstractTableModel {
                 beginChange();
 
                 while (!dirtyColumns.isEmpty()) {
+                    // if several independent columns are ready, recalculate
+                    // them in parallel.
+                    List<CalculatedDataColumn> batch = getConcurrentBatch();
+                    if (batch != null) {
+                        recalcColumnsConcurrently(batch);
+                        continue;
+                    }
+
                     // recalculate a single column.
                     waitingColumns.clear();
                     CalculatedDataColumn c =
@@ -618,6 +717,7 @@ public class DataTableModel extends AbstractTableModel {
                 // endChange() call two lines below could start an infinite
                 // loop of recalculating and retriggering the exception)
                 dirtyColumns.clear();
+                dirtyNodes.clear();
             } finally {
                 endChange();
             }
@@ -652,30 +752,314 @@ public class DataTableModel extends AbstractTableModel {
 
             // find all columns which this column depends upon, and be sure
             // to calculate them first.
-            for (int j = columns.size();   j-- > 0; )
-                if (dependencies[columnPos][j]) {
-                    DataColumn dependentColumn = getColumn(j);
-                    if (dependentColumn instanceof CalculatedDataColumn)
-                        recalcColumn((CalculatedDataColumn) dependentColumn,
-                                     waitingColumns);
-                }
+            for (int j : dependencies[columnPos]) {
+                DataColumn dependentColumn = getColumn(j);
+                if (dependentColumn instanceof CalculatedDataColumn)
+                    recalcColumn((CalculatedDataColumn) dependentColumn,
+                                 waitingColumns);
+            }
 
         } finally {
             waitingColumns.remove(column);
         }
 
-        // recalculate the column
-        if (column.recalculate()) {
+        // recalculate the column, incrementally if possible
+        long start = System.nanoTime();
+        Set<WBSNode> changedNodes = dirtyNodes.remove(column);
+        Set<WBSNode> affectedNodes = null;
+        if (changedNodes != null) {
+            affectedNodes = new HashSet<WBSNode>();
+            if (!((IncrementalDataColumn) column).recalculate(changedNodes,
+                affectedNodes))
+                affectedNodes = null;
+        }
+        boolean dataChanged;
+        if (affectedNodes != null)
+            dataChanged = !affectedNodes.isEmpty();
+        else
+            dataChanged = column.recalculate();
+        getRecalcTiming(column).add(System.nanoTime() - start,
+            affectedNodes != null);
+
+        columnRecalculated(column, columnPos, dataChanged, affectedNodes);
+    }
+
+    /** Publish the results of a column recalculation.
+     *
+     * This fires table events for the changed data, passes the affected
+     * nodes along to dependent columns, and removes the column from the
+     * dirty list. */
+    private void columnRecalculated(CalculatedDataColumn column,
+            int columnPos, boolean dataChanged, Set<WBSNode> affectedNodes) {
+        if (dataChanged) {
             // if data changed, fire an appropriate table model event.
-            TableModelEvent e = new TableModelEvent
-                (this, 0, getRowCount()-1, columnPos, TableModelEvent.UPDATE);
-            fireTableChanged(e);
+            if (affectedNodes == null) {
+                TableModelEvent e = new TableModelEvent
+                    (this, 0, getRowCount()-1, columnPos, TableModelEvent.UPDATE);
+                fireTableChanged(e);
+            } else {
+                fireNodesUpdated(affectedNodes, columnPos);
+            }
+
+            // let dependent columns know which nodes they need to recalc.
+            if (columnPos != -1) {
+                for (int j : dependents[columnPos]) {
+                    Set<WBSNode> nodes = dirtyNodes.get(getColumn(j));
+                    if (nodes != null && affectedNodes != null)
+                        nodes.addAll(affectedNodes);
+                    else if (nodes != null)
+                        dirtyNodes.remove(getColumn(j));
+                }
+            }
         }
 
         // remove this column from the "dirty" list.
         dirtyColumns.remove(column);
     }
 
+    /** Find a group of dirty columns that can be recalculated concurrently.
+     *
+     * Only the dirty columns in the lowest dirty layer are considered, and
+     * only if they implement {@link ConcurrentDataColumn} and none of the
+     * columns they depend upon are dirty.
+     *
+     * @return a list of two or more columns, or null if no such group is
+     *     available.
+     */
+    private List<CalculatedDataColumn> getConcurrentBatch() {
+        if (recalcThreads < 2 || columnLayers == null)
+            return null;
+
+        List<CalculatedDataColumn> result = null;
+        int minLayer = Integer.MAX_VALUE;
+        for (Iterator i = dirtyColumns.iterator(); i.hasNext();) {
+            DataColumn column = (DataColumn) i.next();
+            int pos = findIndexOfColumn(column);
+            if (pos == -1 || columnLayers[pos] > minLayer)
+                continue;
+            if (columnLayers[pos] < minLayer) {
+                minLayer = columnLayers[pos];
+                result = null;
+            }
+            if (column instanceof ConcurrentDataColumn
+                    && !dirtyNodes.containsKey(column)
+                    && !hasDirtyDependency(pos)) {
+                if (result == null)
+                    result = new ArrayList<CalculatedDataColumn>();
+                result.add((CalculatedDataColumn) column);
+            }
+        }
+
+        return (result != null && result.size() > 1 ? result : null);
+    }
+
+    private boolean hasDirtyDependency(int columnPos) {
+        for (int j : dependencies[columnPos])
+            if (dirtyColumns.contains(getColumn(j)))
+                return true;
+        return false;
+    }
+
+    /** Recalculate several independent columns in parallel.
+     *
+     * The current thread takes part in the work, and waits for the others
+     * to finish. Table events are fired from the current thread once all of
+     * the columns are done. */
+    private void recalcColumnsConcurrently(List<CalculatedDataColumn> batch) {
+        // make sure the structure of the WBS won't be modified as the
+        // columns read it.
+        wbsModel.cacheStructure();
+
+        List<ConcurrentRecalc> tasks = new ArrayList<ConcurrentRecalc>();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        for (CalculatedDataColumn column : batch) {
+            ConcurrentRecalc task = new ConcurrentRecalc(column);
+            tasks.add(task);
+            if (tasks.size() > 1)
+                futures.add(getRecalcExecutor().submit(task));
+        }
+
+        // wait for all of the columns to finish, even if one fails.
+        Throwable error = null;
+        try {
+            tasks.get(0).call();
+        } catch (Throwable t) {
+            error = t;
+        }
+        for (Future<Boolean> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException ee) {
+                if (error == null)
+                    error = ee.getCause();
+            } catch (InterruptedException ie) {
+                if (error == null)
+                    error = ie;
+            }
+        }
+        if (error instanceof RuntimeException)
+            throw (RuntimeException) error;
+        else if (error instanceof Error)
+            throw (Error) error;
+        else if (error != null)
+            throw new RuntimeException(error);
+
+        // publish the results.
+        for (ConcurrentRecalc task : tasks) {
+            getRecalcTiming(task.column).add(task.nanos, false);
+            columnRecalculated(task.column, findIndexOfColumn(task.column),
+                task.dataChanged, null);
+        }
+    }
+
+    private static class ConcurrentRecalc implements Callable<Boolean> {
+
+        private CalculatedDataColumn column;
+
+        private boolean dataChanged;
+
+        private long nanos;
+
+        ConcurrentRecalc(CalculatedDataColumn column) {
+            this.column = column;
+        }
+
+        public Boolean call() {
+            long start = System.nanoTime();
+            dataChanged = column.recalculate();
+            nanos = System.nanoTime() - start;
+            return dataChanged;
+        }
+    }
+
+    /** The number of threads that can recalculate columns concurrently */
+    private static volatile int recalcThreads = Integer.getInteger(
+        "teamdash.wbs.recalcThreads",
+        Runtime.getRuntime().availableProcessors());
+
+    private static ExecutorService recalcExecutor = null;
+
+    /** Change the number of threads that can recalculate columns
+     * concurrently, for testing and benchmarking */
+    static synchronized void setRecalcThreads(int threads) {
+        if (threads != recalcThreads && recalcExecutor != null) {
+            recalcExecutor.shutdown();
+            recalcExecutor = null;
+        }
+        recalcThreads = threads;
+    }
+
+    static int getRecalcThreads() {
+        return recalcThreads;
+    }
+
+    private static synchronized ExecutorService getRecalcExecutor() {
+        if (recalcExecutor == null)
+            recalcExecutor = Executors.newFixedThreadPool(
+                Math.max(1, recalcThreads - 1),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "WBS Column Recalc");
+                        t.setDaemon(true);
+                        return t;
+                    }});
+        return recalcExecutor;
+    }
+
+    /** Fire table events for the rows displaying the given nodes. */
+    private void fireNodesUpdated(Set<WBSNode> nodes, int columnPos) {
+        IntList rowList = new IntList(nodes.size());
+        for (WBSNode node : nodes) {
+            int row = wbsModel.getRowForNode(node);
+            if (row != -1)
+                rowList.add(row);
+        }
+
+        // send a single event for each contiguous block of rows
+        int[] rows = rowList.getAsArray();
+        Arrays.sort(rows);
+        for (int i = 0, j = 0;   i < rows.length;   i = ++j) {
+            while (j + 1 < rows.length && rows[j + 1] == rows[j] + 1)
+                j++;
+            fireTableChanged(new TableModelEvent(this, rows[i], rows[j],
+                    columnPos, TableModelEvent.UPDATE));
+        }
+    }
+
+    private RecalcTiming getRecalcTiming(DataColumn column) {
+        synchronized (recalcTimings) {
+            String id = column.getColumnID();
+            RecalcTiming result = recalcTimings.get(id);
+            if (result == null)
+                recalcTimings.put(id, result = new RecalcTiming());
+            return result;
+        }
+    }
+
+    /** Return statistics about the time spent recalculating each column,
+     * indexed by column ID. */
+    public Map<String, RecalcTiming> getRecalcTimings() {
+        synchronized (recalcTimings) {
+            Map<String, RecalcTiming> result =
+                new LinkedHashMap<String, RecalcTiming>();
+            for (Entry<String, RecalcTiming> e : recalcTimings.entrySet())
+                result.put(e.getKey(), e.getValue().copy());
+            return result;
+        }
+    }
+
+    public void resetRecalcTimings() {
+        synchronized (recalcTimings) {
+            recalcTimings.clear();
+        }
+    }
+
+    /** Statistics about the time spent recalculating a single column. */
+    public static class RecalcTiming {
+
+        private int fullCount, incrementalCount;
+
+        private long fullNanos, incrementalNanos;
+
+        private void add(long nanos, boolean incremental) {
+            if (incremental) {
+                incrementalCount++;
+                incrementalNanos += nanos;
+            } else {
+                fullCount++;
+                fullNanos += nanos;
+            }
+        }
+
+        private RecalcTiming copy() {
+            RecalcTiming result = new RecalcTiming();
+            result.fullCount = fullCount;
+            result.fullNanos = fullNanos;
+            result.incrementalCount = incrementalCount;
+            result.incrementalNanos = incrementalNanos;
+            return result;
+        }
+
+        /** @return the number of times the entire column was recalculated */
+        public int getFullCount() { return fullCount; }
+
+        /** @return the total time spent on full recalculations, in nanos */
+        public long getFullNanos() { return fullNanos; }
+
+        /** @return the number of incremental recalculations performed */
+        public int getIncrementalCount() { return incrementalCount; }
+
+        /** @return the total time spent on incremental recalculations, in
+         * nanoseconds */
+        public long getIncrementalNanos() { return incrementalNanos; }
+
+        public String toString() {
+            return "full: " + fullCount + " / " + (fullNanos / 1000000)
+                    + " ms, incremental: " + incrementalCount + " / "
+                    + (incrementalNanos / 1000000) + " ms";
+        }
+    }
+
 
     /**
      * Customize the behavior and appearance of the columns in a table which is
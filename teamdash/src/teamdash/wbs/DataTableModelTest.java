@@ -0,0 +1,373 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+
+package teamdash.wbs;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.team.group.UserGroupManagerWBS;
+import net.sourceforge.processdash.util.FileUtils;
+import net.sourceforge.processdash.util.XMLUtils;
+
+import teamdash.wbs.columns.AbstractDataColumn;
+import teamdash.wbs.columns.CustomColumnSpecs;
+import teamdash.wbs.columns.TeamMemberTimeColumn;
+
+public class DataTableModelTest extends TestCase {
+
+    private static final String[] INITIALS = { "aa", "bb", "cc" };
+
+    private static final String[] LEAF_TYPES = { "Code Task", "PSP Task",
+            "Component" };
+
+    private File tempDir;
+
+    private TeamProject project;
+
+    private WBSModel wbs;
+
+    private DataTableModel data;
+
+    private List<TableModelEvent> events;
+
+    private int savedRecalcThreads;
+
+    protected void setUp() throws Exception {
+        tempDir = File.createTempFile("wbs", ".tmp");
+        tempDir.delete();
+        tempDir.mkdirs();
+        writeTeamList();
+        savedRecalcThreads = DataTableModel.getRecalcThreads();
+    }
+
+    protected void tearDown() throws Exception {
+        DataTableModel.setRecalcThreads(savedRecalcThreads);
+        if (tempDir != null)
+            FileUtils.deleteDirectory(tempDir, true);
+    }
+
+    /** Open a project with a random WBS, and create a data model for it */
+    private void openProject(CustomColumnSpecs customColumns) {
+        project = new TeamProjectMergeCoordinator.QuickTeamProject(tempDir,
+                "Test");
+        wbs = project.getWBS();
+        buildRandomWBS(new Random(42), 300);
+
+        if (UserGroupManagerWBS.getInstance() == null)
+            UserGroupManagerWBS.init(project);
+        data = new DataTableModel(wbs, project.getTeamMemberList(),
+                project.getTeamProcess(), project.getWorkflows(),
+                project.getProxies(), project.getMilestones(),
+                customColumns, new TaskDependencySourceSimple(project),
+                "Owner");
+
+        events = new ArrayList<TableModelEvent>();
+        data.addTableModelListener(new TableModelListener() {
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    private void writeTeamList() throws Exception {
+        Writer out = new FileWriter(new File(tempDir,
+                TeamProject.TEAM_LIST_FILENAME));
+        out.write("<teamList>\n");
+        for (int i = 0; i < INITIALS.length; i++)
+            out.write("  <teamMember tmid='" + (i + 1) + "' name='Member "
+                    + i + "' initials='" + INITIALS[i] + "' />\n");
+        out.write("</teamList>\n");
+        out.close();
+    }
+
+    /** Append a random tree of components and tasks to the WBS */
+    private void buildRandomWBS(Random r, int numNodes) {
+        List<WBSNode> nodes = new ArrayList<WBSNode>();
+        int indent = 1;
+        for (int i = 0; i < numNodes; i++) {
+            indent = 1 + r.nextInt(Math.min(indent + 1, 5));
+            WBSNode node = new WBSNode(wbs, "n" + i, "Component", indent,
+                    true);
+            wbs.add(node);
+            nodes.add(node);
+        }
+        for (WBSNode node : nodes)
+            if (wbs.isLeaf(node))
+                node.setType(LEAF_TYPES[r.nextInt(LEAF_TYPES.length)]);
+    }
+
+    public void testIncrementalEditsMatchFullRecalc() {
+        openProject(new CustomColumnSpecs());
+        List<WBSNode> nodes = getNodes();
+        Random r = new Random(7);
+        int incrementalEdits = 0;
+
+        for (int i = 0; i < 60; i++) {
+            WBSNode node = nodes.get(r.nextInt(nodes.size()));
+            int col = pickEditableColumn(r, node);
+            String columnID = data.getColumn(col).getColumnID();
+            Object value = (r.nextInt(6) == 0 ? null
+                    : Double.valueOf(1 + r.nextInt(50)));
+            String edit = "edit " + i + ": " + columnID + " = " + value
+                    + " on " + node.getName() + " (" + node.getType() + ")";
+
+            // apply a single-node edit, and record the resulting events.
+            Map<String, String> before = snapshot();
+            int incrBefore = getIncrementalCount(columnID);
+            events.clear();
+            data.setValueAt(value, node, col);
+            Map<String, String> after = snapshot();
+            assertEventsCover(edit, before, after);
+
+            // values from an incremental edit must only be announced for
+            // the rows that display them.
+            if (getIncrementalCount(columnID) > incrBefore) {
+                incrementalEdits++;
+                assertRowScopedEvents(edit, col);
+            }
+
+            // a full recalculation must not find anything to change.
+            wbs.fireTableDataChanged();
+            assertSameValues(edit, after, snapshot());
+        }
+
+        assertTrue(incrementalEdits > 10);
+    }
+
+    public void testConcurrentRecalcMatchesSerial() throws Exception {
+        DataTableModel.setRecalcThreads(1);
+        openConcurrentProject();
+        assertFalse(recalcThreads.contains(RECALC_THREAD));
+        Map<String, String> serial = snapshot();
+
+        DataTableModel.setRecalcThreads(4);
+        for (int i = 0; i < 3; i++) {
+            openConcurrentProject();
+            assertSameValues("run " + i, serial, snapshot());
+        }
+
+        // the columns must actually have been recalculated in batches
+        assertTrue(recalcThreads.contains(RECALC_THREAD));
+    }
+
+    private static final String RECALC_THREAD = "WBS Column Recalc";
+
+    private Set<String> recalcThreads = Collections
+            .synchronizedSet(new HashSet<String>());
+
+    /** Open a project with several independent concurrent columns, assign
+     * random values in those columns, and recalculate everything. */
+    private void openConcurrentProject() throws Exception {
+        openProject(new CustomColumnSpecs().load(XMLUtils.parse(
+            "<custom-wbs-columns>"
+                    + "<column id='Area' name='Area' type='TextColumn' />"
+                    + "<column id='Risk' name='Risk' type='TextColumn'"
+                    + " multivalued='true' />"
+                    + "<column id='Scope' name='Scope'"
+                    + " type='AncestorSelectionColumn' />"
+                    + "</custom-wbs-columns>").getDocumentElement(), true));
+        MilestonesWBSModel milestones = project.getMilestones();
+        milestones.getNodeForRow(1).setName("M0");
+        for (int i = 1; i < 3; i++)
+            milestones.add(new WBSNode(milestones, "M" + i,
+                    MilestonesWBSModel.MILESTONE_TYPE, 1, false));
+
+        // add a column that records the threads used to recalculate it
+        List newColumns = new ArrayList();
+        newColumns.add(new ThreadRecordingColumn());
+        data.addRemoveDataColumns(newColumns, Collections.EMPTY_LIST);
+
+        // edit all of the concurrent columns at once, so each change is
+        // recalculated as a batch
+        Random r = new Random(11);
+        List<WBSNode> nodes = getNodes();
+        for (int i = 0; i < 40; i++) {
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("Labels", "L" + r.nextInt(4) + " x");
+            values.put("Milestone", "M" + r.nextInt(3));
+            values.put("Area", "A" + r.nextInt(4));
+            values.put("Risk", "R" + r.nextInt(3) + ", High");
+            values.put("Scope", Boolean.valueOf(r.nextBoolean()));
+            WBSNode node = nodes.get(r.nextInt(nodes.size()));
+            data.setValuesAt(node, values);
+        }
+
+        // recalculate every column from scratch
+        wbs.fireTableDataChanged();
+    }
+
+    private class ThreadRecordingColumn extends AbstractDataColumn implements
+            ConcurrentDataColumn {
+
+        ThreadRecordingColumn() {
+            this.columnID = this.columnName = "Thread Recording";
+        }
+
+        public boolean recalculate() {
+            recalcThreads.add(Thread.currentThread().getName());
+            return false;
+        }
+
+        public void storeDependentColumn(String ID, int columnNumber) {}
+
+        public boolean isCellEditable(WBSNode node) {
+            return false;
+        }
+
+        public Object getValueAt(WBSNode node) {
+            return null;
+        }
+
+        public void setValueAt(Object aValue, WBSNode node) {}
+
+    }
+
+    /** Pick a column that supports incremental recalculation */
+    private int pickEditableColumn(Random r, WBSNode node) {
+        String columnID;
+        switch (r.nextInt(5)) {
+        case 0:
+            columnID = "Time";
+            break;
+        case 1:
+            columnID = "Base-LOC";
+            break;
+        case 2:
+            columnID = "Added-LOC";
+            break;
+        default:
+            columnID = INITIALS[r.nextInt(INITIALS.length)]
+                    + TeamMemberTimeColumn.ATTR_SUFFIX;
+        }
+        int col = data.findColumn(columnID);
+        assertTrue(columnID, col >= 0);
+        return col;
+    }
+
+    private List<WBSNode> getNodes() {
+        List<WBSNode> result = new ArrayList<WBSNode>();
+        for (int row = 1; row < wbs.getRowCount(); row++)
+            result.add(wbs.getNodeForRow(row));
+        return result;
+    }
+
+    private int getIncrementalCount(String columnID) {
+        DataTableModel.RecalcTiming t = data.getRecalcTimings().get(columnID);
+        return (t == null ? 0 : t.getIncrementalCount());
+    }
+
+    /** Record the value of every calculated column, for every visible row */
+    private Map<String, String> snapshot() {
+        Map<String, String> result = new HashMap<String, String>();
+        for (int col = 0; col < data.getColumnCount(); col++) {
+            if (!(data.getColumn(col) instanceof CalculatedDataColumn))
+                continue;
+            for (int row = 0; row < data.getRowCount(); row++) {
+                Object value = data.getValueAt(row, col);
+                result.put(row + "," + col, describe(value));
+            }
+        }
+        return result;
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof NumericDataValue) {
+            NumericDataValue n = (NumericDataValue) value;
+            return n.value + "/" + n.expectedValue + "/" + n.isEditable
+                    + "/" + n.isInvisible + "/" + n.errorMessage;
+        }
+        return String.valueOf(value);
+    }
+
+    private void assertSameValues(String message,
+            Map<String, String> expected, Map<String, String> actual) {
+        assertEquals(message, expected.keySet(), actual.keySet());
+        for (Map.Entry<String, String> e : expected.entrySet()) {
+            String[] cell = e.getKey().split(",");
+            String columnID = data.getColumn(Integer.parseInt(cell[1]))
+                    .getColumnID();
+            assertEquals(message + ": " + columnID + " on row " + cell[0],
+                e.getValue(), actual.get(e.getKey()));
+        }
+    }
+
+    /** Check that every changed cell in an incremental column was
+     * announced by some table event */
+    private void assertEventsCover(String edit, Map<String, String> before,
+            Map<String, String> after) {
+        for (Map.Entry<String, String> e : after.entrySet()) {
+            if (e.getValue().equals(before.get(e.getKey())))
+                continue;
+            String[] cell = e.getKey().split(",");
+            int row = Integer.parseInt(cell[0]);
+            int col = Integer.parseInt(cell[1]);
+            if (!(data.getColumn(col) instanceof IncrementalDataColumn))
+                continue;
+            assertTrue(edit + ": no event for "
+                    + data.getColumn(col).getColumnID() + " on row " + row,
+                hasEventFor(row, col));
+        }
+    }
+
+    private boolean hasEventFor(int row, int col) {
+        for (TableModelEvent e : events) {
+            if (e.getColumn() != col
+                    && e.getColumn() != TableModelEvent.ALL_COLUMNS)
+                continue;
+            if (e.getFirstRow() <= row && row <= e.getLastRow())
+                return true;
+        }
+        return false;
+    }
+
+    private void assertRowScopedEvents(String edit, int col) {
+        int lastRow = data.getRowCount() - 1;
+        boolean sawEvent = false;
+        for (TableModelEvent e : events) {
+            if (e.getColumn() != col)
+                continue;
+            sawEvent = true;
+            assertFalse(edit, e.getFirstRow() == 0
+                    && e.getLastRow() >= lastRow);
+        }
+        assertTrue(edit, sawEvent);
+    }
+
+}
@@ -0,0 +1,47 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package teamdash.wbs;
+
+import java.util.Set;
+
+
+/** A calculated column which can update its data after changes to a
+ * small number of nodes, without recalculating the entire WBS.
+ */
+public interface IncrementalDataColumn extends CalculatedDataColumn {
+
+    /** Recalculate the data in this column after changes to some nodes.
+     *
+     * @param changedNodes the nodes whose data has changed since this column
+     *     was last calculated.  A change to a node may affect the values of
+     *     its ancestors and its descendants.
+     * @param affectedNodes a set that this method should fill with the
+     *     nodes whose values in this column may have changed.
+     * @return true if the recalculation was performed, or false if this
+     *     column needs a full {@link #recalculate()} instead. */
+    public boolean recalculate(Set<WBSNode> changedNodes,
+            Set<WBSNode> affectedNodes);
+
+}
@@ -332,7 +332,7 @@ public class WBSJTable extends JTable {
 
     public boolean selectAndShowNode(int wbsNodeId) {
         // find the node in the model with the specified ID
-        WBSNode node = wbsModel.getNodeMap().get(wbsNodeId);
+        WBSNode node = wbsModel.getNodeForID(wbsNodeId);
         return selectAndShowNode(node);
     }
 
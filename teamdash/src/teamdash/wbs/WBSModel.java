@@ -189,7 +189,10 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
      */
     public synchronized void add(WBSNode node) {
         wbsNodes.add(prepareNodeForInsertion(node));
-        recalcRows();
+        if (!appendStructure(node)) {
+            nodesInserted(Collections.singletonList(node));
+            recalcRows();
+        }
     }
 
     /**
@@ -203,6 +206,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
      */
     synchronized void addImpl(WBSNode node) {
         wbsNodes.add(node);
+        nodeListChanged();
     }
 
     /** Insert a node into this work breakdown structure.
@@ -226,6 +230,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         } else {
             int beforePos = rows[beforeRow];
             wbsNodes.add(beforePos, prepareNodeForInsertion(newNode));
+            nodesInserted(Collections.singletonList(newNode));
             recalcRows();
             return beforeRow;
         }
@@ -244,6 +249,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
 
         child.setIndentLevel(parent.getIndentLevel() + 1);
         wbsNodes.add(destPos, prepareNodeForInsertion(child));
+        nodesInserted(Collections.singletonList(child));
         recalcRows();
     }
 
@@ -295,16 +301,64 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
     /** Return a collection of the nodes in this model, indexed by unique ID.
      * The root node is included in the result with the <tt>null</tt> key. */
     public Map<Integer, WBSNode> getNodeMap() {
-        Map<Integer, WBSNode> result = new HashMap<Integer, WBSNode>();
-        for (int i = 1;  i < wbsNodes.size();  i++) {
-            WBSNode n = (WBSNode) wbsNodes.get(i);
-            result.put(n.getUniqueID(), n);
-        }
+        Map<Integer, WBSNode> result = new HashMap<Integer, WBSNode>(
+                getNodesByID());
         result.put(null, getRoot());
         result.put(-1000, getRoot());
         return result;
     }
 
+    /** Return the node in this model with the given unique ID, or null if no
+     * such node exists.  As with {@link #getNodeMap()}, the root node is
+     * returned for the <tt>null</tt> key. */
+    public WBSNode getNodeForID(Integer id) {
+        if (id == null || id == -1000)
+            return getRoot();
+
+        WBSNode result = getNodesByID().get(id);
+        if (result != null && result.getUniqueID() != id) {
+            // the ID of this node was changed without our knowledge.
+            nodesByID = null;
+            result = getNodesByID().get(id);
+        }
+        return result;
+    }
+
+    private Map<Integer, WBSNode> getNodesByID() {
+        Map<Integer, WBSNode> result = nodesByID;
+        if (result == null) {
+            result = new HashMap<Integer, WBSNode>(wbsNodes.size() * 2);
+            for (int i = 1;  i < wbsNodes.size();  i++) {
+                WBSNode n = (WBSNode) wbsNodes.get(i);
+                result.put(n.getUniqueID(), n);
+                maxID = Math.max(maxID, n.getUniqueID());
+            }
+            nodesByID = result;
+        }
+        return result;
+    }
+
+    private void indexNode(WBSNode node) {
+        if (nodesByID == null || node == getRoot())
+            return;
+
+        int id = node.getUniqueID();
+        if (nodesByID.containsKey(id))
+            nodesByID = null;
+        else {
+            nodesByID.put(id, node);
+            maxID = Math.max(maxID, id);
+        }
+    }
+
+    /** Called by WBSNode when the unique ID of a node has changed. */
+    void uniqueIDChanged(WBSNode node, int oldID) {
+        if (nodesByID != null && nodesByID.get(oldID) == node) {
+            nodesByID.remove(oldID);
+            indexNode(node);
+        }
+    }
+
     public boolean isLeaf(Object node) {
         return getChildCount(node) == 0;
     }
@@ -372,6 +426,17 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         return null;
     }
 
+    /** Compute and cache the parent and children of every node.  Once this
+     * has been done, other threads can read the structure of the WBS
+     * without modifying this model, as long as no changes are made. */
+    void cacheStructure() {
+        for (int i = wbsNodes.size();  i-- > 0; ) {
+            WBSNode node = wbsNodes.get(i);
+            getChildren(node);
+            getParent(node);
+        }
+    }
+
     public String getFullName(WBSNode n) {
         WBSNode parent = getParent(n);
         if (parent != null)
@@ -447,6 +512,15 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
     protected IntList getDescendantIndexes(WBSNode node, int pos) {
         if (node == null)
             node = (WBSNode) wbsNodes.get(pos);
+
+        int endPos = getDescendantEndPos(node, pos);
+        if (endPos != -1) {
+            IntList result = new IntList(endPos - pos);
+            while (++pos < endPos)
+                result.add(pos);
+            return result;
+        }
+
         int parentIndentLevel = node.getIndentLevel();
 
         WBSNode possibleDescendantNode;
@@ -473,6 +547,11 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
 
     public WBSNode[] getDescendants(WBSNode node) {
         int nodePos = getIndexOfNode(node);
+        int endPos = getDescendantEndPos(node, nodePos);
+        if (endPos != -1)
+            return wbsNodes.subList(nodePos + 1, endPos).toArray(
+                new WBSNode[endPos - nodePos - 1]);
+
         IntList descendantIndexes = getDescendantIndexes(node, nodePos);
         WBSNode[] result = new WBSNode[descendantIndexes.size()];
         for (int i = 0;   i < descendantIndexes.size();   i++)
@@ -480,8 +559,66 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         return result;
     }
 
+    /**
+     * @return the position just past the last descendant of the given node,
+     *     or -1 if that cannot be determined from the current structure
+     */
+    private int getDescendantEndPos(WBSNode node, int pos) {
+        NodeStructure s = node.structure;
+        if (!structureValid || pos < 0 || s == null || s.model != this
+                || s.pos != pos)
+            return -1;
+        else if (s.descendantCount == NodeStructure.OPEN)
+            return wbsNodes.size();
+        else if (s.descendantCount == NodeStructure.UNKNOWN)
+            return -1;
+        else
+            return pos + 1 + s.descendantCount;
+    }
+
     private int maxID = 0;
 
+    /** True if the structure data for each node reflects the current
+     * contents of the node list */
+    private boolean structureValid = false;
+
+    /** The structure data for the final node in the list, which allows new
+     * nodes to be appended without recalculating the entire structure */
+    private StructureData lastStructure;
+
+    /** The non-root nodes in this model, indexed by unique ID.  Built on
+     * demand, and kept current as nodes are added, removed, and renumbered */
+    private Map<Integer, WBSNode> nodesByID;
+
+    /** Record the fact that nodes have been rearranged in a way that requires
+     * the structure to be recalculated. */
+    void structureChanged() {
+        structureValid = false;
+        lastStructure = null;
+    }
+
+    /** Record the fact that nodes have been added or removed by some means
+     * that did not keep the ID index up to date. */
+    private void nodeListChanged() {
+        structureChanged();
+        nodesByID = null;
+    }
+
+    private void nodesInserted(List<WBSNode> nodes) {
+        structureChanged();
+        if (nodesByID != null)
+            for (WBSNode node : nodes)
+                indexNode(node);
+    }
+
+    private void nodesRemoved(List<WBSNode> nodes) {
+        structureChanged();
+        if (nodesByID != null)
+            for (WBSNode node : nodes)
+                if (nodesByID.get(node.getUniqueID()) == node)
+                    nodesByID.remove(node.getUniqueID());
+    }
+
     public boolean containsAttr(String attrName) {
         for (WBSNode node : wbsNodes) {
             Object value = node.getAttribute(attrName);
@@ -504,8 +641,8 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
     private synchronized List prepareNodesForInsertion(List<WBSNode> nodes) {
         // tweak each of the incoming nodes, and gather up a Set of their IDs.
         // if any of the IDs are duplicates, add them to a collision Set too.
-        IntList incomingIDs = new IntList();
-        IntList collidingIDs = new IntList();
+        Set<Integer> incomingIDs = new HashSet<Integer>();
+        Set<Integer> collidingIDs = new HashSet<Integer>();
         for (WBSNode node : nodes) {
             tweakNodeForInsertion(node);
 
@@ -516,16 +653,20 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
                 incomingIDs.add(oneID);
         }
 
-        // look through the node list to see if any existing nodes have the
-        // same ID as an incoming node. While we're at it, find the largest
-        // node ID in use. (This will generally be the ID of the root node,
-        // but we won't take any chances.)
-        for (WBSNode node : wbsNodes) {
-            int oneID = node.getUniqueID();
-            maxID = Math.max(maxID, oneID);
-            if (incomingIDs.contains(oneID))
-                collidingIDs.add(oneID);
+        // see if any existing nodes have the same ID as an incoming node.
+        // While we're at it, find the largest node ID in use. (This will
+        // generally be the ID of the root node, but we won't take any
+        // chances.  The ID index keeps track of the others for us.)
+        Map<Integer, WBSNode> existingNodes = getNodesByID();
+        if (!wbsNodes.isEmpty()) {
+            int rootID = getRoot().getUniqueID();
+            maxID = Math.max(maxID, rootID);
+            if (incomingIDs.contains(rootID))
+                collidingIDs.add(rootID);
         }
+        for (Integer oneID : incomingIDs)
+            if (existingNodes.containsKey(oneID))
+                collidingIDs.add(oneID);
 
         // assign unique IDs to the incoming nodes as needed
         for (WBSNode node : nodes) {
@@ -556,8 +697,10 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
             if (ids.add(node.getUniqueID()) == false)
                 collisions.add(node);
         }
-        if (!collisions.isEmpty())
+        if (!collisions.isEmpty()) {
             prepareNodesForInsertion(collisions);
+            nodesByID = null;
+        }
     }
 
     private int[] rows;
@@ -631,19 +774,82 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
             if (sd.visible)
                 rows.add(i);
         }
+
+        lastStructure = sd;
+        structureValid = true;
+    }
+
+    /**
+     * Update the structure and the row list after a node has been appended to
+     * the end of the node list, without recalculating the rest of the WBS.
+     * 
+     * @return false if the structure could not be updated incrementally.
+     */
+    private boolean appendStructure(WBSNode node) {
+        int pos = wbsNodes.size() - 1;
+        if (!structureValid || rows == null || node.getIndentLevel() < 1
+                || lastStructure == null || lastStructure.nodePos != pos - 1
+                || !isCurrent(lastStructure))
+            return false;
+
+        StructureData sd = lastStructure.appendNextRow(pos);
+        NodeStructure parent = sd.parent.node.structure;
+        parent.children = parent.reorderableChildren = null;
+        lastStructure = sd;
+        indexNode(node);
+
+        // ancestors may have been expanded, collapsed, or filtered since the
+        // structure was calculated, so check their current state.
+        boolean visible = !node.isHidden();
+        for (StructureData p = sd.parent; visible && p.nodePos > 0; p = p.parent)
+            visible = p.node.isExpanded() && !p.node.isHidden();
+        if (!visible)
+            return true;
+
+        int row = rows.length;
+        int[] newRows = new int[row + 1];
+        System.arraycopy(rows, 0, newRows, 0, row);
+        newRows[row] = pos;
+        rows = newRows;
+
+        // send the same events that fireSimpleRowChangeEvent would have
+        fireNodeAppearanceChanged(row - 1, row - 1);
+        fireTableChanged(new WBSModelEvent(this, row, row,
+                WBSModelEvent.ALL_COLUMNS, WBSModelEvent.INSERT, false));
+        return true;
+    }
+
+    /** @return true if the nodes in a chain of structure data still hold
+     * the structure objects that were calculated for them */
+    private boolean isCurrent(StructureData sd) {
+        for (;  sd != null;  sd = sd.parent) {
+            NodeStructure s = sd.node.structure;
+            if (s == null || s.model != this || s.pos != sd.nodePos
+                    || s.childIndexes == null
+                    || wbsNodes.get(sd.nodePos) != sd.node)
+                return false;
+        }
+        return true;
     }
 
     class NodeStructure {
+        private static final int OPEN = -1;
+        private static final int UNKNOWN = -2;
+
         private WBSModel model;
         private WBSNode parent;
         private WBSNode[] children;
         private WBSNode[] reorderableChildren;
         private IntList childIndexes;
         private int pos;
+        // the number of descendants of this node, or OPEN if they extend to
+        // the end of the node list
+        private int descendantCount;
 
         private NodeStructure() {
             model = WBSModel.this;
             pos = -1;
+            descendantCount = UNKNOWN;
         }
 
         private void reset(int newPos) {
@@ -651,6 +857,11 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
             children = reorderableChildren = null;
             childIndexes = new IntList();
             pos = newPos;
+            descendantCount = OPEN;
+        }
+
+        WBSModel getModel() {
+            return model;
         }
     }
 
@@ -679,8 +890,12 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
             StructureData result = new StructureData(nodePos);
 
             StructureData parent = this;
-            while (parent.node.getIndentLevel() >= result.node.getIndentLevel())
+            while (parent.node.getIndentLevel() >= result.node.getIndentLevel()) {
+                // this node can't have any more descendants.
+                parent.node.structure.descendantCount = nodePos
+                        - parent.nodePos - 1;
                 parent = parent.parent;
+            }
             result.setParent(parent);
 
             return result;
@@ -1266,6 +1481,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
                 deletionOccurred = true;
 
         if (deletionOccurred) {
+            nodesRemoved(nodesToDelete);
             recalcRows(false);
             i = currentVisibleNodes.iterator();
             while (i.hasNext())
@@ -1295,6 +1511,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
     void deleteNodesImpl(List<WBSNode> nodesToDelete) {
         for (WBSNode node : nodesToDelete)
             wbsNodes.remove(node);
+        nodesRemoved(nodesToDelete);
     }
 
     public int[] insertNodes(List<WBSNode> nodesToInsert, int beforeRow) {
@@ -1339,6 +1556,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
 
         // insert or append the specified nodes
         wbsNodes.addAll(destPos, prepareNodesForInsertion(nodesToInsert));
+        nodesInserted(nodesToInsert);
         recalcRows(false);
 
         // ensure the first newly inserted node is visible. (This may require
@@ -1354,6 +1572,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
 
     void insertNodesAtImpl(List nodesToInsert, int beforePos) {
         wbsNodes.addAll(beforePos, prepareNodesForInsertion(nodesToInsert));
+        nodesInserted(nodesToInsert);
     }
 
     void moveNodesImpl(int startPos, int len, int destPos) {
@@ -1371,6 +1590,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         if (startPos < destPos)
             destPos -= len;
         wbsNodes.addAll(destPos, nodesToMove);
+        structureChanged();
     }
 
     /**
@@ -1396,6 +1616,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         WBSNode oldParent = getParent(node);
         wbsNodes.removeAll(nodesToMove);
         wbsNodes.addAll(destPos, nodesToMove);
+        structureChanged();
         recalcRows(false);
         WBSNode newParent = getParent(node);
         fireNodeMoveEvent(oldParent, newParent);
@@ -1450,6 +1671,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
         WBSNode oldParent = getParent(node);
         wbsNodes.removeAll(nodesToMove);
         wbsNodes.addAll(destPos - nodesToMove.size(), nodesToMove);
+        structureChanged();
         recalcRows(false);
         WBSNode newParent = getParent(node);
         fireNodeMoveEvent(oldParent, newParent);
@@ -1508,6 +1730,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
     public void copyFrom(WBSModel w) {
         if (w != this) {
             wbsNodes = (ArrayList) WBSNode.cloneNodeList(w.wbsNodes, this);
+            nodeListChanged();
             recalcRows(false);
             fireTableDataChanged();
         }
@@ -1596,6 +1819,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
                 Set expandedNodeIDs = getExpandedNodeIDs();
                 Set<Integer> hiddenNodeIDs = getHiddenNodeIDs();
                 wbsNodes = (ArrayList) WBSNode.cloneNodeList(wbsNodeList);
+                nodeListChanged();
                 setExpandedNodeIDs(expandedNodeIDs, false);
                 setHiddenNodeIDs(hiddenNodeIDs, false);
                 recalcRows(false);
@@ -1678,6 +1902,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
                             destChildNodes.clear();
                             destModel.wbsNodes.addAll(lastMergedChildPos,
                                 nodesToMove);
+                            destModel.structureChanged();
                         }
                     }
 
@@ -1705,6 +1930,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
 
                 destModel.wbsNodes.addAll(insertBefore,
                         destModel.prepareNodesForInsertion(nodesToInsert));
+                destModel.nodesInserted(nodesToInsert);
                 insertedNodes.addAll(nodesToInsert);
 
                 lastMergedDestChild = (WBSNode) nodesToInsert.get(0);
@@ -1741,6 +1967,7 @@ public class WBSModel extends AbstractTableModel implements SnapshotSource {
      * types of WBSModels. */
     void sortAllNonRootNodes(Comparator<WBSNode> c) {
         Collections.sort(wbsNodes.subList(1, wbsNodes.size()), c);
+        structureChanged();
         fireTableDataChanged();
     }
 
@@ -263,7 +263,7 @@ public class WBSModelMergeConflictNotificationFactory {
             AttributeMergeWarning<Integer> amw =
                 (AttributeMergeWarning) notification.getMergeWarning();
             Integer nodeId = amw.getIncomingNodeID();
-            WBSNode node = model.getNodeMap().get(nodeId);
+            WBSNode node = model.getNodeForID(nodeId);
             if (node == null)
                 return;
 
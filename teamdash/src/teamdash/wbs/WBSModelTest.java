@@ -0,0 +1,190 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Team Functionality Add-ons for the Process Dashboard
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package teamdash.wbs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import junit.framework.TestCase;
+
+public class WBSModelTest extends TestCase {
+
+    private WBSModel wbs;
+
+    private List<TableModelEvent> events;
+
+    protected void setUp() throws Exception {
+        wbs = new WBSModel("Root", false);
+        events = new ArrayList<TableModelEvent>();
+        wbs.addTableModelListener(new TableModelListener() {
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    public void testAppendedStructure() {
+        Random r = new Random(42);
+        int indent = 0;
+        for (int i = 0; i < 300; i++) {
+            indent = 1 + r.nextInt(indent + 1);
+            WBSNode node = new WBSNode(wbs, "n" + i, "Task", indent,
+                    r.nextInt(4) != 0);
+            node.setHidden(r.nextInt(10) == 0);
+            wbs.add(node);
+
+            if (i % 50 == 0)
+                assertStructure();
+        }
+        assertStructure();
+    }
+
+    public void testAppendEvents() {
+        wbs.add(new WBSNode(wbs, "a", "Task", 1, false));
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), TableModelEvent.UPDATE, 0);
+        assertEvent(events.get(1), TableModelEvent.INSERT, 1);
+
+        // a child of a collapsed node is not visible, so no rows change
+        events.clear();
+        wbs.add(new WBSNode(wbs, "b", "Task", 2, true));
+        assertTrue(events.isEmpty());
+        assertEquals(2, wbs.getRowCount());
+
+        // expanding the parent will reveal both the child and the next node
+        wbs.getNodeForRow(1).setExpanded(true);
+        wbs.recalcRowsForExpansionEvent();
+        wbs.add(new WBSNode(wbs, "c", "Task", 3, true));
+        assertEquals(4, wbs.getRowCount());
+        assertEquals("c", wbs.getNodeForRow(3).getName());
+        assertStructure();
+    }
+
+    public void testIndentAndDelete() {
+        for (int i = 0; i < 10; i++)
+            wbs.add(new WBSNode(wbs, "n" + i, "Task", 1, true));
+        wbs.indentNodes(new int[] { 3, 4, 5 }, 1);
+        wbs.indentNodes(new int[] { 5 }, 1);
+        assertEquals(3, wbs.getDescendants(wbs.getNodeForRow(2)).length);
+        assertStructure();
+
+        // changing indentation directly should not leave stale results
+        wbs.getNodeForRow(4).setIndentLevel(3);
+        assertDescendants();
+        wbs.recalcRows();
+        assertStructure();
+
+        wbs.deleteNodes(Arrays.asList(wbs.getDescendants(wbs
+                .getNodeForRow(2))));
+        assertEquals(0, wbs.getDescendants(wbs.getNodeForRow(2)).length);
+        assertEquals(8, wbs.getRowCount());
+        assertStructure();
+    }
+
+    public void testNodeIDs() {
+        WBSNode a = new WBSNode(wbs, "a", "Task", 1, true);
+        WBSNode b = new WBSNode(wbs, "b", "Task", 1, true);
+        wbs.add(a);
+        wbs.add(b);
+        assertSame(a, wbs.getNodeForID(a.getUniqueID()));
+        assertSame(b, wbs.getNodeForID(b.getUniqueID()));
+        assertSame(wbs.getRoot(), wbs.getNodeForID(null));
+        assertNull(wbs.getNodeForID(wbs.getRoot().getUniqueID()));
+
+        // renumbered nodes can be found under their new ID
+        int oldID = a.getUniqueID();
+        a.setUniqueID(12345);
+        assertNull(wbs.getNodeForID(oldID));
+        assertSame(a, wbs.getNodeForID(12345));
+
+        // inserted nodes with colliding IDs are renumbered
+        WBSNode c = new WBSNode(wbs, "c", "Task", 1, true);
+        c.setUniqueID(12345);
+        wbs.insertNodes(Arrays.asList(c), 1);
+        assertTrue(c.getUniqueID() != 12345);
+        assertSame(a, wbs.getNodeForID(12345));
+        assertSame(c, wbs.getNodeForID(c.getUniqueID()));
+        assertEquals(5, wbs.getNodeMap().size());
+
+        // deleted nodes are no longer present
+        wbs.deleteNodes(Arrays.asList(a));
+        assertNull(wbs.getNodeForID(12345));
+        assertNull(wbs.getNodeMap().get(12345));
+    }
+
+    private void assertEvent(TableModelEvent e, int type, int row) {
+        assertEquals(type, e.getType());
+        assertEquals(row, e.getFirstRow());
+        assertEquals(row, e.getLastRow());
+    }
+
+    /** Check that the structure calculated so far matches the result of a
+     * full recalculation. */
+    private void assertStructure() {
+        String before = describeStructure();
+        assertDescendants();
+        wbs.recalcRows(false);
+        assertEquals(describeStructure(), before);
+    }
+
+    private String describeStructure() {
+        StringBuilder result = new StringBuilder();
+        for (WBSNode node : wbs.getWbsNodes()) {
+            result.append(node.getName()).append(" parent=")
+                    .append(name(wbs.getParent(node))).append(" children=");
+            for (WBSNode child : wbs.getChildren(node))
+                result.append(child.getName()).append(",");
+            result.append(" descendants=")
+                    .append(wbs.getDescendants(node).length).append('\n');
+        }
+        for (int row = 0; row < wbs.getRowCount(); row++)
+            result.append(wbs.getNodeForRow(row).getName()).append(' ');
+        return result.toString();
+    }
+
+    /** Compare the descendants of each node to the ones implied by the
+     * indentation levels. */
+    private void assertDescendants() {
+        List<WBSNode> nodes = wbs.getWbsNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            int end = i + 1;
+            while (end < nodes.size() && nodes.get(end).getIndentLevel()
+                    > nodes.get(i).getIndentLevel())
+                end++;
+            assertEquals(nodes.subList(i + 1, end),
+                Arrays.asList(wbs.getDescendants(nodes.get(i))));
+        }
+    }
+
+    private static String name(WBSNode node) {
+        return (node == null ? null : node.getName());
+    }
+
+}
@@ -152,7 +152,16 @@ public class WBSNode implements Cloneable {
     /** Set the unique ID of this node.
      * @param uniqueID the new ID for this node. */
     public void setUniqueID(int uniqueID) {
+        int oldID = this.uniqueID;
         this.uniqueID = uniqueID;
+        if (oldID != uniqueID) {
+            WBSModel structureModel = (structure == null ? null
+                    : structure.getModel());
+            if (structureModel != null)
+                structureModel.uniqueIDChanged(this, oldID);
+            if (wbsModel != null && wbsModel != structureModel)
+                wbsModel.uniqueIDChanged(this, oldID);
+        }
     }
 
     /** Get an ID used for tree lookup scenarios. This is the same as the
@@ -181,7 +190,11 @@ public class WBSNode implements Cloneable {
 
     /** Set the indentation level of this node.
      * @param newLevel the new indentation level for this node.  */
-    public void setIndentLevel(int newLevel) { this.indentLevel = newLevel; }
+    public void setIndentLevel(int newLevel) {
+        if (newLevel != indentLevel && structure != null)
+            structure.getModel().structureChanged();
+        this.indentLevel = newLevel;
+    }
 
 
     /** Returns true if this node is currently expanded.
@@ -215,19 +228,24 @@ public class WBSNode implements Cloneable {
 
 
 
-    // Methods to get/set data attributes of the node
+    // Methods to get/set data attributes of the node.  These are
+    // synchronized, so columns can be recalculated on several threads.
 
 
     /** Get an attribute of type <code>Object</code> */
     public Object getAttribute(String attrName) {
-        return attributes.get(attrName);
+        synchronized (attributes) {
+            return attributes.get(attrName);
+        }
     }
     /** Set an attribute of type <code>Object</code> */
     public void setAttribute(String attrName, Object value) {
-        if (value == null)
-            attributes.remove(attrName);
-        else
-            attributes.put(attrName, value);
+        synchronized (attributes) {
+            if (value == null)
+                attributes.remove(attrName);
+            else
+                attributes.put(attrName, value);
+        }
     }
     /** Store a number of attributes on this node */
     public void setAttributes(Map<String, Object> attrs,
@@ -236,21 +254,25 @@ public class WBSNode implements Cloneable {
             for (Map.Entry<String, Object> e : attrs.entrySet()) {
                 String attrName = e.getKey();
                 Object attrValue = e.getValue();
-                if (overwriteExisting || attributes.get(attrName) == null)
+                if (overwriteExisting || getAttribute(attrName) == null)
                     setAttribute(attrName, attrValue);
             }
         }
     }
     /** Remove an attribute and return its previous value */
     public Object removeAttribute(String attrName) {
-        return attributes.remove(attrName);
+        synchronized (attributes) {
+            return attributes.remove(attrName);
+        }
     }
     /** Remove a number of attributes that match a given pattern */
     public void removeAttributes(PatternList matchingPattern) {
-        Iterator<String> attrNames = attributes.keySet().iterator();
-        while (attrNames.hasNext())
-            if (matchingPattern.matches(attrNames.next()))
-                attrNames.remove();
+        synchronized (attributes) {
+            Iterator<String> attrNames = attributes.keySet().iterator();
+            while (attrNames.hasNext())
+                if (matchingPattern.matches(attrNames.next()))
+                    attrNames.remove();
+        }
     }
     /** Get a list of the attributes on this node */
     public Set<String> listAttributeNames() {
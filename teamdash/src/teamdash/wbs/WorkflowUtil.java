@@ -343,7 +343,7 @@ public class WorkflowUtil {
                 // if a nested workflow was applied to this node in the past,
                 // retain the source ID of that nested workflow.
                 Integer oldId = Integer.valueOf(oldIdStr);
-                WBSNode oldSrcNode = workflows.getNodeMap().get(oldId);
+                WBSNode oldSrcNode = workflows.getNodeForID(oldId);
                 if (oldSrcNode != null && oldSrcNode.getIndentLevel() == 1)
                     newSourceIDs.append(",").append(oldIdStr);
             }
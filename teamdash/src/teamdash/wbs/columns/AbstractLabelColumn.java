@@ -42,7 +42,7 @@ import net.sourceforge.processdash.ui.lib.autocomplete.AssignedToComboBox;
 import net.sourceforge.processdash.ui.lib.autocomplete.AutocompletingDataTableCellEditor;
 import net.sourceforge.processdash.util.StringUtils;
 
-import teamdash.wbs.CalculatedDataColumn;
+import teamdash.wbs.ConcurrentDataColumn;
 import teamdash.wbs.CustomEditedColumn;
 import teamdash.wbs.CustomRenderedColumn;
 import teamdash.wbs.DataTableModel;
@@ -53,7 +53,7 @@ import teamdash.wbs.WBSNode;
 import teamdash.wbs.WrappedValue;
 
 public class AbstractLabelColumn extends AbstractDataColumn implements
-        CustomRenderedColumn, CustomEditedColumn, CalculatedDataColumn,
+        CustomRenderedColumn, CustomEditedColumn, ConcurrentDataColumn,
         LabelSource {
 
     protected DataTableModel dataModel;
@@ -31,7 +31,7 @@ import org.w3c.dom.Element;
 
 import net.sourceforge.processdash.util.XMLUtils;
 
-import teamdash.wbs.CalculatedDataColumn;
+import teamdash.wbs.ConcurrentDataColumn;
 import teamdash.wbs.DataTableModel;
 import teamdash.wbs.WBSModel;
 import teamdash.wbs.WBSNode;
@@ -52,7 +52,7 @@ import teamdash.wbs.WBSNode;
  * @author Tuma
  */
 public class AncestorSelectionColumn extends AbstractDataColumn implements
-        CalculatedDataColumn, CustomColumn, LabelSource, WbsNodeAttributeSource {
+        ConcurrentDataColumn, CustomColumn, LabelSource, WbsNodeAttributeSource {
 
     static final String TYPE = "AncestorSelectionColumn";
 
@@ -34,7 +34,7 @@ import javax.swing.table.TableCellRenderer;
 
 import net.sourceforge.processdash.ui.lib.autocomplete.AutocompletingDataTableCellEditor;
 
-import teamdash.wbs.CalculatedDataColumn;
+import teamdash.wbs.ConcurrentDataColumn;
 import teamdash.wbs.CustomEditedColumn;
 import teamdash.wbs.CustomRenderedColumn;
 import teamdash.wbs.DataTableModel;
@@ -45,7 +45,7 @@ import teamdash.wbs.WBSModel;
 import teamdash.wbs.WBSNode;
 
 public class MilestoneColumn extends AbstractDataColumn implements
-        CustomRenderedColumn, CustomEditedColumn, CalculatedDataColumn {
+        CustomRenderedColumn, CustomEditedColumn, ConcurrentDataColumn {
 
     public static final String COLUMN_ID = "Milestone";
 
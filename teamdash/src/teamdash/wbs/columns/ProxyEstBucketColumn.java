@@ -229,7 +229,7 @@ public class ProxyEstBucketColumn extends AbstractDataColumn implements
         if (typeId == null)
             return NO_BUCKETS;
 
-        WBSNode proxy = proxyModel.getNodeMap().get(typeId);
+        WBSNode proxy = proxyModel.getNodeForID(typeId);
         if (proxy == null)
             return NO_BUCKETS;
 
@@ -24,6 +24,7 @@
 package teamdash.wbs.columns;
 
 import java.util.List;
+import java.util.Set;
 
 import net.sourceforge.processdash.util.PatternList;
 
@@ -31,6 +32,7 @@ import teamdash.merge.ui.MergeConflictNotification;
 import teamdash.wbs.CalculatedDataColumn;
 import teamdash.wbs.ConflictCapableDataColumn;
 import teamdash.wbs.DataTableModel;
+import teamdash.wbs.IncrementalDataColumn;
 import teamdash.wbs.NumericDataValue;
 import teamdash.wbs.TeamProcess;
 import teamdash.wbs.WBSNode;
@@ -333,7 +335,7 @@ public class SizeAccountingColumnSet {
      * (Of course, LOC are a different story altogether, since LOC estimates
      * will only be written and synched for PSP tasks.)
      */
-    private static class NodeTypeColumnFilter implements CalculatedDataColumn,
+    private static class NodeTypeColumnFilter implements IncrementalDataColumn,
             ConflictCapableDataColumn {
 
         CalculatedDataColumn column;
@@ -350,6 +352,12 @@ public class SizeAccountingColumnSet {
         public boolean recalculate() {
             return column.recalculate();
         }
+        public boolean recalculate(Set<WBSNode> changedNodes,
+                Set<WBSNode> affectedNodes) {
+            return column instanceof IncrementalDataColumn
+                    && ((IncrementalDataColumn) column).recalculate(
+                        changedNodes, affectedNodes);
+        }
         public String[] getDependentColumnIDs() {
             return column.getDependentColumnIDs();
         }
@@ -407,7 +407,8 @@ public class SizeDataColumn extends AbstractNumericColumn implements
 
         // next, check to see if that child was truly deleted. (If it's still
         // present in the WBS somewhere, we don't need to rescue its size.)
-        if (wbsModel.getNodeMap().containsKey(oldChildTaskID))
+        if (oldChildTaskID instanceof Integer
+                && wbsModel.getNodeForID((Integer) oldChildTaskID) != null)
             return 0;
 
         // If so, restore the previous bottom up value, if one was present.
@@ -40,7 +40,7 @@ import net.sourceforge.processdash.ui.lib.autocomplete.AssignedToComboBox;
 import net.sourceforge.processdash.ui.lib.autocomplete.AutocompletingDataTableCellEditor;
 import net.sourceforge.processdash.util.StringUtils;
 
-import teamdash.wbs.CalculatedDataColumn;
+import teamdash.wbs.ConcurrentDataColumn;
 import teamdash.wbs.CustomEditedColumn;
 import teamdash.wbs.CustomRenderedColumn;
 import teamdash.wbs.DataTableModel;
@@ -51,7 +51,7 @@ import teamdash.wbs.WBSNode;
 import teamdash.wbs.WrappedValue;
 
 public class TaskLabelColumn extends AbstractDataColumn implements
-        CustomRenderedColumn, CustomEditedColumn, CalculatedDataColumn,
+        CustomRenderedColumn, CustomEditedColumn, ConcurrentDataColumn,
         LabelSource {
 
     public static final String COLUMN_ID = "Labels";
@@ -104,6 +104,17 @@ public class TeamMemberTimeColumn extends TopDownBottomUpColumn
         return result;
     }
 
+    @Override
+    protected double getLastRecalcValue(WBSNode node) {
+        // reapply the "assigned with zero" flag that recalc() would have
+        // propagated to the parent of this node.
+        double result = super.getLastRecalcValue(node);
+        if (!(result > 0) && isAssignedWithZero(node))
+            wbsModel.getParent(node).setAttribute(assignWithZeroInheritedAttr,
+                "t");
+        return result;
+    }
+
     private boolean isAssignedWithZero(WBSNode node) {
         return node.getAttribute(assignWithZeroAttr) != null
                 || node.getAttribute(assignWithZeroInheritedAttr) != null;
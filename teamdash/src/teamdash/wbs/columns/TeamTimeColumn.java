@@ -296,6 +296,14 @@ public class TeamTimeColumn extends TopDownBottomUpColumn
 
 
 
+    @Override
+    protected boolean isIncrementalRecalcSupported() {
+        // recalculating a leaf updates the time for each team member, and
+        // the unassigned time, so this column must always recalc the
+        // entire WBS.
+        return false;
+    }
+
     protected double recalc(WBSNode node) {
         // this could be called because:
         // 1) the user edited the team time, and we're recalculating
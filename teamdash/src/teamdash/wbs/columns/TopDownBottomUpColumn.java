@@ -25,12 +25,15 @@
 package teamdash.wbs.columns;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import net.sourceforge.processdash.util.HTMLUtils;
 
 import teamdash.wbs.CalculatedDataColumn;
 import teamdash.wbs.DataTableModel;
+import teamdash.wbs.IncrementalDataColumn;
 import teamdash.wbs.NumericDataValue;
 import teamdash.wbs.WBSModel;
 import teamdash.wbs.WBSNode;
@@ -38,7 +41,7 @@ import teamdash.wbs.WBSNode;
 /** A numeric column containing data which should sum up hierarchically.
  */
 public class TopDownBottomUpColumn extends AbstractNumericColumn
-    implements CalculatedDataColumn
+    implements CalculatedDataColumn, IncrementalDataColumn
 {
 
 
@@ -48,6 +51,14 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
     protected Pruner pruner = null;
     protected boolean hideInheritedValues = false;
 
+    /** During an incremental recalculation, the nodes whose values must be
+     * recomputed: the changed nodes and all of their ancestors. */
+    private Set<WBSNode> incrementalPaths;
+    /** During an incremental recalculation, the nodes that were changed */
+    private Set<WBSNode> changedNodes;
+    /** During an incremental recalculation, the nodes we recomputed */
+    private Set<WBSNode> affectedNodes;
+
     public TopDownBottomUpColumn(DataTableModel dataModel,
                                      String name, String id) {
         this(dataModel, name, id, null);
@@ -155,7 +166,7 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
         }
 
         // ask the data model to recalculate this column.
-        dataModel.columnChanged(this);
+        dataModel.columnChanged(this, node);
     }
 
     public boolean recalculate() {
@@ -163,6 +174,80 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
         return true;
     }
 
+    public boolean recalculate(Set<WBSNode> changedNodes,
+            Set<WBSNode> affectedNodes) {
+        if (!isIncrementalRecalcSupported()
+                || changedNodes.contains(wbsModel.getRoot()))
+            return false;
+
+        // the values of the changed nodes, and of all their ancestors, must
+        // be recomputed.  Every other subtree can reuse its previous value.
+        Set<WBSNode> paths = new HashSet<WBSNode>();
+        for (WBSNode node : changedNodes) {
+            while (node != null && paths.add(node))
+                node = wbsModel.getParent(node);
+        }
+        if (!paths.contains(wbsModel.getRoot()))
+            return false;
+
+        try {
+            this.incrementalPaths = paths;
+            this.changedNodes = changedNodes;
+            this.affectedNodes = affectedNodes;
+            recalc(wbsModel.getRoot());
+            affectedNodes.add(wbsModel.getRoot());
+            return true;
+        } finally {
+            this.incrementalPaths = null;
+            this.changedNodes = null;
+            this.affectedNodes = null;
+        }
+    }
+
+    /** @return true if this column can be recalculated for a portion of the
+     * WBS, by reusing the values that were computed for unchanged subtrees.
+     * Subclasses whose calculations have side effects that span the entire
+     * WBS should override this to return false. */
+    protected boolean isIncrementalRecalcSupported() {
+        return true;
+    }
+
+    /** Recalculate the value for a child node within
+     * {@link #sumUpChildValues(WBSNode, WBSNode[], int)}.
+     *
+     * During an incremental recalculation, a child that is not affected by
+     * any of the changed nodes will return the value it had after the last
+     * recalculation, without examining its descendants. */
+    protected double recalcChild(WBSNode child) {
+        if (incrementalPaths != null && !incrementalPaths.contains(child))
+            return getLastRecalcValue(child);
+
+        if (affectedNodes != null)
+            affectedNodes.add(child);
+        if (incrementalPaths == null || !changedNodes.contains(child))
+            return recalc(child);
+
+        // a changed node may have altered any of its descendants, so we
+        // recalculate its entire subtree.
+        Set<WBSNode> paths = incrementalPaths;
+        try {
+            incrementalPaths = null;
+            return recalc(child);
+        } finally {
+            incrementalPaths = paths;
+        }
+    }
+
+    /** @return the value that {@link #recalc(WBSNode)} returned for a node
+     * during the last recalculation. */
+    protected double getLastRecalcValue(WBSNode node) {
+        double bottomUpValue = node.getNumericAttribute(bottomUpAttrName);
+        if (bottomUpValue != 0)
+            return bottomUpValue;
+        double topDownValue = node.getNumericAttribute(topDownAttrName);
+        return (Double.isNaN(topDownValue) ? 0 : topDownValue);
+    }
+
     protected double recalc(WBSNode node) {
         double topDownValue = node.getNumericAttribute(topDownAttrName);
 
@@ -192,7 +277,7 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
                 boolean fixWasMade = attemptToRepairTopDownBottomUpMismatch(
                     node, topDownValue, bottomUpValue, children, numToInclude);
                 if (fixWasMade)
-                    bottomUpValue = sumUpChildValues(node, children,
+                    bottomUpValue = resumChildValues(node, children,
                         numToInclude);
             }
 
@@ -219,6 +304,20 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
         return result;
     }
 
+    /** Sum the child values again after a mismatch repair.  The repair may
+     * have altered any of the descendants, so none of their previously
+     * calculated values can be reused. */
+    private double resumChildValues(WBSNode node, WBSNode[] children,
+            int numToInclude) {
+        Set<WBSNode> paths = incrementalPaths;
+        try {
+            incrementalPaths = null;
+            return sumUpChildValues(node, children, numToInclude);
+        } finally {
+            incrementalPaths = paths;
+        }
+    }
+
     protected double maybeRestoreTopDownValueForLeaf(WBSNode node) {
         // default behavior: do not restore any top-down value.
         return 0;
@@ -228,7 +327,7 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
             int numToInclude) {
         double bottomUpValue = 0;
         for (int i = 0;   i < numToInclude;   i++) {
-            double childValue = recalc(children[i]);
+            double childValue = recalcChild(children[i]);
             if (shouldFilterFromCalculations(children[i]) == false)
                 bottomUpValue += childValue;
         }
@@ -266,6 +365,8 @@ public class TopDownBottomUpColumn extends AbstractNumericColumn
     }
 
     protected void setInheritedValue(WBSNode node, double value) {
+        if (affectedNodes != null)
+            affectedNodes.add(node);
         node.setAttribute(bottomUpAttrName, null);
         node.setNumericAttribute(inheritedAttrName, value);
 
@@ -73,6 +73,12 @@ public class UnassignedTimeColumn extends TopDownBottomUpColumn {
     }
 
 
+    @Override
+    protected boolean isIncrementalRecalcSupported() {
+        // the milestone totals are rebuilt from every leaf in the WBS
+        return false;
+    }
+
     @Override
     protected double recalc(WBSNode node) {
         if (wbsModel.isLeaf(node)) {
@@ -1,5 +1,8 @@
 package net.sourceforge.processdash;
 
+import net.sourceforge.processdash.ev.ci.EVScheduleConfidenceIntervalsTest;
+import net.sourceforge.processdash.ev.ci.MonteCarloConfidenceIntervalTest;
+import net.sourceforge.processdash.log.defects.DefectLogTest;
 import net.sourceforge.processdash.log.time.AllTimeLogTests;
 import net.sourceforge.processdash.templates.DashPackageTest;
 import net.sourceforge.processdash.tool.export.mgr.AllExportMgrTests;
@@ -14,6 +17,9 @@ public class AllProcessdashTests {
 		//$JUnit-BEGIN$
 		suite.addTest(AllUtilTests.suite());
 		suite.addTest(AllTimeLogTests.suite());
+		suite.addTestSuite(DefectLogTest.class);
+		suite.addTestSuite(EVScheduleConfidenceIntervalsTest.class);
+		suite.addTestSuite(MonteCarloConfidenceIntervalTest.class);
                 suite.addTestSuite(DashPackageTest.class);
 		suite.addTest(AllExportMgrTests.suite());
 		//$JUnit-END$
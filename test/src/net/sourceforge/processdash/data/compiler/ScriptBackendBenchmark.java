@@ -0,0 +1,183 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.compiler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.SimpleData;
+import net.sourceforge.processdash.data.StringData;
+
+/**
+ * Compares the instruction interpreter and the evaluator tree backends for
+ * {@link CompiledScript}, using the single-line formulas found in the
+ * datafiles of the shipped Templates directory.
+ *
+ * Usage: <tt>ScriptBackendBenchmark [templatesDir] [iterations]</tt>
+ */
+public class ScriptBackendBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        File templatesDir = new File(args.length > 0 ? args[0] : "Templates");
+        int iterations = (args.length > 1 ? Integer.parseInt(args[1]) : 200);
+
+        List<CompiledScript> scripts = new ArrayList<CompiledScript>();
+        collectScripts(templatesDir, scripts);
+        System.out.println("Compiled " + scripts.size() + " formulas from "
+                + templatesDir);
+
+        // discard formulas that cannot run outside of a live repository,
+        // and make certain the two backends agree on the others.
+        ExpressionContext context = new SyntheticContext();
+        int mismatches = 0;
+        for (int i = scripts.size(); i-- > 0;) {
+            CompiledScript script = scripts.get(i);
+            Object a, b;
+            try {
+                a = runInterpreted(script, context);
+                b = runTree(script, context);
+            } catch (Exception e) {
+                scripts.remove(i);
+                continue;
+            }
+            if (!sameResult(a, b)) {
+                mismatches++;
+                System.out.println("MISMATCH: " + script.saveString()
+                        + " -> " + a + " vs. " + b);
+            }
+        }
+        System.out.println(scripts.size() + " runnable formulas, "
+                + mismatches + " mismatches");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.currentTimeMillis();
+            for (int n = iterations; n-- > 0;)
+                for (CompiledScript script : scripts)
+                    runInterpreted(script, context);
+            long interpreted = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            for (int n = iterations; n-- > 0;)
+                for (CompiledScript script : scripts)
+                    runTree(script, context);
+            long tree = System.currentTimeMillis() - start;
+
+            System.out.println("round " + round + ": interpreter "
+                    + interpreted + " ms, evaluator tree " + tree + " ms");
+        }
+    }
+
+    private static Object runInterpreted(CompiledScript script,
+            ExpressionContext context) throws ExecutionException {
+        ListStack stack = new ListStack();
+        script.interpret(stack, context);
+        return stack.pop();
+    }
+
+    private static Object runTree(CompiledScript script,
+            ExpressionContext context) throws ExecutionException {
+        ArrayStack stack = new ArrayStack();
+        if (!script.runEvaluatorTree(stack, context))
+            script.interpret(stack, context);
+        return stack.pop();
+    }
+
+    private static boolean sameResult(Object a, Object b) {
+        if (a == b)
+            return true;
+        if (a instanceof SimpleData && b instanceof SimpleData) {
+            SimpleData sa = (SimpleData) a, sb = (SimpleData) b;
+            return sa.getClass() == sb.getClass()
+                    && sa.isEditable() == sb.isEditable()
+                    && sa.isDefined() == sb.isDefined()
+                    && sa.format().equals(sb.format());
+        }
+        return false;
+    }
+
+    private static final Pattern FORMULA = Pattern
+            .compile("^\\s*\\[[^\\]]+\\]\\s*==?\\s*(.+);\\s*$");
+
+    private static void collectScripts(File dir, List<CompiledScript> dest)
+            throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+        for (File f : files) {
+            String name = f.getName();
+            if (f.isDirectory())
+                collectScripts(f, dest);
+            else if (name.endsWith(".txt") || name.endsWith("Data"))
+                readFormulas(f, dest);
+        }
+    }
+
+    private static void collectScript(String expr, List<CompiledScript> dest) {
+        try {
+            CompiledScript script = Compiler.compile(expr);
+            if (!script.isConstant())
+                dest.add(script);
+        } catch (Exception e) {
+            // not all lines that look like formulas are valid expressions.
+        }
+    }
+
+    private static void readFormulas(File f, List<CompiledScript> dest)
+            throws IOException {
+        BufferedReader in = new BufferedReader(new FileReader(f));
+        String line;
+        while ((line = in.readLine()) != null) {
+            Matcher m = FORMULA.matcher(line);
+            if (m.matches())
+                collectScript(m.group(1), dest);
+        }
+        in.close();
+    }
+
+    /** An expression context that returns a stable, name-dependent value
+     * for every data element. */
+    private static class SyntheticContext implements ExpressionContext {
+
+        public SimpleData get(String dataName) {
+            int hash = Math.abs(dataName.hashCode());
+            switch (hash % 4) {
+            case 0: return null;
+            case 1: return StringData.create(dataName);
+            default: return new DoubleData(hash % 100);
+            }
+        }
+
+        public String resolveName(String dataName) {
+            return "/Project/" + dataName;
+        }
+    }
+
+}
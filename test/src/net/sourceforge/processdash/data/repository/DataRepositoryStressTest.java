@@ -0,0 +1,242 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.SimpleData;
+
+public class DataRepositoryStressTest extends TestCase {
+
+    private static final int NUM_NAMES = 2000;
+
+    private static final int OPS_PER_THREAD = 50000;
+
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+
+    private DataRepository data;
+
+    private String[] names;
+
+    protected void setUp() throws Exception {
+        data = new DataRepository();
+        names = new String[NUM_NAMES];
+        for (int i = 0; i < NUM_NAMES; i++) {
+            names[i] = "/Project " + (i % 50) + "/Value " + i;
+            data.putValue(names[i], new DoubleData(i));
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        data.shutDown();
+    }
+
+    public void testConcurrentAccess() throws Exception {
+        for (int numThreads : THREAD_COUNTS) {
+            long elapsed = runWorkers(numThreads);
+            double opsPerSec = numThreads * (double) OPS_PER_THREAD * 1000
+                    / Math.max(1, elapsed);
+            System.out.println("DataRepositoryStressTest: " + numThreads
+                    + " thread(s), " + elapsed + " ms, "
+                    + (long) opsPerSec + " ops/sec");
+        }
+
+        // each worker only ever writes non-negative values, so every
+        // element should still hold a sensible number.
+        for (int i = 0; i < NUM_NAMES; i++) {
+            SimpleData val = data.getSimpleValue(names[i]);
+            assertTrue(val instanceof DoubleData);
+            assertTrue(((DoubleData) val).getDouble() >= 0);
+        }
+    }
+
+    public void testNotificationsReachConsistency() throws Exception {
+        final Map<String, SimpleData> seen =
+                new ConcurrentHashMap<String, SimpleData>();
+        DataListener listener = new DataListener() {
+            public void dataValueChanged(DataEvent e) {
+                if (e.getValue() != null)
+                    seen.put(e.getName(), e.getValue());
+            }
+            public void dataValuesChanged(Vector v) {
+                for (Object e : v)
+                    dataValueChanged((DataEvent) e);
+            }
+        };
+
+        int numProjects = 200;
+        for (int p = 0; p < numProjects; p++) {
+            String prefix = "/Project " + p;
+            data.putValue(prefix + "/Doubled", new CompiledFunction(prefix
+                    + "/Doubled", "[Value " + p + "] * 2", data, prefix));
+            data.addDataListener(prefix + "/Doubled", listener);
+        }
+        data.waitForCalculations();
+
+        long start = System.currentTimeMillis();
+        for (int round = 1; round <= 20; round++)
+            for (int p = 0; p < numProjects; p++)
+                data.putValue("/Project " + p + "/Value " + p,
+                    new DoubleData(round));
+        data.waitForCalculations();
+        System.out.println("DataRepositoryStressTest: consistent in "
+                + (System.currentTimeMillis() - start) + " ms; "
+                + data.getNotificationMetrics());
+
+        for (int p = 0; p < numProjects; p++) {
+            SimpleData val = seen.get("/Project " + p + "/Doubled");
+            assertTrue(val instanceof DoubleData);
+            assertEquals(40.0, ((DoubleData) val).getDouble(), 0);
+        }
+    }
+
+    public void testCircularListenersOnTwoThreadsDoNotDeadlock()
+            throws Exception {
+        // "/Cycle/A" and "/Cycle/B" are calculated from each other, and B
+        // also depends on a slow calculation.  While another thread is
+        // delivering to the slow listener, the notifier threads defer B
+        // behind it, and A behind B.  When the slow listener finishes, B
+        // and A must not end up each waiting for the other.
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch slowReleased = new CountDownLatch(1);
+        final DataListener slow = new NullListener() {
+            public void dataValueChanged(DataEvent e) {
+                slowStarted.countDown();
+                try {
+                    slowReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {}
+            }
+        };
+        DataListener a = new NullListener();
+        DataListener b = new NullListener();
+        data.addActiveDataListener("/Cycle/Input", slow, "/Cycle/Slow", false);
+        data.addActiveDataListener("/Cycle/Slow", b, "/Cycle/B", false);
+        data.addActiveDataListener("/Cycle/A", b, "/Cycle/B", false);
+        data.addActiveDataListener("/Cycle/B", a, "/Cycle/A", false);
+
+        Thread deliverer = new Thread() {
+            public void run() {
+                data.addDataListener("/Cycle/Input", slow, true);
+            }
+        };
+        deliverer.setDaemon(true);
+        deliverer.start();
+        assertTrue(slowStarted.await(10, TimeUnit.SECONDS));
+        data.putValue("/Cycle/Input", new DoubleData(1));
+        Thread.sleep(200);
+        slowReleased.countDown();
+
+        assertTrue("notifications never became consistent",
+            waitForCalculations(10000));
+    }
+
+    private boolean waitForCalculations(long timeout) throws Exception {
+        Thread waiter = new Thread() {
+            public void run() {
+                data.waitForCalculations();
+            }
+        };
+        waiter.setDaemon(true);
+        waiter.start();
+        waiter.join(timeout);
+        return !waiter.isAlive();
+    }
+
+    private static class NullListener implements DataListener {
+        public void dataValueChanged(DataEvent e) {}
+        public void dataValuesChanged(Vector v) {
+            for (Object e : v)
+                dataValueChanged((DataEvent) e);
+        }
+    }
+
+    private long runWorkers(int numThreads) throws Exception {
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < numThreads; i++)
+            workers.add(new Worker(i));
+
+        long start = System.currentTimeMillis();
+        for (Worker w : workers)
+            w.start();
+        for (Worker w : workers)
+            w.join();
+        long elapsed = System.currentTimeMillis() - start;
+
+        for (Worker w : workers)
+            if (w.error != null)
+                throw w.error;
+        return elapsed;
+    }
+
+    private class Worker extends Thread {
+
+        private Random random;
+
+        private volatile Exception error;
+
+        Worker(int seed) {
+            random = new Random(seed);
+        }
+
+        public void run() {
+            try {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    String name = names[random.nextInt(NUM_NAMES)];
+                    int op = random.nextInt(100);
+                    if (op < 10) {
+                        data.putValue(name, new DoubleData(i));
+                    } else if (op < 11) {
+                        countKeys();
+                    } else {
+                        SimpleData val = data.getSimpleValue(name);
+                        if (!(val instanceof DoubleData))
+                            throw new Exception("Missing value for " + name);
+                    }
+                }
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+
+        private int countKeys() {
+            int result = 0;
+            Iterator i = data.getKeys("/Project " + random.nextInt(50), null);
+            while (i.hasNext() && i.next() != null)
+                result++;
+            return result;
+        }
+    }
+
+}
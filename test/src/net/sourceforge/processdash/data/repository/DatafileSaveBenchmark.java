@@ -0,0 +1,119 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.repository;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * Measures the time needed to save and close datafiles in a repository
+ * populated with a large number of synthetic projects.
+ *
+ * Usage: <tt>DatafileSaveBenchmark [numProjects] [elementsPerProject]</tt>
+ */
+public class DatafileSaveBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numProjects = 500;
+        int elementsPerProject = 400;
+        if (args.length > 0)
+            numProjects = Integer.parseInt(args[0]);
+        if (args.length > 1)
+            elementsPerProject = Integer.parseInt(args[1]);
+
+        new DatafileSaveBenchmark().run(numProjects, elementsPerProject);
+    }
+
+    private File dir;
+
+    private DataRepository data;
+
+    private void run(int numProjects, int elementsPerProject)
+            throws Exception {
+        dir = File.createTempFile("saveBenchmark", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            data = new DataRepository();
+            data.configureEditability();
+
+            long start = System.currentTimeMillis();
+            data.startInconsistency();
+            for (int p = 0; p < numProjects; p++)
+                openProject(p, elementsPerProject);
+            data.finishInconsistency();
+            print("opened " + numProjects + " datafiles", start);
+
+            // modify a value in every tenth project, then save.
+            for (int round = 0; round < 5; round++) {
+                for (int p = 0; p < numProjects; p += 10)
+                    data.putValue(getPrefix(p) + "/Value 0",
+                        new DoubleData(round + 1));
+                start = System.currentTimeMillis();
+                data.saveAllDatafiles();
+                print("saved " + (numProjects / 10) + " dirty datafiles",
+                    start);
+            }
+
+            start = System.currentTimeMillis();
+            for (int p = 0; p < numProjects; p++)
+                data.closeDatafile(getPrefix(p));
+            print("closed " + numProjects + " datafiles", start);
+
+            data.shutDown();
+        } finally {
+            FileUtils.deleteDirectory(dir, true);
+        }
+    }
+
+    private void openProject(int p, int elementsPerProject)
+            throws Exception {
+        File f = new File(dir, p + ".dat");
+        writeDatafile(f, elementsPerProject);
+        data.openDatafile(getPrefix(p), f.getPath());
+    }
+
+    private void writeDatafile(File f, int elementsPerProject)
+            throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(f));
+        for (int i = 0; i < elementsPerProject; i++)
+            out.println("Value " + i + "=" + i);
+        out.close();
+    }
+
+    private String getPrefix(int p) {
+        return "/Project/Project " + p;
+    }
+
+    private void print(String what, long start) {
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println(what + " in " + elapsed + " ms");
+    }
+
+}
@@ -0,0 +1,108 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.repository;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.StringData;
+import net.sourceforge.processdash.data.compiler.CompiledScript;
+import net.sourceforge.processdash.data.compiler.Compiler;
+
+public class DefinitionsSnapshotTest extends TestCase {
+
+    private File file;
+
+    private Map<String, Map> defns;
+
+    protected void setUp() throws Exception {
+        file = File.createTempFile("defns", ".snapshot");
+
+        CompiledScript script = Compiler.compile("[Foo] * 2");
+        Map a = new HashMap();
+        a.put("Number", new DoubleData(3.5, false));
+        a.put("Text", StringData.create("hello"));
+        a.put("Formula", script);
+        a.put("Old Style", "=[Foo]");
+        Map b = new HashMap();
+        b.put("Formula", script);
+        b.put("Number", new DoubleData(7));
+
+        defns = new HashMap<String, Map>();
+        defns.put("<a/dataFile.txt>", a);
+        defns.put("<b/dataFile.txt>", b);
+    }
+
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testRoundTrip() throws Exception {
+        DefinitionsSnapshot.write(file, defns, 42);
+        Map<String, Map> read = DefinitionsSnapshot.read(file, 42);
+        assertNotNull(read);
+        assertEquals(defns.keySet(), read.keySet());
+
+        Map a = read.get("<a/dataFile.txt>");
+        Map b = read.get("<b/dataFile.txt>");
+        assertEquals(3.5, ((DoubleData) a.get("Number")).getDouble(), 0);
+        assertFalse(((DoubleData) a.get("Number")).isEditable());
+        assertTrue(((DoubleData) b.get("Number")).isEditable());
+        assertEquals("hello", ((StringData) a.get("Text")).getString());
+        assertEquals("=[Foo]", a.get("Old Style"));
+
+        // compiled scripts are restored, and shared scripts stay shared
+        CompiledScript orig = (CompiledScript) defns.get("<a/dataFile.txt>")
+                .get("Formula");
+        CompiledScript script = (CompiledScript) a.get("Formula");
+        assertNotSame(orig, script);
+        assertEquals(orig.saveString(), script.saveString());
+        assertSame(script, b.get("Formula"));
+    }
+
+    public void testStaleSnapshotIsIgnored() throws Exception {
+        DefinitionsSnapshot.write(file, defns, 42);
+        assertNull(DefinitionsSnapshot.read(file, 43));
+    }
+
+    public void testCorruptSnapshotIsIgnored() throws Exception {
+        DefinitionsSnapshot.write(file, defns, 42);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(raf.length() - 5);
+        raf.write(raf.read() ^ 0xff);
+        raf.close();
+        assertNull(DefinitionsSnapshot.read(file, 42));
+    }
+
+    public void testMissingSnapshotIsIgnored() throws Exception {
+        file.delete();
+        assertNull(DefinitionsSnapshot.read(file, 42));
+    }
+
+}
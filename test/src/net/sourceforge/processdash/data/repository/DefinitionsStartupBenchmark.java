@@ -0,0 +1,181 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.data.repository;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * Compares the time needed to obtain the definitions for the datafiles in a
+ * Templates directory when starting cold, when starting from a serialized
+ * definitions cache, and when starting from a binary definitions snapshot.
+ *
+ * In addition to the datafiles in the Templates directory, a number of
+ * synthetic datafiles are generated, to approximate the volume of
+ * definitions found in a large team dataset.
+ *
+ * Usage: <tt>DefinitionsStartupBenchmark [templatesDir] [rounds]
+ * [syntheticFiles]</tt>
+ */
+public class DefinitionsStartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        File templatesDir = new File(args.length > 0 ? args[0] : "Templates");
+        int rounds = (args.length > 1 ? Integer.parseInt(args[1]) : 5);
+        int numSynthetic = (args.length > 2 ? Integer.parseInt(args[2]) : 200);
+
+        File syntheticDir = File.createTempFile("defns", "");
+        syntheticDir.delete();
+        syntheticDir.mkdir();
+
+        List<String> datafiles = new ArrayList<String>();
+        collectDatafiles(templatesDir, "", datafiles);
+        writeSyntheticDatafiles(syntheticDir, numSynthetic, datafiles);
+        URL[] templateURLs = new URL[] { templatesDir.toURI().toURL(),
+                syntheticDir.toURI().toURL() };
+
+        File serialized = File.createTempFile("defns", ".ser");
+        File snapshot = File.createTempFile("defns", ".snapshot");
+        try {
+            // populate both caches from a cold start
+            DataRepository data = newRepository(templateURLs);
+            int count = loadAll(data, datafiles);
+            data.writeSerializedDefinitions(new FileOutputStream(serialized));
+            data.saveDefinitionsSnapshot(snapshot);
+            data.shutDown();
+            System.out.println("Loaded " + count + " of " + datafiles.size()
+                    + " datafiles; serialized cache " + serialized.length()
+                    + " bytes, snapshot " + snapshot.length() + " bytes");
+
+            for (int round = 0; round < rounds; round++) {
+                data = newRepository(templateURLs);
+                long start = System.currentTimeMillis();
+                loadAll(data, datafiles);
+                long cold = System.currentTimeMillis() - start;
+                data.shutDown();
+
+                data = newRepository(templateURLs);
+                start = System.currentTimeMillis();
+                data.readSerializedDefinitions(new FileInputStream(serialized));
+                loadAll(data, datafiles);
+                long ser = System.currentTimeMillis() - start;
+                data.shutDown();
+
+                data = newRepository(templateURLs);
+                start = System.currentTimeMillis();
+                if (!data.loadDefinitionsSnapshot(snapshot))
+                    throw new Exception("Snapshot was not loaded");
+                loadAll(data, datafiles);
+                long snap = System.currentTimeMillis() - start;
+                data.shutDown();
+
+                System.out.println("round " + round + ": cold " + cold
+                        + " ms, serialized cache " + ser
+                        + " ms, binary snapshot " + snap + " ms");
+            }
+        } finally {
+            serialized.delete();
+            snapshot.delete();
+            FileUtils.deleteDirectory(syntheticDir, true);
+        }
+    }
+
+    private static DataRepository newRepository(URL[] templateURLs) {
+        DataRepository data = new DataRepository();
+        data.setDatafileSearchURLs(templateURLs);
+        return data;
+    }
+
+    private static int loadAll(DataRepository data, List<String> datafiles) {
+        int count = 0;
+        for (String datafile : datafiles) {
+            try {
+                Map defns = data.loadIncludedFileDefinitions(datafile);
+                if (defns != null)
+                    count++;
+            } catch (Exception e) {
+                // some datafiles depend on templates that are not present
+            }
+        }
+        return count;
+    }
+
+    /** Write a family of datafiles that include a common base file, with
+     * the same mix of numbers, strings, and formulas in each. */
+    private static void writeSyntheticDatafiles(File dir, int numFiles,
+            List<String> dest) throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(new File(dir,
+                "synthBase.txt")));
+        for (int i = 0; i < 100; i++) {
+            out.println("Base Value " + i + "==" + i + ";");
+            out.println("Base Sum " + i + "==[Base Value " + i
+                    + "] + [Value " + i + "];");
+        }
+        out.close();
+
+        for (int f = 0; f < numFiles; f++) {
+            String name = "synth" + f + "/dataFile.txt";
+            File file = new File(dir, name);
+            file.getParentFile().mkdirs();
+            out = new PrintWriter(new FileWriter(file));
+            out.println("#include <synthBase.txt>");
+            for (int i = 0; i < 100; i++) {
+                out.println("Value " + i + "==" + (f * i) + ";");
+                out.println("Label " + i + "==\"Label " + (i % 10) + ";");
+                out.println("Ratio " + i + "==[Value " + i
+                        + "] / [Base Sum " + i + "];");
+                out.println("Checked " + i + "==iff([Value " + i
+                        + "] > 10, sumFor(\"Value\", [Base Value " + i
+                        + "]), 0);");
+            }
+            out.close();
+            dest.add(name);
+        }
+    }
+
+    private static void collectDatafiles(File dir, String path,
+            List<String> dest) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+        for (File f : files) {
+            String name = f.getName();
+            if (f.isDirectory() && !name.equals("userdata"))
+                collectDatafiles(f, path + name + "/", dest);
+            else if (name.startsWith("dataFile") && name.endsWith(".txt"))
+                dest.add(path + name);
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.util.XMLUtils;
+
+public class EVCalculatorRollupTest extends TestCase {
+
+    private static final long START = 1767571200000L; // 2026-01-05
+
+    private static final long WEEK = 7L * 24 * 60 * 60 * 1000;
+
+    protected void tearDown() throws Exception {
+        EVCalculatorRollup.setParallelRecalc(true);
+    }
+
+    public void testConcurrentRecalcMatchesSerial() throws Exception {
+        EVCalculatorRollup.setParallelRecalc(false);
+        EVTaskListRollup team = buildTeam(12);
+        assertEquals(12 * 40, team.calculator.getEVLeaves().size());
+        String serial = team.getAsXML();
+
+        EVCalculatorRollup.setParallelRecalc(true);
+        for (int i = 0; i < 5; i++)
+            assertEquals(serial, buildTeam(12).getAsXML());
+    }
+
+    public void testNestedRollups() throws Exception {
+        EVCalculatorRollup.setParallelRecalc(false);
+        String serial = buildMasterProject().getAsXML();
+
+        EVCalculatorRollup.setParallelRecalc(true);
+        EVTaskListRollup master = buildMasterProject();
+        assertEquals(serial, master.getAsXML());
+
+        // recalculating again should produce the same results
+        master.recalc();
+        assertEquals(serial, master.getAsXML());
+    }
+
+    public void testErrorsArePropagated() throws Exception {
+        EVCalculatorRollup.setParallelRecalc(true);
+        List<EVTaskList> lists = new ArrayList<EVTaskList>();
+        Random r = new Random(1);
+        for (int i = 0; i < 6; i++) {
+            final boolean fail = (i == 2);
+            lists.add(new EVTaskListXML("Person " + i, XMLUtils.parse(
+                buildScheduleXml(r, i)).getDocumentElement()) {
+                public void recalc() {
+                    if (fail)
+                        throw new IllegalStateException("expected");
+                    super.recalc();
+                }
+            });
+        }
+        EVTaskListRollup rollup = new EVTaskListRollup("Team", lists);
+        try {
+            rollup.recalc();
+            fail("Expected exception");
+        } catch (IllegalStateException ise) {
+            assertEquals("expected", ise.getMessage());
+        }
+    }
+
+    public void testSubschedulesKnowTheyRunConcurrently() throws Exception {
+        EVCalculatorRollup.setParallelRecalc(true);
+        final List<Boolean> seen = Collections
+                .synchronizedList(new ArrayList<Boolean>());
+        List<EVTaskList> lists = new ArrayList<EVTaskList>();
+        Random r = new Random(1);
+        for (int i = 0; i < 6; i++) {
+            lists.add(new EVTaskListXML("Person " + i, XMLUtils.parse(
+                buildScheduleXml(r, i)).getDocumentElement()) {
+                public void recalc() {
+                    seen.add(EVCalculatorRollup.isConcurrentRecalc());
+                    super.recalc();
+                }
+            });
+        }
+        EVTaskListRollup rollup = new EVTaskListRollup("Team", lists);
+        seen.clear();
+        rollup.recalc();
+        assertEquals(6, seen.size());
+        assertFalse(seen.contains(Boolean.FALSE));
+        assertFalse(EVCalculatorRollup.isConcurrentRecalc());
+
+        EVCalculatorRollup.setParallelRecalc(false);
+        seen.clear();
+        rollup.recalc();
+        assertEquals(6, seen.size());
+        assertFalse(seen.contains(Boolean.TRUE));
+    }
+
+    private EVTaskListRollup buildMasterProject() throws Exception {
+        List<EVTaskList> teams = new ArrayList<EVTaskList>();
+        teams.add(buildTeamLists("Team A", 5));
+        teams.add(buildTeamLists("Team B", 7));
+        EVTaskListRollup result = new EVTaskListRollup("Master", teams);
+        result.recalc();
+        return result;
+    }
+
+    private EVTaskListRollup buildTeam(int size) throws Exception {
+        EVTaskListRollup result = buildTeamLists("Team", size);
+        result.recalc();
+        return result;
+    }
+
+    private EVTaskListRollup buildTeamLists(String name, int size)
+            throws Exception {
+        Random r = new Random(size);
+        List<EVTaskList> lists = new ArrayList<EVTaskList>();
+        for (int i = 0; i < size; i++)
+            lists.add(new EVTaskListXML(name + " " + i, XMLUtils.parse(
+                buildScheduleXml(r, i)).getDocumentElement()));
+        return new EVTaskListRollup(name, lists);
+    }
+
+    static String buildScheduleXml(Random r, int num) {
+        StringBuffer xml = new StringBuffer();
+        xml.append("<EVModel rct='true' tlid='person").append(num)
+                .append("'><task name='Person ").append(num)
+                .append("' pt='0' at='0'>");
+        long effDate = START + (8 + num % 5) * WEEK;
+        for (int t = 0; t < 40; t++) {
+            int plan = 60 + r.nextInt(600);
+            xml.append("<task name='Task ").append(t).append("' pt='")
+                    .append(plan);
+            if (t < 15) {
+                long done = START + (t * WEEK / 2);
+                xml.append("' at='").append(plan * (0.7 + r.nextDouble()))
+                        .append("' cd='").append(EVSchedule.saveDate(
+                            new Date(done)));
+            } else {
+                xml.append("' at='0");
+            }
+            xml.append("' tid='t").append(num).append('.').append(t)
+                    .append("'/>");
+        }
+        xml.append("</task><schedule eff='")
+                .append(EVSchedule.saveDate(new Date(effDate)))
+                .append("'>");
+        int hours = 10 + r.nextInt(20);
+        for (int w = 0; w < 30; w++) {
+            xml.append("<period end='").append(
+                EVSchedule.saveDate(new Date(START + w * WEEK)))
+                    .append("' pt='").append(w == 0 ? 0 : hours * 60)
+                    .append("' at='0' cpv='0' cev='0' cac='0'/>");
+        }
+        xml.append("</schedule></EVModel>");
+        return xml.toString();
+    }
+
+}
@@ -0,0 +1,82 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.sourceforge.processdash.util.XMLUtils;
+
+/**
+ * Measures the time needed to recalculate a team rollup, with and without
+ * concurrent recalculation of the team members' schedules.  Each member
+ * schedule can optionally pause for a few milliseconds during its recalc,
+ * to approximate the I/O performed by schedules that read time logs or
+ * refresh cached data.
+ *
+ * Usage: <tt>EVRollupRecalcBenchmark [teamSize] [ioMillis] [rounds]</tt>
+ */
+public class EVRollupRecalcBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int teamSize = (args.length > 0 ? Integer.parseInt(args[0]) : 60);
+        final long ioMillis = (args.length > 1 ? Long.parseLong(args[1]) : 0);
+        int rounds = (args.length > 2 ? Integer.parseInt(args[2]) : 10);
+
+        Random r = new Random(teamSize);
+        List<EVTaskList> lists = new ArrayList<EVTaskList>();
+        for (int i = 0; i < teamSize; i++)
+            lists.add(new EVTaskListXML("Person " + i, XMLUtils.parse(
+                EVCalculatorRollupTest.buildScheduleXml(r, i))
+                    .getDocumentElement()) {
+                public void recalc() {
+                    if (ioMillis > 0)
+                        try {
+                            Thread.sleep(ioMillis);
+                        } catch (InterruptedException ie) {}
+                    super.recalc();
+                }
+            });
+        EVTaskListRollup rollup = new EVTaskListRollup("Team", lists);
+
+        for (int parallel = 0; parallel < 2; parallel++) {
+            EVCalculatorRollup.setParallelRecalc(parallel == 1);
+            for (int i = 0; i < 3; i++)
+                rollup.recalc();
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                rollup.recalc();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.println((parallel == 1 ? "concurrent" : "serial")
+                    + ": " + (best / 1000000) + " ms, hash "
+                    + rollup.getAsXML().hashCode());
+        }
+    }
+
+}
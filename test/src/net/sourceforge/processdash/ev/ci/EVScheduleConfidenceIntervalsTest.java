@@ -0,0 +1,179 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev.ci;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.ev.EVMetrics;
+import net.sourceforge.processdash.ev.EVSchedule;
+import net.sourceforge.processdash.ev.EVScheduleRandom;
+import net.sourceforge.processdash.ev.EVScheduleRollup;
+
+import cern.jet.random.engine.RandomEngine;
+
+public class EVScheduleConfidenceIntervalsTest extends TestCase {
+
+    private static final long WEEK = 7L * 24 * 60 * 60 * 1000;
+
+    private static final double[] PERCENTAGES = { 0, 0.05, 0.15, 0.5, 0.7,
+            0.85, 0.95, 1 };
+
+    public void testSingleScheduleIsReproducible() {
+        EVSchedule s = buildSchedule(new Random(1), 0);
+        EVScheduleConfidenceIntervals base = simulate(s, false, 1, 42);
+        assertEquals(1, base.getThreadsUsed());
+        for (int threads = 2; threads <= 4; threads++)
+            assertSameIntervals(base, simulate(s, false, threads, 42), 0);
+    }
+
+    public void testRollupIsReproducible() {
+        List<EVSchedule> team = buildTeam(12);
+        EVScheduleConfidenceIntervals base = simulateRollup(team, 1, 42);
+        assertNotNull(base.getOptimizedForecastDateInterval());
+        assertNotNull(base.getIndividualDateInterval(11));
+
+        EVScheduleConfidenceIntervals parallel = simulateRollup(team, 4, 42);
+        assertEquals(4, parallel.getThreadsUsed());
+        assertSameIntervals(base, parallel, 12);
+        assertSameIntervals(base, simulateRollup(team, 3, 42), 12);
+    }
+
+    public void testSeedChangesResults() {
+        EVSchedule s = buildSchedule(new Random(1), 0);
+        ConfidenceInterval a = simulate(s, false, 2, 42).getCostInterval();
+        ConfidenceInterval b = simulate(s, false, 2, 43).getCostInterval();
+        assertFalse(a.getQuantile(0.5) == b.getQuantile(0.5));
+    }
+
+    public void testNonReplicableObjectsRunOnOneThread() {
+        EVSchedule s = buildSchedule(new Random(1), 0);
+        final EVScheduleRandom sr = new EVScheduleRandom(s);
+        EVScheduleConfidenceIntervals.Randomizable wrapper =
+            new EVScheduleConfidenceIntervals.Randomizable() {
+                public void randomize(RandomEngine u) {
+                    sr.randomize(u);
+                }};
+        List randomObjects = Arrays.asList(wrapper, sr);
+        EVScheduleConfidenceIntervals ci = new EVScheduleConfidenceIntervals(
+                sr, randomObjects, true, 4, 42);
+        assertEquals(1, ci.getThreadsUsed());
+        assertFalse(Double.isNaN(ci.getIndividualDateInterval(1)
+                .getQuantile(0.5)));
+        assertTrue(Double.isNaN(ci.getIndividualDateInterval(0)
+                .getQuantile(0.5)));
+    }
+
+    private void assertSameIntervals(EVScheduleConfidenceIntervals a,
+            EVScheduleConfidenceIntervals b, int numIndiv) {
+        assertSameQuantiles(a.getCostInterval(), b.getCostInterval());
+        assertSameQuantiles(a.getForecastDateInterval(),
+            b.getForecastDateInterval());
+        assertSameQuantiles(a.getOptimizedForecastDateInterval(),
+            b.getOptimizedForecastDateInterval());
+        for (int i = 0; i < numIndiv; i++)
+            assertSameQuantiles(a.getIndividualDateInterval(i),
+                b.getIndividualDateInterval(i));
+    }
+
+    private void assertSameQuantiles(ConfidenceInterval a,
+            ConfidenceInterval b) {
+        if (a == null) {
+            assertNull(b);
+            return;
+        }
+        for (double p : PERCENTAGES)
+            assertEquals(a.getQuantile(p), b.getQuantile(p), 0);
+    }
+
+    private static EVScheduleConfidenceIntervals simulate(EVSchedule s,
+            boolean keepIndivDates, int threads, long seed) {
+        EVScheduleRandom sr = new EVScheduleRandom(s);
+        return new EVScheduleConfidenceIntervals(sr, Collections
+                .singletonList(sr), keepIndivDates, threads, seed);
+    }
+
+    static EVScheduleConfidenceIntervals simulateRollup(List<EVSchedule> team,
+            int threads, long seed) {
+        EVScheduleRandom[] randSchedules = new EVScheduleRandom[team.size()];
+        for (int i = 0; i < randSchedules.length; i++)
+            randSchedules[i] = new EVScheduleRandom(team.get(i));
+        EVScheduleRollup sr = new EVScheduleRollup(randSchedules);
+        return new EVScheduleConfidenceIntervals(sr, Arrays
+                .asList(randSchedules), true, threads, seed);
+    }
+
+    /** Build a deterministic set of individual schedules, each with its own
+     * cost and time error intervals. */
+    static List<EVSchedule> buildTeam(int size) {
+        Random r = new Random(size);
+        List<EVSchedule> result = new ArrayList<EVSchedule>();
+        for (int i = 0; i < size; i++)
+            result.add(buildSchedule(r, i));
+        return result;
+    }
+
+    private static EVSchedule buildSchedule(Random r, int num) {
+        Date start = new Date(1767571200000L); // 2026-01-05
+        Date effDate = new Date(start.getTime() + (8 + num % 5) * WEEK);
+        double hours = 10 + r.nextInt(20);
+        EVSchedule s = new EVSchedule(start, new Date(start.getTime() + WEEK),
+                hours * 60);
+        s.setEffectiveDate(effDate);
+
+        EVMetrics m = s.getMetrics();
+        m.reset(start, effDate, null, null);
+        double remaining = 0;
+        for (int t = 0; t < 60; t++) {
+            double plan = 60 + r.nextInt(600);
+            if (t < 15)
+                m.addTask(plan, plan * (0.7 + r.nextDouble()), start, start);
+            else
+                remaining += plan;
+        }
+
+        LogCenteredConfidenceInterval cost = new LogCenteredConfidenceInterval();
+        LogCenteredConfidenceInterval timeErr =
+            new LogCenteredConfidenceInterval();
+        for (int i = 0; i < 12; i++) {
+            double plan = 60 + r.nextInt(300);
+            cost.addDataPoint(plan, plan * (0.6 + r.nextDouble()));
+            timeErr.addDataPoint(1.0, 0.8 + 0.4 * r.nextDouble());
+        }
+        cost.dataPointsComplete();
+        cost.setInput(remaining);
+        timeErr.dataPointsComplete();
+        m.setCostConfidenceInterval(cost);
+        m.setTimeErrConfidenceInterval(timeErr);
+        return s;
+    }
+
+}
@@ -0,0 +1,82 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev.ci;
+
+import java.util.Date;
+import java.util.List;
+
+import net.sourceforge.processdash.ev.EVSchedule;
+
+/**
+ * Measures the wall-clock time of the Monte Carlo schedule simulation for a
+ * team rollup, using increasing numbers of threads.  The team is generated
+ * deterministically, and the simulation uses a fixed seed, so every thread
+ * count should report the same forecast dates.
+ *
+ * Usage: <tt>EVScheduleSimulationBenchmark [teamSize] [maxThreads]
+ * [rounds]</tt>
+ */
+public class EVScheduleSimulationBenchmark {
+
+    public static void main(String[] args) {
+        int teamSize = (args.length > 0 ? Integer.parseInt(args[0]) : 40);
+        int maxThreads = (args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors());
+        int rounds = (args.length > 2 ? Integer.parseInt(args[2]) : 5);
+
+        List<EVSchedule> team = EVScheduleConfidenceIntervalsTest
+                .buildTeam(teamSize);
+
+        // warm up the JIT before taking measurements
+        for (int i = 0; i < 3; i++)
+            EVScheduleConfidenceIntervalsTest.simulateRollup(team, maxThreads,
+                42);
+
+        long baseline = 0;
+        for (int threads = 1; true; threads = Math.min(threads * 2,
+            maxThreads)) {
+            long best = Long.MAX_VALUE;
+            EVScheduleConfidenceIntervals ci = null;
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                ci = EVScheduleConfidenceIntervalsTest.simulateRollup(team,
+                    threads, 42);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            if (threads == 1)
+                baseline = best;
+
+            ConfidenceInterval date = ci.getForecastDateInterval();
+            System.out.println(threads + " thread(s): " + (best / 1000000)
+                    + " ms, speedup " + (Math.round(baseline * 100.0 / best)
+                    / 100.0) + "x, 70% range "
+                    + new Date((long) date.getLPI(0.7)) + " - "
+                    + new Date((long) date.getUPI(0.7)));
+            if (threads >= maxThreads)
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev.ci;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.ev.EVSchedule;
+
+import cern.jet.random.engine.MersenneTwister;
+
+public class MonteCarloConfidenceIntervalTest extends TestCase {
+
+    private static final long WEEK = 7L * 24 * 60 * 60 * 1000;
+
+    public void testSortAppended() {
+        Random r = new Random(7);
+        double[] special = { Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, 1.5 };
+        for (int trial = 0; trial < 200; trial++) {
+            DoubleList list = new DoubleList();
+            int sorted = r.nextInt(50);
+            int total = sorted + r.nextInt(50);
+            for (int i = 0; i < total; i++)
+                list.add(r.nextInt(10) == 0 ? special[r.nextInt(special.length)]
+                        : r.nextInt(20) / 4.0);
+            double[] expected = list.getAsArray();
+            Arrays.sort(expected);
+
+            // sort the prefix, then merge the rest
+            DoubleList prefix = new DoubleList();
+            double[] contents = list.getAsArray();
+            Arrays.sort(contents, 0, sorted);
+            for (double d : contents)
+                prefix.add(d);
+            prefix.sortAppended(sorted);
+            assertTrue(Arrays.equals(expected, prefix.getAsArray()));
+        }
+    }
+
+    public void testLognormalSumMatchesFullSort() {
+        for (double err : new double[] { 0, 0.5, 5 })
+            assertSameSamples(
+                addLognormalIntervals(new ConfidenceIntervalSum(), 10),
+                addLognormalIntervals(new FullSortSum(), 10), err);
+    }
+
+    public void testTimeErrSumMatchesFullSort() {
+        for (double err : new double[] { 0, 1e-5 })
+            assertSameSamples(
+                addTimeErrIntervals(new ConfidenceIntervalSum(), 6),
+                addTimeErrIntervals(new FullSortSum(), 6), err);
+    }
+
+    private void assertSameSamples(ConfidenceIntervalSum a,
+            ConfidenceIntervalSum b, double acceptableError) {
+        a.setAcceptableError(acceptableError);
+        a.intervalsComplete();
+        b.setAcceptableError(acceptableError);
+        b.intervalsComplete();
+        assertTrue(a.samples.size() >= 100);
+        assertTrue(Arrays.equals(a.samples.getAsArray(), b.samples
+                .getAsArray()));
+        for (double p = 0; p <= 1; p += 0.05)
+            assertEquals(a.getQuantile(p), b.getQuantile(p), 0);
+    }
+
+    /** Build the sum of several lognormal intervals, as a rollup of
+     * individual cost intervals would. */
+    static ConfidenceIntervalSum addLognormalIntervals(
+            ConfidenceIntervalSum sum, int count) {
+        Random r = new Random(count);
+        for (int i = 0; i < count; i++) {
+            LognormalConfidenceInterval ci = new LognormalConfidenceInterval();
+            for (int j = 0; j < 10; j++) {
+                double plan = 30 + r.nextInt(300);
+                ci.addDataPoint(plan, plan * (0.5 + r.nextDouble()));
+            }
+            ci.dataPointsComplete();
+            ci.setInput(1000 + r.nextInt(5000));
+            sum.addInterval(ci);
+        }
+        return sum;
+    }
+
+    /** Build the sum of several time error intervals, calculated from the
+     * history of synthetic schedules. */
+    static ConfidenceIntervalSum addTimeErrIntervals(
+            ConfidenceIntervalSum sum, int count) {
+        Random r = new Random(count);
+        for (int i = 0; i < count; i++) {
+            Date start = new Date(1767571200000L); // 2026-01-05
+            EVSchedule s = new EVSchedule(start, new Date(start.getTime()
+                    + WEEK), 1200);
+            s.getPlannedCompletionDate(1200 * 15, 1200 * 15);
+            for (int w = 0; w < 12; w++)
+                s.saveActualTime(new Date(start.getTime() + w * WEEK + 1000),
+                    1200 * (0.6 + 0.8 * r.nextDouble()));
+            s.setEffectiveDate(new Date(start.getTime() + 12 * WEEK));
+            sum.addInterval(new EVTimeErrConfidenceInterval(Collections
+                    .singletonList(s), false));
+        }
+        return sum;
+    }
+
+    /** A sum that uses the original simulation loop, which sorts all of the
+     * samples after each round. */
+    static class FullSortSum extends ConfidenceIntervalSum {
+
+        protected void runSimulation() {
+            u = new MersenneTwister();
+
+            int numSamples = getBaseNumSamples();
+            double lastResult = Double.NaN;
+            double lastError = getAcceptableError() * 2;
+            while (true) {
+                samples.ensureCapacity(numSamples);
+                for (int i = numSamples - samples.size(); i-- > 0;)
+                    samples.add(getSample());
+
+                samples.sort();
+                double result = getQuantile(0.15);
+
+                double error = Math.abs(result - lastResult);
+                if ((error <= getAcceptableError()
+                        && lastError <= getAcceptableError())
+                        || numSamples >= getMaxNumSamples())
+                    break;
+
+                numSamples = (int) (numSamples * getSampleMultiplier()
+                        + getSampleIncrement());
+                lastResult = result;
+                lastError = error;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.ev.ci;
+
+/**
+ * Compares the time needed for a {@link ConfidenceIntervalSum} to converge
+ * using the incremental merge of new samples, against the original loop
+ * that re-sorted every sample after each round.
+ *
+ * The sums are built from {@link LognormalConfidenceInterval} and
+ * {@link EVTimeErrConfidenceInterval} components, which is how rollups
+ * combine individual intervals.  A sum of uniformly distributed values is
+ * also measured, to show the cost of ordering the samples on its own
+ * (with a negative error tolerance, it always runs to the maximum number
+ * of samples).
+ *
+ * Usage: <tt>MonteCarloConvergenceBenchmark [numIntervals] [rounds]</tt>
+ */
+public class MonteCarloConvergenceBenchmark {
+
+    public static void main(String[] args) {
+        int count = (args.length > 0 ? Integer.parseInt(args[0]) : 20);
+        int rounds = (args.length > 1 ? Integer.parseInt(args[1]) : 5);
+
+        for (int r = 0; r < rounds; r++) {
+            for (double err : new double[] { 1.0, 0 }) {
+                compare("lognormal", err,
+                    MonteCarloConfidenceIntervalTest.addLognormalIntervals(
+                        new ConfidenceIntervalSum(), count),
+                    MonteCarloConfidenceIntervalTest.addLognormalIntervals(
+                        new MonteCarloConfidenceIntervalTest.FullSortSum(),
+                        count));
+                compare("time error", err,
+                    MonteCarloConfidenceIntervalTest.addTimeErrIntervals(
+                        new ConfidenceIntervalSum(), count),
+                    MonteCarloConfidenceIntervalTest.addTimeErrIntervals(
+                        new MonteCarloConfidenceIntervalTest.FullSortSum(),
+                        count));
+            }
+
+            // an interval whose samples are nearly free to generate, so
+            // the time spent ordering samples dominates
+            ConfidenceIntervalSum uniform = new ConfidenceIntervalSum();
+            uniform.addInterval(new UniformInterval());
+            ConfidenceIntervalSum uniformFull =
+                new MonteCarloConfidenceIntervalTest.FullSortSum();
+            uniformFull.addInterval(new UniformInterval());
+            compare("uniform", -1, uniform, uniformFull);
+        }
+    }
+
+    private static void compare(String type, double acceptableError,
+            ConfidenceIntervalSum incremental, ConfidenceIntervalSum full) {
+        long incrementalTime = time(incremental, acceptableError);
+        long fullTime = time(full, acceptableError);
+        if (incremental.getQuantile(0.15) != full.getQuantile(0.15))
+            throw new IllegalStateException("Results differ");
+
+        System.out.println(type + ", error " + acceptableError + " ("
+                + incremental.samples.size() + " samples): incremental "
+                + (incrementalTime / 1000) + " us, full sort "
+                + (fullTime / 1000) + " us");
+    }
+
+    private static class UniformInterval extends AbstractConfidenceInterval {
+        public double getQuantile(double percentage) {
+            return percentage;
+        }
+        public double getViability() {
+            return NOMINAL;
+        }
+    }
+
+    private static long time(ConfidenceIntervalSum sum,
+            double acceptableError) {
+        sum.setAcceptableError(acceptableError);
+        long start = System.nanoTime();
+        sum.intervalsComplete();
+        return System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,234 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.hier;
+
+import java.io.File;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class DashHierarchyTest extends TestCase {
+
+    private static final PropertyKey PROJECT_0 = new PropertyKey(
+            PropertyKey.ROOT, "Project 0");
+
+    private DashHierarchy hier;
+
+    protected void setUp() throws Exception {
+        hier = new DashHierarchy(null);
+        for (int p = 0; p < 3; p++) {
+            PropertyKey project = addNode(PropertyKey.ROOT, "Project " + p,
+                "Root", p + ":root");
+            for (int c = 0; c < 20; c++)
+                addNode(project, "Component " + c, "Node", p + ":" + c);
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        DashHierarchy.setUseIndexes(true);
+    }
+
+    public void testLookups() {
+        PropertyKey key = hier.findExistingKey("/Project 1/Component 17");
+        assertEquals("/Project 1/Component 17", key.path());
+        assertNull(hier.findExistingKey("/Project 1/Component 20"));
+        assertEquals("/Project 1", hier.findClosestKey(
+            "/Project 1/Component 20/Task").path());
+        assertEquals(key, hier.findKeyByNodeID("1:17"));
+        assertNull(hier.findKeyByNodeID("1:20"));
+        assertEquals(PROJECT_0.path().length(),
+            hier.getByID("Root").path().length());
+        assertEquals("/Project 0/Component 0".length(),
+            hier.getByID("Node").path().length());
+        assertNull(hier.getByID("Other"));
+        assertMatchesScan();
+    }
+
+    public void testIndexesFollowEdits() {
+        hier.findKeyByNodeID("2:5");
+
+        // rename a node with children
+        hier.setChildKey(PropertyKey.ROOT, "Renamed", 2);
+        assertNull(hier.findExistingKey("/Project 2/Component 5"));
+        PropertyKey renamed = hier.findExistingKey("/Renamed/Component 5");
+        assertNotNull(renamed);
+        assertEquals(renamed, hier.findKeyByNodeID("2:5"));
+        assertMatchesScan();
+
+        // delete a node
+        hier.removeChildKey(hier.findExistingKey("/Renamed"), 5);
+        assertNull(hier.findExistingKey("/Renamed/Component 5"));
+        assertNull(hier.findKeyByNodeID("2:5"));
+        assertMatchesScan();
+
+        // change IDs in place
+        Prop p = hier.pget(hier.findExistingKey("/Renamed/Component 7"));
+        p.setNodeID("2:77");
+        p.setID("Root");
+        assertNull(hier.findKeyByNodeID("2:7"));
+        assertEquals("/Renamed/Component 7",
+            hier.findKeyByNodeID("2:77").path());
+        assertEquals("/Renamed", hier.getByID("Root").path());
+        assertMatchesScan();
+
+        // a template ID matching the node name is preferred
+        addNode(PropertyKey.ROOT, "Root", "Root", "99:root");
+        assertEquals("/Root", hier.getByID("Root").path());
+        assertMatchesScan();
+    }
+
+    public void testCopyAndMerge() {
+        DashHierarchy copy = new DashHierarchy(null);
+        copy.copy(hier);
+        assertEquals("/Project 1/Component 3",
+            copy.findKeyByNodeID("1:3").path());
+
+        copy.removeChildKey(PropertyKey.ROOT, 1);
+        addNode(copy, copy.findExistingKey("/Project 0"), "New", "Node",
+            "0:new");
+        hier.findKeyByNodeID("1:3");
+        hier.mergeChangesFrom(copy);
+        assertNull(hier.findExistingKey("/Project 1"));
+        assertNull(hier.findKeyByNodeID("1:3"));
+        assertEquals("/Project 0/New", hier.findKeyByNodeID("0:new").path());
+        assertMatchesScan();
+
+        DashHierarchy clone = (DashHierarchy) hier.clone();
+        clone.remove(clone.findKeyByNodeID("0:new"));
+        assertNull(clone.findKeyByNodeID("0:new"));
+        assertNotNull(hier.findKeyByNodeID("0:new"));
+    }
+
+    public void testIDChangesInOtherHierarchies() {
+        DashHierarchy copy = new DashHierarchy(null);
+        copy.copy(hier);
+        hier.findKeyByNodeID("1:3");
+        copy.findKeyByNodeID("1:3");
+
+        // an in-place change to one hierarchy leaves the other's indexes
+        copy.pget(copy.findKeyByNodeID("1:3")).setNodeID("1:33");
+        assertTrue(hier.indexesAreCurrent());
+        assertFalse(copy.indexesAreCurrent());
+        assertEquals("/Project 1/Component 3",
+            copy.findKeyByNodeID("1:33").path());
+        assertNull(hier.findKeyByNodeID("1:33"));
+
+        // a clone shares its Props, so their changes reach both
+        DashHierarchy clone = (DashHierarchy) hier.clone();
+        clone.findKeyByNodeID("1:3");
+        hier.pget(hier.findKeyByNodeID("1:3")).setNodeID("1:34");
+        assertFalse(clone.indexesAreCurrent());
+        assertEquals("/Project 1/Component 3",
+            clone.findKeyByNodeID("1:34").path());
+        assertEquals("/Project 1/Component 3",
+            hier.findKeyByNodeID("1:34").path());
+
+        // a Prop stored in two unrelated hierarchies reports to both
+        PropertyKey key = copy.findExistingKey("/Project 2/Component 4");
+        Prop shared = copy.pget(key);
+        hier.put(hier.findExistingKey(key.path()), shared);
+        hier.findKeyByNodeID("2:4");
+        copy.findKeyByNodeID("2:4");
+        shared.setNodeID("2:44");
+        assertEquals(key, hier.findKeyByNodeID("2:44"));
+        assertEquals(key, copy.findKeyByNodeID("2:44"));
+        assertMatchesScan();
+    }
+
+    public void testLoad() throws Exception {
+        File f = File.createTempFile("state", ".xml");
+        try {
+            hier.saveXML(f.getPath(), null);
+            DashHierarchy loaded = new DashHierarchy(null);
+            loaded.loadXML(f.getPath(), new DashHierarchy(null));
+            assertEquals("/Project 2/Component 11",
+                loaded.findKeyByNodeID("2:11").path());
+            assertNotNull(loaded.findExistingKey("/Project 2/Component 11"));
+            hier = loaded;
+            assertMatchesScan();
+        } finally {
+            f.delete();
+        }
+
+        StringBuilder oldFormat = new StringBuilder();
+        for (PropertyKey key : hier.keySet())
+            oldFormat.append(key).append("=").append(hier.get(key))
+                    .append("\n");
+        DashHierarchy loaded = new DashHierarchy(null);
+        loaded.load(new StringReader(oldFormat.toString()), true);
+        assertNotNull(loaded.findExistingKey("/Project 2/Component 11"));
+        assertNotNull(loaded.getByID("Node"));
+        hier = loaded;
+        assertMatchesScan();
+    }
+
+    private PropertyKey addNode(PropertyKey parent, String name, String id,
+            String nodeID) {
+        return addNode(hier, parent, name, id, nodeID);
+    }
+
+    private PropertyKey addNode(DashHierarchy h, PropertyKey parent,
+            String name, String id, String nodeID) {
+        h.addChildKey(parent, name, -1);
+        PropertyKey key = new PropertyKey(parent, name);
+        Prop p = h.pget(key);
+        p.setID(id);
+        p.setNodeID(nodeID);
+        h.put(key, p);
+        return key;
+    }
+
+    private void assertMatchesScan() {
+        for (PropertyKey key : hier.keySet()) {
+            Prop p = hier.get(key);
+            DashHierarchy.setUseIndexes(true);
+            PropertyKey byPath = hier.findExistingKey(key.path());
+            PropertyKey byNodeID = hier.findKeyByNodeID(p.getNodeID());
+            String id = p.getID();
+            PropertyKey byID = (id == null ? null : hier.getByID(id));
+            DashHierarchy.setUseIndexes(false);
+            assertEquals(hier.findExistingKey(key.path()), byPath);
+            assertEquals(hier.findKeyByNodeID(p.getNodeID()), byNodeID);
+            if (id != null)
+                assertEquivalentMatch(hier.getByID(id), byID);
+        }
+        DashHierarchy.setUseIndexes(true);
+    }
+
+    /** getByID breaks ties between nodes with equally long paths
+     * arbitrarily, so only compare the qualities it looks for */
+    private void assertEquivalentMatch(PropertyKey expected,
+            PropertyKey actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            String id = hier.get(expected).getID();
+            assertEquals(id, hier.get(actual).getID());
+            assertEquals(id.equals(expected.name()), id.equals(actual.name()));
+            assertEquals(expected.path().length(), actual.path().length());
+        }
+    }
+
+}
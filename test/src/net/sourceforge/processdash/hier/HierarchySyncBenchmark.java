@@ -0,0 +1,222 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.hier;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+
+import net.sourceforge.processdash.DashController;
+import net.sourceforge.processdash.ProcessDashboard;
+import net.sourceforge.processdash.data.StringData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.team.sync.HierarchySynchronizer;
+
+/**
+ * Measures a full team project sync with the {@link HierarchySynchronizer},
+ * with and without the node ID, template ID and child name indexes in
+ * {@link DashHierarchy}.
+ *
+ * The hierarchy holds a synced team project, plus a number of other
+ * projects of the same size.  The synthetic WBS dump matches the synced
+ * project, except that one node in ten is new.  The sync runs in "what if"
+ * mode, so every run starts from the same state and performs the same
+ * changes.
+ *
+ * Usage: <tt>HierarchySyncBenchmark [numNodes] [otherProjects] [rounds]</tt>
+ */
+public class HierarchySyncBenchmark {
+
+    private static final String PROCESS_ID = "Bench";
+
+    private static final String PROJECT = "/Project";
+
+    public static void main(String[] args) throws Exception {
+        int numNodes = (args.length > 0 ? Integer.parseInt(args[0]) : 20000);
+        int otherProjects = (args.length > 1 ? Integer.parseInt(args[1]) : 4);
+        int rounds = (args.length > 2 ? Integer.parseInt(args[2]) : 3);
+
+        installDashboardTemplates();
+        File dump = File.createTempFile("projDump", ".xml");
+        DataRepository data = new DataRepository();
+        try {
+            writeDump(dump, numNodes);
+            DashHierarchy hier = buildHierarchy(data, numNodes, otherProjects);
+            System.out.println("Hierarchy with " + hier.size()
+                    + " nodes, WBS with " + numNodes + " nodes");
+
+            for (int round = 0; round < rounds; round++) {
+                DashHierarchy.setUseIndexes(false);
+                long scan = runSync(hier, data, dump, numNodes);
+                DashHierarchy.setUseIndexes(true);
+                long indexed = runSync(hier, data, dump, numNodes);
+                System.out.println("round " + round + ": sync scanning "
+                        + scan + " ms, indexed " + indexed + " ms");
+
+                DashHierarchy.setUseIndexes(false);
+                scan = lookupNodeIDs(hier);
+                DashHierarchy.setUseIndexes(true);
+                indexed = lookupNodeIDs(hier);
+                System.out.println("round " + round + ": " + NUM_LOOKUPS
+                        + " node ID lookups scanning " + scan
+                        + " ms, indexed " + indexed + " ms");
+            }
+        } finally {
+            data.shutDown();
+            dump.delete();
+        }
+    }
+
+    /** Look up nodes by ID, as the data and time log message handlers do
+     * for imported changes. */
+    private static long lookupNodeIDs(DashHierarchy hier) {
+        long start = System.currentTimeMillis();
+        int size = hier.size();
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            String nodeID = Integer.toString(1 + (i * 7919) % size);
+            if (hier.findKeyByNodeID(nodeID) == null)
+                throw new IllegalStateException("Missing node " + nodeID);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static final int NUM_LOOKUPS = 2000;
+
+    private static long runSync(DashHierarchy hier, DataRepository data,
+            File dump, int numNodes) throws Exception {
+        System.gc();
+        long start = System.currentTimeMillis();
+        HierarchySynchronizer sync = new HierarchySynchronizer(PROJECT,
+                PROCESS_ID, dump.toURI().toURL(), null,
+                HierarchySynchronizer.SYNC_TEAM, null, true, null, false,
+                null, hier, data);
+        sync.setWhatIfMode(true);
+        sync.setForceFullSync(true);
+        sync.sync();
+        long result = System.currentTimeMillis() - start;
+
+        int expectedChanges = (numNodes + 4) / 10;
+        if (sync.getChanges().size() != expectedChanges)
+            throw new IllegalStateException("Expected " + expectedChanges
+                    + " changes, saw " + sync.getChanges().size());
+        return result;
+    }
+
+    /** The synchronizer looks up the phases of the process among the
+     * templates known to the dashboard.  Register an empty template list,
+     * without starting a dashboard. */
+    private static void installDashboardTemplates() throws Exception {
+        Field f = Class.forName("sun.misc.Unsafe").getDeclaredField(
+            "theUnsafe");
+        f.setAccessible(true);
+        Object unsafe = f.get(null);
+        ProcessDashboard dash = (ProcessDashboard) unsafe.getClass()
+                .getMethod("allocateInstance", Class.class)
+                .invoke(unsafe, ProcessDashboard.class);
+        Field templates = ProcessDashboard.class.getDeclaredField(
+            "templates");
+        templates.setAccessible(true);
+        templates.set(dash, new DashHierarchy(null));
+        DashController.setDashboard(dash);
+    }
+
+    /** Build a hierarchy containing the synced project and several others
+     * like it.  One WBS node in ten is left out of the synced project. */
+    private static DashHierarchy buildHierarchy(DataRepository data,
+            int numNodes, int otherProjects) {
+        DashHierarchy hier = new DashHierarchy(null);
+        int nodeID = 0;
+        for (int p = 0; p <= otherProjects; p++) {
+            String projectName = (p == 0 ? "Project" : "Other Project " + p);
+            PropertyKey project = addNode(hier, PropertyKey.ROOT,
+                projectName, PROCESS_ID + "/TeamRoot", ++nodeID);
+            data.putValue(project.path() + "/Project_ID", StringData
+                    .create("proj" + p));
+
+            PropertyKey component = null;
+            for (int id = 1; id < numNodes; id++) {
+                if (p == 0 && id % 10 == 5)
+                    continue;
+                if (isComponent(id)) {
+                    component = addNode(hier, project, "Component " + id,
+                        PROCESS_ID + "/TeamNode", ++nodeID);
+                    putWbsID(data, component, id);
+                } else {
+                    PropertyKey child = addNode(hier, component, "Document "
+                            + id, PROCESS_ID + "/TeamNode", ++nodeID);
+                    putWbsID(data, child, id);
+                }
+            }
+        }
+        return hier;
+    }
+
+    private static boolean isComponent(int id) {
+        return (id % 25) == 1;
+    }
+
+    private static PropertyKey addNode(DashHierarchy hier,
+            PropertyKey parent, String name, String templateID, int nodeID) {
+        hier.addChildKey(parent, name, -1);
+        PropertyKey key = new PropertyKey(parent, name);
+        Prop p = hier.pget(key);
+        p.setID(templateID);
+        p.setNodeID(Integer.toString(nodeID));
+        hier.put(key, p);
+        return key;
+    }
+
+    private static void putWbsID(DataRepository data, PropertyKey key,
+            int id) {
+        data.putValue(key.path() + "/WBS_Unique_ID", StringData.create(
+            Integer.toString(id)));
+    }
+
+    private static void writeDump(File f, int numNodes) throws IOException {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(f), "UTF-8"));
+        out.println("<?xml version='1.0' encoding='UTF-8'?>");
+        out.println("<project name='Project' id='0' tid='1234:0'"
+                + " dumpFileVersion='3' dumpTimestamp='@1500000000000'>");
+        for (int id = 1; id < numNodes; id++) {
+            if (isComponent(id)) {
+                if (id > 1)
+                    out.println("  </component>");
+                out.println("  <component name='Component " + id + "' id='"
+                        + id + "' tid='1234:" + id + "'>");
+            } else {
+                out.println("    <document name='Document " + id + "' id='"
+                        + id + "' tid='1234:" + id + "'/>");
+            }
+        }
+        out.println("  </component>");
+        out.println("</project>");
+        out.close();
+    }
+
+}
@@ -0,0 +1,175 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.log.defects;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import net.sourceforge.processdash.hier.DashHierarchy;
+import net.sourceforge.processdash.hier.Prop;
+import net.sourceforge.processdash.hier.PropertyKey;
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * Measures the time needed to compute "defects injected/removed by phase"
+ * totals across a hierarchy containing many defect logs, with and without
+ * the in-memory defect log cache.
+ *
+ * The generated dataset is deterministic, so results from different runs
+ * and different builds can be compared.
+ *
+ * Usage: <tt>DefectAnalyzerBenchmark [numLogs] [defectsPerLog] [rounds]</tt>
+ */
+public class DefectAnalyzerBenchmark {
+
+    private static final String[] PHASES = { "Planning", "Design",
+            "Design Review", "Code", "Code Review", "Compile", "Test",
+            "Postmortem" };
+
+    public static void main(String[] args) throws Exception {
+        int numLogs = (args.length > 0 ? Integer.parseInt(args[0]) : 2000);
+        int perLog = (args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        int rounds = (args.length > 2 ? Integer.parseInt(args[2]) : 5);
+
+        File dir = File.createTempFile("defects", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            DashHierarchy props = buildHierarchy(dir, numLogs, perLog);
+            DefectAnalyzer.setDataDirectory(dir.getPath());
+            System.out.println("Generated " + numLogs + " defect logs with "
+                    + perLog + " defects each");
+
+            for (int round = 0; round < rounds; round++) {
+                DefectLogCache.clear();
+                long start = System.currentTimeMillis();
+                PhaseCounter uncached = countByPhase(props);
+                long cold = System.currentTimeMillis() - start;
+
+                start = System.currentTimeMillis();
+                PhaseCounter cached = countByPhase(props);
+                long warm = System.currentTimeMillis() - start;
+
+                if (!uncached.counts.equals(cached.counts))
+                    throw new Exception("Cached results differ");
+                System.out.println("round " + round + ": parsing " + cold
+                        + " ms, cached " + warm + " ms (" + cached.total
+                        + " defects)");
+            }
+        } finally {
+            DefectLogCache.clear();
+            FileUtils.deleteDirectory(dir, true);
+        }
+    }
+
+    private static PhaseCounter countByPhase(DashHierarchy props) {
+        PhaseCounter counter = new PhaseCounter();
+        DefectAnalyzer.run(props, PropertyKey.ROOT, true, counter);
+        return counter;
+    }
+
+    private static DashHierarchy buildHierarchy(File dir, int numLogs,
+            int perLog) {
+        DashHierarchy props = new DashHierarchy(null);
+        Random r = new Random(42);
+        int projects = Math.max(1, numLogs / 100);
+        for (int p = 0; p < projects; p++)
+            props.addChildKey(PropertyKey.ROOT, "Project " + p, p);
+
+        for (int i = 0; i < numLogs; i++) {
+            PropertyKey parent = props.getChildKey(PropertyKey.ROOT, i
+                    % projects);
+            int pos = props.getNumChildren(parent);
+            props.addChildKey(parent, "Task " + i, pos);
+            PropertyKey key = props.getChildKey(parent, pos);
+
+            String logName = i + ".def";
+            Prop prop = props.pget(key);
+            prop.setDefectLog(logName);
+            props.put(key, prop);
+
+            DefectLog log = new DefectLog(new File(dir, logName).getPath(),
+                    key.path(), null);
+            Defect[] defects = new Defect[perLog];
+            for (int j = 0; j < perLog; j++)
+                defects[j] = newDefect(r, j);
+            writeDefects(log, defects);
+        }
+        return props;
+    }
+
+    private static void writeDefects(DefectLog log, Defect[] defects) {
+        // DefectLog.writeDefect would update defect counts in the data
+        // repository, which this benchmark does not need.
+        try {
+            Writer out = new FileWriter(log.getDefectLogFilename());
+            for (Defect d : defects)
+                out.write(d.toString() + System.getProperty("line.separator"));
+            out.close();
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    private static Defect newDefect(Random r, int num) {
+        int injected = r.nextInt(PHASES.length);
+        int removed = injected + r.nextInt(PHASES.length - injected);
+        Defect d = new Defect();
+        d.number = Integer.toString(num + 1);
+        d.date = new Date(1300000000000L + r.nextInt(1000000) * 1000L);
+        d.defect_type = "Type " + r.nextInt(10);
+        d.phase_injected = PHASES[injected];
+        d.phase_removed = PHASES[removed];
+        d.fix_time = Integer.toString(1 + r.nextInt(60));
+        d.fix_defect = " ";
+        d.description = "Generated defect " + num;
+        return d;
+    }
+
+    private static class PhaseCounter implements DefectAnalyzer.Task {
+
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+
+        int total;
+
+        public void analyze(String path, Defect d) {
+            increment(d.phase_injected + "/Injected", d.fix_count);
+            increment(d.phase_removed + "/Removed", d.fix_count);
+            total++;
+        }
+
+        private void increment(String key, int count) {
+            Integer old = counts.get(key);
+            counts.put(key, (old == null ? count : old + count));
+        }
+    }
+
+}
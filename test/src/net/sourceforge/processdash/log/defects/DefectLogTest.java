@@ -0,0 +1,180 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.log.defects;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.hier.DashHierarchy;
+import net.sourceforge.processdash.hier.Prop;
+import net.sourceforge.processdash.hier.PropertyKey;
+
+public class DefectLogTest extends TestCase {
+
+    private File file;
+
+    private DataRepository data;
+
+    private DefectLog log;
+
+    protected void setUp() throws Exception {
+        DefectLogCache.clear();
+        file = File.createTempFile("defects", ".def");
+        data = new DataRepository();
+        log = new DefectLog(file.getPath(), "/Project", data);
+    }
+
+    protected void tearDown() throws Exception {
+        data.shutDown();
+        file.delete();
+        DefectLogCache.clear();
+    }
+
+    public void testWriteThrough() throws Exception {
+        log.writeDefect(newDefect("Code", "Test"));
+        log.writeDefect(newDefect("Design", "Code"));
+        assertEquals(2, log.readDefects().length);
+        assertEquals(1, getCount("Code/Defects Injected"));
+        assertEquals(1, getCount("Code/Defects Removed"));
+
+        // a fresh parse of the file should agree with the cached model
+        DefectLogCache.clear();
+        Defect[] defects = log.readDefects();
+        assertEquals(2, defects.length);
+        assertEquals("1", defects[0].number);
+        assertEquals("Code", defects[0].phase_injected);
+        assertEquals("2", defects[1].number);
+        assertEquals("Design", defects[1].phase_injected);
+    }
+
+    public void testUpdateAndDelete() throws Exception {
+        log.writeDefect(newDefect("Code", "Test"));
+        log.writeDefect(newDefect("Design", "Code"));
+
+        Defect d = log.getDefect("1");
+        d.phase_removed = "Compile";
+        log.writeDefect(d);
+        assertEquals("Compile", log.getDefect("1").phase_removed);
+        assertEquals(0, getCount("Test/Defects Removed"));
+        assertEquals(1, getCount("Compile/Defects Removed"));
+
+        log.deleteDefect("2");
+        assertNull(log.getDefect("2"));
+        assertEquals(1, log.readDefects().length);
+        assertEquals(0, getCount("Design/Defects Injected"));
+    }
+
+    public void testReturnedDefectsAreCopies() throws Exception {
+        Defect d = newDefect("Code", "Test");
+        log.writeDefect(d);
+        d.description = "changed after saving";
+        log.readDefects()[0].description = "changed after reading";
+        log.getDefect("1").description = "changed after getting";
+
+        assertEquals("description", log.getDefect("1").description);
+        assertEquals("description", log.getCachedDefects()[0].description);
+    }
+
+    public void testCopiesDoNotShareMutableState() throws Exception {
+        log.writeDefect(newDefect("Code", "Test"));
+        Defect d = log.getDefect("1");
+        d.injected.phaseName = "Design";
+        d.removed.phaseID = "123";
+        d.date.setTime(0);
+
+        Defect cached = log.getCachedDefects()[0];
+        assertEquals("Code", cached.injected.phaseName);
+        assertNull(cached.removed.phaseID);
+        assertEquals(1300000000000L, cached.date.getTime());
+    }
+
+    public void testAnalyzerTasksCannotChangeCache() throws Exception {
+        log.writeDefect(newDefect("Code", "Test"));
+        DashHierarchy props = new DashHierarchy(null);
+        props.addChildKey(PropertyKey.ROOT, "Project", 0);
+        PropertyKey key = props.getChildKey(PropertyKey.ROOT, 0);
+        Prop prop = props.pget(key);
+        prop.setDefectLog(file.getName());
+        props.put(key, prop);
+        DefectAnalyzer.setDataDirectory(file.getParent());
+
+        DefectAnalyzer.run(props, PropertyKey.ROOT, true,
+            new DefectAnalyzer.Task() {
+                public void analyze(String path, Defect d) {
+                    d.phase_injected = "Design";
+                    d.injected.legacyPhase = "Design";
+                }});
+
+        Defect cached = log.getCachedDefects()[0];
+        assertEquals("Code", cached.phase_injected);
+        assertEquals("Code", cached.injected.legacyPhase);
+    }
+
+    public void testExternalChangesAreNoticed() throws Exception {
+        log.writeDefect(newDefect("Code", "Test"));
+        assertEquals(1, log.readDefects().length);
+
+        // replace the file, as a sync or restore operation might
+        Defect d7 = newDefect("Design", "Code");
+        d7.number = "7";
+        Defect d8 = newDefect("Code", "Test");
+        d8.number = "8";
+        String newLine = System.getProperty("line.separator");
+        FileWriter out = new FileWriter(file);
+        out.write(d7.toString() + newLine + d8.toString() + newLine);
+        out.close();
+        file.setLastModified(file.lastModified() + 5000);
+
+        Defect[] defects = log.readDefects();
+        assertEquals(2, defects.length);
+        assertEquals("7", defects[0].number);
+        assertNull(log.getDefect("1"));
+    }
+
+    private Defect newDefect(String injected, String removed) {
+        Defect d = new Defect();
+        d.date = new Date(1300000000000L);
+        d.defect_type = "Function";
+        d.phase_injected = injected;
+        d.injected = new DefectPhase(injected);
+        d.phase_removed = removed;
+        d.removed = new DefectPhase(removed);
+        d.fix_time = "5";
+        d.fix_defect = " ";
+        d.description = "description";
+        return d;
+    }
+
+    private int getCount(String name) {
+        DoubleData val = (DoubleData) data.getValue("/Project/" + name);
+        return (val == null ? 0 : val.getInteger());
+    }
+
+}
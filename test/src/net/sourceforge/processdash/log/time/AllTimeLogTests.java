@@ -42,6 +42,8 @@ public class AllTimeLogTests {
         suite.addTestSuite(TimeLogModificationsTest.class);
         suite.addTestSuite(DefaultTimeLoggingModelTest.class);
         suite.addTestSuite(TimingMetricsRecorderTest.class);
+        suite.addTestSuite(TimeLogIndexTest.class);
+        suite.addTestSuite(ImportedTimeLogManagerTest.class);
         //$JUnit-END$
         return suite;
     }
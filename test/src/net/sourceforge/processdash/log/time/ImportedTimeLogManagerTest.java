@@ -0,0 +1,125 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.log.time;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
+
+import net.sourceforge.processdash.util.StringMapper;
+
+public class ImportedTimeLogManagerTest extends AbstractTimeLogTest {
+
+    private static final String PREFIX = "/Imported/1234";
+
+    private static final String[] PATHS = { PREFIX, "/Imported", "/",
+            PREFIX + "/Project", PREFIX + "/Non Project/Marketing",
+            "/Imported/5678" };
+
+    private static final Date[] DATES = { null, new Date(1092921342000L),
+            new Date(1095000000000L), new Date(1099584707000L) };
+
+    private ImportedTimeLogManager mgr;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        mgr = ImportedTimeLogManager.getInstance();
+        mgr.importTimeLog(PREFIX, openFile(TIMELOG1_XML));
+    }
+
+    protected void tearDown() throws Exception {
+        mgr.closeTimeLogs(PREFIX);
+        super.tearDown();
+    }
+
+    public void testQueriesMatchXml() throws Exception {
+        for (String path : PATHS)
+            for (Date from : DATES)
+                for (Date to : DATES)
+                    assertSameEntries(readXml(path, from, to),
+                        mgr.getImportedTimeLogEntries(path, from, to));
+
+        assertTimeLogHashcodes(TIMELOG1_CONTENTS, unprefix(mgr
+                .getImportedTimeLogEntries(PREFIX)));
+    }
+
+    public void testStoredInColumnarFile() throws Exception {
+        File f = getImportedFile();
+        assertTrue(f.getName().endsWith(TimeLogIndex.SUFFIX));
+        assertEquals(TIMELOG1_CONTENTS.length, TimeLogIndex.open(f).size());
+
+        mgr.closeTimeLogs(PREFIX);
+        assertFalse(f.exists());
+        assertNull(mgr.getImportedTimeLogEntries(PREFIX));
+    }
+
+    public void testReimportReplacesFile() throws Exception {
+        File oldFile = getImportedFile();
+        mgr.importTimeLog(PREFIX, openFile(TIMELOG2_XML));
+        assertFalse(oldFile.exists());
+        assertTimeLogHashcodes(TIMELOG2_CONTENTS, unprefix(mgr
+                .getImportedTimeLogEntries(PREFIX)));
+    }
+
+    private File getImportedFile() {
+        return ((TimeLogIndex) mgr.importedLogs.get(PREFIX)).getIndexFile();
+    }
+
+    private Iterator readXml(String path, Date from, Date to)
+            throws IOException {
+        Iterator entries = new TimeLogEntryVOPathFilter(new TimeLogReader(
+                openFile(TIMELOG1_XML), false), new StringMapper() {
+            public String getString(String s) {
+                return PREFIX + s;
+            }
+        });
+        return new TimeLogIteratorFilter(entries, path, from, to);
+    }
+
+    private Iterator unprefix(Iterator entries) {
+        return new TimeLogEntryVOPathFilter(entries, new StringMapper() {
+            public String getString(String s) {
+                return s.substring(PREFIX.length());
+            }
+        });
+    }
+
+    private void assertSameEntries(Iterator expected, Iterator actual) {
+        if (!expected.hasNext()) {
+            assertTrue(actual == null || !actual.hasNext());
+            return;
+        }
+        assertNotNull(actual);
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            TimeLogEntry e = (TimeLogEntry) expected.next();
+            TimeLogEntry a = (TimeLogEntry) actual.next();
+            assertTimeLogEntryContents(e, a);
+        }
+        assertFalse(actual.hasNext());
+    }
+
+}
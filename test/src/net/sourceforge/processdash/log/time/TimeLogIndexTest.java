@@ -0,0 +1,139 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+package net.sourceforge.processdash.log.time;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
+
+import net.sourceforge.processdash.util.FileUtils;
+
+public class TimeLogIndexTest extends AbstractTimeLogTest {
+
+    private static final String[] PATHS = { null, "/Project",
+            "/Non Project/Marketing", "/Project/EFV Gap Analysis/Gap Analysis",
+            "/No Such Project" };
+
+    private static final Date[] DATES = { null, new Date(1092921342000L),
+            new Date(1095000000000L), new Date(1099584707000L) };
+
+    private File tempDir;
+
+    private File timeLogFile;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        tempDir = createTempDir();
+        timeLogFile = new File(tempDir, "timelog.xml");
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(tempDir, true);
+        super.tearDown();
+    }
+
+    public void testFilterMatchesXml() throws Exception {
+        copyFile(tempDir, TIMELOG1_XML, "timelog.xml");
+        BaseTimeLog timeLog = new BaseTimeLog(timeLogFile);
+        assertAllQueriesMatch(timeLog);
+        assertTrue(new File(tempDir, "timelog.xml.idx").isFile());
+
+        // a new time log object should be able to use the saved index
+        assertAllQueriesMatch(new BaseTimeLog(timeLogFile));
+    }
+
+    public void testIndexRebuiltWhenXmlChanges() throws Exception {
+        copyFile(tempDir, TIMELOG1_XML, "timelog.xml");
+        BaseTimeLog timeLog = new BaseTimeLog(timeLogFile);
+        assertTimeLogHashcodes(TIMELOG1_CONTENTS, timeLog.filter(null, null,
+            null));
+
+        copyFile(tempDir, TIMELOG2_XML, "timelog.xml");
+        timeLogFile.setLastModified(timeLogFile.lastModified() + 5000);
+        assertTimeLogHashcodes(TIMELOG2_CONTENTS, timeLog.filter(null, null,
+            null));
+        assertTimeLogHashcodes(TIMELOG2_CONTENTS, new BaseTimeLog(timeLogFile)
+                .filter(null, null, null));
+        assertAllQueriesMatch(timeLog);
+    }
+
+    public void testSameLengthRewriteWithinTimestampResolution()
+            throws Exception {
+        copyFile(tempDir, TIMELOG1_XML, "timelog.xml");
+        long modTime = System.currentTimeMillis() / 1000 * 1000;
+        timeLogFile.setLastModified(modTime);
+        BaseTimeLog timeLog = new BaseTimeLog(timeLogFile);
+        assertAllQueriesMatch(timeLog);
+
+        // save a change that leaves the length and timestamp unchanged
+        String contents = new String(FileUtils.slurpContents(
+            new FileInputStream(timeLogFile), true), "UTF-8");
+        FileWriter out = new FileWriter(timeLogFile);
+        out.write(contents.replace("Marketing", "Marketeer"));
+        out.close();
+        timeLogFile.setLastModified(modTime);
+        assertAllQueriesMatch(timeLog);
+    }
+
+    public void testCorruptIndexIsIgnored() throws Exception {
+        copyFile(tempDir, TIMELOG1_XML, "timelog.xml");
+        new BaseTimeLog(timeLogFile).filter(null, null, null);
+
+        FileWriter out = new FileWriter(new File(tempDir, "timelog.xml.idx"));
+        out.write("garbage");
+        out.close();
+        assertAllQueriesMatch(new BaseTimeLog(timeLogFile));
+    }
+
+    private void assertAllQueriesMatch(BaseTimeLog timeLog)
+            throws IOException {
+        for (String path : PATHS)
+            for (Date from : DATES)
+                for (Date to : DATES)
+                    assertSameEntries(
+                        readXml(path, from, to),
+                        timeLog.filter(path, from, to));
+    }
+
+    private Iterator readXml(String path, Date from, Date to)
+            throws IOException {
+        return new TimeLogIteratorFilter(new TimeLogReader(timeLogFile), path,
+                from, to);
+    }
+
+    private void assertSameEntries(Iterator expected, Iterator actual) {
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            TimeLogEntryVO e = (TimeLogEntryVO) expected.next();
+            TimeLogEntryVO a = (TimeLogEntryVO) actual.next();
+            assertTimeLogEntryContents(e, a);
+            assertEquals(e.getChangeFlag(), a.getChangeFlag());
+        }
+        assertFalse(actual.hasNext());
+    }
+
+}
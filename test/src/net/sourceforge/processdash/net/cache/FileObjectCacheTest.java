@@ -0,0 +1,182 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.net.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.util.FileUtils;
+
+import org.w3c.dom.Element;
+
+public class FileObjectCacheTest extends TestCase {
+
+    private File dir;
+
+    private FileObjectCache cache;
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("objcache", "");
+        dir.delete();
+        dir.mkdir();
+        cache = new FileObjectCache(dir, ".obj");
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir, true);
+    }
+
+    public void testRepeatedReadsShareObject() throws Exception {
+        int id = createObject("foo", "hello");
+        cache = new FileObjectCache(dir, ".obj");
+
+        CachedObject a = cache.getCachedObject(id, -1);
+        assertEquals("hello", a.getString("UTF-8"));
+        assertSame(a.getString("UTF-8"), a.getString("UTF-8"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertSame(a, cache.getCachedObject(id, -1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertNull(cache.getCachedObject(id + 1, -1));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    public void testStoredObjectIsServedFromMemory() throws Exception {
+        TestObject obj = new TestObject(cache, "foo");
+        obj.store("one".getBytes("UTF-8"));
+        assertSame(obj, cache.getCachedObject(obj.getID(), -1));
+
+        obj.store("two".getBytes("UTF-8"));
+        CachedObject read = cache.getCachedObject(obj.getID(), -1);
+        assertSame(obj, read);
+        assertEquals("two", read.getString("UTF-8"));
+        assertEquals(0, cache.getMissCount());
+    }
+
+    public void testChangedFilesAreReread() throws Exception {
+        int id = createObject("foo", "hello");
+        CachedObject a = cache.getCachedObject(id, -1);
+
+        File df = cache.makeDataFile(id);
+        FileOutputStream out = new FileOutputStream(df);
+        out.write("goodbye!".getBytes("UTF-8"));
+        out.close();
+        df.setLastModified(df.lastModified() + 5000);
+
+        CachedObject b = cache.getCachedObject(id, -1);
+        assertNotSame(a, b);
+        assertEquals("goodbye!", b.getString("UTF-8"));
+
+        File f = cache.makeFile(id);
+        f.setLastModified(f.lastModified() + 5000);
+        assertNotSame(b, cache.getCachedObject(id, -1));
+    }
+
+    public void testDelete() throws Exception {
+        int id = createObject("foo", "hello");
+        assertNotNull(cache.getCachedObject(id, -1));
+        cache.deleteCachedObject(id);
+        assertNull(cache.getCachedObject(id, -1));
+    }
+
+    public void testRefreshOldObjects() throws Exception {
+        int id = createObject("foo", "hello");
+        TestObject a = (TestObject) cache.getCachedObject(id, -1);
+        assertEquals(0, a.refreshCount);
+
+        assertSame(a, cache.getCachedObject(id, 0));
+        assertEquals(1, a.refreshCount);
+        assertSame(a, cache.getCachedObject(id, 1));
+        assertEquals(1, a.refreshCount);
+    }
+
+    public void testEviction() throws Exception {
+        int a = createObject("foo", "a");
+        int b = createObject("foo", "b");
+        int c = createObject("foo", "c");
+        cache = new FileObjectCache(dir, ".obj");
+        cache.memoryCacheSize = 2;
+
+        CachedObject objA = cache.getCachedObject(a, -1);
+        cache.getCachedObject(b, -1);
+        assertSame(objA, cache.getCachedObject(a, -1));
+        cache.getCachedObject(c, -1);
+
+        // b was least recently used, so it should have been evicted
+        assertSame(objA, cache.getCachedObject(a, -1));
+        long misses = cache.getMissCount();
+        cache.getCachedObject(b, -1);
+        assertEquals(misses + 1, cache.getMissCount());
+
+        // objects larger than the byte budget are not kept at all
+        cache.memoryCacheBytes = 1;
+        CachedObject objC = cache.getCachedObject(c, -1);
+        assertNotSame(objC, cache.getCachedObject(c, -1));
+    }
+
+    public void testGetObjectsByType() throws Exception {
+        createObject("foo", "a");
+        createObject("bar", "b");
+        createObject("foo", "c");
+        assertEquals(2, cache.getObjects("foo").length);
+        assertEquals(1, cache.getObjectIDs("bar").length);
+        assertEquals(3, cache.getObjects(null).length);
+    }
+
+    private int createObject(String type, String contents) throws Exception {
+        TestObject obj = new TestObject(cache, type);
+        obj.store(contents.getBytes("UTF-8"));
+        return obj.getID();
+    }
+
+    public static class TestObject extends CachedObject {
+
+        int refreshCount;
+
+        public TestObject(ObjectCache c, String type) {
+            super(c, type);
+            refreshDate = new Date();
+        }
+
+        public TestObject(ObjectCache c, int id, Element xml,
+                CachedDataProvider dataProvider) {
+            super(c, id, xml, dataProvider);
+        }
+
+        public boolean refresh() {
+            refreshCount++;
+            refreshDate = new Date();
+            store();
+            return true;
+        }
+    }
+
+}
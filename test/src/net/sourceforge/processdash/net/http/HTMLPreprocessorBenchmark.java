@@ -0,0 +1,167 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.net.http;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * Measures the throughput of the HTML preprocessor on the report pages that
+ * ship in the Templates directory.
+ *
+ * Include directives are resolved against the Templates directory, and
+ * cached in memory as the dashboard's template loader would; links to
+ * dynamic content (such as CGI scripts) are replaced with empty text.  Pages
+ * that cannot be processed outside a running dashboard are skipped.
+ *
+ * To simulate larger pages, each page can be repeated several times.
+ *
+ * Usage: <tt>HTMLPreprocessorBenchmark [templatesDir] [rounds] [copies]</tt>
+ */
+public class HTMLPreprocessorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        File templates = new File(args.length > 0 ? args[0] : "Templates");
+        int rounds = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        int copies = (args.length > 2 ? Integer.parseInt(args[2]) : 1);
+
+        List<File> files = new ArrayList<File>();
+        findPages(templates, files);
+        ContentSource web = new TemplateContent(templates);
+        DataRepository data = new DataRepository();
+
+        // load each page once, and discard the ones we can't process
+        List<String> uris = new ArrayList<String>();
+        List<String> pages = new ArrayList<String>();
+        List<Long> timestamps = new ArrayList<Long>();
+        long totalChars = 0;
+        for (File f : files) {
+            String uri = f.getPath().substring(templates.getPath().length())
+                    .replace(File.separatorChar, '/');
+            String content = new String(FileUtils.slurpContents(
+                new FileInputStream(f), true), "UTF-8");
+            StringBuilder repeated = new StringBuilder();
+            for (int i = 0; i < copies; i++)
+                repeated.append(content);
+            content = repeated.toString();
+            try {
+                preprocess(web, data, uri, f.lastModified(), content);
+                uris.add(uri);
+                pages.add(content);
+                timestamps.add(f.lastModified());
+                totalChars += content.length();
+            } catch (Exception e) {
+            }
+        }
+        System.out.println("Processing " + pages.size() + " of "
+                + files.size() + " pages (" + totalChars + " chars)");
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            long outChars = 0;
+            int outHash = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                String out = preprocess(web, data, uris.get(i),
+                    timestamps.get(i), pages.get(i));
+                outChars += out.length();
+                outHash = outHash * 31 + out.hashCode();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println("round " + round + ": "
+                    + (elapsed / 1000000) + " ms, "
+                    + (pages.size() * 1000000000L / elapsed) + " pages/sec ("
+                    + outChars + " chars, hash " + outHash + ")");
+        }
+    }
+
+    private static String preprocess(ContentSource web, DataRepository data,
+            String uri, long timestamp, String content) throws IOException {
+        Map env = new HashMap();
+        env.put("REQUEST_URI", uri);
+        env.put("SCRIPT_NAME", uri);
+        env.put("QUERY_STRING", "");
+        env.put("PATH_TRANSLATED", "/Project");
+        HTMLPreprocessor p = new HTMLPreprocessor(web, data
+                .getSubcontext("/Project"), env);
+        p.setForeachParams(false);
+        p.setDefaultEchoEncoding("html");
+        p.setTemplateLocation(uri, timestamp);
+        return p.preprocess(content);
+    }
+
+    private static void findPages(File dir, List<File> result) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+        for (File f : files) {
+            if (f.isDirectory())
+                findPages(f, result);
+            else if (f.getName().endsWith(".shtm"))
+                result.add(f);
+        }
+    }
+
+    private static class TemplateContent implements ContentSource {
+
+        private File templates;
+
+        private Map<String, byte[]> contents = new HashMap<String, byte[]>();
+
+        TemplateContent(File templates) {
+            this.templates = templates;
+        }
+
+        public byte[] getContent(String context, String uri, boolean raw)
+                throws IOException {
+            if (!uri.startsWith("/")) {
+                int slashPos = context.lastIndexOf('/');
+                uri = context.substring(0, slashPos + 1) + uri;
+            }
+            int queryPos = uri.indexOf('?');
+            if (queryPos != -1)
+                uri = uri.substring(0, queryPos);
+            byte[] result = contents.get(uri);
+            if (result == null) {
+                File f = new File(templates, uri);
+                if (f.isFile())
+                    result = FileUtils.slurpContents(new FileInputStream(f),
+                        true);
+                else
+                    result = new byte[0];
+                contents.put(uri, result);
+            }
+            return result;
+        }
+    }
+
+}
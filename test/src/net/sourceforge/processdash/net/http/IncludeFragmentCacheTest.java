@@ -0,0 +1,109 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.net.http;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.data.DoubleData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+
+public class IncludeFragmentCacheTest extends TestCase {
+
+    private static final byte[] CONTENT = "fragment".getBytes();
+
+    private DataRepository data;
+
+    private IncludeFragmentCache cache;
+
+    protected void setUp() throws Exception {
+        data = new DataRepository();
+        data.putValue("/Project/Foo", new DoubleData(1));
+        cache = new IncludeFragmentCache(data);
+    }
+
+    public void testCachedFragmentIsReturned() throws Exception {
+        cache.put("key", CONTENT, servedRecorder());
+        assertTrue(Arrays.equals(CONTENT, cache.get("key", null)));
+        assertNull(cache.get("other", null));
+    }
+
+    public void testDependenciesAreAddedToParent() throws Exception {
+        cache.put("key", CONTENT, servedRecorder());
+
+        IncludeFragmentCache.Recorder parent =
+                new IncludeFragmentCache.Recorder();
+        cache.get("key", parent);
+        parent.markServed();
+        assertTrue(parent.getCacheableDataValues().containsKey(
+            "/Project/Foo"));
+    }
+
+    public void testUncacheableFragmentsAreNotStored() throws Exception {
+        // a fragment that was not generated by the preprocessor
+        IncludeFragmentCache.Recorder r = new IncludeFragmentCache.Recorder();
+        cache.put("key", CONTENT, r);
+        assertNull(cache.get("key", null));
+
+        // a fragment that depended on something other than data
+        r = servedRecorder();
+        r.markUncacheable();
+        cache.put("key", CONTENT, r);
+        assertNull(cache.get("key", null));
+
+        // a fragment that included an uncacheable fragment
+        r = servedRecorder();
+        r.addAll(new IncludeFragmentCache.Recorder());
+        cache.put("key", CONTENT, r);
+        assertNull(cache.get("key", null));
+        assertEquals(0, cache.size());
+    }
+
+    public void testFragmentIsDiscardedWhenDataChanges() throws Exception {
+        cache.put("key", CONTENT, servedRecorder());
+        assertNotNull(cache.get("key", null));
+
+        data.putValue("/Project/Foo", new DoubleData(2));
+        for (int i = 0; i < 100 && cache.get("key", null) != null; i++)
+            Thread.sleep(50);
+        assertNull(cache.get("key", null));
+    }
+
+    public void testStaleFragmentIsNotStored() throws Exception {
+        IncludeFragmentCache.Recorder r = servedRecorder();
+        data.putValue("/Project/Foo", new DoubleData(3));
+        cache.put("key", CONTENT, r);
+        assertNull(cache.get("key", null));
+    }
+
+    private IncludeFragmentCache.Recorder servedRecorder() {
+        IncludeFragmentCache.Recorder r = new IncludeFragmentCache.Recorder();
+        r.dataRead("/Project/Foo", data.getSimpleValue("/Project/Foo"));
+        r.markServed();
+        return r;
+    }
+
+}
@@ -0,0 +1,166 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.team.sync;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.w3c.dom.Element;
+
+import net.sourceforge.processdash.data.StringData;
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.hier.DashHierarchy;
+import net.sourceforge.processdash.hier.Prop;
+import net.sourceforge.processdash.hier.PropertyKey;
+import net.sourceforge.processdash.util.CompactDocumentBuilder;
+import net.sourceforge.processdash.util.XMLUtils;
+
+public class SyncSubtreeDigestsTest extends TestCase {
+
+    private static final String PROJECT = "/Project";
+
+    private static final String COMPONENT = PROJECT + "/Component";
+
+    private static final String[] DATA_NAMES = { "WBS_Unique_ID" };
+
+    private static final String[] TYPE_NAMES = { "Time" };
+
+    private DashHierarchy hierarchy;
+
+    private DataRepository data;
+
+    protected void setUp() throws Exception {
+        hierarchy = new DashHierarchy(null);
+        PropertyKey project = addNode(PropertyKey.ROOT, "Project", "Root");
+        PropertyKey component = addNode(project, "Component", "Node");
+        addNode(component, "Task", "Node");
+        data = new DataRepository();
+        data.putValue(COMPONENT + "/WBS_Unique_ID", StringData.create("1"));
+    }
+
+    protected void tearDown() throws Exception {
+        data.shutDown();
+    }
+
+    public void testUnchangedSubtreeIsDetected() throws Exception {
+        Element xml = parse("Task", "1.5");
+        SyncSubtreeDigests previous = recordComponent(xml);
+
+        SyncSubtreeDigests next = newDigests();
+        assertTrue(next.isUnchanged(previous, "1", COMPONENT, component(xml)));
+    }
+
+    public void testChangedXmlIsDetected() throws Exception {
+        SyncSubtreeDigests previous = recordComponent(parse("Task", "1.5"));
+
+        Element xml = parse("Task", "2.5");
+        assertFalse(newDigests().isUnchanged(previous, "1", COMPONENT,
+            component(xml)));
+        xml = parse("Renamed Task", "1.5");
+        assertFalse(newDigests().isUnchanged(previous, "1", COMPONENT,
+            component(xml)));
+    }
+
+    public void testChangedLocalStateIsDetected() throws Exception {
+        Element xml = parse("Task", "1.5");
+        SyncSubtreeDigests previous = recordComponent(xml);
+
+        data.putValue(COMPONENT + "/WBS_Unique_ID", StringData.create("9"));
+        assertFalse(newDigests().isUnchanged(previous, "1", COMPONENT,
+            component(xml)));
+        data.putValue(COMPONENT + "/WBS_Unique_ID", StringData.create("1"));
+        assertTrue(newDigests().isUnchanged(previous, "1", COMPONENT,
+            component(xml)));
+
+        PropertyKey task = hierarchy.findExistingKey(COMPONENT + "/Task");
+        hierarchy.remove(task);
+        assertFalse(newDigests().isUnchanged(previous, "1", COMPONENT,
+            component(xml)));
+    }
+
+    public void testDigestsAreCarriedForward() throws Exception {
+        Element xml = parse("Task", "1.5");
+        SyncSubtreeDigests previous = recordComponent(xml);
+
+        SyncSubtreeDigests next = newDigests();
+        assertTrue(next.isUnchanged(previous, "1", COMPONENT, component(xml)));
+        assertTrue(newDigests().isUnchanged(next, "1", COMPONENT,
+            component(xml)));
+    }
+
+    public void testRecordedDigestsRequireMatchingTimestamp()
+            throws Exception {
+        Date timestamp = new Date(1000000000000L);
+        SyncSubtreeDigests digests = recordComponent(parse("Task", "1.5"));
+        SyncSubtreeDigests.record(PROJECT, digests, timestamp);
+
+        assertSame(digests, SyncSubtreeDigests.getRecorded(PROJECT, "key",
+            new Date(timestamp.getTime())));
+        assertNull(SyncSubtreeDigests.getRecorded(PROJECT, "key",
+            new Date(timestamp.getTime() + 1)));
+        assertNull(SyncSubtreeDigests.getRecorded(PROJECT, "otherKey",
+            timestamp));
+        assertNull(SyncSubtreeDigests.getRecorded(PROJECT, "key", null));
+    }
+
+    private SyncSubtreeDigests recordComponent(Element xml) {
+        SyncSubtreeDigests result = newDigests();
+        result.recordSyncedNode("1", COMPONENT, component(xml));
+        return result;
+    }
+
+    private SyncSubtreeDigests newDigests() {
+        return new SyncSubtreeDigests("key", hierarchy, data, DATA_NAMES,
+                TYPE_NAMES);
+    }
+
+    private PropertyKey addNode(PropertyKey parent, String name,
+            String templateID) {
+        int pos = hierarchy.getNumChildren(parent);
+        hierarchy.addChildKey(parent, name, pos);
+        PropertyKey key = hierarchy.getChildKey(parent, pos);
+        Prop prop = hierarchy.pget(key);
+        prop.setID(templateID);
+        hierarchy.put(key, prop);
+        return key;
+    }
+
+    private Element parse(String taskName, String taskTime) throws Exception {
+        String xml = "<project name='Project'>"
+                + "<component id='1' name='Component'>"
+                + "<task id='2' name='" + taskName + "' time='" + taskTime
+                + "'/></component></project>";
+        return CompactDocumentBuilder.parse(
+            new ByteArrayInputStream(xml.getBytes("UTF-8")))
+                .getDocumentElement();
+    }
+
+    private Element component(Element project) {
+        return (Element) XMLUtils.getChildElements(project).get(0);
+    }
+
+}
@@ -0,0 +1,372 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import net.sourceforge.processdash.tool.bridge.ResourceBridgeConstants;
+import net.sourceforge.processdash.tool.bridge.ResourceFilterFactory;
+import net.sourceforge.processdash.tool.bridge.impl.DashboardInstanceStrategy;
+import net.sourceforge.processdash.tool.bridge.impl.FileResourceCollection;
+import net.sourceforge.processdash.tool.bridge.report.CollectionReport;
+import net.sourceforge.processdash.tool.bridge.report.ListingHashcodeReport;
+import net.sourceforge.processdash.tool.bridge.report.ResourceContentStream;
+import net.sourceforge.processdash.tool.bridge.report.ResourceDeltaStream;
+import net.sourceforge.processdash.tool.bridge.report.ResourceSignatureStream;
+import net.sourceforge.processdash.tool.bridge.report.XmlCollectionListing;
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * A minimal resource bridge server, which runs in the current process and
+ * serves the contents of a {@link FileResourceCollection}.
+ * 
+ * The server implements the subset of the bridge protocol needed to sync a
+ * collection up and down, and counts the number of bytes transferred in
+ * request and response bodies.
+ */
+public class InProcessBridgeServer implements ResourceBridgeConstants,
+        HttpHandler {
+
+    private FileResourceCollection collection;
+
+    private String serverVersion;
+
+    private boolean deltaTransfers;
+
+    private HttpServer server;
+
+    private long bytesReceived, bytesSent;
+
+    private List<String> actions;
+
+
+    /**
+     * @param directory
+     *            the directory holding the collection to serve
+     * @param serverVersion
+     *            the protocol version the server should advertise
+     * @param deltaTransfers
+     *            true if the server should advertise and support the block
+     *            delta actions
+     */
+    public InProcessBridgeServer(File directory, String serverVersion,
+            boolean deltaTransfers) throws IOException {
+        this.collection = new FileResourceCollection(directory, false);
+        this.collection.setStrategy(DashboardInstanceStrategy.INSTANCE);
+        this.serverVersion = serverVersion;
+        this.deltaTransfers = deltaTransfers;
+        this.actions = new ArrayList<String>();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0),
+            0);
+        this.server.createContext("/bridge", this);
+        this.server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/bridge";
+    }
+
+    public FileResourceCollection getCollection() {
+        return collection;
+    }
+
+    public synchronized long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public synchronized long getBytesSent() {
+        return bytesSent;
+    }
+
+    public synchronized List<String> getActions() {
+        return new ArrayList<String>(actions);
+    }
+
+    public synchronized void resetCounters() {
+        bytesReceived = bytesSent = 0;
+        actions.clear();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = FileUtils.slurpContents(exchange.getRequestBody(),
+                true);
+            Map<String, String[]> params = new HashMap<String, String[]>();
+            Map<String, byte[]> files = new HashMap<String, byte[]>();
+            parseQuery(exchange.getRequestURI().getRawQuery(), params);
+            String contentType = exchange.getRequestHeaders().getFirst(
+                "Content-Type");
+            if (contentType != null && contentType.startsWith("multipart/"))
+                parseMultipart(contentType, body, params, files);
+            else if (body.length > 0)
+                parseQuery(new String(body, "UTF-8"), params);
+
+            String action = getParam(params, ACTION_PARAM);
+            synchronized (this) {
+                bytesReceived += body.length;
+                actions.add(action);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            String type = handleAction(action, params, files, out);
+            if (type == null) {
+                sendResponse(exchange, 400, "text/plain", out);
+            } else {
+                sendResponse(exchange, 200, type, out);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendResponse(exchange, 500, "text/plain",
+                new ByteArrayOutputStream());
+        }
+    }
+
+    private String handleAction(String action, Map<String, String[]> params,
+            Map<String, byte[]> files, OutputStream out) throws IOException {
+        if (HASHCODE_ACTION.equals(action))
+            return runReport(ListingHashcodeReport.INSTANCE, params, out);
+
+        else if (LIST_ACTION.equals(action))
+            return runReport(XmlCollectionListing.INSTANCE, params, out);
+
+        else if (DOWNLOAD_ACTION.equals(action))
+            return runReport(ResourceContentStream.INSTANCE, params, out);
+
+        else if (isDeltaAction(action) && !deltaTransfers)
+            return null;
+
+        else if (SIGNATURES_ACTION.equals(action))
+            return runReport(ResourceSignatureStream.INSTANCE, params, out);
+
+        else if (DELTA_DOWNLOAD_ACTION.equals(action)) {
+            ResourceDeltaStream.write(collection, ResourceSignatureStream
+                    .parseSignatures(new ByteArrayInputStream(files
+                            .get(DELTA_SIGNATURES_PARAM))), out);
+            return "application/octet-stream";
+
+        } else if (UPLOAD_ACTION.equals(action)) {
+            List<String> uploaded = new ArrayList<String>();
+            byte[] zip = files.get(UPLOAD_ZIP_PARAM);
+            if (zip != null) {
+                ZipInputStream zipIn = new ZipInputStream(
+                        new ByteArrayInputStream(zip));
+                ZipEntry e;
+                while ((e = zipIn.getNextEntry()) != null) {
+                    saveResource(e.getName(), FileUtils.slurpContents(zipIn,
+                        false), getModTime(params, e.getName(), e.getTime()));
+                    uploaded.add(e.getName());
+                }
+            }
+            for (Map.Entry<String, byte[]> e : files.entrySet()) {
+                if (!UPLOAD_ZIP_PARAM.equals(e.getKey())) {
+                    saveResource(e.getKey(), e.getValue(), getModTime(params,
+                        e.getKey(), 0));
+                    uploaded.add(e.getKey());
+                }
+            }
+            XmlCollectionListing.INSTANCE.runReport(collection, uploaded, out);
+            return XmlCollectionListing.INSTANCE.getContentType();
+
+        } else if (DELTA_UPLOAD_ACTION.equals(action)) {
+            List<String> applied = ResourceDeltaStream.apply(collection,
+                new ByteArrayInputStream(files.get(DELTA_UPLOAD_PARAM)));
+            XmlCollectionListing.INSTANCE.runReport(collection, applied, out);
+            return XmlCollectionListing.INSTANCE.getContentType();
+
+        } else if (DELETE_ACTION.equals(action)) {
+            String[] names = params.get(DELETE_FILE_PARAM);
+            if (names != null)
+                for (String name : names)
+                    collection.deleteResource(name);
+            return "text/plain";
+
+        } else if (ACQUIRE_LOCK_ACTION.equals(action)
+                || RELEASE_LOCK_ACTION.equals(action)
+                || PING_LOCK_ACTION.equals(action)
+                || ASSERT_LOCK_ACTION.equals(action)) {
+            return "text/plain";
+        }
+
+        return null;
+    }
+
+    private static boolean isDeltaAction(String action) {
+        return SIGNATURES_ACTION.equals(action)
+                || DELTA_DOWNLOAD_ACTION.equals(action)
+                || DELTA_UPLOAD_ACTION.equals(action);
+    }
+
+    private String runReport(CollectionReport report,
+            Map<String, String[]> params, OutputStream out) throws IOException {
+        List<String> resources = ResourceFilterFactory.getForRequest(params)
+                .filterCollection(collection);
+        report.runReport(collection, resources, out);
+        return report.getContentType();
+    }
+
+    private void saveResource(String name, byte[] data, long modTime)
+            throws IOException {
+        OutputStream out = collection.getOutputStream(name, modTime);
+        if (out != null) {
+            out.write(data);
+            out.close();
+        }
+    }
+
+    private long getModTime(Map<String, String[]> params, String name,
+            long defaultTime) {
+        String time = getParam(params, UPLOAD_TIMESTAMP_PARAM_PREFIX + name);
+        return (time == null ? defaultTime : Long.parseLong(time));
+    }
+
+    private void sendResponse(HttpExchange exchange, int status, String type,
+            ByteArrayOutputStream out) throws IOException {
+        byte[] data = out.toByteArray();
+        exchange.getResponseHeaders().set(VERSION_HEADER, serverVersion);
+        if (deltaTransfers)
+            exchange.getResponseHeaders().set(CAPABILITIES_HEADER,
+                DELTA_TRANSFER_CAPABILITY);
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, data.length == 0 ? -1
+                : data.length);
+        if (data.length > 0) {
+            OutputStream resp = exchange.getResponseBody();
+            resp.write(data);
+            resp.close();
+        }
+        exchange.close();
+        synchronized (this) {
+            bytesSent += data.length;
+        }
+    }
+
+
+    private static String getParam(Map<String, String[]> params, String name) {
+        String[] values = params.get(name);
+        return (values == null ? null : values[0]);
+    }
+
+    private static void addParam(Map<String, String[]> params, String name,
+            String value) {
+        String[] values = params.get(name);
+        if (values == null) {
+            values = new String[] { value };
+        } else {
+            String[] more = new String[values.length + 1];
+            System.arraycopy(values, 0, more, 0, values.length);
+            more[values.length] = value;
+            values = more;
+        }
+        params.put(name, values);
+    }
+
+    private static void parseQuery(String query, Map<String, String[]> params)
+            throws IOException {
+        if (query == null)
+            return;
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq != -1)
+                addParam(params, URLDecoder.decode(param.substring(0, eq),
+                    "UTF-8"), URLDecoder.decode(param.substring(eq + 1),
+                    "UTF-8"));
+        }
+    }
+
+    /** Parse a request body in the format written by ClientHttpRequest */
+    private static void parseMultipart(String contentType, byte[] body,
+            Map<String, String[]> params, Map<String, byte[]> files)
+            throws IOException {
+        String boundary = contentType.substring(contentType
+                .indexOf("boundary=") + 9);
+        byte[] delim = ("\r\n--" + boundary).getBytes("US-ASCII");
+        byte[] data = new byte[body.length + 2];
+        data[0] = '\r';
+        data[1] = '\n';
+        System.arraycopy(body, 0, data, 2, body.length);
+
+        int pos = indexOf(data, delim, 0);
+        while (pos != -1) {
+            int partStart = pos + delim.length;
+            int next = indexOf(data, delim, partStart);
+            if (next == -1)
+                break;
+            int headerEnd = indexOf(data, "\r\n\r\n".getBytes("US-ASCII"),
+                partStart);
+            String headers = new String(data, partStart, headerEnd
+                    - partStart, "UTF-8");
+            int contentStart = headerEnd + 4;
+            String name = getHeaderAttr(headers, "name");
+            if (headers.contains("filename=")) {
+                byte[] content = new byte[next - contentStart];
+                System.arraycopy(data, contentStart, content, 0,
+                    content.length);
+                files.put(name, content);
+            } else {
+                addParam(params, name, new String(data, contentStart, next
+                        - contentStart, "UTF-8"));
+            }
+            pos = next;
+        }
+    }
+
+    private static String getHeaderAttr(String headers, String attr) {
+        int start = headers.indexOf(" " + attr + "=\"") + attr.length() + 3;
+        return headers.substring(start, headers.indexOf('"', start));
+    }
+
+    private static int indexOf(byte[] data, byte[] target, int from) {
+        outer: for (int i = from; i <= data.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++)
+                if (data[i + j] != target[j])
+                    continue outer;
+            return i;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,218 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.sourceforge.processdash.tool.bridge.ResourceBridgeConstants;
+import net.sourceforge.processdash.tool.bridge.impl.DashboardInstanceStrategy;
+import net.sourceforge.processdash.tool.bridge.impl.FileResourceCollection;
+import net.sourceforge.processdash.util.FileUtils;
+
+public class ResourceBridgeClientDeltaTest extends TestCase implements
+        ResourceBridgeConstants {
+
+    private static final String SERVER_VERSION = "4.2.0";
+
+    private static final String TIMELOG = "timelog.xml";
+
+    private static final String DATAFILE = "0.dat";
+
+    private File serverDir, localDir;
+
+    private InProcessBridgeServer server;
+
+    private FileResourceCollection local;
+
+    private Random random;
+
+    protected void setUp() throws Exception {
+        serverDir = createTempDir("server");
+        localDir = createTempDir("local");
+        random = new Random(42);
+        writeFile(serverDir, TIMELOG, timeLog(0, 4000));
+        writeFile(serverDir, DATAFILE, dataFile(2000));
+    }
+
+    protected void tearDown() throws Exception {
+        if (server != null)
+            server.stop();
+        FileUtils.deleteDirectory(serverDir, true);
+        FileUtils.deleteDirectory(localDir, true);
+    }
+
+    public void testSyncDownWithDeltas() throws Exception {
+        long legacyBytes = measureSyncDown(false);
+        assertFalse(server.getActions().contains(DELTA_DOWNLOAD_ACTION));
+        assertTrue(server.getActions().contains(DOWNLOAD_ACTION));
+
+        long deltaBytes = measureSyncDown(true);
+        assertTrue(server.getActions().contains(DELTA_DOWNLOAD_ACTION));
+        assertFalse(server.getActions().contains(DOWNLOAD_ACTION));
+        assertTrue("delta " + deltaBytes + " vs whole " + legacyBytes,
+            deltaBytes * 5 < legacyBytes);
+    }
+
+    public void testSyncUpWithDeltas() throws Exception {
+        long legacyBytes = measureSyncUp(false);
+        assertFalse(server.getActions().contains(SIGNATURES_ACTION));
+        assertFalse(server.getActions().contains(DELTA_UPLOAD_ACTION));
+
+        long deltaBytes = measureSyncUp(true);
+        assertTrue(server.getActions().contains(SIGNATURES_ACTION));
+        assertTrue(server.getActions().contains(DELTA_UPLOAD_ACTION));
+        assertFalse(server.getActions().contains(UPLOAD_ACTION));
+        assertTrue("delta " + deltaBytes + " vs whole " + legacyBytes,
+            deltaBytes * 5 < legacyBytes);
+    }
+
+    public void testNewFilesAreSentWhole() throws Exception {
+        ResourceBridgeClient client = startServer(true);
+        assertTrue(client.syncDown());
+        assertSameContents(TIMELOG);
+        assertSameContents(DATAFILE);
+
+        writeFile(localDir, "1.dat", dataFile(100));
+        local.recheckAllFileTimestamps();
+        client.acquireLock("test user");
+        assertTrue(client.syncUp());
+        assertSameContents("1.dat");
+        assertFalse(client.syncUp());
+    }
+
+    /**
+     * Populate the local directory, then make a small change on the server
+     * and measure the bytes needed to sync it down again.
+     */
+    private long measureSyncDown(boolean deltas) throws Exception {
+        ResourceBridgeClient client = startServer(deltas);
+        client.syncDown();
+        assertSameContents(TIMELOG);
+
+        appendTimeLogEntries(serverDir);
+        server.getCollection().recheckAllFileTimestamps();
+        server.resetCounters();
+        client.syncDown();
+        assertSameContents(TIMELOG);
+        assertSameContents(DATAFILE);
+        return server.getBytesSent() + server.getBytesReceived();
+    }
+
+    /**
+     * Populate the local directory, then make a small change locally and
+     * measure the bytes needed to sync it up to the server.
+     */
+    private long measureSyncUp(boolean deltas) throws Exception {
+        ResourceBridgeClient client = startServer(deltas);
+        client.syncDown();
+        client.acquireLock("test user");
+
+        appendTimeLogEntries(localDir);
+        local.recheckAllFileTimestamps();
+        server.resetCounters();
+        assertTrue(client.syncUp());
+        server.getCollection().recheckAllFileTimestamps();
+        assertSameContents(TIMELOG);
+        assertSameContents(DATAFILE);
+        return server.getBytesSent() + server.getBytesReceived();
+    }
+
+    private ResourceBridgeClient startServer(boolean deltas)
+            throws IOException {
+        if (server != null)
+            server.stop();
+        FileUtils.deleteDirectory(localDir, true);
+        localDir.mkdirs();
+        server = new InProcessBridgeServer(serverDir, SERVER_VERSION, deltas);
+
+        local = new FileResourceCollection(localDir, false);
+        local.setStrategy(DashboardInstanceStrategy.INSTANCE);
+        return new ResourceBridgeClient(local, server.getUrl(), null);
+    }
+
+    private void appendTimeLogEntries(File dir) throws IOException {
+        // overwrite the closing tag of the time log with a few new entries
+        File f = new File(dir, TIMELOG);
+        String contents = new String(FileUtils.slurpContents(
+            new java.io.FileInputStream(f), true), "UTF-8");
+        contents = contents.substring(0, contents.lastIndexOf("</"))
+                + timeLog(4000, 5).substring(TIMELOG_HEADER.length());
+        writeFile(dir, TIMELOG, contents);
+        f.setLastModified(f.lastModified() + 10000);
+    }
+
+    private void assertSameContents(String name) throws IOException {
+        byte[] expected = FileUtils.slurpContents(new java.io.FileInputStream(
+                new File(serverDir, name)), true);
+        byte[] actual = FileUtils.slurpContents(new java.io.FileInputStream(
+                new File(localDir, name)), true);
+        assertTrue(name, java.util.Arrays.equals(expected, actual));
+    }
+
+    private static final String TIMELOG_HEADER = "<?xml version='1.0' "
+            + "encoding='UTF-8'?>\n<timeLogEntries>\n";
+
+    private String timeLog(int firstID, int numEntries) {
+        StringBuilder result = new StringBuilder(TIMELOG_HEADER);
+        for (int i = 0; i < numEntries; i++) {
+            result.append("<time id='").append(firstID + i)
+                    .append("' path='/Project/Component ")
+                    .append(random.nextInt(1000)).append("/Code' start='")
+                    .append(Long.toString(random.nextLong(), 36))
+                    .append("' delta='").append(random.nextInt(120))
+                    .append("'/>\n");
+        }
+        result.append("</timeLogEntries>\n");
+        return result.toString();
+    }
+
+    private String dataFile(int numLines) {
+        StringBuilder result = new StringBuilder("#include <foo/dataFile.txt>\n");
+        for (int i = 0; i < numLines; i++)
+            result.append("Value ").append(i).append("==")
+                    .append(random.nextDouble()).append("\n");
+        return result.toString();
+    }
+
+    private static void writeFile(File dir, String name, String contents)
+            throws IOException {
+        java.io.OutputStream out = new java.io.FileOutputStream(new File(dir,
+                name));
+        out.write(contents.getBytes("UTF-8"));
+        out.close();
+    }
+
+    private static File createTempDir(String prefix) throws IOException {
+        File result = File.createTempFile(prefix, "");
+        result.delete();
+        result.mkdir();
+        return result;
+    }
+
+}
@@ -0,0 +1,156 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.bridge.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class BlockDeltaTest extends TestCase {
+
+    private Random random = new Random(17);
+
+    public void testIdenticalData() throws Exception {
+        byte[] data = randomBytes(100000);
+        assertEquals(0, roundTrip(data, data));
+    }
+
+    public void testAppendedData() throws Exception {
+        byte[] base = randomBytes(100000);
+        byte[] data = concat(base, randomBytes(300));
+        // only the appended bytes and the short final block are resent
+        assertTrue(roundTrip(base, data) < 300 + base.length % 512 + 1);
+    }
+
+    public void testInsertedAndDeletedData() throws Exception {
+        byte[] base = randomBytes(200000);
+        byte[] data = concat(slice(base, 0, 50000), randomBytes(77),
+            slice(base, 50000, 120000), slice(base, 130000, 200000));
+        assertTrue(roundTrip(base, data) < 77 + 2 * 1024);
+    }
+
+    public void testUnrelatedData() throws Exception {
+        byte[] base = randomBytes(5000);
+        byte[] data = randomBytes(7000);
+        assertEquals(data.length, roundTrip(base, data));
+    }
+
+    public void testEmptyData() throws Exception {
+        byte[] data = randomBytes(3000);
+        assertEquals(0, roundTrip(data, new byte[0]));
+        assertEquals(data.length, roundTrip(new byte[0], data));
+        assertEquals(0, roundTrip(new byte[0], new byte[0]));
+    }
+
+    public void testRepetitiveData() throws Exception {
+        byte[] base = new byte[20000];
+        Arrays.fill(base, (byte) 'x');
+        byte[] data = concat(base, "y".getBytes(), base);
+        assertTrue(roundTrip(base, data) < 2 * 1024);
+    }
+
+    public void testSignatureRoundTrip() throws Exception {
+        byte[] data = randomBytes(12345);
+        BlockSignature sig = BlockSignature.compute(data, data.length);
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        sig.write(new DataOutputStream(buf));
+        BlockSignature read = BlockSignature.read(new DataInputStream(
+                new ByteArrayInputStream(buf.toByteArray())));
+        assertEquals(sig.getBlockSize(), read.getBlockSize());
+        assertEquals(sig.getLength(), read.getLength());
+        for (int b = 0; b < sig.getNumBlocks(); b++) {
+            assertEquals(sig.getWeakSum(b), read.getWeakSum(b));
+            assertEquals(sig.getStrongSum(b), read.getStrongSum(b));
+        }
+    }
+
+    public void testRollingChecksum() {
+        byte[] data = randomBytes(2000);
+        int len = 512;
+        int sum = BlockSignature.weakSum(data, 0, len);
+        for (int pos = 1; pos + len <= data.length; pos++) {
+            sum = BlockSignature.rollWeakSum(sum, len, data[pos - 1],
+                data[pos + len - 1]);
+            assertEquals(BlockSignature.weakSum(data, pos, len), sum);
+        }
+    }
+
+    public void testStaleBaseIsDetected() throws Exception {
+        byte[] base = randomBytes(50000);
+        byte[] data = concat(base, randomBytes(10));
+        BlockSignature sig = BlockSignature.compute(base, base.length);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        BlockDelta.write(sig, data, data.length, new DataOutputStream(delta));
+
+        // apply the delta to a base that has been truncated
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                delta.toByteArray()));
+        assertFalse(BlockDelta.apply(base, 40000, sig.getBlockSize(), in,
+            new ByteArrayOutputStream()));
+        assertEquals(-1, in.read());
+    }
+
+    /** @return the number of literal bytes in the delta */
+    private int roundTrip(byte[] base, byte[] data) throws Exception {
+        BlockSignature sig = BlockSignature.compute(base, base.length);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        int literalBytes = BlockDelta.write(sig, data, data.length,
+            new DataOutputStream(delta));
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                delta.toByteArray()));
+        assertTrue(BlockDelta.apply(base, base.length, sig.getBlockSize(),
+            in, result));
+        assertEquals(-1, in.read());
+        assertTrue(Arrays.equals(data, result.toByteArray()));
+        return literalBytes;
+    }
+
+    private byte[] randomBytes(int len) {
+        byte[] result = new byte[len];
+        random.nextBytes(result);
+        return result;
+    }
+
+    private static byte[] slice(byte[] data, int start, int end) {
+        byte[] result = new byte[end - start];
+        System.arraycopy(data, start, result, 0, result.length);
+        return result;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (byte[] part : parts)
+            result.write(part, 0, part.length);
+        return result.toByteArray();
+    }
+
+}
@@ -0,0 +1,199 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.tool.export.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import net.sourceforge.processdash.data.repository.DataRepository;
+import net.sourceforge.processdash.log.time.ImportedTimeLogManager;
+import net.sourceforge.processdash.log.time.TimeLogEntryVO;
+import net.sourceforge.processdash.log.time.TimeLogWriter;
+import net.sourceforge.processdash.team.group.UserGroupManagerDash;
+import net.sourceforge.processdash.util.FileUtils;
+
+/**
+ * Measures the time needed to import a set of team member PDASH archives,
+ * as a team dashboard does at startup, with the archive sections read
+ * sequentially and in parallel.
+ *
+ * The generated archives are deterministic, so results from different runs
+ * and different builds can be compared.
+ *
+ * Usage: <tt>ArchiveImportBenchmark [numArchives] [tasksPerArchive] [rounds]</tt>
+ */
+public class ArchiveImportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numArchives = (args.length > 0 ? Integer.parseInt(args[0]) : 100);
+        int numTasks = (args.length > 1 ? Integer.parseInt(args[1]) : 200);
+        int rounds = (args.length > 2 ? Integer.parseInt(args[2]) : 3);
+
+        File dir = File.createTempFile("pdash", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            List<File> archives = new ArrayList<File>();
+            Random r = new Random(42);
+            for (int i = 0; i < numArchives; i++)
+                archives.add(writeArchive(dir, i, numTasks, r));
+            UserGroupManagerDash.install();
+            System.out.println("Generated " + numArchives + " archives with "
+                    + numTasks + " tasks each");
+
+            for (int round = 0; round < rounds; round++) {
+                long serial = importAll(archives, false);
+                long parallel = importAll(archives, true);
+                System.out.println("round " + round + ": sequential sections "
+                        + serial + " ms, parallel sections " + parallel
+                        + " ms");
+            }
+        } finally {
+            ImportedTimeLogManager.getInstance().dispose();
+            FileUtils.deleteDirectory(dir, true);
+        }
+    }
+
+    private static long importAll(List<File> archives, boolean parallel)
+            throws IOException {
+        ArchiveMetricsFileImporter.setParallelSections(parallel);
+        DataRepository data = new DataRepository();
+        System.gc();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < archives.size(); i++)
+            new ArchiveMetricsFileImporter(data, archives.get(i),
+                    "/Import/" + i).doImport();
+        long result = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private static File writeArchive(File dir, int num, int numTasks,
+            Random r) throws IOException {
+        File result = new File(dir, "member" + num + ".pdash");
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(
+                result));
+        addEntry(zip, "manifest.xml", manifest(num));
+        addEntry(zip, "data.xml", metrics(numTasks, r));
+        addEntry(zip, "defects.xml", defects(numTasks, r));
+        addEntry(zip, "ev.xml", schedule(num, numTasks, r));
+        zip.putNextEntry(new ZipEntry("timelog.xml"));
+        TimeLogWriter.write(zip, timeLog(numTasks, r).iterator(), false);
+        zip.closeEntry();
+        zip.close();
+        return result;
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name,
+            String contents) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(contents.getBytes("UTF-8"));
+        zip.closeEntry();
+    }
+
+    private static String manifest(int num) {
+        return "<?xml version='1.0' encoding='UTF-8'?>\n"
+                + "<archive type='dashboardDataExport'>"
+                + "<exported byOwner='Member " + num + "' when='@1157919365781'>"
+                + "<withPackage packageID='pspdash' version='2.5' />"
+                + "</exported>"
+                + "<file name='data.xml' type='metrics' version='1' />"
+                + "<file name='defects.xml' type='defects' version='1' />"
+                + "<file name='ev.xml' type='earnedValue' version='1' />"
+                + "<file name='timelog.xml' type='timeLog' version='1' />"
+                + "</archive>";
+    }
+
+    private static String metrics(int numTasks, Random r) {
+        StringBuilder b = new StringBuilder();
+        b.append("<?xml version='1.1' encoding='UTF-8'?>\n<metricsData>");
+        b.append("<node name='Project'>");
+        for (int i = 0; i < numTasks; i++) {
+            b.append("<node name='Task ").append(i).append("'>");
+            b.append("<num name='Estimated Time'>").append(r.nextInt(600))
+                    .append("</num>");
+            b.append("<num name='Time'>").append(r.nextInt(600))
+                    .append("</num>");
+            b.append("<num name='Estimated Size'>").append(r.nextInt(1000))
+                    .append("</num>");
+            b.append("<str name='Owner'>Member</str>");
+            b.append("</node>");
+        }
+        b.append("</node></metricsData>");
+        return b.toString();
+    }
+
+    private static String defects(int numTasks, Random r) {
+        StringBuilder b = new StringBuilder();
+        b.append("<?xml version='1.0' encoding='UTF-8'?>\n<defects>");
+        for (int i = 0; i < numTasks; i++) {
+            b.append("<defect path='/Project/Task ").append(r.nextInt(numTasks))
+                    .append("' date='@").append(1300000000000L + i * 60000L)
+                    .append("' type='Function' inj='Code' rem='Test' ft='")
+                    .append(1 + r.nextInt(60))
+                    .append("' desc='Generated defect' />");
+        }
+        b.append("</defects>");
+        return b.toString();
+    }
+
+    private static String schedule(int num, int numTasks, Random r) {
+        StringBuilder b = new StringBuilder();
+        b.append("<?xml version='1.0' encoding='UTF-8'?>\n<evSchedules>");
+        b.append("<evSchedule name='Schedule ").append(num).append("'>");
+        b.append("<EVModel rct='true' tlid='tl").append(num).append("'>");
+        b.append("<task name='Schedule ").append(num).append("' pt='0' ")
+                .append("at='0' who='Member' flag='plain'>");
+        b.append("<task name='Project' pt='0' at='0'>");
+        for (int i = 0; i < numTasks; i++)
+            b.append("<task name='Task ").append(i).append("' pt='")
+                    .append(r.nextInt(600)).append("' at='")
+                    .append(r.nextInt(600)).append("' />");
+        b.append("</task></task>");
+        b.append("<schedule tpt='0' evt='0' at='0' pt='0' it='0' "
+                + "start='@1157868000000' eff='@1157919365734'>");
+        for (int i = 0; i < 52; i++)
+            b.append("<period end='@").append(1157868000000L + i * 604800000L)
+                    .append("' pt='1200.0' at='0.0' cpv='0' cev='0'/>");
+        b.append("</schedule></EVModel></evSchedule></evSchedules>");
+        return b.toString();
+    }
+
+    private static List<TimeLogEntryVO> timeLog(int numTasks, Random r) {
+        List<TimeLogEntryVO> result = new ArrayList<TimeLogEntryVO>();
+        for (int i = 0; i < numTasks * 5; i++)
+            result.add(new TimeLogEntryVO(i + 1, "/Project/Task "
+                    + r.nextInt(numTasks), new Date(1300000000000L + i
+                    * 3600000L), 1 + r.nextInt(120), 0, null));
+        return result;
+    }
+
+}
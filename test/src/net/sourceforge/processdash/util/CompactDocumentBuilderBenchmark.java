@@ -0,0 +1,200 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Compares the heap and time needed to load a WBS data dump (projDump.xml)
+ * with {@link XMLUtils#parse(InputStream)} and with
+ * {@link CompactDocumentBuilder}, followed by the kind of full traversal
+ * the hierarchy synchronizer performs.
+ *
+ * A synthetic dump with the requested number of WBS nodes is generated, in
+ * the format written by the WBS Editor.  For each approach, the peak heap
+ * usage during the load, the heap retained by the loaded document, and the
+ * elapsed time are printed.  Run with a fixed heap size (for example,
+ * <tt>-Xms1g -Xmx1g</tt>) for comparable numbers.
+ *
+ * Usage: <tt>CompactDocumentBuilderBenchmark [numNodes] [rounds]</tt>
+ */
+public class CompactDocumentBuilderBenchmark {
+
+    private static Document loadedDocument;
+
+    public static void main(String[] args) throws Exception {
+        int numNodes = (args.length > 0 ? Integer.parseInt(args[0]) : 30000);
+        int rounds = (args.length > 1 ? Integer.parseInt(args[1]) : 3);
+
+        File dump = File.createTempFile("projDump", ".xml");
+        try {
+            writeSyntheticDump(dump, numNodes);
+            System.out.println("Generated " + numNodes + " node dump, "
+                    + dump.length() / 1024 + " KB");
+
+            for (int round = 0; round < rounds; round++) {
+                measure("round " + round + ": DOM    ", dump, false);
+                measure("round " + round + ": compact", dump, true);
+            }
+        } finally {
+            dump.delete();
+        }
+    }
+
+    private static void measure(String label, File dump, boolean compact)
+            throws Exception {
+        loadedDocument = null;
+        long baseline = usedHeapAfterGC();
+        resetPeakUsage();
+
+        long start = System.currentTimeMillis();
+        InputStream in = new BufferedInputStream(new FileInputStream(dump));
+        loadedDocument = (compact ? CompactDocumentBuilder.parse(in)
+                : parseDom(in));
+        in.close();
+        int count = walk(loadedDocument.getDocumentElement());
+        long elapsed = System.currentTimeMillis() - start;
+
+        long peak = peakUsage() - baseline;
+        long withDocument = usedHeapAfterGC();
+        loadedDocument = null;
+        long retained = withDocument - usedHeapAfterGC();
+        System.out.println(label + " " + count + " nodes, " + elapsed
+                + " ms, peak heap " + mb(peak) + " MB, retained "
+                + mb(retained) + " MB");
+    }
+
+    /** Parse with the same factory settings as XMLUtils.parse(), but with a
+     * new builder, so no pooled builder keeps the document alive. */
+    private static Document parseDom(InputStream in) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(in);
+    }
+
+    /** Visit every element, reading the attributes the sync logic reads. */
+    private static int walk(Element e) {
+        int count = 1;
+        e.getAttribute("name");
+        e.getAttribute("id");
+        e.getAttribute("time");
+        for (Element child : XMLUtils.getChildElements(e))
+            count += walk(child);
+        return count;
+    }
+
+    private static long usedHeapAfterGC() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        long result = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            System.runFinalization();
+            Thread.sleep(50);
+            result = Math.min(result, rt.totalMemory() - rt.freeMemory());
+        }
+        return result;
+    }
+
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+    }
+
+    private static long peakUsage() {
+        long result = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                result += pool.getPeakUsage().getUsed();
+        return result;
+    }
+
+    private static String mb(long bytes) {
+        return Long.toString(Math.round(bytes / (1024.0 * 1024)));
+    }
+
+    /** Write a dump with components, tasks and PSP tasks, assigned to a
+     * small team, in the layout produced by the WBS Editor. */
+    private static void writeSyntheticDump(File f, int numNodes)
+            throws IOException {
+        String[] initials = { "ab", "cd", "ef", "gh", "ij", "kl", "mn", "op" };
+        String[] phases = { "Req", "HLD", "Design", "Code", "Code Inspect",
+                "Test" };
+        Random r = new Random(42);
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(f), "UTF-8"));
+        out.println("<?xml version='1.0' encoding='UTF-8'?>");
+        out.println("<project name='Synthetic' id='0' tid='1234:0'"
+                + " dumpFileVersion='3' dumpTimestamp='@1500000000000'>");
+        int id = 1;
+        while (id < numNodes) {
+            out.println("  <component name='Component " + id + "' id='" + id
+                    + "' tid='1234:" + id + "' labels='Release 1'>");
+            id++;
+            for (int t = 0; t < 25 && id < numNodes; t++, id++) {
+                String who = initials[r.nextInt(initials.length)];
+                String time = who + "=" + r.nextInt(40) + ".0";
+                if (r.nextInt(5) == 0)
+                    out.println("    <psp name='PSP Task " + id + "' id='"
+                            + id + "' tid='1234:" + id + "' time='" + time
+                            + "' syncTime='" + time + "' sizeUnits='LOC'/>");
+                else if (r.nextInt(10) == 0) {
+                    out.println("    <task name='Task " + id + "' id='" + id
+                            + "' tid='1234:" + id + "' phaseName='"
+                            + phases[t % phases.length] + "' time='" + time
+                            + "' mid='3'>");
+                    out.println("      <note author='" + who
+                            + "' timestamp='@1500000000000' format='text'>"
+                            + "Note for task " + id + "</note>");
+                    out.println("    </task>");
+                } else
+                    out.println("    <task name='Task " + id + "' id='" + id
+                            + "' tid='1234:" + id + "' phaseName='"
+                            + phases[t % phases.length] + "' time='" + time
+                            + "' mid='3'/>");
+            }
+            out.println("  </component>");
+        }
+        out.println("</project>");
+        out.close();
+    }
+
+}
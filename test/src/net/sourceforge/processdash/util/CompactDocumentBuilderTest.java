@@ -0,0 +1,110 @@
+// Copyright (C) 2026 Tuma Solutions, LLC
+// Process Dashboard - Data Automation Tool for high-maturity processes
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// as published by the Free Software Foundation; either version 3
+// of the License, or (at your option) any later version.
+//
+// Additional permissions also apply; see the README-license.txt
+// file in the project root directory for more information.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, see <http://www.gnu.org/licenses/>.
+//
+// The author(s) may be contacted at:
+//     processdash@tuma-solutions.com
+//     processdash-devel@lists.sourceforge.net
+
+
+package net.sourceforge.processdash.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import junit.framework.TestCase;
+
+public class CompactDocumentBuilderTest extends TestCase {
+
+    private static final String XML = "<?xml version='1.0' encoding='UTF-8'?>\n"
+            + "<project name='P' id='0'>\n"
+            + "  <component name='A' id='1' labels='x'>\n"
+            + "    <task name='A1' id='2' time='ab=3.0'/>\n"
+            + "    <task name='A2' id='3' time='ab=3.0'>\n"
+            + "      <note format='text'>  Some &amp; note\n text  </note>\n"
+            + "      <note format='text'>   </note>\n"
+            + "    </task>\n"
+            + "  </component>\n"
+            + "  <!-- comment -->\n"
+            + "  <component name='B' id='4' labels='x'/>\n"
+            + "</project>\n";
+
+    public void testMatchesDomStructure() throws Exception {
+        Document dom = XMLUtils.parse(XML);
+        Document compact = parse(XML);
+        assertSameElements(dom.getDocumentElement(),
+            compact.getDocumentElement());
+    }
+
+    public void testWhitespaceBetweenElementsIsDropped() throws Exception {
+        Element project = parse(XML).getDocumentElement();
+        for (Node n = project.getFirstChild(); n != null; n = n
+                .getNextSibling())
+            assertTrue(n instanceof Element);
+    }
+
+    public void testTextContentIsPreserved() throws Exception {
+        Element project = parse(XML).getDocumentElement();
+        Element task = XMLUtils.getChildElements(
+            XMLUtils.getChildElements(project).get(0)).get(1);
+        List<Element> notes = XMLUtils.getChildElements(task);
+        assertEquals("  Some & note\n text  ",
+            XMLUtils.getTextContents(notes.get(0)));
+        assertEquals("   ", XMLUtils.getTextContents(notes.get(1)));
+    }
+
+    public void testAttributeValuesAreShared() throws Exception {
+        Element project = parse(XML).getDocumentElement();
+        List<Element> components = XMLUtils.getChildElements(project);
+        assertSame(components.get(0).getAttribute("labels"),
+            components.get(1).getAttribute("labels"));
+    }
+
+    public void testDocumentIsModifiable() throws Exception {
+        Element project = parse(XML).getDocumentElement();
+        Element component = XMLUtils.getChildElements(project).get(0);
+        project.removeChild(component);
+        component.setAttribute("pruned", "true");
+        assertEquals(1, XMLUtils.getChildElements(project).size());
+        assertEquals("true", component.getAttribute("pruned"));
+    }
+
+    private Document parse(String xml) throws Exception {
+        return CompactDocumentBuilder.parse(new ByteArrayInputStream(xml
+                .getBytes("UTF-8")));
+    }
+
+    private void assertSameElements(Element expected, Element actual) {
+        assertEquals(expected.getTagName(), actual.getTagName());
+        assertEquals(XMLUtils.getAttributesAsMap(expected),
+            XMLUtils.getAttributesAsMap(actual));
+        List<Element> expectedChildren = XMLUtils.getChildElements(expected);
+        List<Element> actualChildren = XMLUtils.getChildElements(actual);
+        assertEquals(expectedChildren.size(), actualChildren.size());
+        if (expectedChildren.isEmpty())
+            assertEquals(XMLUtils.getTextContents(expected),
+                XMLUtils.getTextContents(actual));
+        for (int i = 0; i < expectedChildren.size(); i++)
+            assertSameElements(expectedChildren.get(i), actualChildren.get(i));
+    }
+
+}